@@ -0,0 +1,56 @@
+package blockchain.node.mine;
+
+import blockchain.block.Block;
+import blockchain.block.GenesisBlock;
+import org.openjdk.jmh.annotations.*;
+import util.BytesUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업 증명 해시 1회 비용 비교
+ * - legacy: Block.setNonce(전체 헤더 재해시) + 16진수 문자열 타겟 비교 (기존 mineBlock 방식)
+ * - midstate: MiningHasher + 바이트 타겟 비교
+ *
+ * 실행: ./gradlew jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PowHashBenchmark {
+
+    private static final int DIFFICULTY = 6;
+
+    private Block block;
+    private MiningHasher hasher;
+    private byte[] target;
+    private String targetString;
+    private int nonce;
+
+    @Setup
+    public void setUp() {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        block = new Block(genesis.getBlockHash(), genesis.getTransactions(), new byte[]{0, 0, 0, 1});
+        hasher = new MiningHasher(block.getHeaderBytes());
+        target = ProofOfWork.getTarget(DIFFICULTY);
+        targetString = "0".repeat(DIFFICULTY) + "f".repeat(64 - DIFFICULTY);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        block.setNonce(BytesUtil.intToBytes(nonce++, 4));
+        StringBuilder sb = new StringBuilder();
+        for (byte b : block.getBlockHash()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString().compareTo(targetString) < 0;
+    }
+
+    @Benchmark
+    public boolean midstate() {
+        return ProofOfWork.isBelowTarget(hasher.hash(nonce++), target);
+    }
+}
@@ -20,6 +20,7 @@ public class Block implements Serializable {
     private final byte[] merkleRoot;
     private byte[] nonce;
     private final long timestamp;
+    private final int bits;             // 압축 난이도 타겟 (0 = 타겟 없는 이전 버전 블록)
     private final List<Transaction> transactions;
     private byte[] blockHash;
 
@@ -30,11 +31,20 @@ public class Block implements Serializable {
 
     // 제네시스 블록용 생성자 (고정된 타임스탬프 사용)
     public Block(byte[] prevHash, List<Transaction> transactions, byte[] version, long timestamp) {
+        this(prevHash, transactions, version, timestamp, 0);
+    }
+
+    /**
+     * 난이도 타겟을 포함하는 블록 생성자
+     * @param bits 압축 난이도 타겟 (버전 2 이상 블록에서 헤더에 포함)
+     */
+    public Block(byte[] prevHash, List<Transaction> transactions, byte[] version, long timestamp, int bits) {
         this.prevHash = prevHash;
         this.transactions = transactions;
         this.txNum = transactions.size();
         this.version = version;
         this.timestamp = timestamp;  // 파라미터로 받은 타임스탬프 사용
+        this.bits = bits;
         this.merkleRoot = calculateMerkleRoot(transactions);
         this.nonce = new byte[4];
         this.size = calculateBlockSize();
@@ -66,7 +76,8 @@ public class Block implements Serializable {
             @JsonProperty("nonce") byte[] nonce,
             @JsonProperty("timestamp") long timestamp,
             @JsonProperty("transactions") List<Transaction> transactions,
-            @JsonProperty("blockHash") byte[] blockHash) {
+            @JsonProperty("blockHash") byte[] blockHash,
+            @JsonProperty("bits") int bits) {
         this.prevHash = prevHash;
         this.txNum = txNum;
         this.size = size;
@@ -76,6 +87,7 @@ public class Block implements Serializable {
         this.timestamp = timestamp;
         this.transactions = transactions;
         this.blockHash = blockHash;
+        this.bits = bits;
     }
     private byte[] calculateMerkleRoot(List<Transaction> transactions) {
         return MerkleTree.calculateMerkleRoot(transactions);
@@ -86,20 +98,54 @@ public class Block implements Serializable {
         return Hash.HASH256(headerBytes);
     }
 
-    private byte[] getHeaderBytes() {
-        // 버전(4) + 이전해시(32) + 머클루트(32) + 타임스탬프(4) + nonce(4) = 76 bytes
-        ByteBuffer buffer = ByteBuffer.allocate(76);
+    // 헤더 크기 (nonce는 항상 헤더의 마지막 4바이트)
+    public static final int HEADER_SIZE = 80;
+    public static final int LEGACY_HEADER_SIZE = 76;
+    public static final int NONCE_SIZE = 4;
+
+    // bits가 헤더에 포함되는 최소 블록 버전
+    public static final int BITS_VERSION = 2;
+
+    // bits 없는 이전 버전 블록이 허용되는 마지막 높이 (제네시스만)
+    public static final int LAST_LEGACY_HEIGHT = 0;
+
+    /**
+     * 직렬화된 블록 헤더 (해시 대상)
+     */
+    public byte[] getHeaderBytes() {
+        return serializeHeader(version, prevHash, merkleRoot, timestamp, bits, nonce);
+    }
+
+    /**
+     * 헤더 직렬화
+     * 버전(4) + 이전해시(32) + 머클루트(32) + 타임스탬프(4) + [bits(4)] + nonce(4)
+     * 버전 1 블록은 bits 없이 76바이트 (기존 블록 해시 유지), 버전 2부터 80바이트
+     */
+    public static byte[] serializeHeader(byte[] version, byte[] prevHash, byte[] merkleRoot,
+                                         long timestamp, int bits, byte[] nonce) {
+        boolean hasBits = hasBitsInHeader(version);
+        ByteBuffer buffer = ByteBuffer.allocate(hasBits ? HEADER_SIZE : LEGACY_HEADER_SIZE);
         buffer.put(version);                                    // 4 bytes
         buffer.put(prevHash);                                   // 32 bytes
         buffer.put(merkleRoot);                                 // 32 bytes
         buffer.put(BytesUtil.intToBytes((int)timestamp, 4));   // 4 bytes
+        if (hasBits) {
+            buffer.putInt(bits);                                // 4 bytes
+        }
         buffer.put(nonce);                                      // 4 bytes
         return buffer.array();
     }
 
+    /**
+     * 헤더에 bits가 포함되는 버전인지 확인
+     */
+    public static boolean hasBitsInHeader(byte[] version) {
+        return version != null && BytesUtil.bytesToInt(version) >= BITS_VERSION;
+    }
+
 
     private int calculateBlockSize() {
-        int headerSize = 76; // 블록 헤더 크기
+        int headerSize = hasBitsInHeader(version) ? HEADER_SIZE : LEGACY_HEADER_SIZE; // 블록 헤더 크기
         int txSize = 0;
         for (Transaction tx : transactions) {
             txSize += tx.toBytes().length;
@@ -152,6 +198,10 @@ public class Block implements Serializable {
         return size;
     }
 
+    public byte[] getVersion() {
+        return version;
+    }
+
     public byte[] getMerkleRoot() {
         return merkleRoot;
     }
@@ -164,6 +214,10 @@ public class Block implements Serializable {
         return timestamp;
     }
 
+    public int getBits() {
+        return bits;
+    }
+
 
     public byte[] getBlockHash() {
         return blockHash;
@@ -0,0 +1,133 @@
+package blockchain.block;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import util.Hash;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * 블록 헤더 (트랜잭션 본문 제외)
+ * 노드 시작 시 전체 블록 대신 헤더만 메모리에 로드하기 위해 사용
+ */
+public class BlockHeader implements Serializable {
+    private final int height;
+    private final byte[] version;
+    private final byte[] prevHash;
+    private final byte[] merkleRoot;
+    private final long timestamp;
+    private final byte[] nonce;
+    private final byte[] blockHash;
+    private final int txNum;
+    private final int size;
+    private final int bits;
+    private final BigInteger chainWork;     // 제네시스부터 이 블록까지의 누적 작업량 (알 수 없으면 null)
+
+    public BlockHeader(Block block, int height) {
+        this(block, height, null);
+    }
+
+    public BlockHeader(Block block, int height, BigInteger chainWork) {
+        this.height = height;
+        this.version = block.getVersion();
+        this.prevHash = block.getPrevHash();
+        this.merkleRoot = block.getMerkleRoot();
+        this.timestamp = block.getTimestamp();
+        this.nonce = block.getNonce();
+        this.blockHash = block.getBlockHash();
+        this.txNum = block.getTxNum();
+        this.size = block.getSize();
+        this.bits = block.getBits();
+        this.chainWork = chainWork;
+    }
+
+    /**
+     * Jackson 역직렬화용 생성자
+     */
+    @JsonCreator
+    public BlockHeader(
+            @JsonProperty("height") int height,
+            @JsonProperty("version") byte[] version,
+            @JsonProperty("prevHash") byte[] prevHash,
+            @JsonProperty("merkleRoot") byte[] merkleRoot,
+            @JsonProperty("timestamp") long timestamp,
+            @JsonProperty("nonce") byte[] nonce,
+            @JsonProperty("blockHash") byte[] blockHash,
+            @JsonProperty("txNum") int txNum,
+            @JsonProperty("size") int size,
+            @JsonProperty("bits") int bits,
+            @JsonProperty("chainWork") BigInteger chainWork) {
+        this.height = height;
+        this.version = version;
+        this.prevHash = prevHash;
+        this.merkleRoot = merkleRoot;
+        this.timestamp = timestamp;
+        this.nonce = nonce;
+        this.blockHash = blockHash;
+        this.txNum = txNum;
+        this.size = size;
+        this.bits = bits;
+        this.chainWork = chainWork;
+    }
+
+    /**
+     * 누적 작업량을 지정한 복사본
+     */
+    public BlockHeader withChainWork(BigInteger chainWork) {
+        return new BlockHeader(height, version, prevHash, merkleRoot, timestamp, nonce, blockHash, txNum, size, bits, chainWork);
+    }
+
+    /**
+     * 헤더 해시 재계산 (본문 없이 헤더만으로 검증할 때 사용)
+     */
+    public byte[] calculateBlockHash() {
+        return Hash.HASH256(Block.serializeHeader(version, prevHash, merkleRoot, timestamp, bits, nonce));
+    }
+
+    // getter
+
+    public int getHeight() {
+        return height;
+    }
+
+    public byte[] getVersion() {
+        return version;
+    }
+
+    public byte[] getPrevHash() {
+        return prevHash;
+    }
+
+    public byte[] getMerkleRoot() {
+        return merkleRoot;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public byte[] getNonce() {
+        return nonce;
+    }
+
+    public byte[] getBlockHash() {
+        return blockHash;
+    }
+
+    public int getTxNum() {
+        return txNum;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public BigInteger getChainWork() {
+        return chainWork;
+    }
+}
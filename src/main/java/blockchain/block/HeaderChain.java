@@ -0,0 +1,216 @@
+package blockchain.block;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메모리 헤더 체인 (높이 -> 헤더)
+ * 난이도 조정, 체인 비교 등 본문이 필요 없는 작업에서
+ * 블록을 Storage에서 읽거나 리스트를 복사하지 않고 높이로 바로 조회하기 위해 사용
+ *
+ * 분기 체인(branch): 분기점까지는 원래 체인을 그대로 참조하고 이후 헤더만 따로 가짐
+ * 재구성 후보 헤더마다 난이도 조정 규칙이 요구하는 타겟을 복사 없이 계산하기 위해 사용
+ */
+public class HeaderChain {
+
+    // 블록 로케이터: tip부터 촘촘하게 담다가 이후 간격을 두 배씩 늘림
+    private static final int LOCATOR_DENSE_COUNT = 10;
+
+    private final List<BlockHeader> headers = new ArrayList<>();
+    private final Map<ByteBuffer, Integer> heightByHash = new HashMap<>();   // 블록 해시 -> 높이
+
+    // 분기 체인이면 baseHeight 이하 높이는 base에서 조회 (분기 체인이 아니면 null / -1)
+    private final HeaderChain base;
+    private final int baseHeight;
+
+    public HeaderChain() {
+        this(null, -1);
+    }
+
+    private HeaderChain(HeaderChain base, int baseHeight) {
+        this.base = base;
+        this.baseHeight = baseHeight;
+    }
+
+    /**
+     * 분기점 위에 헤더를 쌓는 분기 체인 생성
+     * 분기 체인을 쓰는 동안 이 체인의 분기점 이하 헤더는 바뀌지 않아야 함
+     * @param forkHeight 공통 조상 높이
+     */
+    public HeaderChain branch(int forkHeight) {
+        if (forkHeight < 0 || forkHeight >= size()) {
+            throw new IllegalArgumentException("Fork height " + forkHeight + " outside chain of length " + size());
+        }
+        return new HeaderChain(this, forkHeight);
+    }
+
+    /**
+     * tip 다음 높이에 헤더 추가
+     * @param header 추가할 헤더 (height는 현재 길이와 같아야 함)
+     */
+    public synchronized void add(BlockHeader header) {
+        if (header.getHeight() != size()) {
+            throw new IllegalArgumentException("Header height " + header.getHeight()
+                    + " does not extend chain of length " + size());
+        }
+        headers.add(header);
+        heightByHash.put(ByteBuffer.wrap(header.getBlockHash()), header.getHeight());
+    }
+
+    /**
+     * 전체 헤더 교체 (체인 교체 / 로드 시)
+     * @param newHeaders 높이 순 헤더 리스트
+     */
+    public synchronized void reset(List<BlockHeader> newHeaders) {
+        headers.clear();
+        heightByHash.clear();
+        for (BlockHeader header : newHeaders) {
+            headers.add(header);
+            heightByHash.put(ByteBuffer.wrap(header.getBlockHash()), header.getHeight());
+        }
+    }
+
+    /**
+     * 분기점 이후 헤더 교체 (체인 재구성)
+     * 분기점 이하는 그대로 두고 바뀐 부분만 갱신 - 재구성 깊이에 비례
+     * @param forkHeight 공통 조상 높이
+     * @param newHeaders 분기점 다음 높이부터의 새 헤더
+     */
+    public synchronized void replaceAfter(int forkHeight, List<BlockHeader> newHeaders) {
+        if (base != null) {
+            throw new IllegalStateException("Branch chains are not rewritten in place");
+        }
+        while (headers.size() > forkHeight + 1) {
+            BlockHeader removed = headers.removeLast();
+            heightByHash.remove(ByteBuffer.wrap(removed.getBlockHash()));
+        }
+        for (BlockHeader header : newHeaders) {
+            add(header);
+        }
+    }
+
+    /**
+     * 높이로 헤더 조회
+     * @return 헤더 (범위 밖이면 null)
+     */
+    public synchronized BlockHeader get(int height) {
+        if (height < 0 || height >= size()) {
+            return null;
+        }
+        if (height <= baseHeight) {
+            return base.get(height);
+        }
+        return headers.get(height - baseHeight - 1);
+    }
+
+    /**
+     * 블록 해시로 메인 체인 높이 조회
+     * @return 높이 (메인 체인에 없으면 -1)
+     */
+    public synchronized int getHeight(byte[] blockHash) {
+        Integer height = heightByHash.get(ByteBuffer.wrap(blockHash));
+        if (height != null) {
+            return height;
+        }
+        if (base != null) {
+            int baseHeightOfHash = base.getHeight(blockHash);
+            return baseHeightOfHash <= baseHeight ? baseHeightOfHash : -1;
+        }
+        return -1;
+    }
+
+    public synchronized boolean contains(byte[] blockHash) {
+        return getHeight(blockHash) >= 0;
+    }
+
+    public synchronized BlockHeader getTip() {
+        return get(size() - 1);
+    }
+
+    public synchronized int size() {
+        return baseHeight + 1 + headers.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // ========== 블록 로케이터 (헤더 동기화) ==========
+
+    /**
+     * 블록 로케이터 생성
+     * tip부터 10개는 연속으로, 이후에는 간격을 두 배씩 늘려 제네시스까지 포함
+     * 상대는 이 중 자신의 메인 체인에 있는 첫 해시를 분기점으로 사용 (O(log n) 크기)
+     * @return tip -> 제네시스 순 블록 해시
+     */
+    public synchronized List<byte[]> getLocator() {
+        List<byte[]> locator = new ArrayList<>();
+        int step = 1;
+        int height = size() - 1;
+
+        while (height > 0) {
+            locator.add(get(height).getBlockHash());
+            if (locator.size() >= LOCATOR_DENSE_COUNT) {
+                step *= 2;
+            }
+            height -= step;
+        }
+        if (!isEmpty()) {
+            locator.add(get(0).getBlockHash());
+        }
+        return locator;
+    }
+
+    /**
+     * 로케이터와 공통인 가장 높은 블록 높이 (분기점)
+     * @param locator 상대의 블록 로케이터
+     * @return 분기점 높이 (공통 블록이 없으면 -1)
+     */
+    public synchronized int findFork(List<byte[]> locator) {
+        for (byte[] hash : locator) {
+            int height = getHeight(hash);
+            if (height >= 0) {
+                return height;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 로케이터 분기점 다음부터 최대 maxCount개 헤더 조회
+     * @param locator 상대의 블록 로케이터
+     * @param maxCount 최대 헤더 수
+     * @return 분기점 이후 헤더 (공통 블록이 없으면 제네시스부터)
+     */
+    public synchronized List<BlockHeader> getHeadersAfter(List<byte[]> locator, int maxCount) {
+        int from = findFork(locator) + 1;
+        int to = Math.min(size(), from + maxCount);
+        List<BlockHeader> result = new ArrayList<>(Math.max(0, to - from));
+        for (int height = from; height < to; height++) {
+            result.add(get(height));
+        }
+        return result;
+    }
+
+    // ========== 높이별 필드 조회 (난이도 조정용) ==========
+
+    public synchronized long getTimestamp(int height) {
+        return get(height).getTimestamp();
+    }
+
+    public synchronized int getBits(int height) {
+        return get(height).getBits();
+    }
+
+    /**
+     * tip의 누적 작업량 (비어 있으면 0)
+     */
+    public synchronized BigInteger getChainWork() {
+        BlockHeader tip = getTip();
+        return tip == null ? BigInteger.ZERO : tip.getChainWork();
+    }
+}
@@ -25,17 +25,16 @@ public class BlockCommand implements Command{
         }
 
         Node node = context.getNode();
-        List<Block> chain = node.getBlockList();
 
         try {
             int height = Integer.parseInt(args[0]);
 
-            if (height < 0 || height >= chain.size()) {
-                System.out.println("   Invalid block height. Chain height: " + (chain.size() - 1));
+            if (height < 0 || height >= node.getChainLength()) {
+                System.out.println("   Invalid block height. Chain height: " + (node.getChainLength() - 1));
                 return;
             }
 
-            Block block = chain.get(height);
+            Block block = node.getBlockAtHeight(height);
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
             System.out.println("\n╔════════════════════════════════════════════════════╗");
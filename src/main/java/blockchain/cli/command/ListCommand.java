@@ -1,12 +1,11 @@
 package blockchain.cli.command;
 
-import blockchain.block.Block;
+import blockchain.block.BlockHeader;
 import blockchain.node.Node;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
 
 public class ListCommand implements Command{
     @Override
@@ -17,7 +16,6 @@ public class ListCommand implements Command{
         }
 
         Node node = context.getNode();
-        List<Block> chain = node.getBlockList();
 
         try {
             int start = 0;
@@ -31,7 +29,7 @@ public class ListCommand implements Command{
             }
 
             // 최신 블록부터 표시하기 위해 역순
-            int totalBlocks = chain.size();
+            int totalBlocks = node.getChainLength();
             int fromIndex = Math.max(0, totalBlocks - start - count);
             int toIndex = Math.max(0, totalBlocks - start);
 
@@ -47,14 +45,14 @@ public class ListCommand implements Command{
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
             for (int i = toIndex - 1; i >= fromIndex; i--) {
-                Block block = chain.get(i);
+                BlockHeader block = node.getHeaderAtHeight(i);
 
                 System.out.println("   Block #" + i);
                 System.out.println("   Hash:      " + bytesToHex(block.getBlockHash()).substring(0, 32) + "...");
                 System.out.println("   Prev:      " + bytesToHex(block.getPrevHash()).substring(0, 32) + "...");
                 System.out.println("   Time:      " + sdf.format(new Date(block.getTimestamp())));
                 System.out.println("   Nonce:     " + Arrays.toString(block.getNonce()));
-                System.out.println("   TX Count:  " + block.getTransactions().size());
+                System.out.println("   TX Count:  " + block.getTxNum());
                 System.out.println();
             }
 
@@ -17,61 +17,54 @@ public class MineCommand implements Command{
 
         Node node = context.getNode();
         Mempool mempool = context.getMempool();
+        Miner miner = null;
 
         try {
-            // 난이도 설정 (기본값: 3)
-            int difficulty = 3;
-            if (args.length > 0) {
-                difficulty = Integer.parseInt(args[0]);
-                if (difficulty < 1 || difficulty > 6) {
-                    System.out.println("   Difficulty should be between 1 and 6. Using default: 3");
-                    difficulty = 3;
-                }
-            }
-
+            // 타겟은 헤더 체인의 난이도 조정 규칙으로 결정 (모든 노드가 같은 값을 계산)
             System.out.println("   Mining new block...");
-            System.out.println("   Difficulty: " + difficulty + " (target: " + "0".repeat(difficulty) + "...)");
+            System.out.println("   Target bits: " + String.format("0x%08x", node.getNextBits()));
             System.out.println("   Pending transactions: " + mempool.getAllTransactions().size());
 
             // 채굴 시작 시간
             long startTime = System.currentTimeMillis();
 
             // Miner 생성 및 채굴
-            Miner miner = new Miner(node, mempool, difficulty);
+            miner = new Miner(node, mempool);
             long reward = 50_00000000L; // 50 BTC (satoshi 단위)
             Block minedBlock = miner.mineNewBlock(reward);
 
             long endTime = System.currentTimeMillis();
             double elapsed = (endTime - startTime) / 1000.0;
 
-            if (minedBlock != null) {
-                // 블록 추가 (브로드캐스트 포함)
-                boolean added = node.addBlock(minedBlock, true);
-
-                if (added) {
-                    System.out.println("   Block mined successfully!");
-                    System.out.println("   Block Hash: " + bytesToHex(minedBlock.getBlockHash()));
-                    System.out.println("   Nonce: " + Arrays.toString(minedBlock.getNonce()));
-                    System.out.println("   Transactions: " + minedBlock.getTransactions().size());
-                    System.out.println("   Mining time: " + String.format("%.2f", elapsed) + " seconds");
-                    System.out.println("   Reward: " + reward + " satoshi");
-                    System.out.println("   New balance: " + node.getBalance(node.getAddress()) + " satoshi");
+            double[] hashrates = miner.getThreadHashrates();
+            double totalHashrate = 0;
+            for (double rate : hashrates) {
+                totalHashrate += rate;
+            }
+            System.out.println("   Hash rate: " + String.format("%.0f", totalHashrate) + " H/s ("
+                    + hashrates.length + " threads)");
 
-                    // Mempool 정리
-                    mempool.removeTransactions(minedBlock.getTransactionTxidList());
-                    System.out.println("   Mempool cleared: " + minedBlock.getTransactions().size() + " transactions");
-                } else {
-                    System.out.println("   Failed to add mined block to chain");
-                }
+            // Miner가 블록을 체인에 추가 / 브로드캐스트하고, Mempool은 블록 연결 알림으로 정리됨
+            if (minedBlock != null) {
+                System.out.println("   Block mined successfully!");
+                System.out.println("   Block Hash: " + bytesToHex(minedBlock.getBlockHash()));
+                System.out.println("   Nonce: " + Arrays.toString(minedBlock.getNonce()));
+                System.out.println("   Transactions: " + minedBlock.getTransactions().size());
+                System.out.println("   Mining time: " + String.format("%.2f", elapsed) + " seconds");
+                System.out.println("   Reward: " + reward + " satoshi");
+                System.out.println("   New balance: " + node.getBalance(node.getAddress()) + " satoshi");
+                System.out.println("   Mempool size: " + mempool.size());
             } else {
                 System.out.println("   Mining failed");
             }
 
-        } catch (NumberFormatException e) {
-            System.out.println("   Invalid difficulty: " + args[0]);
         } catch (Exception e) {
             System.out.println("   Mining error: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (miner != null) {
+                miner.shutdown();
+            }
         }
     }
 
@@ -85,7 +78,7 @@ public class MineCommand implements Command{
 
     @Override
     public String getHelp() {
-        return "mine [difficulty] - Mine a new block (default difficulty: 3)";
+        return "mine - Mine a new block (target from the difficulty adjustment rule)";
     }
 
     @Override
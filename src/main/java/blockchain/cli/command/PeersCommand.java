@@ -1,5 +1,8 @@
 package blockchain.cli.command;
 
+import blockchain.network.P2PNetwork;
+import blockchain.network.Peer;
+
 public class PeersCommand implements Command{
     @Override
     public void execute(CommandContext context, String[] args) {
@@ -10,7 +13,8 @@ public class PeersCommand implements Command{
 
         try {
 
-            int peerCount = context.getNode().getP2PNetwork().getPeerCount();
+            P2PNetwork network = context.getNode().getP2PNetwork();
+            int peerCount = network.getPeerCount();
 
             System.out.println("\n╔════════════════════════════════════════╗");
             System.out.println("║          CONNECTED PEERS               ║");
@@ -22,8 +26,14 @@ public class PeersCommand implements Command{
                 System.out.println("   No peers connected");
                 System.out.println("   Use 'connect <host> <port>' to add peers");
             } else {
-                System.out.println("   " + peerCount + " peer(s) connected");
-                System.out.println("   (Detailed peer list not implemented yet)");
+                // 송신 큐: 대기 메시지 / 바이트, 최대 대기 바이트, 보낸 / 버린 메시지 수
+                for (Peer peer : network.getPeers()) {
+                    System.out.println("   " + peer);
+                    System.out.println("      Queue: " + peer.getQueuedMessages() + " msgs, "
+                            + peer.getQueuedBytes() + " bytes (peak " + peer.getPeakQueuedBytes() + ")");
+                    System.out.println("      Sent: " + peer.getSentMessages()
+                            + " | Dropped: " + peer.getDroppedMessages());
+                }
             }
 
             System.out.println();
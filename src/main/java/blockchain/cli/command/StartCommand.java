@@ -1,8 +1,11 @@
 package blockchain.cli.command;
 
 import blockchain.node.Node;
+import blockchain.storage.MempoolSnapshot;
 import blockchain.transaction.Mempool;
 
+import java.nio.file.Path;
+
 public class StartCommand implements Command{
     @Override
     public void execute(CommandContext context, String[] args) {
@@ -12,7 +15,7 @@ public class StartCommand implements Command{
         }
 
         if(args.length < 1) {
-            System.out.println("Usage: start <port> <storage_path>");
+            System.out.println("Usage: start <port> <storage_path> [--rbf]");
             return;
         }
 
@@ -25,14 +28,24 @@ public class StartCommand implements Command{
             context.setNode(node);
             //Mempool 초기화
             Mempool mempool = new Mempool(node.getValidator());
+            // --rbf: 수수료를 더 낸 충돌 트랜잭션의 대체 허용
+            mempool.setReplaceByFee(args.length > 2 && "--rbf".equals(args[2]));
             context.setMempool(mempool);
+            node.setMempool(mempool);
+            // 블록 연결 / 체인 재구성 시 메모리 풀 정리
+            node.addChainListener(mempool);
+            // 이전 실행의 메모리 풀 복원 (백그라운드) / 주기 저장 - 리스너 / 메모리 풀 연결 후 시작
+            MempoolSnapshot snapshot = new MempoolSnapshot(mempool, node.getValidator(),
+                    Path.of(args[1], MempoolSnapshot.FILE_NAME));
+            node.setMempoolSnapshot(snapshot);
+            snapshot.start();
             //네트워크 시작
             node.startP2P();
 
             System.out.println("   Node started successfully!");
             System.out.println("   Address: " + node.getAddress());
             System.out.println("   Balance: " + node.getBalance(node.getAddress()));
-            System.out.println("   Chain height: " + (node.getBlockList().size() - 1));
+            System.out.println("   Chain height: " + (node.getChainLength() - 1));
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -40,7 +53,7 @@ public class StartCommand implements Command{
 
     @Override
     public String getHelp() {
-        return "start <port> [storage_path] - Start a blockchain node";
+        return "start <port> [storage_path] [--rbf] - Start a blockchain node";
     }
 
     @Override
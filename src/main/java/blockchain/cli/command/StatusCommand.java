@@ -3,8 +3,6 @@ package blockchain.cli.command;
 import blockchain.block.Block;
 import blockchain.node.Node;
 
-import java.util.List;
-
 /**
  * 노드 상태 조회 명령
  */
@@ -26,11 +24,10 @@ public class StatusCommand implements Command{
             System.out.println("  Address:    " + node.getAddress());
             System.out.println("  Balance:    " + node.getBalance(node.getAddress()) + "guri");
 
-            List<Block> chain = node.getBlockList();
-            System.out.println("⛓️  Chain:      " + (chain.size() - 1) + " blocks (height)");
+            System.out.println("⛓️  Chain:      " + (node.getChainLength() - 1) + " blocks (height)");
 
-            if (!chain.isEmpty()) {
-                Block latest = chain.getLast();
+            Block latest = node.getLatestBlock();
+            if (latest != null) {
                 System.out.println("  Latest:     " + bytesToHex(latest.getBlockHash()).substring(0, 16) + "...");
             }
 
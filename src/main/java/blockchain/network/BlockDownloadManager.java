@@ -0,0 +1,342 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 블록 본문 병렬 다운로드
+ * 검증된 헤더 목록을 높이 구간(window)으로 나눠 연결된 피어들에게 분배
+ * - 피어당 동시 요청 수 제한 (MAX_IN_FLIGHT_PER_PEER)
+ * - 응답이 없는 구간은 제한 시간 후 다른 피어에게 재할당
+ * - 도착 순서와 무관하게 재정렬 버퍼에서 높이 순으로 연결
+ * - 연결 지점보다 너무 앞선 구간은 요청하지 않음 (버퍼 크기 제한)
+ */
+class BlockDownloadManager {
+
+    static final int WINDOW_SIZE = 16;                  // 요청당 블록 수
+    static final int MAX_IN_FLIGHT_PER_PEER = 4;        // 피어당 동시 요청 구간 수
+    static final long REQUEST_TIMEOUT_MS = 15_000;
+    private static final int MAX_BLOCKS_AHEAD = 1024;   // 연결 지점 이후 요청 가능한 최대 블록 수
+    private static final long TIMEOUT_CHECK_INTERVAL_MS = 1_000;
+
+    /**
+     * 다운로드 결과 수신자
+     */
+    interface Listener {
+        /**
+         * 높이 순으로 블록 전달
+         * @return 연결 성공 여부 (false면 다운로드 중단)
+         */
+        boolean onBlockReady(Block block);
+
+        void onComplete();
+
+        void onFailed(String reason);
+    }
+
+    /**
+     * 요청 구간 [start, end) - 헤더 목록 인덱스 기준
+     */
+    private static class Window {
+        final int start;
+        final int end;
+        Peer peer;              // 할당된 피어 (대기 중이면 null)
+        Peer previousPeer;      // 타임아웃된 피어 (재할당 시 가능하면 피함)
+        long requestedAt;
+        int remaining;
+
+        Window(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final P2PNetwork network;
+    private final ScheduledExecutorService timeoutChecker;
+
+    // 다운로드 세션 상태
+    private List<BlockHeader> headers = new ArrayList<>();
+    private Listener listener;
+    private Block[] reorderBuffer = new Block[0];
+    private Window[] windowByIndex = new Window[0];
+    private final Map<ByteBuffer, Integer> indexByHash = new HashMap<>();
+    private final Deque<Window> queuedWindows = new ArrayDeque<>();
+    private final List<Window> activeWindows = new ArrayList<>();
+    private final Map<Peer, Integer> inFlight = new HashMap<>();
+    private int nextConnectIndex;
+    private int timeouts;
+
+    BlockDownloadManager(P2PNetwork network) {
+        this.network = network;
+        this.timeoutChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "block-download");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeoutChecker.scheduleWithFixedDelay(this::checkTimeouts,
+                TIMEOUT_CHECK_INTERVAL_MS, TIMEOUT_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 다운로드 시작
+     * @param headers 검증된 헤더 (높이 순)
+     * @param listener 블록 전달 / 완료 알림 대상
+     */
+    synchronized void start(List<BlockHeader> headers, Listener listener) {
+        reset();
+        this.headers = new ArrayList<>(headers);
+        this.listener = listener;
+        this.reorderBuffer = new Block[headers.size()];
+        this.windowByIndex = new Window[headers.size()];
+
+        for (int i = 0; i < headers.size(); i++) {
+            indexByHash.put(ByteBuffer.wrap(headers.get(i).getBlockHash()), i);
+        }
+        for (int start = 0; start < headers.size(); start += WINDOW_SIZE) {
+            Window window = new Window(start, Math.min(headers.size(), start + WINDOW_SIZE));
+            Arrays.fill(windowByIndex, window.start, window.end, window);
+            queuedWindows.addLast(window);
+        }
+
+        System.out.println("Downloading " + headers.size() + " blocks in " + queuedWindows.size() + " windows");
+        schedule();
+    }
+
+    synchronized boolean isActive() {
+        return listener != null;
+    }
+
+    /**
+     * BLOCK 처리
+     * @return 다운로드 중인 블록이었는지 여부
+     */
+    synchronized boolean onBlock(Peer peer, Block block) {
+        if (listener == null) {
+            return false;
+        }
+
+        Integer index = indexByHash.get(ByteBuffer.wrap(block.getBlockHash()));
+        if (index == null || index < nextConnectIndex || reorderBuffer[index] != null) {
+            return false;
+        }
+
+        // 재할당 전 피어가 늦게 보낸 블록도 받음 (구간은 현재 담당 피어 기준으로 정리)
+        reorderBuffer[index] = block;
+        Window window = windowByIndex[index];
+        window.remaining--;
+        if (window.remaining == 0 && window.peer != null) {
+            completeWindow(window);
+        }
+
+        connectReadyBlocks();
+        if (listener != null) {
+            schedule();
+        }
+        return true;
+    }
+
+    /**
+     * 피어 연결 종료 시 해당 피어 구간을 대기열 앞으로 되돌림
+     */
+    synchronized void onPeerDisconnected(Peer peer) {
+        if (listener == null) {
+            return;
+        }
+
+        for (Window window : new ArrayList<>(activeWindows)) {
+            if (window.peer == peer) {
+                requeue(window);
+            }
+        }
+        inFlight.remove(peer);
+        schedule();
+    }
+
+    void shutdown() {
+        timeoutChecker.shutdownNow();
+    }
+
+    // ========== 스케줄링 ==========
+
+    /**
+     * 여유가 있는 피어에게 대기 구간 할당 (낮은 높이부터)
+     */
+    private void schedule() {
+        List<Peer> peers = network.getConnectedPeers();
+        if (peers.isEmpty()) {
+            fail("No peers to download from");
+            return;
+        }
+
+        while (!queuedWindows.isEmpty()) {
+            Window window = queuedWindows.peekFirst();
+            if (window.start >= nextConnectIndex + MAX_BLOCKS_AHEAD) {
+                return;
+            }
+
+            Peer peer = selectPeer(peers, window.previousPeer);
+            if (peer == null) {
+                return;
+            }
+
+            queuedWindows.pollFirst();
+            request(window, peer);
+        }
+    }
+
+    /**
+     * 동시 요청 수가 가장 적은 피어 선택 (직전 타임아웃 피어는 다른 피어가 있으면 제외)
+     */
+    private Peer selectPeer(List<Peer> peers, Peer avoid) {
+        Peer best = null;
+        int bestLoad = MAX_IN_FLIGHT_PER_PEER;
+
+        for (Peer peer : peers) {
+            int load = inFlight.getOrDefault(peer, 0);
+            if (load >= MAX_IN_FLIGHT_PER_PEER) {
+                continue;
+            }
+            if (peer == avoid && peers.size() > 1) {
+                continue;
+            }
+            if (best == null || load < bestLoad) {
+                best = peer;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    private void request(Window window, Peer peer) {
+        List<byte[]> hashes = new ArrayList<>(window.end - window.start);
+        window.remaining = 0;
+        for (int i = window.start; i < window.end; i++) {
+            if (reorderBuffer[i] == null && i >= nextConnectIndex) {
+                hashes.add(headers.get(i).getBlockHash());
+                window.remaining++;
+            }
+        }
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        window.peer = peer;
+        window.requestedAt = System.currentTimeMillis();
+        activeWindows.add(window);
+        inFlight.merge(peer, 1, Integer::sum);
+
+        // 전송 실패 시 sendTo가 피어를 제거하고 onPeerDisconnected에서 재할당됨
+        network.sendTo(peer, Message.MessageType.GET_BLOCKS, hashes);
+    }
+
+    private void completeWindow(Window window) {
+        activeWindows.remove(window);
+        inFlight.merge(window.peer, -1, Integer::sum);
+        window.peer = null;
+    }
+
+    private void requeue(Window window) {
+        activeWindows.remove(window);
+        inFlight.merge(window.peer, -1, Integer::sum);
+        window.previousPeer = window.peer;
+        window.peer = null;
+        queuedWindows.addFirst(window);
+    }
+
+    /**
+     * 응답 시간이 초과된 구간 재할당 (낮은 높이 구간이 먼저 오도록 역순으로 앞에 삽입)
+     */
+    private synchronized void checkTimeouts() {
+        if (listener == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Window> expired = new ArrayList<>();
+        for (Window window : activeWindows) {
+            if (now - window.requestedAt > REQUEST_TIMEOUT_MS) {
+                expired.add(window);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        expired.sort((a, b) -> Integer.compare(b.start, a.start));
+        for (Window window : expired) {
+            System.out.println("⚠ Block request timed out: " + window.peer.getId()
+                    + " (blocks " + window.start + "-" + (window.end - 1) + ")");
+            requeue(window);
+            timeouts++;
+        }
+        schedule();
+    }
+
+    // ========== 연결 ==========
+
+    /**
+     * 재정렬 버퍼에서 다음 높이 블록부터 연속으로 전달
+     */
+    private void connectReadyBlocks() {
+        while (nextConnectIndex < reorderBuffer.length && reorderBuffer[nextConnectIndex] != null) {
+            Block block = reorderBuffer[nextConnectIndex];
+            reorderBuffer[nextConnectIndex] = null;
+            nextConnectIndex++;
+
+            if (!listener.onBlockReady(block)) {
+                fail("Block rejected at index " + (nextConnectIndex - 1));
+                return;
+            }
+        }
+
+        if (nextConnectIndex == reorderBuffer.length) {
+            Listener done = listener;
+            System.out.println("✓ Downloaded " + headers.size() + " blocks (" + timeouts + " timeouts)");
+            reset();
+            done.onComplete();
+        }
+    }
+
+    private void fail(String reason) {
+        Listener failed = listener;
+        reset();
+        if (failed != null) {
+            failed.onFailed(reason);
+        }
+    }
+
+    private void reset() {
+        headers = new ArrayList<>();
+        listener = null;
+        reorderBuffer = new Block[0];
+        windowByIndex = new Window[0];
+        indexByHash.clear();
+        queuedWindows.clear();
+        activeWindows.clear();
+        inFlight.clear();
+        nextConnectIndex = 0;
+        timeouts = 0;
+    }
+
+    // ========== 상태 ==========
+
+    synchronized int getConnectedCount() {
+        return nextConnectIndex;
+    }
+
+    synchronized int getInFlightWindows() {
+        return activeWindows.size();
+    }
+}
@@ -0,0 +1,71 @@
+package blockchain.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 고정 크기 direct ByteBuffer 풀
+ * 셀렉터의 수신 / 송신 스테이징 버퍼를 재사용 (송신 큐의 프레임은 heap 버퍼 - 메시지마다 direct 버퍼를 잡지 않음)
+ * 풀 크기를 넘어 반납된 버퍼는 버림 (GC가 회수)
+ */
+class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    /**
+     * @param bufferSize 버퍼 하나의 크기
+     * @param maxPooled 풀에 보관할 최대 버퍼 수
+     */
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 버퍼 대여 (clear 상태)
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = pool.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * 버퍼 반납 (풀이 가득 찼거나 다른 크기면 버림)
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        pool.offer(buffer);
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 지금까지 새로 할당한 버퍼 수
+     */
+    int getAllocatedCount() {
+        return allocated.get();
+    }
+
+    int getPooledCount() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,250 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.block.HeaderChain;
+import blockchain.node.Node;
+import blockchain.node.mine.ProofOfWork;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 헤더 우선 체인 동기화
+ * 1. GET_HEADERS(로케이터)로 분기점을 찾고 이후 헤더를 받음
+ * 2. 헤더만으로 해시 / 연결 / 작업 증명을 검증하고 누적 작업량을 비교
+ * 3. 작업량이 더 많을 때만 빠진 본문을 BlockDownloadManager로 여러 피어에서 받아 순서대로 연결
+ * 전송량은 전체 체인 길이가 아니라 분기점 이후 블록 수에 비례
+ */
+class ChainSync {
+
+    static final int MAX_HEADERS = 2000;            // HEADERS 메시지당 최대 헤더 수
+    static final int MAX_BLOCKS_PER_REQUEST = 128;  // GET_BLOCKS 요청당 최대 블록 수 (응답 측 제한)
+
+    private final Node node;
+    private final P2PNetwork network;
+    private final BlockDownloadManager downloads;
+
+    // 헤더 동기화 세션 상태 (한 번에 한 피어)
+    private Peer syncPeer;
+    private int forkHeight;
+    private final List<BlockHeader> pendingHeaders = new ArrayList<>();
+    private BigInteger pendingWork;
+    private HeaderChain pendingChain;     // 분기점 위에 받은 헤더를 쌓은 분기 체인 (기대 bits 계산용)
+
+    ChainSync(Node node, P2PNetwork network, BlockDownloadManager downloads) {
+        this.node = node;
+        this.network = network;
+        this.downloads = downloads;
+    }
+
+    /**
+     * 피어와 동기화 시작
+     * @return 요청 전송 여부 (이미 진행 중이면 false)
+     */
+    synchronized boolean start(Peer peer) {
+        if (syncPeer != null && syncPeer.isConnected()) {
+            System.out.println("Sync already in progress with " + syncPeer.getId());
+            return false;
+        }
+        if (downloads.isActive()) {
+            System.out.println("Block download already in progress");
+            return false;
+        }
+
+        reset();
+        syncPeer = peer;
+
+        System.out.println("Requesting headers from " + peer.getId());
+        return requestHeaders(node.getHeaderChain().getLocator());
+    }
+
+    synchronized boolean isSyncing() {
+        return syncPeer != null || downloads.isActive();
+    }
+
+    synchronized void onPeerDisconnected(Peer peer) {
+        if (peer == syncPeer) {
+            System.out.println("⚠ Sync peer disconnected: " + peer.getId());
+            reset();
+        }
+    }
+
+    // ========== 응답 측 ==========
+
+    /**
+     * GET_HEADERS 처리: 로케이터 분기점 이후 헤더 전송
+     */
+    void onGetHeaders(Peer peer, List<byte[]> locator) {
+        List<BlockHeader> headers = node.getHeaderChain().getHeadersAfter(locator, MAX_HEADERS);
+        network.sendTo(peer, Message.MessageType.HEADERS, headers);
+    }
+
+    /**
+     * GET_BLOCKS 처리: 요청받은 블록 본문을 하나씩 전송
+     */
+    void onGetBlocks(Peer peer, List<byte[]> hashes) {
+        int count = Math.min(hashes.size(), MAX_BLOCKS_PER_REQUEST);
+        for (int i = 0; i < count; i++) {
+            Block block = node.getBlock(hashes.get(i));
+            if (block != null && !network.sendTo(peer, Message.MessageType.BLOCK, block)) {
+                return;
+            }
+        }
+    }
+
+    // ========== 요청 측 ==========
+
+    /**
+     * HEADERS 처리: 검증 후 누적, 더 있으면 이어서 요청
+     */
+    synchronized void onHeaders(Peer peer, List<BlockHeader> headers) {
+        if (peer != syncPeer) {
+            return;
+        }
+
+        HeaderChain chain = node.getHeaderChain();
+
+        for (BlockHeader header : headers) {
+            if (pendingHeaders.isEmpty()) {
+                // 로케이터가 성기면 이미 가진 헤더가 앞에 섞여 올 수 있음
+                if (chain.contains(header.getBlockHash())) {
+                    continue;
+                }
+
+                forkHeight = chain.getHeight(header.getPrevHash());
+                if (forkHeight < 0) {
+                    abort("Headers do not connect to local chain");
+                    return;
+                }
+                pendingWork = chain.get(forkHeight).getChainWork();
+                pendingChain = chain.branch(forkHeight);
+
+            } else if (!Arrays.equals(header.getPrevHash(), pendingHeaders.getLast().getBlockHash())) {
+                abort("Headers are not continuous");
+                return;
+            }
+
+            if (!Arrays.equals(header.calculateBlockHash(), header.getBlockHash())) {
+                abort("Header hash mismatch");
+                return;
+            }
+            if (header.getHeight() != pendingChain.size()) {
+                abort("Header height mismatch");
+                return;
+            }
+            int expectedBits = node.getRetargetStrategy().getNextBits(pendingChain);
+            if (!ProofOfWork.checkProofOfWork(header, expectedBits)) {
+                abort("Header does not meet the required target");
+                return;
+            }
+
+            pendingChain.add(header);
+            pendingHeaders.add(header);
+            pendingWork = pendingWork.add(ProofOfWork.getWork(header.getBits()));
+        }
+
+        // 가득 찼으면 마지막 헤더 이후를 이어서 요청
+        if (headers.size() >= MAX_HEADERS) {
+            List<byte[]> locator = new ArrayList<>();
+            locator.add(headers.getLast().getBlockHash());
+            requestHeaders(locator);
+            return;
+        }
+
+        finishHeaders();
+    }
+
+    /**
+     * BLOCK 처리: 다운로드 관리자로 전달
+     * (다운로드 관리자 락 안에서 ChainSync 락을 잡지 않도록 동기화하지 않음)
+     * @return 동기화 중 요청한 블록이었는지 여부
+     */
+    boolean onBlock(Peer peer, Block block) {
+        return downloads.onBlock(peer, block);
+    }
+
+    /**
+     * 헤더 검증 완료: 작업량이 더 많으면 본문 다운로드를 넘기고 헤더 세션 종료
+     */
+    private void finishHeaders() {
+        if (pendingHeaders.isEmpty() || pendingWork.compareTo(node.getChainWork()) <= 0) {
+            System.out.println("✓ Chain is up to date with " + syncPeer.getId());
+            reset();
+            return;
+        }
+
+        boolean extendsTip = forkHeight == node.getChainLength() - 1;
+        System.out.println("Headers verified: " + pendingHeaders.size() + " new blocks from height " + (forkHeight + 1)
+                + (extendsTip ? "" : " (fork)"));
+
+        BlockConnector connector = new BlockConnector(node, forkHeight, extendsTip);
+        List<BlockHeader> headers = new ArrayList<>(pendingHeaders);
+        reset();
+        downloads.start(headers, connector);
+    }
+
+    private boolean requestHeaders(List<byte[]> locator) {
+        if (!network.sendTo(syncPeer, Message.MessageType.GET_HEADERS, new ArrayList<>(locator))) {
+            reset();
+            return false;
+        }
+        return true;
+    }
+
+    private void abort(String reason) {
+        System.out.println("✗ Sync aborted: " + reason);
+        reset();
+    }
+
+    private void reset() {
+        syncPeer = null;
+        forkHeight = -1;
+        pendingHeaders.clear();
+        pendingWork = BigInteger.ZERO;
+        pendingChain = null;
+    }
+
+    /**
+     * 다운로드된 블록을 높이 순으로 체인에 연결
+     * 분기점이 tip이면 받는 즉시 추가하고, 분기 체인이면 모두 받은 뒤 한 번에 재구성
+     * (다운로드 관리자 락 안에서 호출되므로 ChainSync 상태에는 접근하지 않음)
+     */
+    private static class BlockConnector implements BlockDownloadManager.Listener {
+        private final Node node;
+        private final int forkHeight;
+        private final boolean extendsTip;
+        private final List<Block> forkBlocks = new ArrayList<>();
+
+        BlockConnector(Node node, int forkHeight, boolean extendsTip) {
+            this.node = node;
+            this.forkHeight = forkHeight;
+            this.extendsTip = extendsTip;
+        }
+
+        @Override
+        public boolean onBlockReady(Block block) {
+            if (extendsTip) {
+                return node.receiveBlock(block);
+            }
+            forkBlocks.add(block);
+            return true;
+        }
+
+        @Override
+        public void onComplete() {
+            if (!extendsTip && !node.reorganize(forkHeight, forkBlocks)) {
+                System.out.println("✗ Sync failed: fork chain rejected");
+                return;
+            }
+            System.out.println("✓ Sync complete: height " + (node.getChainLength() - 1));
+        }
+
+        @Override
+        public void onFailed(String reason) {
+            System.out.println("✗ Sync aborted: " + reason);
+        }
+    }
+}
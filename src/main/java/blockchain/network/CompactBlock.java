@@ -0,0 +1,162 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.transaction.Transaction;
+import util.Hash;
+import util.SipHash;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 컴팩트 블록 (CMPCT_BLOCK)
+ * 헤더 + 트랜잭션별 6바이트 짧은 ID만 보내고, 받는 쪽이 메모리 풀에서 블록을 복원
+ * - 짧은 ID = SipHash-2-4(키, txid) 하위 48비트
+ *   키 = HASH256(헤더 || salt) 앞 16바이트 - 블록마다 salt가 달라 충돌을 미리 만들 수 없음
+ * - 코인베이스와 상대가 모를 것 같은 트랜잭션은 본문을 미리 채워(prefilled) 보냄
+ */
+class CompactBlock {
+
+    static final int SHORT_ID_SIZE = 6;
+    private static final long SHORT_ID_MASK = 0xFFFF_FFFF_FFFFL;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 본문을 채워 보내는 트랜잭션 (블록 내 위치 포함)
+     */
+    static final class PrefilledTransaction {
+        final int index;
+        final Transaction tx;
+
+        PrefilledTransaction(int index, Transaction tx) {
+            this.index = index;
+            this.tx = tx;
+        }
+    }
+
+    /**
+     * 복원하지 못한 트랜잭션 요청 (GET_BLOCK_TXN)
+     */
+    static final class TransactionRequest {
+        final byte[] blockHash;
+        final List<Integer> indexes;        // 블록 내 위치 오름차순
+
+        TransactionRequest(byte[] blockHash, List<Integer> indexes) {
+            this.blockHash = blockHash;
+            this.indexes = indexes;
+        }
+    }
+
+    /**
+     * 요청한 트랜잭션 응답 (BLOCK_TXN) - 요청한 위치 순서대로
+     */
+    static final class TransactionResponse {
+        final byte[] blockHash;
+        final List<Transaction> transactions;
+
+        TransactionResponse(byte[] blockHash, List<Transaction> transactions) {
+            this.blockHash = blockHash;
+            this.transactions = transactions;
+        }
+    }
+
+    // 헤더 필드
+    final byte[] version;
+    final byte[] prevHash;
+    final byte[] merkleRoot;
+    final long timestamp;
+    final int bits;
+    final byte[] nonce;
+    final int size;
+
+    final long salt;
+    final List<Long> shortIds;                          // prefilled를 제외한 트랜잭션 순서대로
+    final List<PrefilledTransaction> prefilled;         // 블록 내 위치 오름차순
+
+    private long k0;
+    private long k1;
+    private boolean keysReady;
+
+    CompactBlock(byte[] version, byte[] prevHash, byte[] merkleRoot, long timestamp, int bits, byte[] nonce,
+                 int size, long salt, List<Long> shortIds, List<PrefilledTransaction> prefilled) {
+        this.version = version;
+        this.prevHash = prevHash;
+        this.merkleRoot = merkleRoot;
+        this.timestamp = timestamp;
+        this.bits = bits;
+        this.nonce = nonce;
+        this.size = size;
+        this.salt = salt;
+        this.shortIds = shortIds;
+        this.prefilled = prefilled;
+    }
+
+    /**
+     * 블록으로부터 컴팩트 블록 생성
+     * @param block 전파할 블록
+     * @param likelyKnown 상대도 가지고 있을 것 같은 트랜잭션 (true면 짧은 ID, false면 본문 포함)
+     */
+    static CompactBlock fromBlock(Block block, Predicate<Transaction> likelyKnown) {
+        List<Long> shortIds = new ArrayList<>();
+        List<PrefilledTransaction> prefilled = new ArrayList<>();
+        CompactBlock compact = new CompactBlock(block.getVersion(), block.getPrevHash(), block.getMerkleRoot(),
+                block.getTimestamp(), block.getBits(), block.getNonce(), block.getSize(),
+                RANDOM.nextLong(), shortIds, prefilled);
+
+        List<Transaction> transactions = block.getTransactions();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction tx = transactions.get(i);
+            if (i == 0 || !likelyKnown.test(tx)) {
+                prefilled.add(new PrefilledTransaction(i, tx));
+            } else {
+                shortIds.add(compact.shortId(tx.getTxid()));
+            }
+        }
+        return compact;
+    }
+
+    /**
+     * 블록 전체 트랜잭션 수
+     */
+    int getTransactionCount() {
+        return shortIds.size() + prefilled.size();
+    }
+
+    byte[] getHeaderBytes() {
+        return Block.serializeHeader(version, prevHash, merkleRoot, timestamp, bits, nonce);
+    }
+
+    byte[] getBlockHash() {
+        return Hash.HASH256(getHeaderBytes());
+    }
+
+    /**
+     * 이 블록의 키로 계산한 txid의 짧은 ID
+     */
+    synchronized long shortId(byte[] txid) {
+        if (!keysReady) {
+            byte[] header = getHeaderBytes();
+            byte[] keyInput = new byte[header.length + 8];
+            System.arraycopy(header, 0, keyInput, 0, header.length);
+            for (int i = 0; i < 8; i++) {
+                keyInput[header.length + i] = (byte) (salt >>> (8 * i));
+            }
+            byte[] key = Hash.HASH256(keyInput);
+            k0 = SipHash.readLongLE(key, 0, 8);
+            k1 = SipHash.readLongLE(key, 8, 8);
+            keysReady = true;
+        }
+        return SipHash.hash24(k0, k1, txid) & SHORT_ID_MASK;
+    }
+
+    /**
+     * 복원한 트랜잭션으로 블록 생성
+     * @param transactions 블록 순서대로 채워진 전체 트랜잭션
+     */
+    Block toBlock(List<Transaction> transactions) {
+        return new Block(prevHash, transactions.size(), size, version, merkleRoot, nonce, timestamp,
+                transactions, getBlockHash(), bits);
+    }
+}
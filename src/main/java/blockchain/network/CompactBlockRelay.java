@@ -0,0 +1,281 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.node.Node;
+import blockchain.transaction.Mempool;
+import blockchain.transaction.Transaction;
+import util.MerkleTree;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컴팩트 블록 복원
+ * 1. CMPCT_BLOCK의 짧은 ID를 메모리 풀 트랜잭션과 대조해 블록을 채움
+ * 2. 없는 트랜잭션만 GET_BLOCK_TXN으로 요청하고 BLOCK_TXN으로 마저 채움
+ * 3. 머클 루트가 맞지 않으면 (짧은 ID 충돌) 전체 블록을 GET_DATA로 요청
+ * 메모리 풀에 이미 있는 트랜잭션은 다시 전송하지 않으므로 블록 전파가 한 번의 왕복 이내로 끝남
+ */
+class CompactBlockRelay {
+
+    static final long PENDING_TIMEOUT_MS = 30_000;
+    private static final int MAX_PENDING = 32;
+
+    /**
+     * 트랜잭션을 기다리는 블록
+     */
+    private static final class PartialBlock {
+        final CompactBlock compact;
+        final Transaction[] slots;
+        final List<Integer> missing;
+        final Peer peer;
+        final long createdAt;
+
+        PartialBlock(CompactBlock compact, Transaction[] slots, List<Integer> missing, Peer peer, long createdAt) {
+            this.compact = compact;
+            this.slots = slots;
+            this.missing = missing;
+            this.peer = peer;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final Node node;
+    private final P2PNetwork network;
+
+    // 복원 중인 블록 (블록 해시 -> 부분 블록) - 가장 오래된 것부터 제거
+    private final Map<ByteBuffer, PartialBlock> pending = new LinkedHashMap<>();
+
+    // 통계
+    private int reconstructed;
+    private int roundTrips;
+    private int fallbacks;
+
+    CompactBlockRelay(Node node, P2PNetwork network) {
+        this.node = node;
+        this.network = network;
+    }
+
+    /**
+     * 전파용 컴팩트 블록 생성
+     */
+    CompactBlock create(Block block) {
+        return create(block, node.getMempool());
+    }
+
+    /**
+     * 메모리 풀에 있거나 최근 블록으로 확인된 트랜잭션은 짧은 ID로,
+     * 나머지는 상대도 모를 것으로 보고 본문 포함
+     * (전파 전에 블록 연결로 메모리 풀에서 빠지므로 메모리 풀만 보면 전부 본문으로 나감)
+     */
+    static CompactBlock create(Block block, Mempool mempool) {
+        return CompactBlock.fromBlock(block, tx -> {
+            if (mempool == null) {
+                return false;
+            }
+            String txid = bytesToHex(tx.getTxid());
+            return mempool.containsTransaction(txid) || mempool.wasRecentlyConfirmed(txid);
+        });
+    }
+
+    // ========== 수신 측 ==========
+
+    /**
+     * CMPCT_BLOCK 처리
+     * @return 바로 복원된 블록 (트랜잭션을 요청했거나 버린 경우 null)
+     */
+    Block onCompactBlock(Peer peer, CompactBlock compact) {
+        byte[] blockHash = compact.getBlockHash();
+        if (node.getHeaderChain().contains(blockHash)) {
+            return null;
+        }
+        if (!isWellFormed(compact)) {
+            System.out.println("✗ Malformed compact block from " + peer.getId());
+            return null;
+        }
+
+        int count = compact.getTransactionCount();
+        Transaction[] slots = new Transaction[count];
+        for (CompactBlock.PrefilledTransaction prefilled : compact.prefilled) {
+            slots[prefilled.index] = prefilled.tx;
+        }
+
+        // 메모리 풀 짧은 ID 색인 (같은 짧은 ID가 둘 이상이면 사용하지 않음)
+        Map<Long, Transaction> byShortId = new HashMap<>();
+        Mempool mempool = node.getMempool();
+        if (mempool != null) {
+            for (Transaction tx : mempool.getAllTransactions()) {
+                Long shortId = compact.shortId(tx.getTxid());
+                if (byShortId.containsKey(shortId)) {
+                    byShortId.put(shortId, null);
+                } else {
+                    byShortId.put(shortId, tx);
+                }
+            }
+        }
+
+        List<Integer> missing = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (slots[i] != null) {
+                continue;
+            }
+            Transaction tx = byShortId.get(compact.shortIds.get(next++));
+            if (tx != null) {
+                slots[i] = tx;
+            } else {
+                missing.add(i);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return complete(peer, compact, slots);
+        }
+
+        System.out.println("Compact block missing " + missing.size() + "/" + count + " transactions - requesting");
+        synchronized (pending) {
+            expirePending(System.currentTimeMillis());
+            if (pending.size() >= MAX_PENDING) {
+                Iterator<ByteBuffer> it = pending.keySet().iterator();
+                it.next();
+                it.remove();
+            }
+            pending.put(ByteBuffer.wrap(blockHash),
+                    new PartialBlock(compact, slots, missing, peer, System.currentTimeMillis()));
+            roundTrips++;
+        }
+        network.sendTo(peer, Message.MessageType.GET_BLOCK_TXN,
+                new CompactBlock.TransactionRequest(blockHash, missing));
+        return null;
+    }
+
+    /**
+     * BLOCK_TXN 처리
+     * @return 복원된 블록 (요청한 적 없는 응답이거나 복원 실패 시 null)
+     */
+    Block onBlockTransactions(Peer peer, CompactBlock.TransactionResponse response) {
+        PartialBlock partial;
+        synchronized (pending) {
+            partial = pending.get(ByteBuffer.wrap(response.blockHash));
+            if (partial == null || partial.peer != peer) {
+                return null;
+            }
+            pending.remove(ByteBuffer.wrap(response.blockHash));
+        }
+
+        if (response.transactions.size() != partial.missing.size()) {
+            return fallback(peer, response.blockHash, "transaction count mismatch");
+        }
+        for (int i = 0; i < partial.missing.size(); i++) {
+            partial.slots[partial.missing.get(i)] = response.transactions.get(i);
+        }
+        return complete(peer, partial.compact, partial.slots);
+    }
+
+    /**
+     * GET_BLOCK_TXN 처리: 요청 위치의 트랜잭션 전송
+     */
+    void onGetBlockTransactions(Peer peer, CompactBlock.TransactionRequest request) {
+        Block block = node.getBlock(request.blockHash);
+        if (block == null) {
+            return;
+        }
+
+        List<Transaction> transactions = block.getTransactions();
+        List<Transaction> requested = new ArrayList<>(request.indexes.size());
+        for (int index : request.indexes) {
+            if (index < 0 || index >= transactions.size()) {
+                System.out.println("✗ Invalid transaction index " + index + " requested by " + peer.getId());
+                return;
+            }
+            requested.add(transactions.get(index));
+        }
+
+        network.sendTo(peer, Message.MessageType.BLOCK_TXN,
+                new CompactBlock.TransactionResponse(request.blockHash, requested));
+    }
+
+    // ========== 내부 ==========
+
+    /**
+     * 코인베이스가 prefilled에 있고 위치가 오름차순 / 범위 안인지 확인
+     */
+    private boolean isWellFormed(CompactBlock compact) {
+        int count = compact.getTransactionCount();
+        if (compact.prefilled.isEmpty() || compact.prefilled.getFirst().index != 0) {
+            return false;
+        }
+
+        int previous = -1;
+        for (CompactBlock.PrefilledTransaction prefilled : compact.prefilled) {
+            if (prefilled.index <= previous || prefilled.index >= count) {
+                return false;
+            }
+            previous = prefilled.index;
+        }
+        return true;
+    }
+
+    /**
+     * 채워진 트랜잭션의 머클 루트가 헤더와 일치할 때만 블록으로 인정
+     */
+    private Block complete(Peer peer, CompactBlock compact, Transaction[] slots) {
+        List<Transaction> transactions = Arrays.asList(slots);
+        if (!Arrays.equals(MerkleTree.calculateMerkleRoot(transactions), compact.merkleRoot)) {
+            return fallback(peer, compact.getBlockHash(), "merkle root mismatch");
+        }
+
+        synchronized (pending) {
+            reconstructed++;
+        }
+        return compact.toBlock(new ArrayList<>(transactions));
+    }
+
+    private Block fallback(Peer peer, byte[] blockHash, String reason) {
+        System.out.println("⚠ Compact block reconstruction failed (" + reason + ") - requesting full block");
+        synchronized (pending) {
+            fallbacks++;
+        }
+        network.sendTo(peer, Message.MessageType.GET_DATA,
+                List.of(new InventoryItem(InventoryItem.Type.BLOCK, blockHash)));
+        return null;
+    }
+
+    private void expirePending(long now) {
+        pending.values().removeIf(partial -> now - partial.createdAt > PENDING_TIMEOUT_MS);
+    }
+
+    // ========== 상태 ==========
+
+    int getReconstructedCount() {
+        synchronized (pending) {
+            return reconstructed;
+        }
+    }
+
+    int getRoundTripCount() {
+        synchronized (pending) {
+            return roundTrips;
+        }
+    }
+
+    int getFallbackCount() {
+        synchronized (pending) {
+            return fallbacks;
+        }
+    }
+
+    private static String bytesToHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
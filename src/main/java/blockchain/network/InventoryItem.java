@@ -0,0 +1,79 @@
+package blockchain.network;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 인벤토리 항목 (INV / GET_DATA)
+ * 객체 본문 대신 종류 + 해시만 알려 상대가 없는 것만 요청하게 함
+ */
+public final class InventoryItem {
+
+    public enum Type {
+        TX(1),
+        BLOCK(2);
+
+        private final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Type type;
+    private final byte[] hash;
+
+    public InventoryItem(Type type, byte[] hash) {
+        this.type = type;
+        this.hash = hash;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public byte[] getHash() {
+        return hash;
+    }
+
+    /**
+     * 맵 / 집합 키 (해시 내용 기준)
+     */
+    ByteBuffer key() {
+        return ByteBuffer.wrap(hash);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InventoryItem other)) return false;
+        return type == other.type && Arrays.equals(hash, other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + Arrays.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(8, hash.length); i++) {
+            sb.append(String.format("%02x", hash[i]));
+        }
+        return type + ":" + sb + "...";
+    }
+}
@@ -0,0 +1,209 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.node.Node;
+import blockchain.transaction.Mempool;
+import blockchain.transaction.Transaction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 인벤토리 기반 전파 (INV / GET_DATA)
+ * - 새 블록 / 트랜잭션은 본문 대신 해시만 INV로 알림
+ * - 피어가 이미 가진 것으로 아는 항목은 다시 알리지 않음 (Peer.knownInventory)
+ * - INV를 받으면 없는 항목만 GET_DATA로 요청하고, 요청 중인 항목은 다른 피어에게 중복 요청하지 않음
+ * - 최근 거부한 트랜잭션은 다시 요청하지 않음 (블록이 추가되면 초기화)
+ */
+class InventoryRelay {
+
+    static final long REQUEST_TIMEOUT_MS = 30_000;      // 이 시간 안에 응답이 없으면 다른 피어에게 다시 요청
+    private static final int MAX_RECENT_REJECTS = 10_000;
+
+    private final Node node;
+    private final P2PNetwork network;
+
+    // 요청 중인 항목 (해시 -> 요청 시각)
+    private final Map<ByteBuffer, Long> requested = new HashMap<>();
+
+    // 최근 거부한 트랜잭션 - 오래된 항목부터 제거
+    private final Map<ByteBuffer, Boolean> recentRejects = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+            return size() > MAX_RECENT_REJECTS;
+        }
+    };
+
+    InventoryRelay(Node node, P2PNetwork network) {
+        this.node = node;
+        this.network = network;
+    }
+
+    // ========== 알림 ==========
+
+    /**
+     * 항목을 모르는 피어들에게 INV 전송
+     * @param except 항목을 보내준 피어 (없으면 null)
+     * @return INV를 보낸 피어 수
+     */
+    int announce(InventoryItem item, Peer except) {
+        return push(item.getHash(), except, Message.MessageType.INV, List.of(item));
+    }
+
+    /**
+     * 항목을 모르는 피어들에게 메시지 전송 (INV 대신 본문 / 컴팩트 블록을 바로 보낼 때)
+     * @param hash 항목 해시 (피어별 중복 전송 판단)
+     * @return 메시지를 보낸 피어 수
+     */
+    int push(byte[] hash, Peer except, Message.MessageType type, Object payload) {
+        Message message = network.newMessage(type, payload);
+        int sent = 0;
+        if (except != null) {
+            except.addKnownInventory(hash);
+        }
+
+        for (Peer peer : network.getConnectedPeers()) {
+            if (peer == except || !peer.addKnownInventory(hash)) {
+                continue;
+            }
+            if (network.sendTo(peer, message)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    // ========== 수신 측 ==========
+
+    /**
+     * INV 처리: 없는 항목만 GET_DATA로 요청
+     */
+    void onInv(Peer peer, List<InventoryItem> items) {
+        List<InventoryItem> wanted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (requested) {
+            expireRequests(now);
+        }
+
+        for (InventoryItem item : items) {
+            peer.addKnownInventory(item.getHash());
+            if (alreadyHave(item)) {
+                continue;
+            }
+            if (markRequested(item, now)) {
+                wanted.add(item);
+            }
+        }
+
+        if (!wanted.isEmpty()) {
+            network.sendTo(peer, Message.MessageType.GET_DATA, wanted);
+        }
+    }
+
+    /**
+     * GET_DATA 처리: 가진 항목의 본문 전송
+     */
+    void onGetData(Peer peer, List<InventoryItem> items) {
+        for (InventoryItem item : items) {
+            switch (item.getType()) {
+                case TX: {
+                    Mempool mempool = node.getMempool();
+                    Transaction tx = mempool != null ? mempool.getTransaction(bytesToHex(item.getHash())) : null;
+                    if (tx != null) {
+                        peer.addKnownInventory(item.getHash());
+                        network.sendTo(peer, Message.MessageType.NEW_TRANSACTION, tx);
+                    }
+                    break;
+                }
+                case BLOCK: {
+                    Block block = node.getBlock(item.getHash());
+                    if (block != null) {
+                        peer.addKnownInventory(item.getHash());
+                        network.sendTo(peer, Message.MessageType.BLOCK, block);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 본문 수신 (요청 목록에서 제거하고 보낸 피어는 가진 것으로 기록)
+     */
+    void onReceived(Peer peer, byte[] hash) {
+        peer.addKnownInventory(hash);
+        synchronized (requested) {
+            requested.remove(ByteBuffer.wrap(hash));
+        }
+    }
+
+    void onTransactionRejected(byte[] txid) {
+        synchronized (recentRejects) {
+            recentRejects.put(ByteBuffer.wrap(txid), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 블록 추가 시 거부 목록 초기화 (UTXO가 바뀌어 유효해질 수 있음)
+     */
+    void onBlockConnected() {
+        synchronized (recentRejects) {
+            recentRejects.clear();
+        }
+    }
+
+    // ========== 내부 ==========
+
+    private boolean alreadyHave(InventoryItem item) {
+        if (item.getType() == InventoryItem.Type.BLOCK) {
+            return node.getHeaderChain().contains(item.getHash());
+        }
+
+        synchronized (recentRejects) {
+            if (recentRejects.containsKey(item.key())) {
+                return true;
+            }
+        }
+        Mempool mempool = node.getMempool();
+        return mempool != null && mempool.containsTransaction(bytesToHex(item.getHash()));
+    }
+
+    /**
+     * 요청 중으로 표시 (다른 피어에게 이미 요청했고 아직 시간이 남았으면 false)
+     */
+    private boolean markRequested(InventoryItem item, long now) {
+        synchronized (requested) {
+            return requested.putIfAbsent(item.key(), now) == null;
+        }
+    }
+
+    private void expireRequests(long now) {
+        Iterator<Long> it = requested.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next() > REQUEST_TIMEOUT_MS) {
+                it.remove();
+            }
+        }
+    }
+
+    // ========== 상태 ==========
+
+    int getRequestedCount() {
+        synchronized (requested) {
+            return requested.size();
+        }
+    }
+
+    private String bytesToHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
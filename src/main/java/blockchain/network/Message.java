@@ -1,30 +1,53 @@
 package blockchain.network;
 
-
-
-import java.io.Serial;
-import java.io.Serializable;
+import java.io.IOException;
 
 /**
  * P2P 네트워크 메시지
+ * 와이어 형식은 MessageCodec 참고 (Java 직렬화 사용 안 함)
  */
-public class Message implements Serializable {
-    @Serial
-    private static final long serialVersionUID = 1L;
+public class Message {
 
     public enum MessageType {
-        NEW_BLOCK,          // 새 블록 브로드캐스트
-        NEW_TRANSACTION,    // 새 트랜잭션 브로드캐스트
-        REQUEST_CHAIN,      // 블록체인 요청
-        RESPONSE_CHAIN,     // 블록체인 응답
-        PING,              // 연결 확인
-        PONG               // 연결 응답
+        NEW_BLOCK(1),          // 새 블록 브로드캐스트
+        NEW_TRANSACTION(2),    // 트랜잭션 본문 (GET_DATA 응답)
+        GET_HEADERS(3),        // 헤더 요청 (블록 로케이터)
+        HEADERS(4),            // 헤더 응답 (최대 2000개)
+        GET_BLOCKS(5),         // 블록 본문 요청 (블록 해시 목록)
+        BLOCK(6),              // 블록 본문 응답
+        PING(7),               // 연결 확인
+        PONG(8),               // 연결 응답
+        INV(9),                // 인벤토리 알림 (종류 + 해시)
+        GET_DATA(10),          // 인벤토리 본문 요청
+        CMPCT_BLOCK(11),       // 컴팩트 블록 (헤더 + 짧은 트랜잭션 ID)
+        GET_BLOCK_TXN(12),     // 컴팩트 블록에서 복원하지 못한 트랜잭션 요청
+        BLOCK_TXN(13);         // 요청한 트랜잭션 응답
+
+        private final int command;     // 와이어 명령 코드 (순서와 무관하게 고정)
+
+        MessageType(int command) {
+            this.command = command;
+        }
+
+        public int getCommand() {
+            return command;
+        }
+
+        public static MessageType fromCommand(int command) {
+            for (MessageType type : values()) {
+                if (type.command == command) {
+                    return type;
+                }
+            }
+            return null;
+        }
     }
 
     private final MessageType type;
     private final Object payload;
     private final String senderId;
     private final long timestamp;
+    private byte[] encoded;     // 여러 피어에게 보낼 때 한 번만 인코딩
 
     public Message(MessageType type, Object payload, String senderId) {
         this.type = type;
@@ -33,6 +56,23 @@ public class Message implements Serializable {
         this.timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * 전송용 인코딩 (봉투 헤더 + 본문) - 결과를 보관해 재사용하므로 반환 배열은 수정하지 않음
+     */
+    public synchronized byte[] toBytes() throws IOException {
+        if (encoded == null) {
+            encoded = MessageCodec.encode(this);
+        }
+        return encoded;
+    }
+
+    /**
+     * 수신 프레임에서 메시지 복원 (매직 / 길이 / 체크섬 검증)
+     */
+    public static Message fromBytes(byte[] data) throws IOException {
+        return MessageCodec.decode(data);
+    }
+
     public MessageType getType() {
         return type;
     }
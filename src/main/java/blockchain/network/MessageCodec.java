@@ -0,0 +1,367 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.storage.BinaryCodec;
+import blockchain.transaction.Transaction;
+import util.Hash;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * P2P 메시지 바이너리 코덱
+ *
+ * 봉투: [매직(4)] [명령(1)] [본문 길이(4)] [체크섬(4) = HASH256(본문) 앞 4바이트] [본문]
+ * 본문은 메시지 타입별로 직접 인코딩하며, 블록 / 헤더 / 트랜잭션은 저장소와 같은
+ * BinaryCodec 레이아웃(toBytes() 순서 + varint 길이 접두사)을 버전 바이트 없이 사용
+ * 해시 목록은 [개수 varint][32바이트 해시...] 로 고정 길이 배열을 그대로 기록
+ * 인벤토리 목록은 [개수 varint][종류(1) + 32바이트 해시...]
+ * 컴팩트 블록은 헤더 필드 + salt(8) + [개수][6바이트 짧은 ID...] + [개수][위치 varint + 트랜잭션...]
+ *
+ * 디코딩은 명령 코드로 정해진 타입만 생성하므로 임의 클래스 역직렬화 경로가 없음
+ */
+final class MessageCodec {
+
+    static final int MAGIC = 0x47555249;                    // "GURI"
+    static final int HEADER_SIZE = 13;
+    static final int MAX_PAYLOAD_SIZE = 32 * 1024 * 1024;   // 32MB
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int HASH_SIZE = 32;
+    private static final int MAX_LIST_SIZE = 50_000;
+
+    private MessageCodec() {
+    }
+
+    // ========== 봉투 ==========
+
+    static byte[] encode(Message message) throws IOException {
+        byte[] payload = encodePayload(message.getType(), message.getPayload());
+        if (payload.length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Message too large: " + payload.length + " bytes");
+        }
+
+        byte[] checksum = Hash.HASH256(payload);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        frame.putInt(MAGIC);
+        frame.put((byte) message.getType().getCommand());
+        frame.putInt(payload.length);
+        frame.put(checksum, 0, CHECKSUM_SIZE);
+        frame.put(payload);
+        return frame.array();
+    }
+
+    static Message decode(byte[] frame) throws IOException {
+        if (frame.length < HEADER_SIZE) {
+            throw new IOException("Truncated message header");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        int payloadLength = readPayloadLength(buffer);
+        Message.MessageType type = Message.MessageType.fromCommand(frame[4] & 0xFF);
+        if (type == null) {
+            throw new IOException("Unknown command: " + (frame[4] & 0xFF));
+        }
+        if (payloadLength != frame.length - HEADER_SIZE) {
+            throw new IOException("Payload length mismatch");
+        }
+
+        byte[] checksum = Hash.HASH256(Arrays.copyOfRange(frame, HEADER_SIZE, frame.length));
+        if (!Arrays.equals(checksum, 0, CHECKSUM_SIZE, frame, 9, HEADER_SIZE)) {
+            throw new IOException("Checksum mismatch for " + type);
+        }
+
+        buffer.position(HEADER_SIZE);
+        try {
+            Object payload = decodePayload(type, buffer);
+            if (buffer.hasRemaining()) {
+                throw new IOException("Trailing bytes in " + type);
+            }
+            return new Message(type, payload, null);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed " + type + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 봉투 헤더에서 본문 길이 읽기 (매직 / 최대 크기 검증)
+     * 전송 계층이 프레임 경계를 찾을 때 사용 - buffer 위치는 헤더 시작
+     */
+    static int readPayloadLength(ByteBuffer header) throws IOException {
+        int start = header.position();
+        if (header.getInt(start) != MAGIC) {
+            throw new IOException("Bad magic");
+        }
+        int length = header.getInt(start + 5);
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Invalid payload length: " + length);
+        }
+        return length;
+    }
+
+    // ========== 타입별 본문 ==========
+
+    @SuppressWarnings("unchecked")
+    private static byte[] encodePayload(Message.MessageType type, Object payload) {
+        BinaryCodec.Writer w;
+        switch (type) {
+            case NEW_BLOCK:
+            case BLOCK: {
+                Block block = (Block) payload;
+                w = new BinaryCodec.Writer(block.getSize() + 128);
+                BinaryCodec.writeBlock(w, block);
+                break;
+            }
+            case NEW_TRANSACTION: {
+                Transaction tx = (Transaction) payload;
+                w = new BinaryCodec.Writer(tx.getSize() + 64);
+                BinaryCodec.writeTransaction(w, tx);
+                break;
+            }
+            case GET_HEADERS:
+            case GET_BLOCKS: {
+                List<byte[]> hashes = (List<byte[]>) payload;
+                w = new BinaryCodec.Writer(5 + hashes.size() * HASH_SIZE);
+                writeHashes(w, hashes);
+                break;
+            }
+            case HEADERS: {
+                List<BlockHeader> headers = (List<BlockHeader>) payload;
+                w = new BinaryCodec.Writer(5 + headers.size() * 160);
+                w.writeVarInt(headers.size());
+                for (BlockHeader header : headers) {
+                    BinaryCodec.writeHeader(w, header);
+                }
+                break;
+            }
+            case INV:
+            case GET_DATA: {
+                List<InventoryItem> items = (List<InventoryItem>) payload;
+                w = new BinaryCodec.Writer(5 + items.size() * (HASH_SIZE + 1));
+                writeInventory(w, items);
+                break;
+            }
+            case CMPCT_BLOCK: {
+                CompactBlock compact = (CompactBlock) payload;
+                w = new BinaryCodec.Writer(160 + compact.shortIds.size() * CompactBlock.SHORT_ID_SIZE
+                        + compact.prefilled.size() * 256);
+                writeCompactBlock(w, compact);
+                break;
+            }
+            case GET_BLOCK_TXN: {
+                CompactBlock.TransactionRequest request = (CompactBlock.TransactionRequest) payload;
+                w = new BinaryCodec.Writer(HASH_SIZE + 5 + request.indexes.size() * 3);
+                writeHash(w, request.blockHash);
+                w.writeVarInt(request.indexes.size());
+                for (int index : request.indexes) {
+                    w.writeVarInt(index);
+                }
+                break;
+            }
+            case BLOCK_TXN: {
+                CompactBlock.TransactionResponse response = (CompactBlock.TransactionResponse) payload;
+                w = new BinaryCodec.Writer(HASH_SIZE + 5 + response.transactions.size() * 256);
+                writeHash(w, response.blockHash);
+                w.writeVarInt(response.transactions.size());
+                for (Transaction tx : response.transactions) {
+                    BinaryCodec.writeTransaction(w, tx);
+                }
+                break;
+            }
+            case PING:
+            case PONG:
+            default:
+                return new byte[0];
+        }
+        return w.toByteArray();
+    }
+
+    private static Object decodePayload(Message.MessageType type, ByteBuffer buffer) {
+        switch (type) {
+            case NEW_BLOCK:
+            case BLOCK:
+                return BinaryCodec.readBlock(buffer);
+            case NEW_TRANSACTION:
+                return BinaryCodec.readTransaction(buffer);
+            case GET_HEADERS:
+            case GET_BLOCKS:
+                return readHashes(buffer);
+            case HEADERS: {
+                int count = readCount(buffer);
+                List<BlockHeader> headers = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    headers.add(BinaryCodec.readHeader(buffer));
+                }
+                return headers;
+            }
+            case INV:
+            case GET_DATA:
+                return readInventory(buffer);
+            case CMPCT_BLOCK:
+                return readCompactBlock(buffer);
+            case GET_BLOCK_TXN: {
+                byte[] blockHash = readHash(buffer);
+                int count = readCount(buffer);
+                List<Integer> indexes = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    indexes.add(BinaryCodec.readVarInt(buffer));
+                }
+                return new CompactBlock.TransactionRequest(blockHash, indexes);
+            }
+            case BLOCK_TXN: {
+                byte[] blockHash = readHash(buffer);
+                int count = readCount(buffer);
+                List<Transaction> transactions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    transactions.add(BinaryCodec.readTransaction(buffer));
+                }
+                return new CompactBlock.TransactionResponse(blockHash, transactions);
+            }
+            case PING:
+            case PONG:
+            default:
+                return null;
+        }
+    }
+
+    // ========== 공통 필드 ==========
+
+    static void writeHashes(BinaryCodec.Writer w, List<byte[]> hashes) {
+        w.writeVarInt(hashes.size());
+        for (byte[] hash : hashes) {
+            if (hash.length != HASH_SIZE) {
+                throw new IllegalArgumentException("Hash must be " + HASH_SIZE + " bytes");
+            }
+            w.writeRaw(hash);
+        }
+    }
+
+    static List<byte[]> readHashes(ByteBuffer buffer) {
+        int count = readCount(buffer);
+        if ((long) count * HASH_SIZE > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        List<byte[]> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] hash = new byte[HASH_SIZE];
+            buffer.get(hash);
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+
+    static void writeInventory(BinaryCodec.Writer w, List<InventoryItem> items) {
+        w.writeVarInt(items.size());
+        for (InventoryItem item : items) {
+            if (item.getHash().length != HASH_SIZE) {
+                throw new IllegalArgumentException("Hash must be " + HASH_SIZE + " bytes");
+            }
+            w.writeByte((byte) item.getType().getCode());
+            w.writeRaw(item.getHash());
+        }
+    }
+
+    static List<InventoryItem> readInventory(ByteBuffer buffer) {
+        int count = readCount(buffer);
+        List<InventoryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int code = buffer.get() & 0xFF;
+            InventoryItem.Type type = InventoryItem.Type.fromCode(code);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown inventory type: " + code);
+            }
+            byte[] hash = new byte[HASH_SIZE];
+            buffer.get(hash);
+            items.add(new InventoryItem(type, hash));
+        }
+        return items;
+    }
+
+    static void writeCompactBlock(BinaryCodec.Writer w, CompactBlock compact) {
+        w.writeBytes(compact.version);
+        writeHash(w, compact.prevHash);
+        writeHash(w, compact.merkleRoot);
+        w.writeLong(compact.timestamp);
+        w.writeInt(compact.bits);
+        w.writeBytes(compact.nonce);
+        w.writeVarInt(compact.size);
+        w.writeLong(compact.salt);
+
+        w.writeVarInt(compact.shortIds.size());
+        for (long shortId : compact.shortIds) {
+            for (int i = 0; i < CompactBlock.SHORT_ID_SIZE; i++) {
+                w.writeByte((byte) (shortId >>> (8 * i)));
+            }
+        }
+
+        w.writeVarInt(compact.prefilled.size());
+        for (CompactBlock.PrefilledTransaction prefilled : compact.prefilled) {
+            w.writeVarInt(prefilled.index);
+            BinaryCodec.writeTransaction(w, prefilled.tx);
+        }
+    }
+
+    static CompactBlock readCompactBlock(ByteBuffer buffer) {
+        byte[] version = BinaryCodec.readBytes(buffer);
+        byte[] prevHash = readHash(buffer);
+        byte[] merkleRoot = readHash(buffer);
+        long timestamp = buffer.getLong();
+        int bits = buffer.getInt();
+        byte[] nonce = BinaryCodec.readBytes(buffer);
+        int size = BinaryCodec.readVarInt(buffer);
+        long salt = buffer.getLong();
+        if (version == null || nonce == null) {
+            throw new IllegalArgumentException("Missing header field");
+        }
+
+        int shortIdCount = readCount(buffer);
+        if ((long) shortIdCount * CompactBlock.SHORT_ID_SIZE > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        List<Long> shortIds = new ArrayList<>(shortIdCount);
+        for (int i = 0; i < shortIdCount; i++) {
+            long shortId = 0;
+            for (int b = 0; b < CompactBlock.SHORT_ID_SIZE; b++) {
+                shortId |= (buffer.get() & 0xFFL) << (8 * b);
+            }
+            shortIds.add(shortId);
+        }
+
+        int prefilledCount = readCount(buffer);
+        List<CompactBlock.PrefilledTransaction> prefilled = new ArrayList<>(prefilledCount);
+        for (int i = 0; i < prefilledCount; i++) {
+            int index = BinaryCodec.readVarInt(buffer);
+            prefilled.add(new CompactBlock.PrefilledTransaction(index, BinaryCodec.readTransaction(buffer)));
+        }
+
+        return new CompactBlock(version, prevHash, merkleRoot, timestamp, bits, nonce, size, salt, shortIds, prefilled);
+    }
+
+    private static void writeHash(BinaryCodec.Writer w, byte[] hash) {
+        if (hash.length != HASH_SIZE) {
+            throw new IllegalArgumentException("Hash must be " + HASH_SIZE + " bytes");
+        }
+        w.writeRaw(hash);
+    }
+
+    private static byte[] readHash(ByteBuffer buffer) {
+        byte[] hash = new byte[HASH_SIZE];
+        buffer.get(hash);
+        return hash;
+    }
+
+    /**
+     * 목록 개수 읽기 (과도한 사전 할당 방지)
+     */
+    static int readCount(ByteBuffer buffer) {
+        int count = BinaryCodec.readCount(buffer);
+        if (count > MAX_LIST_SIZE) {
+            throw new IllegalArgumentException("List too long: " + count);
+        }
+        return count;
+    }
+}
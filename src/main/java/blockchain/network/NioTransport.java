@@ -0,0 +1,377 @@
+package blockchain.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NIO 셀렉터 기반 P2P 전송 계층
+ * - 셀렉터 스레드 하나가 모든 피어의 accept / read / write 처리 (피어당 스레드 없음)
+ * - 프레임 = MessageCodec 봉투 (매직 / 명령 / 본문 길이 / 체크섬 + 본문) - 헤더의 길이로 경계 판단
+ * - 수신 프레임의 디코딩 / 처리는 작은 워커 풀에서 하되 피어별 순서는 유지
+ * - 송신은 피어별 우선순위 큐에 넣고 셀렉터가 쓰기 가능할 때 전송 (호출 스레드는 블록되지 않음)
+ *   큐가 가득 차면 트랜잭션은 버리고, 블록 / 동기화 메시지가 밀린 피어는 연결 종료 (OutboundQueue)
+ */
+class NioTransport {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 2;       // 셀렉터의 수신 / 송신 스테이징 버퍼
+
+    /**
+     * 전송 계층 이벤트 수신자
+     */
+    interface Handler {
+        void onAccepted(Peer peer);
+
+        void onMessage(Peer peer, Message message);
+
+        void onClosed(Peer peer);
+    }
+
+    private final Handler handler;
+    private final BufferPool bufferPool;
+    private final ExecutorService workers;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * @param workerThreads 메시지 처리 워커 스레드 수
+     */
+    NioTransport(Handler handler, int workerThreads) {
+        this.handler = handler;
+        this.bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "p2p-worker-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 셀렉터 스레드 시작 (여러 번 호출해도 한 번만 시작)
+     */
+    synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        running = true;
+
+        selectorThread = new Thread(this::runSelector, "p2p-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * 수신 포트 열기
+     */
+    void listen(int port) throws IOException {
+        start();
+
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+        serverChannel = channel;
+
+        runOnSelector(() -> {
+            try {
+                channel.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (ClosedChannelException e) {
+                System.err.println("Failed to register server channel: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 연결된 피어 채널을 셀렉터에 등록
+     */
+    void register(Peer peer) throws IOException {
+        start();
+        peer.attach(this);
+
+        runOnSelector(() -> {
+            try {
+                peer.getChannel().configureBlocking(false);
+                peer.setSelectionKey(peer.getChannel().register(selector, SelectionKey.OP_READ, peer));
+                // 등록 전에 쌓인 송신 프레임이 있으면 바로 쓰기 대기
+                if (!peer.getOutboundQueue().isEmpty()) {
+                    peer.getSelectionKey().interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            } catch (IOException e) {
+                peer.disconnect();
+            }
+        });
+    }
+
+    /**
+     * 메시지를 프레임으로 인코딩해 송신 큐에 추가 (셀렉터 스레드가 전송)
+     * 큐에는 인코딩 결과를 감싼 heap 버퍼를 그대로 넣음 - 큐 상한이 실제로 잡고 있는 메모리와 같아짐
+     * (작은 프레임마다 64KB direct 버퍼를 잡으면 상한보다 수백 배 많은 메모리를 쓰게 됨)
+     * @throws IOException 블록 / 동기화 큐가 가득 찬 경우 (호출 측이 연결 종료)
+     */
+    void send(Peer peer, Message message) throws IOException {
+        ByteBuffer frame = ByteBuffer.wrap(message.toBytes());
+        OutboundQueue.Priority priority = OutboundQueue.priorityOf(message);
+
+        OutboundQueue.Result result = peer.getOutboundQueue().offer(frame, priority);
+        if (result != OutboundQueue.Result.QUEUED) {
+            if (result == OutboundQueue.Result.OVERFLOW) {
+                throw new IOException("Outbound queue full (" + peer.getQueuedBytes() + " bytes queued)");
+            }
+            return;     // 트랜잭션 릴레이는 최선 노력 - 버린 수만 기록
+        }
+        runOnSelector(() -> enableWrite(peer));
+    }
+
+    /**
+     * 피어 연결 정리 (Peer.disconnect에서 한 번만 호출) 후 종료 알림
+     */
+    void close(Peer peer) {
+        SelectionKey key = peer.getSelectionKey();
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            peer.getChannel().close();
+        } catch (IOException ignored) {
+        }
+
+        peer.getOutboundQueue().clear();
+
+        if (!workers.isShutdown()) {
+            workers.execute(() -> handler.onClosed(peer));
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException ignored) {
+        }
+        workers.shutdown();
+    }
+
+    // ========== 셀렉터 루프 ==========
+
+    private void runSelector() {
+        ByteBuffer readBuffer = bufferPool.acquire();
+        ByteBuffer writeBuffer = bufferPool.acquire();
+
+        while (running) {
+            try {
+                selector.select();
+
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    Peer peer = (Peer) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(peer, readBuffer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(peer, writeBuffer);
+                        }
+                    } catch (IOException e) {
+                        peer.disconnect();
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Selector error: " + e.getMessage());
+                }
+            }
+        }
+
+        bufferPool.release(readBuffer);
+        bufferPool.release(writeBuffer);
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+
+        System.out.println("New peer connection from: " + channel.socket().getInetAddress().getHostAddress());
+
+        Peer peer = new Peer(channel);
+        peer.attach(this);
+        peer.setSelectionKey(channel.register(selector, SelectionKey.OP_READ, peer));
+        handler.onAccepted(peer);
+    }
+
+    /**
+     * 읽을 수 있는 만큼 읽어 완성된 프레임마다 메시지로 디코딩
+     */
+    private void read(Peer peer, ByteBuffer readBuffer) throws IOException {
+        readBuffer.clear();
+        int read = peer.getChannel().read(readBuffer);
+        if (read < 0) {
+            throw new IOException("Connection closed by peer");
+        }
+        readBuffer.flip();
+
+        while (readBuffer.hasRemaining()) {
+            byte[] body = peer.readFrame(readBuffer);
+            if (body == null) {
+                break;
+            }
+            dispatch(peer, body);
+        }
+
+        // 수신함이 상한을 넘으면 워커가 비울 때까지 읽지 않음 (커널 수신 버퍼 -> TCP 흐름 제어)
+        if (peer.isInboxFull() && peer.pauseReading()) {
+            SelectionKey key = peer.getSelectionKey();
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            // 그 사이 워커가 비웠으면 바로 재개
+            if (!peer.isInboxFull() && peer.resumeReading()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    /**
+     * 송신 큐의 프레임을 소켓 버퍼가 받아주는 만큼 전송
+     * heap 프레임을 셀렉터의 direct 스테이징 버퍼에 나눠 복사해 씀
+     * (heap 버퍼를 채널에 바로 쓰면 JDK가 프레임 크기만큼 임시 direct 버퍼를 할당)
+     */
+    private void write(Peer peer, ByteBuffer writeBuffer) throws IOException {
+        OutboundQueue queue = peer.getOutboundQueue();
+        ByteBuffer frame;
+        while ((frame = queue.peek()) != null) {
+            while (frame.hasRemaining()) {
+                int chunk = Math.min(frame.remaining(), writeBuffer.capacity());
+                writeBuffer.clear();
+                writeBuffer.put(frame.slice(frame.position(), chunk)).flip();
+
+                // 소켓이 받은 만큼만 프레임 위치를 옮김 (남은 바이트는 다음에 다시 복사)
+                int written = peer.getChannel().write(writeBuffer);
+                frame.position(frame.position() + written);
+                if (writeBuffer.hasRemaining()) {
+                    return;     // 소켓 버퍼가 가득 참 - 다음 OP_WRITE에서 이어서
+                }
+            }
+            queue.complete();
+        }
+        SelectionKey key = peer.getSelectionKey();
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * 쓰기 대기 추가 (관심 연산은 비트로만 더하고 빼서 읽기 중지 상태를 덮어쓰지 않음)
+     */
+    private void enableWrite(Peer peer) {
+        SelectionKey key = peer.getSelectionKey();
+        if (key != null && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void enableRead(Peer peer) {
+        SelectionKey key = peer.getSelectionKey();
+        if (key != null && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * 워커 풀에서 프레임 처리 (피어별 수신함을 한 번에 한 워커만 비움 -> 순서 보장)
+     */
+    private void dispatch(Peer peer, byte[] frame) {
+        peer.enqueueInbound(frame);
+        if (peer.tryStartDraining()) {
+            workers.execute(() -> drainInbox(peer));
+        }
+    }
+
+    private void drainInbox(Peer peer) {
+        do {
+            try {
+                byte[] frame;
+                while ((frame = peer.pollInbound()) != null) {
+                    // 상한 아래로 내려가면 중지된 읽기 재개
+                    if (!peer.isInboxFull() && peer.resumeReading()) {
+                        runOnSelector(() -> enableRead(peer));
+                    }
+
+                    Message message;
+                    try {
+                        message = Message.fromBytes(frame);
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Malformed message from " + peer.getId() + ": " + e.getMessage());
+                        peer.disconnect();
+                        peer.clearInbox();
+                        break;
+                    }
+
+                    try {
+                        handler.onMessage(peer, message);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error processing message from " + peer.getId() + ": " + e.getMessage());
+                    }
+                }
+            } finally {
+                // 예외로 빠져나가도 수신함이 멈춘 채로 남지 않도록
+                peer.stopDraining();
+            }
+        } while (peer.hasInbound() && peer.tryStartDraining());
+    }
+
+    private void runOnSelector(Runnable task) {
+        if (Thread.currentThread() == selectorThread) {
+            task.run();
+            return;
+        }
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    // ========== 상태 ==========
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+}
@@ -0,0 +1,178 @@
+package blockchain.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 피어별 송신 큐 (우선순위 2단계, 바이트 기준 상한)
+ * - HIGH: 블록 / 헤더 / 동기화 응답 등 - 넘치면 피어가 읽지 않는 것으로 보고 연결 종료
+ * - LOW: 트랜잭션 / 트랜잭션 INV - 넘치면 새 메시지를 버림 (상대가 나중에 다시 받을 수 있음)
+ * 셀렉터 스레드는 HIGH를 먼저 비우며, 전송 중인 프레임은 끝까지 보낸 뒤에 다음 프레임을 고름
+ */
+class OutboundQueue {
+
+    static final long MAX_HIGH_BYTES = 64L * 1024 * 1024;
+    static final long MAX_LOW_BYTES = 4L * 1024 * 1024;
+
+    enum Priority {
+        HIGH,
+        LOW
+    }
+
+    enum Result {
+        QUEUED,         // 큐에 추가됨
+        DROPPED,        // LOW 큐가 가득 차서 버림
+        OVERFLOW        // HIGH 큐가 가득 참 (연결 종료 대상)
+    }
+
+    private final ArrayDeque<ByteBuffer> high = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> low = new ArrayDeque<>();
+    private long highBytes;
+    private long lowBytes;
+
+    // 전송 중인 프레임 (끝까지 보낼 때까지 다른 프레임이 끼어들지 않음)
+    private ByteBuffer current;
+    private Priority currentPriority;
+    private int currentSize;
+
+    // 통계
+    private long sentFrames;
+    private long droppedFrames;
+    private long peakBytes;
+
+    /**
+     * 메시지 종류별 우선순위
+     * 트랜잭션 관련 메시지만 LOW (블록 항목이 포함된 INV / GET_DATA는 HIGH)
+     */
+    static Priority priorityOf(Message message) {
+        switch (message.getType()) {
+            case NEW_TRANSACTION:
+                return Priority.LOW;
+            case INV:
+            case GET_DATA: {
+                @SuppressWarnings("unchecked")
+                List<InventoryItem> items = (List<InventoryItem>) message.getPayload();
+                for (InventoryItem item : items) {
+                    if (item.getType() == InventoryItem.Type.BLOCK) {
+                        return Priority.HIGH;
+                    }
+                }
+                return Priority.LOW;
+            }
+            default:
+                return Priority.HIGH;
+        }
+    }
+
+    /**
+     * 프레임 추가 (상한은 프레임 바이트 수로 계산 - 프레임은 인코딩 결과만 감싼 heap 버퍼)
+     * @param frame 읽기 위치가 프레임 시작인 버퍼
+     */
+    synchronized Result offer(ByteBuffer frame, Priority priority) {
+        int size = frame.remaining();
+        if (priority == Priority.HIGH) {
+            if (highBytes + size > MAX_HIGH_BYTES) {
+                droppedFrames++;
+                return Result.OVERFLOW;
+            }
+            high.addLast(frame);
+            highBytes += size;
+        } else {
+            if (lowBytes + size > MAX_LOW_BYTES) {
+                droppedFrames++;
+                return Result.DROPPED;
+            }
+            low.addLast(frame);
+            lowBytes += size;
+        }
+
+        peakBytes = Math.max(peakBytes, highBytes + lowBytes);
+        return Result.QUEUED;
+    }
+
+    /**
+     * 전송할 프레임 (전송 중인 프레임이 있으면 그대로, 없으면 HIGH -> LOW 순으로 꺼냄)
+     * @return 보낼 프레임 (비어 있으면 null)
+     */
+    synchronized ByteBuffer peek() {
+        if (current == null) {
+            if (!high.isEmpty()) {
+                current = high.pollFirst();
+                currentPriority = Priority.HIGH;
+            } else if (!low.isEmpty()) {
+                current = low.pollFirst();
+                currentPriority = Priority.LOW;
+            } else {
+                return null;
+            }
+            currentSize = current.remaining();
+        }
+        return current;
+    }
+
+    /**
+     * 전송이 끝난 현재 프레임 제거
+     * @return 완료된 프레임
+     */
+    synchronized ByteBuffer complete() {
+        ByteBuffer done = current;
+        if (done == null) {
+            return null;
+        }
+        if (currentPriority == Priority.HIGH) {
+            highBytes -= currentSize;
+        } else {
+            lowBytes -= currentSize;
+        }
+        current = null;
+        sentFrames++;
+        return done;
+    }
+
+    synchronized boolean isEmpty() {
+        return current == null && high.isEmpty() && low.isEmpty();
+    }
+
+    /**
+     * 전부 비움 (연결 종료 시)
+     * @return 버린 프레임
+     */
+    synchronized List<ByteBuffer> clear() {
+        List<ByteBuffer> frames = new ArrayList<>(high.size() + low.size() + 1);
+        if (current != null) {
+            frames.add(current);
+            current = null;
+        }
+        frames.addAll(high);
+        frames.addAll(low);
+        high.clear();
+        low.clear();
+        highBytes = 0;
+        lowBytes = 0;
+        return frames;
+    }
+
+    // ========== 통계 ==========
+
+    synchronized long getQueuedBytes() {
+        return highBytes + lowBytes;
+    }
+
+    synchronized int getQueuedFrames() {
+        return high.size() + low.size() + (current != null ? 1 : 0);
+    }
+
+    synchronized long getSentFrames() {
+        return sentFrames;
+    }
+
+    synchronized long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+}
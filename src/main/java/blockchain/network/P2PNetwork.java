@@ -1,7 +1,9 @@
 package blockchain.network;
 
 import blockchain.block.Block;
+import blockchain.block.BlockHeader;
 import blockchain.node.Node;
+import blockchain.transaction.Mempool;
 import blockchain.transaction.Transaction;
 
 import java.io.IOException;
@@ -15,17 +17,29 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class P2PNetwork {
 
+    private static final int WORKER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
     private final Node node;
+    private final NioTransport transport;
     private final P2PServer server;
     private final List<Peer> peers;
     private final ConcurrentHashMap<String, Peer> peerMap;
+    private final BlockDownloadManager downloads;
+    private final ChainSync chainSync;
+    private final InventoryRelay relay;
+    private final CompactBlockRelay compactBlocks;
     private String nodeId;
 
     public P2PNetwork(Node node, int port) {
         this.node = node;
-        this.server = new P2PServer(port, this);
+        this.transport = new NioTransport(new TransportHandler(), WORKER_THREADS);
+        this.server = new P2PServer(port, transport);
         this.peers = new CopyOnWriteArrayList<>();
         this.peerMap = new ConcurrentHashMap<>();
+        this.downloads = new BlockDownloadManager(this);
+        this.chainSync = new ChainSync(node, this, downloads);
+        this.relay = new InventoryRelay(node, this);
+        this.compactBlocks = new CompactBlockRelay(node, this);
 
         try {
             this.nodeId = node.getAddress();
@@ -50,8 +64,14 @@ public class P2PNetwork {
         Peer peer = new Peer(address, port);
 
         if (peer.connect()) {
+            try {
+                transport.register(peer);
+            } catch (IOException e) {
+                System.err.println("Failed to register peer " + peerId + ": " + e.getMessage());
+                peer.disconnect();
+                return false;
+            }
             addPeer(peer);
-            new Thread(() -> handlePeerMessages(peer)).start();
             return true;
         }
 
@@ -69,25 +89,36 @@ public class P2PNetwork {
     }
 
     public void removePeer(Peer peer) {
-        peers.remove(peer);
-        peerMap.remove(peer.getId());
         peer.disconnect();
+        if (!peers.remove(peer)) {
+            return;
+        }
+        peerMap.remove(peer.getId());
+        chainSync.onPeerDisconnected(peer);
+        downloads.onPeerDisconnected(peer);
 
         System.out.println("Peer removed: " + peer.getId());
     }
 
-    public void handlePeerMessages(Peer peer) {
-        try {
-            while (peer.isConnected()) {
-                Message message = peer.receiveMessage();
+    /**
+     * 전송 계층 이벤트 처리 (워커 스레드에서 호출, 피어별 순서 보장)
+     */
+    private class TransportHandler implements NioTransport.Handler {
+        @Override
+        public void onAccepted(Peer peer) {
+            addPeer(peer);
+        }
 
-                System.out.println("Received: " + message.getType() +
-                        " from " + peer.getId());
+        @Override
+        public void onMessage(Peer peer, Message message) {
+            System.out.println("Received: " + message.getType() +
+                    " from " + peer.getId());
 
-                handleMessage(message, peer);
-            }
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error handling messages from " + peer.getId());
+            handleMessage(message, peer);
+        }
+
+        @Override
+        public void onClosed(Peer peer) {
             removePeer(peer);
         }
     }
@@ -96,20 +127,64 @@ public class P2PNetwork {
         try {
             switch (message.getType()) {
                 case NEW_BLOCK:
-                    handleNewBlock((Block) message.getPayload());
+                    handleNewBlock((Block) message.getPayload(), sender);
                     break;
 
                 case NEW_TRANSACTION:
-                    handleNewTransaction((Transaction) message.getPayload());
+                    handleNewTransaction((Transaction) message.getPayload(), sender);
+                    break;
+
+                case INV:
+                    relay.onInv(sender, (List<InventoryItem>) message.getPayload());
+                    break;
+
+                case GET_DATA:
+                    relay.onGetData(sender, (List<InventoryItem>) message.getPayload());
+                    break;
+
+                case GET_HEADERS:
+                    chainSync.onGetHeaders(sender, (List<byte[]>) message.getPayload());
+                    break;
+
+                case HEADERS:
+                    chainSync.onHeaders(sender, (List<BlockHeader>) message.getPayload());
+                    break;
+
+                case GET_BLOCKS:
+                    chainSync.onGetBlocks(sender, (List<byte[]>) message.getPayload());
+                    break;
+
+                case BLOCK: {
+                    // 동기화 중 요청한 블록이 아니면 GET_DATA 응답 (새 블록)
+                    Block block = (Block) message.getPayload();
+                    if (!chainSync.onBlock(sender, block)) {
+                        handleNewBlock(block, sender);
+                    }
+                    break;
+                }
+
+                case CMPCT_BLOCK: {
+                    CompactBlock compact = (CompactBlock) message.getPayload();
+                    relay.onReceived(sender, compact.getBlockHash());
+                    Block block = compactBlocks.onCompactBlock(sender, compact);
+                    if (block != null) {
+                        handleNewBlock(block, sender);
+                    }
                     break;
+                }
 
-                case REQUEST_CHAIN:
-                    handleChainRequest(sender);
+                case GET_BLOCK_TXN:
+                    compactBlocks.onGetBlockTransactions(sender, (CompactBlock.TransactionRequest) message.getPayload());
                     break;
 
-                case RESPONSE_CHAIN:
-                    handleChainResponse((List<Block>) message.getPayload());
+                case BLOCK_TXN: {
+                    Block block = compactBlocks.onBlockTransactions(sender,
+                            (CompactBlock.TransactionResponse) message.getPayload());
+                    if (block != null) {
+                        handleNewBlock(block, sender);
+                    }
                     break;
+                }
 
                 case PING:
                     handlePing(sender);
@@ -124,52 +199,51 @@ public class P2PNetwork {
         }
     }
 
-    private void handleNewBlock(Block block) {
+    private void handleNewBlock(Block block, Peer sender) {
         System.out.println("\n=== Received New Block ===");
         System.out.println("Block Hash: " + bytesToHex(block.getBlockHash()).substring(0, 16) + "...");
 
+        relay.onReceived(sender, block.getBlockHash());
+        if (node.getHeaderChain().contains(block.getBlockHash())) {
+            System.out.println("Block already in chain");
+            System.out.println("=========================\n");
+            return;
+        }
+
         boolean added = node.receiveBlock(block);
 
         if (added) {
             System.out.println("✓ Block added to local chain");
+            relay.onBlockConnected();
+            relay.push(block.getBlockHash(), sender, Message.MessageType.CMPCT_BLOCK, compactBlocks.create(block));
+        } else if (!node.getHeaderChain().contains(block.getPrevHash())) {
+            // 부모를 모르면 보낸 피어가 더 앞선 체인에 있으므로 헤더 동기화
+            System.out.println("⚠ Unknown parent - starting header sync with " + sender.getId());
+            chainSync.start(sender);
         } else {
             System.out.println("✗ Block rejected");
         }
         System.out.println("=========================\n");
     }
 
-    private void handleNewTransaction(Transaction tx) {
+    /**
+     * 트랜잭션 수신: 메모리 풀에 추가되면 다른 피어들에게 INV로 전파
+     */
+    private void handleNewTransaction(Transaction tx, Peer sender) {
         System.out.println("Received transaction: " +
                 bytesToHex(tx.getTxid()).substring(0, 16) + "...");
-    }
-
-    private void handleChainRequest(Peer sender) {
-        System.out.println("Chain request from: " + sender.getId());
 
-        try {
-            List<Block> chain = node.getBlockList();
-            Message response = new Message(
-                    Message.MessageType.RESPONSE_CHAIN,
-                    chain,
-                    nodeId
-            );
-
-            sender.sendMessage(response);
-        } catch (IOException e) {
-            System.err.println("Failed to send chain: " + e.getMessage());
+        relay.onReceived(sender, tx.getTxid());
+        Mempool mempool = node.getMempool();
+        if (mempool == null || mempool.containsTransaction(bytesToHex(tx.getTxid()))) {
+            return;
         }
-    }
-
-    private void handleChainResponse(List<Block> receivedChain) {
-        System.out.println("\n=== Received Blockchain ===");
-        System.out.println("Received chain length: " + receivedChain.size());
-        System.out.println("Current chain length: " + node.getChainLength());
 
-        if (receivedChain.size() > node.getChainLength()) {
-            node.replaceChain(receivedChain);
+        if (mempool.addTransaction(tx)) {
+            relay.announce(new InventoryItem(InventoryItem.Type.TX, tx.getTxid()), sender);
+        } else {
+            relay.onTransactionRejected(tx.getTxid());
         }
-
-        System.out.println("==========================\n");
     }
 
     private void handlePing(Peer sender) {
@@ -181,53 +255,76 @@ public class P2PNetwork {
         }
     }
 
+    /**
+     * 블록 전파 (컴팩트 블록 - 상대는 메모리 풀로 복원하고 없는 트랜잭션만 요청)
+     */
     public void broadcastBlock(Block block) {
         System.out.println("\n=== Broadcasting Block ===");
-        System.out.println("To " + peers.size() + " peers");
 
-        Message message = new Message(Message.MessageType.NEW_BLOCK, block, nodeId);
-        broadcast(message);
+        relay.onBlockConnected();
+        CompactBlock compact = compactBlocks.create(block);
+        int sent = relay.push(block.getBlockHash(), null, Message.MessageType.CMPCT_BLOCK, compact);
+        System.out.println("Sent compact block to " + sent + " peers (" + compact.prefilled.size()
+                + "/" + compact.getTransactionCount() + " transactions prefilled)");
 
         System.out.println("=========================\n");
     }
 
+    /**
+     * 헤더 우선 동기화 시작 (헤더는 연결된 첫 피어에게서, 본문은 모든 피어에게서 병렬로)
+     */
     public boolean requestChainSync() {
-        if (peers.isEmpty()) {
-            System.out.println("No peers to sync with");
-            return false;
+        for (Peer peer : peers) {
+            if (peer.isConnected()) {
+                return chainSync.start(peer);
+            }
         }
 
-        System.out.println("Requesting blockchain from peers...");
+        System.out.println("No peers to sync with");
+        return false;
+    }
 
-        Message message = new Message(Message.MessageType.REQUEST_CHAIN, null, nodeId);
-        broadcast(message);
-        return true;
+    /**
+     * 한 피어에게 메시지 전송
+     * 실패하면 연결만 끊고, 피어 제거는 수신 스레드가 처리
+     * (동기화 / 다운로드 관리자 락 안에서 호출되므로 여기서 다른 락을 잡지 않음)
+     * @return 전송 성공 여부
+     */
+    boolean sendTo(Peer peer, Message.MessageType type, Object payload) {
+        return sendTo(peer, newMessage(type, payload));
     }
 
-    private void broadcast(Message message) {
-        List<Peer> failedPeers = new ArrayList<>();
+    /**
+     * 같은 메시지를 여러 피어에게 보낼 때 사용 (인코딩은 한 번만)
+     */
+    boolean sendTo(Peer peer, Message message) {
+        try {
+            peer.sendMessage(message);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to send " + message.getType() + " to " + peer.getId() + ": " + e.getMessage());
+            peer.disconnect();
+            return false;
+        }
+    }
+
+    Message newMessage(Message.MessageType type, Object payload) {
+        return new Message(type, payload, nodeId);
+    }
 
+    /**
+     * 연결된 피어 목록 (블록 다운로드 분배용)
+     */
+    List<Peer> getConnectedPeers() {
+        List<Peer> connected = new ArrayList<>();
         for (Peer peer : peers) {
-            try {
-                if (peer.isConnected()) {
-                    peer.sendMessage(message);
-                    System.out.println("  ✓ Sent to " + peer.getId());
-                } else {
-                    failedPeers.add(peer);
-                }
-            } catch (IOException e) {
-                System.err.println("Failed to send to " + peer.getId() + ": " + e.getMessage());
-                e.printStackTrace(); // ← 상세 에러 출력
-                failedPeers.add(peer);
+            if (peer.isConnected()) {
+                connected.add(peer);
             }
         }
-
-        for (Peer peer : failedPeers) {
-            removePeer(peer);
-        }
+        return connected;
     }
 
-
     public void shutdown() {
         System.out.println("Shutting down P2P network...");
 
@@ -236,6 +333,8 @@ public class P2PNetwork {
         }
 
         server.stop();
+        transport.shutdown();
+        downloads.shutdown();
         System.out.println("P2P network shutdown complete");
     }
 
@@ -243,6 +342,13 @@ public class P2PNetwork {
         return peers.size();
     }
 
+    /**
+     * 피어 목록 (송신 큐 통계 조회용)
+     */
+    public List<Peer> getPeers() {
+        return new ArrayList<>(peers);
+    }
+
     private String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder();
         for (byte b : bytes) {
@@ -252,16 +358,15 @@ public class P2PNetwork {
     }
 
     /**
-     * 트랜잭션 브로드캐스트
+     * 트랜잭션 브로드캐스트 (INV - 본문은 상대가 GET_DATA로 요청할 때만 전송)
      * @param tx 브로드캐스트할 트랜잭션
      */
     public void broadcastTransaction(Transaction tx) {
         System.out.println("📡 Broadcasting Transaction");
         System.out.println("   TXID: " + bytesToHex(tx.getTxid()).substring(0, 16) + "...");
-        System.out.println("   To " + peers.size() + " peers");
 
-        Message message = new Message(Message.MessageType.NEW_TRANSACTION, tx, nodeId);
-        broadcast(message);
+        int sent = relay.announce(new InventoryItem(InventoryItem.Type.TX, tx.getTxid()), null);
+        System.out.println("   Announced to " + sent + " peers");
 
         System.out.println("✓ Transaction broadcast complete\n");
     }
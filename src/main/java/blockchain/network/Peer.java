@@ -1,82 +1,117 @@
 package blockchain.network;
 
-import java.io.*;
-import java.net.Socket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 연결된 피어 노드
+ * 소켓 입출력은 NioTransport의 셀렉터 스레드가 처리하고,
+ * 피어는 송신 큐 / 수신함 / 수신 중인 프레임 상태만 가짐
  */
 public class Peer {
     private final String address;
     private final int port;
-    private Socket socket;
-    private ObjectOutputStream out;
-    private ObjectInputStream in;
-    private boolean connected;
+    private SocketChannel channel;
+    private NioTransport transport;
+    private SelectionKey selectionKey;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // 이 피어가 이미 가진 것으로 아는 인벤토리 (주고받은 INV / 본문) - 오래된 항목부터 제거
+    private static final int MAX_KNOWN_INVENTORY = 20_000;
+    private final Map<ByteBuffer, Boolean> knownInventory = new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+            return size() > MAX_KNOWN_INVENTORY;
+        }
+    };
+
+    // 송신 프레임 큐 (우선순위 / 상한 - 셀렉터 스레드가 비움)
+    private final OutboundQueue outbound = new OutboundQueue();
+
+    // 수신 프레임함 (워커 하나가 순서대로 디코딩 / 처리)
+    // 쌓인 바이트가 상한을 넘으면 워커가 비울 때까지 소켓 읽기 중지 (OP_READ 해제)
+    static final long MAX_INBOX_BYTES = 4 * 1024 * 1024;
+    private final Queue<byte[]> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicLong inboxBytes = new AtomicLong();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean readPaused = new AtomicBoolean(false);
+
+    // 수신 중인 프레임 (봉투 헤더 -> 본문)
+    // 선언된 본문 길이만큼 미리 잡지 않고 실제로 받은 만큼 버퍼를 늘림
+    static final int INITIAL_FRAME_CAPACITY = 64 * 1024;
+    private final ByteBuffer frameHeader = ByteBuffer.allocate(MessageCodec.HEADER_SIZE);
+    private byte[] frame;
+    private int frameLength;
+    private int framePosition;
 
     public Peer(String address, int port) {
         this.address = address;
         this.port = port;
-        this.connected = false;
     }
 
-    public Peer(Socket socket) throws IOException {
-        this.socket = socket;
-        this.address = socket.getInetAddress().getHostAddress();
-        this.port = socket.getPort();
-        this.connected = true;
-
-        this.out = new ObjectOutputStream(socket.getOutputStream());
-        this.out.flush();
-        this.in = new ObjectInputStream(socket.getInputStream());
+    /**
+     * 수신한 연결로 생성 (NioTransport accept)
+     */
+    Peer(SocketChannel channel) throws IOException {
+        InetSocketAddress remote = (InetSocketAddress) channel.getRemoteAddress();
+        this.channel = channel;
+        this.address = remote.getAddress().getHostAddress();
+        this.port = remote.getPort();
     }
 
+    /**
+     * 피어에 연결 (연결까지만 블로킹, 이후 NioTransport에 등록해 논블로킹으로 사용)
+     */
     public boolean connect() {
         try {
-            socket = new Socket(address, port);
-            out = new ObjectOutputStream(socket.getOutputStream());
-            out.flush();
-            in = new ObjectInputStream(socket.getInputStream());
-            connected = true;
-
+            channel = SocketChannel.open(new InetSocketAddress(address, port));
             System.out.println("✓ Connected to peer: " + address + ":" + port);
             return true;
 
         } catch (IOException e) {
             System.err.println("✗ Failed to connect to " + address + ":" + port);
-            connected = false;
             return false;
         }
     }
 
-    public synchronized void sendMessage(Message message) throws IOException {
-        if (!connected || out == null) {
-            throw new IOException("Not connected to peer");
-        }
-
-        out.writeObject(message);
-        out.flush();
-    }
-
-    public Message receiveMessage() throws IOException, ClassNotFoundException {
-        if (!connected || in == null) {
+    /**
+     * 메시지 전송 (송신 큐에 넣고 바로 반환)
+     * 트랜잭션 큐가 가득 차면 조용히 버리고, 블록 큐가 가득 차면 IOException
+     */
+    public void sendMessage(Message message) throws IOException {
+        if (!isConnected() || transport == null) {
             throw new IOException("Not connected to peer");
         }
 
-        return (Message) in.readObject();
+        transport.send(this, message);
     }
 
     public void disconnect() {
-        try {
-            connected = false;
-            if (in != null) in.close();
-            if (out != null) out.close();
-            if (socket != null) socket.close();
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
 
-            System.out.println("Disconnected from peer: " + address + ":" + port);
-        } catch (IOException e) {
-            System.err.println("Error disconnecting: " + e.getMessage());
+        if (transport != null) {
+            transport.close(this);
+        } else if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error disconnecting: " + e.getMessage());
+            }
         }
+
+        System.out.println("Disconnected from peer: " + address + ":" + port);
     }
 
     public String getAddress() {
@@ -84,15 +119,188 @@ public class Peer {
     }
 
     public boolean isConnected() {
-        return connected && socket != null && !socket.isClosed();
+        return !closed.get() && channel != null && channel.isOpen();
     }
 
     public String getId() {
         return address + ":" + port;
     }
 
+    // ========== 송신 큐 통계 ==========
+
+    public long getQueuedBytes() {
+        return outbound.getQueuedBytes();
+    }
+
+    public int getQueuedMessages() {
+        return outbound.getQueuedFrames();
+    }
+
+    public long getSentMessages() {
+        return outbound.getSentFrames();
+    }
+
+    public long getDroppedMessages() {
+        return outbound.getDroppedFrames();
+    }
+
+    public long getPeakQueuedBytes() {
+        return outbound.getPeakBytes();
+    }
+
+    // ========== 인벤토리 ==========
+
+    /**
+     * 피어가 가진 것으로 기록
+     * @return 새로 기록했는지 여부 (이미 알고 있었으면 false)
+     */
+    public boolean addKnownInventory(byte[] hash) {
+        synchronized (knownInventory) {
+            return knownInventory.put(ByteBuffer.wrap(hash), Boolean.TRUE) == null;
+        }
+    }
+
+    public boolean knowsInventory(byte[] hash) {
+        synchronized (knownInventory) {
+            return knownInventory.containsKey(ByteBuffer.wrap(hash));
+        }
+    }
+
+    // ========== 전송 계층 상태 (NioTransport 전용) ==========
+
+    void attach(NioTransport transport) {
+        this.transport = transport;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    SelectionKey getSelectionKey() {
+        return selectionKey;
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+
+    /**
+     * 수신함에 프레임 추가
+     */
+    void enqueueInbound(byte[] frame) {
+        inbox.add(frame);
+        inboxBytes.addAndGet(frame.length);
+    }
+
+    /**
+     * @return 다음 프레임 (비었으면 null)
+     */
+    byte[] pollInbound() {
+        byte[] frame = inbox.poll();
+        if (frame != null) {
+            inboxBytes.addAndGet(-frame.length);
+        }
+        return frame;
+    }
+
+    void clearInbox() {
+        inbox.clear();
+        inboxBytes.set(0);
+    }
+
+    boolean hasInbound() {
+        return !inbox.isEmpty();
+    }
+
+    long getInboxBytes() {
+        return inboxBytes.get();
+    }
+
+    boolean isInboxFull() {
+        return inboxBytes.get() >= MAX_INBOX_BYTES;
+    }
+
+    /**
+     * 읽기 중지 표시 (셀렉터 스레드가 OP_READ를 해제하기 전에 호출)
+     * @return 이번 호출로 중지되었는지 여부
+     */
+    boolean pauseReading() {
+        return readPaused.compareAndSet(false, true);
+    }
+
+    /**
+     * 읽기 재개 표시 (한 스레드만 true를 받아 OP_READ를 다시 설정)
+     */
+    boolean resumeReading() {
+        return readPaused.compareAndSet(true, false);
+    }
+
+    boolean isReadPaused() {
+        return readPaused.get();
+    }
+
+    boolean tryStartDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    void stopDraining() {
+        draining.set(false);
+    }
+
+    /**
+     * 수신 버퍼에서 프레임 하나를 이어서 읽음
+     * @return 완성된 프레임 (봉투 헤더 포함, 아직 덜 받았으면 null)
+     * @throws IOException 매직 / 본문 길이가 잘못된 경우
+     */
+    byte[] readFrame(ByteBuffer buffer) throws IOException {
+        if (frame == null) {
+            while (frameHeader.hasRemaining() && buffer.hasRemaining()) {
+                frameHeader.put(buffer.get());
+            }
+            if (frameHeader.hasRemaining()) {
+                return null;
+            }
+
+            frameHeader.flip();
+            int payloadLength = MessageCodec.readPayloadLength(frameHeader);
+            frameLength = MessageCodec.HEADER_SIZE + payloadLength;
+            frame = new byte[Math.min(frameLength, INITIAL_FRAME_CAPACITY)];
+            frameHeader.get(frame, 0, MessageCodec.HEADER_SIZE);
+            frameHeader.clear();
+            framePosition = MessageCodec.HEADER_SIZE;
+        }
+
+        int count = Math.min(buffer.remaining(), frameLength - framePosition);
+        if (framePosition + count > frame.length) {
+            // 두 배씩 늘리되 선언된 프레임 길이를 넘지 않음
+            long grown = Math.max(2L * frame.length, framePosition + count);
+            frame = Arrays.copyOf(frame, (int) Math.min(grown, frameLength));
+        }
+        buffer.get(frame, framePosition, count);
+        framePosition += count;
+
+        if (framePosition < frameLength) {
+            return null;
+        }
+
+        byte[] complete = frame;
+        frame = null;
+        return complete;
+    }
+
+    /**
+     * 수신 중인 프레임 버퍼 크기 (받은 만큼만 늘어났는지 확인용)
+     */
+    int getFrameCapacity() {
+        return frame == null ? 0 : frame.length;
+    }
+
     @Override
     public String toString() {
-        return address + ":" + port + (connected ? " [Connected]" : " [Disconnected]");
+        return address + ":" + port + (isConnected() ? " [Connected]" : " [Disconnected]");
     }
 }
@@ -0,0 +1,24 @@
+package blockchain.node;
+
+import blockchain.block.Block;
+
+/**
+ * 메인 체인 변경 알림 수신자 (Node.addChainListener로 등록)
+ * 알림은 블록을 연결한 스레드에서, UTXOSet 갱신이 끝난 뒤 호출됨
+ */
+public interface ChainListener {
+
+    /**
+     * 블록이 메인 체인에 연결됨
+     * @param height 연결된 높이
+     */
+    void onBlockConnected(Block block, int height);
+
+    /**
+     * 체인 재구성으로 블록이 메인 체인에서 빠짐
+     * 분기점 다음 블록부터 높이 순으로 알린 뒤 새 체인 블록의 연결을 알림
+     * (UTXOSet은 이미 새 체인 기준)
+     * @param height 빠지기 전 높이
+     */
+    void onBlockDisconnected(Block block, int height);
+}
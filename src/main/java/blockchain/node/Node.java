@@ -1,14 +1,22 @@
 package blockchain.node;
 
 import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.block.HeaderChain;
 import blockchain.block.GenesisBlock;
 import blockchain.network.P2PNetwork;
+import blockchain.node.mine.IntervalRetarget;
+import blockchain.node.mine.ProofOfWork;
+import blockchain.node.mine.RetargetStrategy;
 import blockchain.storage.BlockchainStorage;
+import blockchain.storage.MempoolSnapshot;
+import blockchain.transaction.Mempool;
 import blockchain.transaction.Transaction;
 import blockchain.transaction.TransactionInput;
 import blockchain.transaction.TransactionOutput;
 import blockchain.utxo.UTXO;
 import blockchain.utxo.UTXOSet;
+import blockchain.utxo.UTXOView;
 import blockchain.validation.TransactionValidator;
 import blockchain.validation.ValidationResult;
 import org.bitcoinj.base.Base58;
@@ -16,22 +24,35 @@ import org.bouncycastle.util.encoders.Hex;
 import util.Hash;
 import util.KeyGenerator;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Node {
     private final byte[] privateKey;
-    private final List<Block> blockList;
+    private final HeaderChain headerChain;
+    private volatile Block latestBlock;
     private UTXOSet utxoSet;
     private final TransactionValidator validator;
     private final BlockchainStorage storage;
     private P2PNetwork p2pNetwork;
+    private Mempool mempool;
+    private MempoolSnapshot mempoolSnapshot;
+    private final List<ChainListener> chainListeners = new CopyOnWriteArrayList<>();
+
+    // 체인 변경(블록 연결 / 재구성)을 한 번에 하나씩 수행하기 위한 락
+    // 검증 ~ Storage 커밋 ~ 메모리 / UTXO 갱신 ~ 알림까지 잡고, 브로드캐스트는 락 밖에서
+    private final Object chainLock = new Object();
+
+    // 난이도 조정 규칙 (채굴 / 검증이 같은 규칙으로 헤더 체인에서 계산)
+    private final RetargetStrategy retargetStrategy = new IntervalRetarget();
 
     public Node(String storagePath, int p2pPort) throws Exception {
         this.storage = new BlockchainStorage(storagePath);
         this.privateKey = loadOrGeneratePrivateKey();
-        this.blockList = new ArrayList<>();
+        this.headerChain = new HeaderChain();
         this.utxoSet = new UTXOSet();
 
         // ⭐ 블록체인 로드 또는 제네시스 생성 (한 번만 실행)
@@ -49,7 +70,7 @@ public class Node {
         if (p2pPort > 0) {
             System.out.println("P2P Port: " + p2pPort);
         }
-        System.out.println("Chain Height: " + blockList.size());
+        System.out.println("Chain Height: " + headerChain.size());
     }
 
     /**
@@ -58,21 +79,21 @@ public class Node {
     private void loadOrInitializeBlockchain() throws Exception {
         System.out.println("\n=== Initializing Blockchain ===");
 
-        // 1. Storage에서 로드 시도
-        List<Block> savedBlocks = storage.loadBlockchain();
+        // 1. Storage에서 헤더 체인 로드 시도 (블록 본문은 필요할 때 조회)
+        List<BlockHeader> savedHeaders = storage.loadHeaders();
 
-        if (!savedBlocks.isEmpty()) {
+        if (!savedHeaders.isEmpty()) {
             // Storage에 블록이 있으면 로드
             System.out.println("Found existing blockchain in storage");
-            blockList.addAll(savedBlocks);
+            headerChain.reset(withChainWork(savedHeaders));
 
-            // UTXO Set 재구축
-            System.out.println("Rebuilding UTXO Set...");
-            for (int i = 0; i < blockList.size(); i++) {
-                utxoSet.updateWithBlock(blockList.get(i), i);
-            }
+            latestBlock = storage.getBlock(headerChain.getTip().getBlockHash());
 
-            System.out.println("✓ Blockchain loaded: " + blockList.size() + " blocks");
+            // UTXO Set 로드 (저장된 UTXO가 현재 tip 기준일 때만 사용)
+            loadUTXOSet();
+            backfillUndo();
+
+            System.out.println("✓ Blockchain loaded: " + headerChain.size() + " blocks");
 
         } else {
             // Storage가 비어있으면 제네시스 블록 생성
@@ -81,22 +102,85 @@ public class Node {
 
             Block genesisBlock = GenesisBlock.getGenesisBlock();
 
+            BlockHeader genesisHeader = new BlockHeader(genesisBlock, 0, ProofOfWork.getWork(genesisBlock.getBits()));
+
+            // Storage에 저장 (원자적 커밋)
+            storage.commitBlock(genesisBlock, genesisHeader, List.of());
+
             // 메모리에 추가
-            blockList.add(genesisBlock);
+            headerChain.add(genesisHeader);
+            latestBlock = genesisBlock;
             utxoSet.updateWithBlock(genesisBlock, 0);
 
-            // Storage에 저장
-            storage.saveBlock(genesisBlock);
-            storage.saveBlockTransactions(genesisBlock);
-            storage.setChainHeight(1);
-            storage.setBestBlockHash(genesisBlock.getBlockHash());
-
             System.out.println("✓ Genesis Block created and saved");
         }
 
         System.out.println("================================\n");
     }
 
+    /**
+     * 누적 작업량이 없는 헤더(이전 포맷)에 작업량을 채워 넣음
+     * 높이 순 헤더 리스트를 한 번 순회하며 prev + work(bits) 로 계산
+     */
+    private List<BlockHeader> withChainWork(List<BlockHeader> headers) {
+        List<BlockHeader> result = new ArrayList<>(headers.size());
+        BigInteger chainWork = BigInteger.ZERO;
+
+        for (BlockHeader header : headers) {
+            chainWork = chainWork.add(ProofOfWork.getWork(header.getBits()));
+            result.add(header.getChainWork() != null ? header : header.withChainWork(chainWork));
+        }
+        return result;
+    }
+
+    /**
+     * UTXO Set 로드
+     * 저장된 UTXO 세트의 tip 해시가 체인 tip과 같으면 그대로 읽고,
+     * 다르면(이전 버전 저장소 등) 블록을 재생하여 재구축 후 저장
+     */
+    private void loadUTXOSet() throws Exception {
+        byte[] tipHash = latestBlock.getBlockHash();
+
+        if (Arrays.equals(storage.getUTXOTipHash(), tipHash)) {
+            int loaded = storage.forEachUTXO(utxoSet::addUTXO);
+            System.out.println("✓ UTXO Set loaded from storage: " + loaded + " UTXOs");
+            return;
+        }
+
+        // UTXO Set 재구축 (블록을 높이 순으로 하나씩 읽음)
+        System.out.println("Stored UTXO Set is missing or stale - rebuilding from blocks...");
+        utxoSet.clear();
+        for (int i = 0; i < headerChain.size(); i++) {
+            utxoSet.updateWithBlock(storage.getBlock(headerChain.get(i).getBlockHash()), i);
+        }
+        storage.rebuildUTXOs(utxoSet.getAllUTXOs(), tipHash);
+    }
+
+    /**
+     * 되돌리기 데이터 없이 저장된 블록 보충 (이전 버전 저장소 - 블록을 한 번 재생)
+     * 제네시스 블록의 되돌리기 데이터를 마지막에 기록해 완료 표시로 사용
+     */
+    private void backfillUndo() throws Exception {
+        byte[] genesisHash = headerChain.get(0).getBlockHash();
+        if (storage.getUndo(genesisHash) != null) {
+            return;
+        }
+
+        System.out.println("Block undo data is missing - replaying blocks to record it...");
+        UTXOSet replay = new UTXOSet();
+        for (int i = 0; i < headerChain.size(); i++) {
+            byte[] blockHash = headerChain.get(i).getBlockHash();
+            UTXOView view = new UTXOView(replay);
+            List<UTXO> spent = view.connectBlock(storage.getBlock(blockHash), i);
+            replay.applyView(view);
+            if (i > 0) {
+                storage.putUndo(blockHash, spent);
+            }
+        }
+        storage.putUndo(genesisHash, List.of());
+        System.out.println("✓ Undo data recorded for " + headerChain.size() + " blocks");
+    }
+
     /**
      * P2P 없는 노드 생성 (로컬 전용)
      */
@@ -135,17 +219,29 @@ public class Node {
      * @param broadcast P2P로 브로드캐스트 할지 여부
      */
     public boolean addBlock(Block block, boolean broadcast) {
-        if (isValidNewBlock(block, getLatestBlock())) {
-            return false;
+        boolean added;
+        synchronized (chainLock) {
+            added = connectBlock(block);
         }
 
-        // 블록 내 트랜잭션 검증
-        for (Transaction tx : block.getTransactions()) {
-            if (isCoinbaseTransaction(tx)) {
-                continue;
-            }
+        // P2P 브로드캐스트 (전송 실패 시 연결 정리가 체인 락을 기다리지 않도록 락 밖에서)
+        if (added && broadcast && p2pNetwork != null) {
+            p2pNetwork.broadcastBlock(block);
+        }
+        return added;
+    }
 
-            ValidationResult result = validator.validateTransaction(tx);
+    /**
+     * 현재 tip 위에 블록 연결 (chainLock 안에서 호출)
+     */
+    private boolean connectBlock(Block block) {
+        if (isValidNewBlock(block, getLatestBlock().getBlockHash(), headerChain.size(), getNextBits())) {
+            return false;
+        }
+
+        // 블록 내 트랜잭션 일괄 검증 (서명은 병렬, 첫 실패 시 중단)
+        List<ValidationResult> results = validator.validateBlock(block);
+        for (ValidationResult result : results) {
             if (!result.isValid()) {
                 System.out.println("Invalid transaction in block: " + result.getMessage());
                 return false;
@@ -153,32 +249,31 @@ public class Node {
         }
 
         try {
+            int height = headerChain.size();
+            BigInteger chainWork = getChainWork().add(ProofOfWork.getWork(block.getBits()));
+            BlockHeader header = new BlockHeader(block, height, chainWork);
+
+            // 블록이 사용하는 UTXO (체인 재구성 시 이 블록을 되돌리는 데 사용)
+            List<UTXO> spent = new UTXOView(utxoSet).connectBlock(block, height);
+
+            // Storage에 먼저 커밋 (블록/트랜잭션/UTXO/되돌리기 데이터/tip을 하나의 배치로 기록)
+            // 실패하면 메모리 상태는 변경되지 않음
+            storage.commitBlock(block, header, spent);
+
             // 메모리에 추가
-            blockList.add(block);
-            int height = blockList.size() - 1;
+            headerChain.add(header);
+            latestBlock = block;
 
             // UTXO Set 업데이트
             utxoSet.updateWithBlock(block, height);
 
-            // Storage에 저장
-            storage.saveBlock(block);
-            storage.saveBlockTransactions(block);
-            storage.setChainHeight(blockList.size());
-            storage.setBestBlockHash(block.getBlockHash());
-
             System.out.println("✓ Block added! Height: " + height);
-
-            // P2P 브로드캐스트
-            if (broadcast && p2pNetwork != null) {
-                p2pNetwork.broadcastBlock(block);
-            }
-
+            notifyConnected(block, height);
             return true;
 
         } catch (Exception e) {
             System.err.println("Failed to add block: " + e.getMessage());
             e.printStackTrace();
-            blockList.removeLast();
             return false;
         }
     }
@@ -191,61 +286,170 @@ public class Node {
     }
 
     /**
-     * 체인 교체 (더 긴 체인 수신 시)
+     * 체인 교체 (누적 작업량이 더 많은 체인 수신 시)
+     * @param newChain 제네시스부터의 전체 체인
      */
     public void replaceChain(List<Block> newChain) {
-        System.out.println("\n=== Evaluating New Chain ===");
-        System.out.println("Current chain length: " + blockList.size());
-        System.out.println("New chain length: " + newChain.size());
-
-        // 길이 체크
-        if (newChain.size() <= blockList.size()) {
-            System.out.println("✗ New chain is not longer");
-            return;
-        }
-
         // 제네시스 블록 검증
-        if (!GenesisBlock.isGenesisBlock(newChain.getFirst())) {
+        if (newChain.isEmpty() || !GenesisBlock.isGenesisBlock(newChain.getFirst())) {
             System.out.println("✗ Invalid genesis block");
             return;
         }
+        reorganize(0, newChain.subList(1, newChain.size()));
+    }
 
-        // 전체 체인 검증
-        for (int i = 1; i < newChain.size(); i++) {
-            if (isValidNewBlock(newChain.get(i), newChain.get(i - 1))) {
-                System.out.println("✗ Invalid block at height: " + i);
-                return;
-            }
+    /**
+     * 분기점 이후 블록으로 체인 재구성 (헤더 우선 동기화 / 체인 교체)
+     * 분기점이 현재 tip이면 블록을 순서대로 연결하고,
+     * 그 아래면 누적 작업량이 더 많을 때만 분기점 이후를 교체
+     * (되돌리기 데이터로 분기점까지 되돌린 뒤 새 블록의 트랜잭션까지 검증하고 변경분만 기록)
+     * @param forkHeight 공통 조상 블록 높이
+     * @param newBlocks 분기점 다음 블록부터 높이 순
+     * @return 메인 체인이 바뀌었는지 여부
+     */
+    public boolean reorganize(int forkHeight, List<Block> newBlocks) {
+        synchronized (chainLock) {
+            return reorganizeLocked(forkHeight, newBlocks);
         }
+    }
 
-        System.out.println("✓ New chain is valid");
+    private boolean reorganizeLocked(int forkHeight, List<Block> newBlocks) {
+        BlockHeader forkHeader = headerChain.get(forkHeight);
+        if (forkHeader == null || newBlocks.isEmpty()) {
+            return false;
+        }
 
-        try {
-            // 기존 체인 백업
+        // 현재 tip에서 이어지면 일반 블록 추가 (트랜잭션 검증 포함)
+        if (forkHeight == headerChain.size() - 1) {
+            for (Block block : newBlocks) {
+                if (!connectBlock(block)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        System.out.println("\n=== Evaluating New Chain ===");
+        System.out.println("Fork height: " + forkHeight);
+        System.out.println("Current chain length: " + headerChain.size() + " (work " + getChainWork() + ")");
+        System.out.println("New chain length: " + (forkHeight + 1 + newBlocks.size()));
+
+        // 누적 작업량 계산 (각 블록의 bits 기준 - 블록 검증 전에 빠르게 걸러냄)
+        List<BlockHeader> newHeaders = new ArrayList<>(newBlocks.size());
+        BigInteger newChainWork = forkHeader.getChainWork();
+        for (int i = 0; i < newBlocks.size(); i++) {
+            newChainWork = newChainWork.add(ProofOfWork.getWork(newBlocks.get(i).getBits()));
+            newHeaders.add(new BlockHeader(newBlocks.get(i), forkHeight + 1 + i, newChainWork));
+        }
+        System.out.println("New chain work: " + newChainWork);
 
-            // 새 체인으로 교체
-            blockList.clear();
-            blockList.addAll(newChain);
+        // 작업량 체크 (현재 tip의 누적 작업량과 비교)
+        if (newChainWork.compareTo(getChainWork()) <= 0) {
+            System.out.println("✗ New chain does not have more work");
+            return false;
+        }
 
-            // UTXO Set 재구축
-            utxoSet = new UTXOSet();
-            for (int i = 0; i < blockList.size(); i++) {
-                utxoSet.updateWithBlock(blockList.get(i), i);
+        try {
+            // 현재 tip에서 분기점까지 되돌린 UTXO 뷰 (블록 되돌리기 데이터 사용 - UTXO 세트 전체를 다시 만들지 않음)
+            int oldHeight = headerChain.size() - 1;
+            List<Block> disconnected = new ArrayList<>(oldHeight - forkHeight);
+            UTXOView view = new UTXOView(utxoSet);
+            for (int height = oldHeight; height > forkHeight; height--) {
+                byte[] blockHash = headerChain.get(height).getBlockHash();
+                Block block = storage.getBlock(blockHash);
+                List<UTXO> undo = storage.getUndo(blockHash);
+                if (block == null || undo == null) {
+                    System.out.println("✗ Missing block or undo data at height: " + height);
+                    return false;
+                }
+                view.disconnectBlock(block, undo);
+                disconnected.addFirst(block);
             }
 
-            // Storage 업데이트
-            for (Block block : newChain) {
-                storage.saveBlock(block);
-                storage.saveBlockTransactions(block);
+            // 분기점 이후 블록 검증
+            // 기대 bits는 분기 체인에 헤더를 쌓아가며, 트랜잭션은 뷰에 블록을 연결해가며 그 시점 UTXO 기준으로 검증
+            HeaderChain branch = headerChain.branch(forkHeight);
+            List<List<UTXO>> newUndo = new ArrayList<>(newBlocks.size());
+            byte[] previousHash = forkHeader.getBlockHash();
+            for (int i = 0; i < newBlocks.size(); i++) {
+                Block block = newBlocks.get(i);
+                int height = forkHeight + 1 + i;
+                if (isValidNewBlock(block, previousHash, height, retargetStrategy.getNextBits(branch))) {
+                    System.out.println("✗ Invalid block at height: " + height);
+                    return false;
+                }
+                for (ValidationResult result : validator.validateBlock(block, view)) {
+                    if (!result.isValid()) {
+                        System.out.println("✗ Invalid transaction in block at height " + height + ": "
+                                + result.getMessage());
+                        return false;
+                    }
+                }
+
+                newUndo.add(view.connectBlock(block, height));
+                branch.add(newHeaders.get(i));
+                previousHash = block.getBlockHash();
             }
-            storage.setChainHeight(blockList.size());
-            storage.setBestBlockHash(getLatestBlock().getBlockHash());
+
+            System.out.println("✓ New chain is valid");
+
+            // Storage 업데이트 (분기점 이후 블록/높이 인덱스/되돌리기 데이터/UTXO 변경분/tip을 하나의 배치로 기록)
+            storage.commitReorg(newBlocks, newHeaders, newUndo, view);
+
+            // 새 체인으로 교체 (분기점까지의 헤더는 유지)
+            headerChain.replaceAfter(forkHeight, newHeaders);
+            latestBlock = newBlocks.getLast();
+
+            // 검증기가 같은 UTXOSet 인스턴스를 참조하므로 변경분만 반영
+            utxoSet.applyView(view);
 
             System.out.println("✓ Chain replaced successfully");
-            System.out.println("New chain height: " + blockList.size());
+            System.out.println("New chain height: " + headerChain.size());
+
+            for (int i = 0; i < disconnected.size(); i++) {
+                notifyDisconnected(disconnected.get(i), forkHeight + 1 + i);
+            }
+            for (int i = 0; i < newBlocks.size(); i++) {
+                notifyConnected(newBlocks.get(i), forkHeight + 1 + i);
+            }
+            return true;
 
         } catch (Exception e) {
             System.err.println("Failed to replace chain: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ========== 체인 변경 알림 ==========
+
+    /**
+     * 체인 변경 알림 수신자 등록 (메모리 풀 정리 등)
+     */
+    public void addChainListener(ChainListener listener) {
+        chainListeners.add(listener);
+    }
+
+    public void removeChainListener(ChainListener listener) {
+        chainListeners.remove(listener);
+    }
+
+    private void notifyConnected(Block block, int height) {
+        for (ChainListener listener : chainListeners) {
+            try {
+                listener.onBlockConnected(block, height);
+            } catch (RuntimeException e) {
+                System.err.println("Chain listener error: " + e.getMessage());
+            }
+        }
+    }
+
+    private void notifyDisconnected(Block block, int height) {
+        for (ChainListener listener : chainListeners) {
+            try {
+                listener.onBlockDisconnected(block, height);
+            } catch (RuntimeException e) {
+                System.err.println("Chain listener error: " + e.getMessage());
+            }
         }
     }
 
@@ -277,48 +481,111 @@ public class Node {
         return key;
     }
 
-    private boolean isValidNewBlock(Block newBlock, Block previousBlock) {
-        if (previousBlock == null) {
+    /**
+     * @param height 블록이 연결될 높이
+     * @param expectedBits 부모까지의 체인으로 계산한 bits
+     * @return 유효하지 않으면 true
+     */
+    private boolean isValidNewBlock(Block newBlock, byte[] previousHash, int height, int expectedBits) {
+        if (previousHash == null) {
             return true;
         }
 
-        if (!Arrays.equals(newBlock.getPrevHash(), previousBlock.getBlockHash())) {
+        if (!Arrays.equals(newBlock.getPrevHash(), previousHash)) {
             return true;
         }
 
         byte[] calculatedHash = newBlock.calculateBlockHash();
-        return !Arrays.equals(calculatedHash, newBlock.getBlockHash());
-    }
+        if (!Arrays.equals(calculatedHash, newBlock.getBlockHash())) {
+            return true;
+        }
 
-    private boolean isCoinbaseTransaction(Transaction tx) {
-        if (tx.getInputs().isEmpty()) {
-            return false;
+        // 작업 증명 검증 (선언한 bits가 아니라 체인이 요구하는 bits 기준)
+        if (!ProofOfWork.checkProofOfWork(newBlock, height, expectedBits)) {
+            System.out.println("✗ Block does not meet the required target at height " + height);
+            return true;
         }
-        TransactionInput firstInput = tx.getInputs().getFirst();
-        return firstInput.getIsCoinbase() != null && firstInput.getIsCoinbase();
+        return false;
     }
 
     // Getters
     public Block getLatestBlock() {
-        if (blockList.isEmpty()) {
-            return null;
-        }
-        return blockList.getLast();
+        return latestBlock;
     }
 
+    /**
+     * 특정 높이의 블록 조회 (Storage에서 본문 로드)
+     */
     public Block getBlockAtHeight(int height) {
-        if (height < 0 || height >= blockList.size()) {
+        if (height < 0 || height >= headerChain.size()) {
             return null;
         }
-        return blockList.get(height);
+        if (height == headerChain.size() - 1) {
+            return latestBlock;
+        }
+        try {
+            return storage.getBlock(headerChain.get(height).getBlockHash());
+        } catch (Exception e) {
+            System.err.println("Failed to load block at height " + height + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public BlockHeader getHeaderAtHeight(int height) {
+        return headerChain.get(height);
+    }
+
+    /**
+     * tip 다음 블록이 가져야 할 압축 타겟
+     */
+    public int getNextBits() {
+        return retargetStrategy.getNextBits(headerChain);
+    }
+
+    public RetargetStrategy getRetargetStrategy() {
+        return retargetStrategy;
+    }
+
+    /**
+     * 메모리 헤더 체인 (복사 없이 높이별 타임스탬프/bits/누적 작업량 조회)
+     */
+    public HeaderChain getHeaderChain() {
+        return headerChain;
+    }
+
+    /**
+     * 현재 tip의 누적 작업량
+     */
+    public BigInteger getChainWork() {
+        return headerChain.getChainWork();
     }
 
     public int getChainLength() {
-        return blockList.size();
+        return headerChain.size();
     }
 
+    /**
+     * 해시로 블록 조회 (GET_BLOCKS 응답용)
+     * @return 블록 (없으면 null)
+     */
+    public Block getBlock(byte[] blockHash) {
+        try {
+            return storage.getBlock(blockHash);
+        } catch (Exception e) {
+            System.err.println("Failed to load block: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 전체 블록 리스트 조회 (모든 블록 본문을 Storage에서 로드하므로 비용이 큼)
+     */
     public List<Block> getBlockList() {
-        return new ArrayList<>(blockList);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < headerChain.size(); i++) {
+            blocks.add(getBlockAtHeight(i));
+        }
+        return blocks;
     }
 
     public long getBalance(String address) {
@@ -337,6 +604,25 @@ public class Node {
         return p2pNetwork;
     }
 
+    /**
+     * 메모리 풀 연결 (P2P로 받은 트랜잭션 추가 / GET_DATA 응답용)
+     */
+    public void setMempool(Mempool mempool) {
+        this.mempool = mempool;
+    }
+
+    public Mempool getMempool() {
+        return mempool;
+    }
+
+    /**
+     * 메모리 풀 스냅샷 연결 (종료 시 마지막 저장)
+     * 복원 / 주기 저장은 호출 측이 메모리 풀을 모두 연결한 뒤 MempoolSnapshot.start()로 시작
+     */
+    public void setMempoolSnapshot(MempoolSnapshot mempoolSnapshot) {
+        this.mempoolSnapshot = mempoolSnapshot;
+    }
+
     public byte[] getPrivateKey() {
         return privateKey;
     }
@@ -370,10 +656,16 @@ public class Node {
     public void shutdown() {
         System.out.println("Shutting down node...");
 
+        // 검증기 종료 전에 복원 중단 / 마지막 스냅샷 저장
+        if (mempoolSnapshot != null) {
+            mempoolSnapshot.close();
+        }
+
         if (p2pNetwork != null) {
             p2pNetwork.shutdown();
         }
 
+        validator.shutdown();
         storage.close();
         System.out.println("Node shutdown complete");
     }
@@ -0,0 +1,85 @@
+package blockchain.node.mine;
+
+import blockchain.block.HeaderChain;
+
+import java.math.BigInteger;
+
+/**
+ * 주기별 난이도 조정 (기본 전략)
+ * interval 블록마다 구간의 실제 소요 시간을 보고
+ * 절반보다 빠르면 난이도 +1 (타겟 / 16), 두 배보다 느리면 난이도 -1 (타겟 * 16)
+ * 조정 시점에는 헤더 두 개만 조회하므로 O(1)
+ */
+public class IntervalRetarget implements RetargetStrategy {
+
+    private static final int DEFAULT_INTERVAL = 2016;        // 난이도 조정 주기
+    private static final long DEFAULT_TARGET_BLOCK_TIME = 600; // 목표 블록 생성 시간 (10분 = 600초)
+    private static final int DIFFICULTY_STEP = 16;           // 난이도 1 = 16진수 0 한 자리
+
+    private final int interval;
+    private final long targetBlockTime;
+
+    public IntervalRetarget() {
+        this(DEFAULT_INTERVAL, DEFAULT_TARGET_BLOCK_TIME);
+    }
+
+    /**
+     * @param interval 조정 주기 (블록 수)
+     * @param targetBlockTime 목표 블록 생성 시간 (초)
+     */
+    public IntervalRetarget(int interval, long targetBlockTime) {
+        this.interval = interval;
+        this.targetBlockTime = targetBlockTime;
+    }
+
+    @Override
+    public int getNextBits(HeaderChain chain) {
+        int currentHeight = chain.size();
+        int currentBits = RetargetStrategy.tipBits(chain);
+
+        // 난이도 조정 주기가 아니면 현재 난이도 유지
+        if (currentHeight % interval != 0) {
+            return currentBits;
+        }
+
+        // 첫 조정이거나 블록이 충분하지 않으면 현재 난이도 유지
+        if (currentHeight < interval) {
+            return currentBits;
+        }
+
+        // 실제 소요 시간 계산 (이전 조정 시점 ~ tip)
+        long timeExpected = targetBlockTime * interval; // 초
+        long timeActual = chain.getTimestamp(currentHeight - 1) - chain.getTimestamp(currentHeight - interval);
+
+        System.out.println("\n=== Difficulty Adjustment ===");
+        System.out.println("Current Height: " + currentHeight);
+        System.out.println("Expected Time: " + timeExpected + "s (" + (timeExpected / 60) + " min)");
+        System.out.println("Actual Time: " + timeActual + "s (" + (timeActual / 60) + " min)");
+        System.out.println("Current Bits: " + String.format("0x%08x", currentBits));
+
+        BigInteger target = ProofOfWork.decodeCompact(currentBits);
+
+        // 너무 빠르면 난이도 증가
+        if (timeActual < timeExpected / 2) {
+            target = target.divide(BigInteger.valueOf(DIFFICULTY_STEP)).max(BigInteger.ONE);
+            System.out.println("Blocks too fast - Increasing difficulty");
+        }
+        // 너무 느리면 난이도 감소 (최소 난이도 = POW_LIMIT)
+        else if (timeActual > timeExpected * 2) {
+            target = target.multiply(BigInteger.valueOf(DIFFICULTY_STEP)).min(ProofOfWork.POW_LIMIT);
+            System.out.println("Blocks too slow - Decreasing difficulty");
+        }
+        // 정상 범위
+        else {
+            System.out.println("Difficulty unchanged");
+            System.out.println("===========================\n");
+            return currentBits;
+        }
+
+        int newBits = ProofOfWork.encodeCompact(target);
+        System.out.println("New Bits: " + String.format("0x%08x", newBits));
+        System.out.println("===========================\n");
+
+        return newBits;
+    }
+}
@@ -0,0 +1,75 @@
+package blockchain.node.mine;
+
+import blockchain.block.HeaderChain;
+
+import java.math.BigInteger;
+
+/**
+ * 블록마다 난이도 조정 (LWMA - 선형 가중 이동 평균)
+ * 최근 window 블록의 생성 시간에 최신 블록일수록 큰 가중치를 주어 평균 타겟을 보정
+ *   next = avgTarget * Σ(i * solveTime_i) / (T * N(N+1)/2)
+ * 헤더 window개만 조회하므로 체인 길이와 무관하게 O(window)
+ */
+public class LwmaRetarget implements RetargetStrategy {
+
+    private static final int DEFAULT_WINDOW = 60;
+    private static final long DEFAULT_TARGET_BLOCK_TIME = 600;
+    private static final int MAX_SOLVE_TIME_FACTOR = 6;     // 생성 시간 상한 = 6T (타임스탬프 조작 완화)
+
+    private final int window;
+    private final long targetBlockTime;
+
+    public LwmaRetarget() {
+        this(DEFAULT_WINDOW, DEFAULT_TARGET_BLOCK_TIME);
+    }
+
+    /**
+     * @param window 평균 구간 (블록 수)
+     * @param targetBlockTime 목표 블록 생성 시간 (초)
+     */
+    public LwmaRetarget(int window, long targetBlockTime) {
+        this.window = window;
+        this.targetBlockTime = targetBlockTime;
+    }
+
+    @Override
+    public int getNextBits(HeaderChain chain) {
+        int currentHeight = chain.size();
+        int currentBits = RetargetStrategy.tipBits(chain);
+
+        // 구간 시작 블록의 이전 타임스탬프까지 필요
+        if (currentHeight <= window) {
+            return currentBits;
+        }
+
+        BigInteger targetSum = BigInteger.ZERO;
+        long weightedSolveTime = 0;
+        long maxSolveTime = targetBlockTime * MAX_SOLVE_TIME_FACTOR;
+        long previousTimestamp = chain.getTimestamp(currentHeight - window - 1);
+
+        for (int i = 1; i <= window; i++) {
+            int height = currentHeight - window - 1 + i;
+            int bits = chain.getBits(height);
+
+            // bits가 없는 이전 버전 블록이 구간에 있으면 조정하지 않음
+            if (bits == 0) {
+                return currentBits;
+            }
+
+            long timestamp = chain.getTimestamp(height);
+            long solveTime = Math.clamp(timestamp - previousTimestamp, 1, maxSolveTime);
+            previousTimestamp = timestamp;
+
+            weightedSolveTime += i * solveTime;
+            targetSum = targetSum.add(ProofOfWork.decodeCompact(bits));
+        }
+
+        long k = (long) window * (window + 1) / 2 * targetBlockTime;
+        BigInteger nextTarget = targetSum
+                .multiply(BigInteger.valueOf(weightedSolveTime))
+                .divide(BigInteger.valueOf(window).multiply(BigInteger.valueOf(k)));
+
+        nextTarget = nextTarget.max(BigInteger.ONE).min(ProofOfWork.POW_LIMIT);
+        return ProofOfWork.encodeCompact(nextTarget);
+    }
+}
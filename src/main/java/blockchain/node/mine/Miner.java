@@ -3,6 +3,7 @@ package blockchain.node.mine;
 import blockchain.block.Block;
 import blockchain.node.Node;
 import blockchain.transaction.Mempool;
+import blockchain.transaction.MempoolEntry;
 import blockchain.transaction.Transaction;
 import blockchain.transaction.TransactionInput;
 import blockchain.transaction.TransactionOutput;
@@ -18,14 +19,22 @@ public class Miner {
 
     private final Node node;
     private final Mempool mempool;
-    private int currentDifficulty;
+    private final ParallelMiner parallelMiner;
     private static final long BLOCK_REWARD = 5000000000L;
-    private static final byte[] BLOCK_VERSION = new byte[]{0, 0, 0, 1};
+    private static final byte[] BLOCK_VERSION = new byte[]{0, 0, 0, Block.BITS_VERSION};
 
-    public Miner(Node node, Mempool mempool, int initialDifficulty) {
+    public Miner(Node node, Mempool mempool) {
+        this(node, mempool, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 타겟은 노드의 난이도 조정 규칙으로 헤더 체인에서 계산 (마이너가 상태를 갖지 않음)
+     * @param miningThreads 마이닝 스레드 수 (nonce 공간을 나누어 탐색)
+     */
+    public Miner(Node node, Mempool mempool, int miningThreads) {
         this.node = node;
         this.mempool = mempool;
-        this.currentDifficulty = initialDifficulty;
+        this.parallelMiner = new ParallelMiner(miningThreads);
     }
 
     /**
@@ -34,49 +43,41 @@ public class Miner {
      * @return 마이닝된 블록
      */
     public Block mineNewBlock(long maxTransactions) throws Exception {
-        // Mempool에서 수수료가 높은 트랜잭션 선택
-        List<Transaction> selectedTxs = mempool.getTopTransactionsByFee(maxTransactions);
+        // Mempool에서 조상 패키지 수수료율 순으로 선택 (미확인 부모가 자식보다 먼저)
+        List<MempoolEntry> selected = mempool.selectPackageEntries(maxTransactions);
 
         System.out.println("\n=== Preparing Block ===");
-        System.out.println("Selected " + selectedTxs.size() + " transactions from mempool");
+        System.out.println("Selected " + selected.size() + " transactions from mempool");
 
         // 코인베이스 트랜잭션 생성
-        Transaction coinbaseTx = createCoinbaseTransaction(selectedTxs);
+        Transaction coinbaseTx = createCoinbaseTransaction(selected);
 
         // 트랜잭션 리스트 (코인베이스 + 선택된 트랜잭션)
         List<Transaction> allTransactions = new ArrayList<>();
         allTransactions.add(coinbaseTx);
-        allTransactions.addAll(selectedTxs);
+        for (MempoolEntry entry : selected) {
+            allTransactions.add(entry.getTransaction());
+        }
 
         // 이전 블록 해시
         Block prevBlock = node.getLatestBlock();
         byte[] prevHash = prevBlock.getBlockHash();
 
-        // 새 블록 생성
-        Block newBlock = new Block(prevHash, allTransactions, BLOCK_VERSION);
+        // 난이도 조정 (헤더 체인만 조회 - 블록 본문 로드 / 체인 복사 없음)
+        int bits = node.getNextBits();
 
-        // 난이도 조정
-        int chainLength = node.getChainLength();
-        currentDifficulty = ProofOfWork.adjustDifficulty(
-                node.getBlockList(),
-                chainLength,
-                currentDifficulty
-        );
+        // 새 블록 생성 (압축 타겟을 헤더에 기록)
+        Block newBlock = new Block(prevHash, allTransactions, BLOCK_VERSION, System.currentTimeMillis() / 1000, bits);
 
-        // 작업 증명 (마이닝)
-        boolean success = ProofOfWork.mineBlock(newBlock, currentDifficulty);
+        // 작업 증명 (멀티 스레드 마이닝)
+        boolean success = parallelMiner.mine(newBlock);
 
         if (success) {
-            // 블록체인에 추가
-            node.addBlock(newBlock);
-
-            // Mempool에서 포함된 트랜잭션 제거
-            List<String> txidsToRemove = new ArrayList<>();
-            for (Transaction tx : selectedTxs) {
-                txidsToRemove.add(bytesToHex(tx.getTxid()));
+            // 블록체인에 추가 (브로드캐스트 포함, 포함된 트랜잭션은 연결 알림으로 Mempool에서 제거)
+            if (!node.addBlock(newBlock, true)) {
+                System.out.println("✗ Mined block was not accepted");
+                return null;
             }
-            mempool.removeTransactions(txidsToRemove);
-
             return newBlock;
         }
 
@@ -85,12 +86,12 @@ public class Miner {
 
     /**
      * 코인베이스 트랜잭션 생성 (채굴 보상 + 수수료)
-     * @param transactions 블록에 포함된 트랜잭션들
+     * @param entries 블록에 포함된 메모리 풀 항목들
      */
-    private Transaction createCoinbaseTransaction(List<Transaction> transactions) throws Exception {
-        // 총 수수료 계산
-        long totalFees = transactions.stream()
-                .mapToLong(Transaction::getFee)
+    private Transaction createCoinbaseTransaction(List<MempoolEntry> entries) throws Exception {
+        // 총 수수료 계산 (메모리 풀이 입력 - 출력으로 계산한 수수료)
+        long totalFees = entries.stream()
+                .mapToLong(MempoolEntry::getFee)
                 .sum();
 
         long totalReward = BLOCK_REWARD + totalFees;
@@ -134,6 +135,27 @@ public class Miner {
         return coinbaseTx;
     }
 
+    /**
+     * 진행 중인 마이닝 중단
+     */
+    public void stopMining() {
+        parallelMiner.stop();
+    }
+
+    /**
+     * 마지막 마이닝의 스레드별 해시레이트 (H/s)
+     */
+    public double[] getThreadHashrates() {
+        return parallelMiner.getThreadHashrates();
+    }
+
+    /**
+     * 마이닝 스레드 종료
+     */
+    public void shutdown() {
+        parallelMiner.shutdown();
+    }
+
     private List<byte[]> createCoinbaseSignature() {
         List<byte[]> sigScript = new ArrayList<>();
         long timestamp = System.currentTimeMillis();
@@ -143,12 +165,4 @@ public class Miner {
         return sigScript;
     }
 
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
-    }
-
 }
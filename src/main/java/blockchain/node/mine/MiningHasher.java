@@ -0,0 +1,53 @@
+package blockchain.node.mine;
+
+import blockchain.block.Block;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+
+/**
+ * 마이닝 전용 헤더 해셔 (스레드당 하나)
+ *
+ * 헤더(76/80바이트) 중 앞 64바이트(버전, 이전 해시, 머클 루트 일부)는 nonce와 무관하므로
+ * 첫 SHA-256 블록을 한 번만 압축해 midstate로 저장하고, 매 시도마다
+ * midstate 복원 + 나머지 꼬리(머클 루트 끝, 타임스탬프, bits, nonce)만 처리
+ *
+ * hash()는 내부 버퍼를 재사용하므로 반복 중 객체를 생성하지 않음
+ */
+public class MiningHasher {
+    private static final int MIDSTATE_LENGTH = 64;   // SHA-256 블록 크기
+
+    private final SHA256Digest midstate;
+    private final SHA256Digest work;
+    private final byte[] tail;
+    private final byte[] digest = new byte[32];
+
+    public MiningHasher(byte[] header) {
+        if (header.length != Block.HEADER_SIZE && header.length != Block.LEGACY_HEADER_SIZE) {
+            throw new IllegalArgumentException("Unexpected header size: " + header.length);
+        }
+
+        this.midstate = new SHA256Digest();
+        this.midstate.update(header, 0, MIDSTATE_LENGTH);
+        this.work = new SHA256Digest(midstate);
+
+        this.tail = new byte[header.length - MIDSTATE_LENGTH];
+        System.arraycopy(header, MIDSTATE_LENGTH, tail, 0, tail.length);
+    }
+
+    /**
+     * nonce를 넣은 헤더의 해시 (Block.calculateBlockHash와 같은 값)
+     * @param nonce nonce (빅 엔디언으로 기록)
+     * @return 해시 - 내부 버퍼이므로 다음 호출 전에 복사해야 유지됨
+     */
+    public byte[] hash(int nonce) {
+        int offset = tail.length - Block.NONCE_SIZE;   // nonce는 헤더 마지막 4바이트
+        tail[offset] = (byte) (nonce >>> 24);
+        tail[offset + 1] = (byte) (nonce >>> 16);
+        tail[offset + 2] = (byte) (nonce >>> 8);
+        tail[offset + 3] = (byte) nonce;
+
+        work.reset(midstate);
+        work.update(tail, 0, tail.length);
+        work.doFinal(digest, 0);
+        return digest;
+    }
+}
@@ -0,0 +1,220 @@
+package blockchain.node.mine;
+
+import blockchain.block.Block;
+import util.BytesUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 멀티 스레드 작업 증명 마이너
+ * 32비트 nonce 공간을 스레드 수만큼 나누어 각 스레드가 자기 헤더 버퍼(MiningHasher)로 탐색
+ * 한 스레드가 해를 찾으면 모든 스레드를 중단
+ */
+public class ParallelMiner {
+
+    private static final long NONCE_SPACE = 1L << 32;      // nonce는 부호 없는 32비트로 취급
+    private static final int REPORT_INTERVAL = 1 << 14;    // 해시레이트/중단 플래그 확인 주기
+
+    private final int threadCount;
+    private final ExecutorService executor;
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    // 마지막 마이닝의 스레드별 해시 횟수 / 소요 시간
+    private final AtomicLong[] hashCounts;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public ParallelMiner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelMiner(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+        this.hashCounts = new AtomicLong[this.threadCount];
+        for (int i = 0; i < this.threadCount; i++) {
+            hashCounts[i] = new AtomicLong();
+        }
+        this.executor = Executors.newFixedThreadPool(this.threadCount, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "miner-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * 블록 마이닝
+     * 성공하면 블록의 nonce(와 해시)를 찾은 값으로 설정
+     * @param block 마이닝할 블록
+     * @param difficulty 난이도 (해시 앞에 필요한 0의 개수, 16진수 기준)
+     * @return 마이닝 성공 여부 (nonce 공간 소진 또는 stop() 호출 시 false)
+     */
+    public boolean mine(Block block, int difficulty) throws InterruptedException {
+        System.out.println("\n=== Mining Block (" + threadCount + " threads) ===");
+        System.out.println("Difficulty: " + difficulty);
+
+        return mineToTarget(block, ProofOfWork.getTarget(difficulty));
+    }
+
+    /**
+     * 블록에 기록된 압축 타겟(bits) 기준으로 마이닝
+     * @param block 마이닝할 블록 (bits 필수)
+     * @return 마이닝 성공 여부
+     */
+    public boolean mine(Block block) throws InterruptedException {
+        if (block.getBits() == 0) {
+            throw new IllegalArgumentException("Block has no target bits");
+        }
+
+        System.out.println("\n=== Mining Block (" + threadCount + " threads) ===");
+        System.out.println("Bits: 0x" + Integer.toHexString(block.getBits()));
+
+        return mineToTarget(block, ProofOfWork.getTargetFromBits(block.getBits()));
+    }
+
+    private boolean mineToTarget(Block block, byte[] target) throws InterruptedException {
+        stopped.set(false);
+        for (AtomicLong count : hashCounts) {
+            count.set(0);
+        }
+
+        byte[] header = block.getHeaderBytes();
+        AtomicLong solution = new AtomicLong(-1);
+        endNanos = 0;
+        startNanos = System.nanoTime();
+
+        List<Future<?>> workers = new ArrayList<>();
+        long chunk = NONCE_SPACE / threadCount;
+        for (int w = 0; w < threadCount; w++) {
+            long from = w * chunk;
+            long to = (w == threadCount - 1) ? NONCE_SPACE : from + chunk;
+            int worker = w;
+            workers.add(executor.submit(() -> search(worker, header, from, to, target, solution)));
+        }
+
+        try {
+            for (Future<?> future : workers) {
+                future.get();
+            }
+        } catch (java.util.concurrent.ExecutionException e) {
+            stopped.set(true);
+            throw new IllegalStateException("Mining worker failed", e.getCause());
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            throw e;
+        } finally {
+            endNanos = System.nanoTime();
+        }
+
+        long nonce = solution.get();
+        if (nonce < 0) {
+            System.out.println("Mining stopped - no solution found");
+            return false;
+        }
+
+        block.setNonce(BytesUtil.intToBytes((int) nonce, 4));
+
+        System.out.println("\n✓ Block Mined!");
+        System.out.println("Nonce: " + nonce);
+        System.out.println("Hash: " + bytesToHex(block.getBlockHash()));
+        System.out.println("Time: " + (endNanos - startNanos) / 1_000_000 + "ms");
+        System.out.println("Hash Rate: " + String.format("%.0f", getTotalHashrate()) + " H/s");
+        return true;
+    }
+
+    /**
+     * 한 스레드의 nonce 범위 탐색 (스레드 전용 해셔, 반복 중 할당 없음)
+     */
+    private void search(int worker, byte[] header, long from, long to, byte[] target, AtomicLong solution) {
+        MiningHasher hasher = new MiningHasher(header);
+        long hashes = 0;
+
+        for (long nonce = from; nonce < to; nonce++) {
+            byte[] hash = hasher.hash((int) nonce);
+            hashes++;
+
+            if (ProofOfWork.isBelowTarget(hash, target)) {
+                if (solution.compareAndSet(-1, nonce)) {
+                    stopped.set(true);
+                }
+                break;
+            }
+
+            if ((hashes & (REPORT_INTERVAL - 1)) == 0) {
+                hashCounts[worker].set(hashes);
+                if (stopped.get()) {
+                    break;
+                }
+            }
+        }
+
+        hashCounts[worker].set(hashes);
+    }
+
+    /**
+     * 진행 중인 마이닝 중단 (예: 다른 노드의 블록 수신)
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    /**
+     * 스레드별 해시레이트 (H/s) - 마이닝 중에는 진행 중 값
+     */
+    public double[] getThreadHashrates() {
+        double seconds = elapsedSeconds();
+        double[] rates = new double[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            rates[i] = seconds > 0 ? hashCounts[i].get() / seconds : 0;
+        }
+        return rates;
+    }
+
+    /**
+     * 전체 해시레이트 (H/s)
+     */
+    public double getTotalHashrate() {
+        double total = 0;
+        for (double rate : getThreadHashrates()) {
+            total += rate;
+        }
+        return total;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * 마이너 스레드 종료
+     */
+    public void shutdown() {
+        stopped.set(true);
+        executor.shutdownNow();
+    }
+
+    private double elapsedSeconds() {
+        long end = endNanos >= startNanos ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1_000_000_000.0;
+    }
+
+    private static String bytesToHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package blockchain.node.mine;
 
 import blockchain.block.Block;
+import blockchain.block.BlockHeader;
 import util.BytesUtil;
 
 import java.math.BigInteger;
@@ -14,8 +15,6 @@ public class ProofOfWork {
 
     // 난이도 상수
     private static final int MAX_NONCE = Integer.MAX_VALUE;
-    private static final int DIFFICULTY_ADJUSTMENT_INTERVAL = 2016; // 난이도 조정 주기
-    private static final long TARGET_BLOCK_TIME = 600; // 목표 블록 생성 시간 (10분 = 600초)
 
     /**
      * 블록 마이닝 (작업 증명)
@@ -24,40 +23,39 @@ public class ProofOfWork {
      * @return 마이닝 성공 여부
      */
     public static boolean mineBlock(Block block, int difficulty) {
-        // 타겟 해시 계산 (앞에 difficulty 개수만큼 0이 있어야 함)
-        String target = getTargetString(difficulty);
+        // 타겟 계산 (앞에 difficulty 개수만큼 0이 있어야 함)
+        byte[] target = getTarget(difficulty);
 
         System.out.println("\n=== Mining Block ===");
-        System.out.println("Target: " + target);
+        System.out.println("Target: " + getTargetString(difficulty));
         System.out.println("Difficulty: " + difficulty);
 
         long startTime = System.currentTimeMillis();
+        MiningHasher hasher = new MiningHasher(block.getHeaderBytes());
         int nonce = 0;
 
         // nonce를 증가시키며 조건을 만족하는 해시 찾기
         while (nonce < MAX_NONCE) {
-            // nonce 설정
-            block.setNonce(BytesUtil.intToBytes(nonce, 4));
-
-            // 블록 해시 계산
-            byte[] hash = block.getBlockHash();
-            String hashHex = bytesToHex(hash);
+            // 블록 해시 계산 (midstate 재사용, 할당 없음)
+            byte[] hash = hasher.hash(nonce);
 
             // 진행 상황 출력 (100,000번마다)
             if (nonce % 100000 == 0) {
-                System.out.println("Trying nonce: " + nonce + " | Hash: " + hashHex);
+                System.out.println("Trying nonce: " + nonce + " | Hash: " + bytesToHex(hash));
             }
 
             // 타겟과 비교
-            if (hashHex.compareTo(target) < 0) {
+            if (isBelowTarget(hash, target)) {
                 long endTime = System.currentTimeMillis();
-                long elapsed = endTime - startTime;
+                long elapsed = Math.max(1, endTime - startTime);
+
+                block.setNonce(BytesUtil.intToBytes(nonce, 4));
 
                 System.out.println("\n✓ Block Mined!");
                 System.out.println("Nonce: " + nonce);
-                System.out.println("Hash: " + hashHex);
+                System.out.println("Hash: " + bytesToHex(block.getBlockHash()));
                 System.out.println("Time: " + elapsed + "ms");
-                System.out.println("Hash Rate: " + (nonce * 1000 / elapsed) + " H/s");
+                System.out.println("Hash Rate: " + ((long) nonce * 1000 / elapsed) + " H/s");
                 return true;
             }
 
@@ -68,6 +66,37 @@ public class ProofOfWork {
         return false;
     }
 
+    /**
+     * 난이도 기반 타겟 (32바이트 빅 엔디언)
+     * 앞 difficulty개 니블은 0, 나머지는 f - getTargetString과 같은 값
+     * @param difficulty 난이도 (앞에 필요한 0의 개수)
+     * @return 타겟 바이트
+     */
+    public static byte[] getTarget(int difficulty) {
+        byte[] target = new byte[32];
+        for (int i = 0; i < 64; i++) {
+            if (i >= difficulty) {
+                target[i >> 1] |= (byte) ((i & 1) == 0 ? 0xF0 : 0x0F);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * 해시 < 타겟 (둘 다 32바이트 빅 엔디언 부호 없는 정수)
+     * 첫 번째로 다른 바이트에서 결정되므로 대부분 첫 바이트에서 끝남
+     */
+    public static boolean isBelowTarget(byte[] hash, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            int h = hash[i] & 0xFF;
+            int t = target[i] & 0xFF;
+            if (h != t) {
+                return h < t;
+            }
+        }
+        return false;
+    }
+
     /**
      * 난이도 기반 타겟 문자열 생성
      * @param difficulty 난이도 (앞에 필요한 0의 개수)
@@ -96,66 +125,160 @@ public class ProofOfWork {
      * @return 검증 성공 여부
      */
     public static boolean validateProofOfWork(Block block, int difficulty) {
-        String target = getTargetString(difficulty);
-        String hashHex = bytesToHex(block.getBlockHash());
+        return meetsDifficulty(block.getBlockHash(), difficulty);
+    }
 
-        return hashHex.compareTo(target) < 0;
+    /**
+     * 해시가 난이도 조건을 만족하는지 바이트 단위로 검사 (문자열 변환 없음)
+     * getTargetString 문자열 비교와 같은 결과
+     * @param hash 블록 해시 (32바이트)
+     * @param difficulty 난이도
+     * @return 조건 만족 여부
+     */
+    public static boolean meetsDifficulty(byte[] hash, int difficulty) {
+        return isBelowTarget(hash, getTarget(difficulty));
     }
 
+    // ========== 압축 타겟 (bits) / 작업량 ==========
+
+    // 2^256 (작업량 계산용)
+    private static final BigInteger TWO_POW_256 = BigInteger.ONE.shiftLeft(256);
+
+    // 허용되는 가장 쉬운 타겟 (난이도 1)
+    public static final int POW_LIMIT_BITS = bitsForDifficulty(1);
+    static final BigInteger POW_LIMIT = decodeCompact(POW_LIMIT_BITS);
+
+    // bits가 없는 블록(제네시스) 다음 첫 타겟 (이전 기본 채굴 난이도 3)
+    public static final int INITIAL_BITS = bitsForDifficulty(3);
+
     /**
-     * 난이도 조정 계산
-     * @param blocks 블록 리스트
-     * @param currentHeight 현재 블록 높이
-     * @param currentDifficulty 현재 난이도
-     * @return 새로운 난이도
+     * 압축 타겟 디코딩 (Bitcoin nBits 형식)
+     * 상위 1바이트 = 타겟 바이트 길이, 하위 3바이트 = 가수
+     * @param bits 압축 타겟
+     * @return 타겟 (부호 비트가 켜진 잘못된 값은 0)
      */
-    public static int adjustDifficulty(java.util.List<Block> blocks, int currentHeight, int currentDifficulty) {
-        // 난이도 조정 주기가 아니면 현재 난이도 유지
-        if (currentHeight % DIFFICULTY_ADJUSTMENT_INTERVAL != 0) {
-            return currentDifficulty;
+    public static BigInteger decodeCompact(int bits) {
+        int size = bits >>> 24;
+        int mantissa = bits & 0x007fffff;
+        if ((bits & 0x00800000) != 0) {
+            return BigInteger.ZERO;
         }
 
-        // 첫 조정이거나 블록이 충분하지 않으면 현재 난이도 유지
-        if (currentHeight < DIFFICULTY_ADJUSTMENT_INTERVAL) {
-            return currentDifficulty;
-        }
+        BigInteger value = BigInteger.valueOf(mantissa);
+        return size <= 3
+                ? value.shiftRight(8 * (3 - size))
+                : value.shiftLeft(8 * (size - 3));
+    }
 
-        // 이전 조정 시점의 블록
-        Block previousAdjustmentBlock = blocks.get(currentHeight - DIFFICULTY_ADJUSTMENT_INTERVAL);
-        Block latestBlock = blocks.get(currentHeight - 1);
+    /**
+     * 타겟을 압축 형식으로 인코딩 (가수 3바이트로 내림)
+     * @param target 타겟 (양수)
+     * @return 압축 타겟
+     */
+    public static int encodeCompact(BigInteger target) {
+        int size = (target.bitLength() + 7) / 8;
+        int compact = size <= 3
+                ? target.intValue() << (8 * (3 - size))
+                : target.shiftRight(8 * (size - 3)).intValue();
 
-        // 실제 소요 시간 계산
-        long timeExpected = TARGET_BLOCK_TIME * DIFFICULTY_ADJUSTMENT_INTERVAL; // 초
-        long timeActual = latestBlock.getTimestamp() - previousAdjustmentBlock.getTimestamp();
+        // 가수 최상위 비트는 부호 비트이므로 켜져 있으면 한 바이트 밀어냄
+        if ((compact & 0x00800000) != 0) {
+            compact >>>= 8;
+            size++;
+        }
+        return compact | (size << 24);
+    }
 
-        System.out.println("\n=== Difficulty Adjustment ===");
-        System.out.println("Current Height: " + currentHeight);
-        System.out.println("Expected Time: " + timeExpected + "s (" + (timeExpected / 60) + " min)");
-        System.out.println("Actual Time: " + timeActual + "s (" + (timeActual / 60) + " min)");
-        System.out.println("Current Difficulty: " + currentDifficulty);
+    /**
+     * 난이도(앞자리 0 개수)를 압축 타겟으로 변환
+     */
+    public static int bitsForDifficulty(int difficulty) {
+        return encodeCompact(new BigInteger(1, getTarget(difficulty)));
+    }
 
-        // 난이도 조정
-        int newDifficulty = currentDifficulty;
+    /**
+     * 압축 타겟을 32바이트 빅 엔디언 타겟으로 변환 (isBelowTarget 비교용)
+     */
+    public static byte[] getTargetFromBits(int bits) {
+        byte[] raw = decodeCompact(bits).toByteArray();
+        byte[] target = new byte[32];
+        int length = Math.min(raw.length, 32);
+        System.arraycopy(raw, raw.length - length, target, 32 - length, length);
+        return target;
+    }
 
-        // 너무 빠르면 난이도 증가
-        if (timeActual < timeExpected / 2) {
-            newDifficulty = currentDifficulty + 1;
-            System.out.println("Blocks too fast - Increasing difficulty");
+    /**
+     * 블록 하나의 작업량 = 2^256 / (target + 1)
+     * bits가 없는 이전 버전 블록은 1로 계산 (기존의 길이 기준 비교와 같은 효과)
+     */
+    public static BigInteger getWork(int bits) {
+        if (bits == 0) {
+            return BigInteger.ONE;
         }
-        // 너무 느리면 난이도 감소
-        else if (timeActual > timeExpected * 2) {
-            newDifficulty = Math.max(1, currentDifficulty - 1); // 최소 난이도 1
-            System.out.println("Blocks too slow - Decreasing difficulty");
+        BigInteger target = decodeCompact(bits);
+        if (target.signum() <= 0) {
+            return BigInteger.ZERO;
         }
-        // 정상 범위
-        else {
-            System.out.println("Difficulty unchanged");
+        return TWO_POW_256.divide(target.add(BigInteger.ONE));
+    }
+
+    /**
+     * 블록의 작업 증명 검증 (블록에 기록된 bits 기준)
+     * bits가 없는 이전 버전 블록은 검증할 타겟이 없으므로 실패
+     * 체인에 연결할 블록은 기대 bits를 받는 오버로드로 검증해야 함
+     * @param block 검증할 블록
+     * @return 검증 성공 여부
+     */
+    public static boolean checkProofOfWork(Block block) {
+        return checkProofOfWork(block.getVersion(), block.getBits(), block.getBlockHash());
+    }
+
+    /**
+     * 헤더만으로 작업 증명 검증 (헤더에 기록된 bits 기준)
+     */
+    public static boolean checkProofOfWork(BlockHeader header) {
+        return checkProofOfWork(header.getVersion(), header.getBits(), header.getBlockHash());
+    }
+
+    /**
+     * 체인 위치 기준 작업 증명 검증
+     * 이전 버전 블록은 LAST_LEGACY_HEIGHT 이하에서만 허용하고,
+     * 그 외에는 bits가 난이도 조정 규칙이 요구하는 값과 정확히 같아야 함
+     * @param height 블록이 연결될 높이
+     * @param expectedBits 부모까지의 헤더 체인으로 계산한 bits
+     */
+    public static boolean checkProofOfWork(Block block, int height, int expectedBits) {
+        return checkProofOfWork(block.getVersion(), height, block.getBits(), expectedBits, block.getBlockHash());
+    }
+
+    /**
+     * 헤더 우선 동기화용 체인 위치 기준 검증 (본문 다운로드 전에 사용)
+     */
+    public static boolean checkProofOfWork(BlockHeader header, int expectedBits) {
+        return checkProofOfWork(header.getVersion(), header.getHeight(), header.getBits(), expectedBits,
+                header.getBlockHash());
+    }
+
+    private static boolean checkProofOfWork(byte[] version, int height, int bits, int expectedBits, byte[] blockHash) {
+        if (!Block.hasBitsInHeader(version)) {
+            return height <= Block.LAST_LEGACY_HEIGHT;
+        }
+        if (bits != expectedBits) {
+            return false;
         }
+        return checkProofOfWork(version, bits, blockHash);
+    }
 
-        System.out.println("New Difficulty: " + newDifficulty);
-        System.out.println("===========================\n");
+    private static boolean checkProofOfWork(byte[] version, int bits, byte[] blockHash) {
+        if (bits == 0 || !Block.hasBitsInHeader(version)) {
+            return false;
+        }
 
-        return newDifficulty;
+        BigInteger target = decodeCompact(bits);
+        if (target.signum() <= 0 || target.compareTo(POW_LIMIT) > 0) {
+            return false;
+        }
+        return isBelowTarget(blockHash, getTargetFromBits(bits));
     }
 
     private static String bytesToHex(byte[] bytes) {
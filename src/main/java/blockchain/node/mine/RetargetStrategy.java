@@ -0,0 +1,30 @@
+package blockchain.node.mine;
+
+import blockchain.block.HeaderChain;
+
+/**
+ * 난이도 조정 알고리즘
+ * 헤더 체인만으로 다음 블록의 압축 타겟(bits)을 계산 (블록 본문 / 체인 복사 불필요)
+ * 같은 체인이면 어느 노드에서 계산해도 같은 값 - 채굴과 블록 / 헤더 검증이 함께 사용
+ */
+public interface RetargetStrategy {
+
+    /**
+     * tip 다음 블록의 압축 타겟 계산
+     * @param chain 헤더 체인 (다음 블록 높이 = chain.size())
+     * @return 다음 블록의 압축 타겟
+     */
+    int getNextBits(HeaderChain chain);
+
+    /**
+     * tip의 압축 타겟 (조정하지 않는 높이에서 그대로 이어감)
+     * bits가 없는 제네시스 / 이전 버전 블록 다음은 ProofOfWork.INITIAL_BITS
+     */
+    static int tipBits(HeaderChain chain) {
+        if (chain.isEmpty()) {
+            return ProofOfWork.INITIAL_BITS;
+        }
+        int bits = chain.getBits(chain.size() - 1);
+        return bits != 0 ? bits : ProofOfWork.INITIAL_BITS;
+    }
+}
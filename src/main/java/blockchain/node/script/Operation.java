@@ -1,12 +1,8 @@
 package blockchain.node.script;
 
-import org.bouncycastle.crypto.params.ECDomainParameters;
+import blockchain.node.sign.Secp256k1;
 import org.bouncycastle.crypto.params.ECKeyParameters;
-import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.crypto.signers.ECDSASigner;
-import org.bouncycastle.jce.ECNamedCurveTable;
-import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
-import org.bouncycastle.math.ec.ECPoint;
 import util.Hash;
 
 import java.math.BigInteger;
@@ -74,15 +70,13 @@ public class Operation {
         byte[] pubKey = stack.pop();
         byte[] sig = stack.pop();
 
-        ECNamedCurveParameterSpec spec = ECNamedCurveTable.getParameterSpec("secp256k1");
-        ECDomainParameters domainParams = new ECDomainParameters(
-                spec.getCurve(),
-                spec.getG(),
-                spec.getN(),
-                spec.getH()
-        );
-        ECPoint q = spec.getCurve().decodePoint(pubKey);
-        ECKeyParameters pubKeyParmas = new ECPublicKeyParameters(q,domainParams);
+        // 공유 곡선 컨텍스트 + 디코딩된 공개키 캐시 사용
+        ECKeyParameters pubKeyParmas;
+        try {
+            pubKeyParmas = Secp256k1.publicKey(pubKey);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidKeyException("invalid pub key encoding");
+        }
 
         ECDSASigner signer = new ECDSASigner();
         signer.init(false, pubKeyParmas);
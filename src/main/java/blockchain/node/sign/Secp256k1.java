@@ -0,0 +1,89 @@
+package blockchain.node.sign;
+
+import org.bouncycastle.asn1.sec.SECObjectIdentifiers;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECNamedDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * secp256k1 곡선 공용 컨텍스트
+ * 도메인 파라미터는 한 번만 만들고, 디코딩한 공개키는 LRU 캐시에 보관
+ *
+ * 같은 ECPoint 인스턴스를 재사용하면 BouncyCastle이 점에 붙여 두는
+ * wNAF 사전 계산 테이블도 재사용되므로 자주 서명하는 키의 검증이 빨라짐
+ */
+public final class Secp256k1 {
+
+    // 최적화된 secp256k1 구현 (GLV endomorphism, 생성자 G 고정 베이스 사전 계산)
+    private static final X9ECParameters CURVE = CustomNamedCurves.getByName("secp256k1");
+
+    public static final ECNamedDomainParameters DOMAIN = new ECNamedDomainParameters(
+            SECObjectIdentifiers.secp256k1,
+            CURVE.getCurve(),
+            CURVE.getG(),
+            CURVE.getN(),
+            CURVE.getH()
+    );
+
+    private static final int PUBLIC_KEY_CACHE_SIZE = 4096;
+
+    // 공개키 캐시 (인코딩된 공개키 -> 디코딩된 공개키 파라미터)
+    private static final Map<ByteBuffer, ECPublicKeyParameters> publicKeyCache =
+            new LinkedHashMap<>(PUBLIC_KEY_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ECPublicKeyParameters> eldest) {
+                    return size() > PUBLIC_KEY_CACHE_SIZE;
+                }
+            };
+
+    private Secp256k1() {
+    }
+
+    /**
+     * 공개키 파라미터 조회 (캐시 미스 시 디코딩 후 저장)
+     * @param encodedPublicKey 압축(33바이트) 또는 비압축(65바이트) 공개키
+     * @return 검증용 공개키 파라미터
+     * @throws IllegalArgumentException 곡선 위의 점이 아닌 경우
+     */
+    public static ECPublicKeyParameters publicKey(byte[] encodedPublicKey) {
+        ByteBuffer key = ByteBuffer.wrap(encodedPublicKey.clone());
+
+        synchronized (publicKeyCache) {
+            ECPublicKeyParameters cached = publicKeyCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 디코딩(점 복원)은 락 밖에서 수행
+        ECPoint q = CURVE.getCurve().decodePoint(encodedPublicKey).normalize();
+        ECPublicKeyParameters params = new ECPublicKeyParameters(q, DOMAIN);
+
+        synchronized (publicKeyCache) {
+            ECPublicKeyParameters existing = publicKeyCache.putIfAbsent(key, params);
+            return existing != null ? existing : params;
+        }
+    }
+
+    /**
+     * 생성자 G
+     */
+    public static ECPoint getG() {
+        return DOMAIN.getG();
+    }
+
+    /**
+     * 캐시된 공개키 수
+     */
+    public static int cachedPublicKeys() {
+        synchronized (publicKeyCache) {
+            return publicKeyCache.size();
+        }
+    }
+}
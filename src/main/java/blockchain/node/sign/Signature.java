@@ -1,13 +1,9 @@
 package blockchain.node.sign;
 
-import org.bouncycastle.asn1.ASN1ObjectIdentifier;
-import org.bouncycastle.crypto.params.ECNamedDomainParameters;
 import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
 import org.bouncycastle.crypto.signers.ECDSASigner;
-import org.bouncycastle.jce.ECNamedCurveTable;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
-import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
 import util.Hash;
 import util.Random;
 
@@ -19,18 +15,9 @@ public class Signature {
     }
     public static byte[] sign(byte[] privateKey, byte[] messageHash) {
         ECDSASigner signer = new ECDSASigner();
-        ECNamedCurveParameterSpec spec = ECNamedCurveTable.getParameterSpec("secp256k1");
-        ASN1ObjectIdentifier oid = new ASN1ObjectIdentifier("1.2.840.10045.3.1.7");
-        ECNamedDomainParameters params = new ECNamedDomainParameters(
-                oid
-                ,spec.getCurve()
-                ,spec.getG()
-                ,spec.getN()
-                ,spec.getH()
-        );
         ECPrivateKeyParameters privKey = new ECPrivateKeyParameters(
                 new BigInteger(1, privateKey),
-                params
+                Secp256k1.DOMAIN
         );
         signer.init(true, privKey);
 
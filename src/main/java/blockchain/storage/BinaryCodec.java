@@ -0,0 +1,536 @@
+package blockchain.storage;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.transaction.Spender;
+import blockchain.transaction.TXBlockInfo;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.UTXO;
+
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 블록/트랜잭션/UTXO 영구 저장용 바이너리 코덱
+ *
+ * 레코드 구조: [포맷 버전(1)] + [본문]
+ * 버전 1: 최초 포맷 / 버전 2: 블록·헤더에 bits, 헤더에 누적 작업량(chainWork) 추가
+ * 디코딩은 두 버전 모두 지원 (버전 1 레코드의 bits는 0, chainWork는 null)
+ * 본문은 toBytes()의 와이어 레이아웃(prevTXID + outputIdx + 서명, value + pkscript ...)을 따르고
+ * 저장에 필요한 나머지 필드를 뒤에 덧붙인다.
+ * 모든 가변 길이 필드는 varint 길이 접두사를 사용하며, 길이 0은 null을 의미한다 (실제 길이 + 1 저장).
+ *
+ * 디코딩은 ByteBuffer에서 순차적으로 읽으며, 중간 버퍼 복사 없이 필드 배열만 생성한다.
+ * 버전 바이트 없는 본문 단위 write / read는 P2P 메시지 코덱에서도 사용한다.
+ */
+public final class BinaryCodec {
+
+    // 현재 레코드 포맷 버전
+    public static final byte FORMAT_VERSION = 0x02;
+
+    // 읽을 수 있는 가장 오래된 바이너리 포맷 버전
+    private static final byte MIN_FORMAT_VERSION = 0x01;
+
+    // 이전 버전(Jackson JSON) 레코드의 첫 바이트
+    private static final byte JSON_OBJECT_START = '{';
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * 이전 버전 JSON 레코드인지 확인
+     */
+    public static boolean isLegacyJson(byte[] data) {
+        return data != null && data.length > 0 && data[0] == JSON_OBJECT_START;
+    }
+
+    // ========== Block ==========
+
+    public static byte[] encodeBlock(Block block) {
+        Writer w = new Writer(block.getSize() + 128);
+        w.writeByte(FORMAT_VERSION);
+        writeBlock(w, block);
+        return w.toByteArray();
+    }
+
+    public static Block decodeBlock(ByteBuffer buffer) {
+        return readBlock(buffer, checkVersion(buffer));
+    }
+
+    public static void writeBlock(Writer w, Block block) {
+        w.writeBytes(block.getVersion());
+        w.writeBytes(block.getPrevHash());
+        w.writeBytes(block.getMerkleRoot());
+        w.writeLong(block.getTimestamp());
+        w.writeBytes(block.getNonce());
+        w.writeBytes(block.getBlockHash());
+        w.writeVarInt(block.getTxNum());
+        w.writeVarInt(block.getSize());
+        w.writeInt(block.getBits());
+
+        List<Transaction> transactions = block.getTransactions();
+        w.writeVarInt(transactions.size());
+        for (Transaction tx : transactions) {
+            writeTransaction(w, tx);
+        }
+    }
+
+    public static Block readBlock(ByteBuffer buffer) {
+        return readBlock(buffer, FORMAT_VERSION);
+    }
+
+    private static Block readBlock(ByteBuffer buffer, byte format) {
+        byte[] version = readBytes(buffer);
+        byte[] prevHash = readBytes(buffer);
+        byte[] merkleRoot = readBytes(buffer);
+        long timestamp = buffer.getLong();
+        byte[] nonce = readBytes(buffer);
+        byte[] blockHash = readBytes(buffer);
+        int txNum = readVarInt(buffer);
+        int size = readVarInt(buffer);
+        int bits = format >= 2 ? buffer.getInt() : 0;
+
+        int count = readCount(buffer);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(readTransaction(buffer));
+        }
+
+        return new Block(prevHash, txNum, size, version, merkleRoot, nonce, timestamp, transactions, blockHash, bits);
+    }
+
+    // ========== BlockHeader ==========
+
+    public static byte[] encodeHeader(BlockHeader header) {
+        Writer w = new Writer(192);
+        w.writeByte(FORMAT_VERSION);
+        writeHeader(w, header);
+        return w.toByteArray();
+    }
+
+    public static BlockHeader decodeHeader(ByteBuffer buffer) {
+        return readHeader(buffer, checkVersion(buffer));
+    }
+
+    public static void writeHeader(Writer w, BlockHeader header) {
+        w.writeVarInt(header.getHeight());
+        w.writeBytes(header.getVersion());
+        w.writeBytes(header.getPrevHash());
+        w.writeBytes(header.getMerkleRoot());
+        w.writeLong(header.getTimestamp());
+        w.writeBytes(header.getNonce());
+        w.writeBytes(header.getBlockHash());
+        w.writeVarInt(header.getTxNum());
+        w.writeVarInt(header.getSize());
+        w.writeInt(header.getBits());
+        BigInteger chainWork = header.getChainWork();
+        w.writeBytes(chainWork == null ? null : chainWork.toByteArray());
+    }
+
+    public static BlockHeader readHeader(ByteBuffer buffer) {
+        return readHeader(buffer, FORMAT_VERSION);
+    }
+
+    private static BlockHeader readHeader(ByteBuffer buffer, byte format) {
+        int height = readVarInt(buffer);
+        byte[] version = readBytes(buffer);
+        byte[] prevHash = readBytes(buffer);
+        byte[] merkleRoot = readBytes(buffer);
+        long timestamp = buffer.getLong();
+        byte[] nonce = readBytes(buffer);
+        byte[] blockHash = readBytes(buffer);
+        int txNum = readVarInt(buffer);
+        int size = readVarInt(buffer);
+
+        int bits = 0;
+        BigInteger chainWork = null;
+        if (format >= 2) {
+            bits = buffer.getInt();
+            byte[] work = readBytes(buffer);
+            chainWork = work == null ? null : new BigInteger(work);
+        }
+
+        return new BlockHeader(height, version, prevHash, merkleRoot, timestamp, nonce, blockHash, txNum, size, bits, chainWork);
+    }
+
+    // ========== Transaction ==========
+
+    public static byte[] encodeTransaction(Transaction tx) {
+        Writer w = new Writer(tx.getSize() + 128);
+        w.writeByte(FORMAT_VERSION);
+        writeTransaction(w, tx);
+        return w.toByteArray();
+    }
+
+    public static Transaction decodeTransaction(ByteBuffer buffer) {
+        checkVersion(buffer);
+        return readTransaction(buffer);
+    }
+
+    public static void writeTransaction(Writer w, Transaction tx) {
+        w.writeBytes(tx.getTxid());
+        w.writeString(tx.getTime());
+        w.writeLong(tx.getFee());
+        w.writeVarInt(tx.getSize());
+        w.writeByte((byte) (tx.isDeleted() ? 1 : 0));
+
+        TXBlockInfo blockInfo = tx.getBlock();
+        if (blockInfo == null) {
+            w.writeByte((byte) 0);
+        } else {
+            w.writeByte((byte) 1);
+            w.writeVarInt(blockInfo.getHeight());
+            w.writeBytes(blockInfo.getBlockHash());
+        }
+
+        List<TransactionInput> inputs = tx.getInputs();
+        w.writeVarInt(inputs.size());
+        for (TransactionInput input : inputs) {
+            writeInput(w, input);
+        }
+
+        List<TransactionOutput> outputs = tx.getOutputs();
+        w.writeVarInt(outputs.size());
+        for (TransactionOutput output : outputs) {
+            writeOutput(w, output);
+        }
+
+        w.writeString(tx.getContract());
+
+        List<String> voteList = tx.getVoteList();
+        w.writeVarInt(voteList.size());
+        for (String vote : voteList) {
+            w.writeString(vote);
+        }
+    }
+
+    public static Transaction readTransaction(ByteBuffer buffer) {
+        byte[] txid = readBytes(buffer);
+        String time = readString(buffer);
+        long fee = buffer.getLong();
+        int size = readVarInt(buffer);
+        boolean deleted = buffer.get() != 0;
+
+        TXBlockInfo blockInfo = null;
+        if (buffer.get() != 0) {
+            int height = readVarInt(buffer);
+            blockInfo = new TXBlockInfo(height, readBytes(buffer));
+        }
+
+        int inputCount = readCount(buffer);
+        List<TransactionInput> inputs = new ArrayList<>(inputCount);
+        for (int i = 0; i < inputCount; i++) {
+            inputs.add(readInput(buffer));
+        }
+
+        int outputCount = readCount(buffer);
+        List<TransactionOutput> outputs = new ArrayList<>(outputCount);
+        for (int i = 0; i < outputCount; i++) {
+            outputs.add(readOutput(buffer));
+        }
+
+        String contract = readString(buffer);
+
+        int voteCount = readCount(buffer);
+        List<String> voteList = new ArrayList<>(voteCount);
+        for (int i = 0; i < voteCount; i++) {
+            voteList.add(readString(buffer));
+        }
+
+        return new Transaction(txid, size, fee, time, blockInfo, deleted, inputs, outputs, contract, voteList);
+    }
+
+    // ========== TransactionInput ==========
+
+    /**
+     * prevTXID + outputIdx + sigScript (TransactionInput.toBytes() 순서) + 저장용 필드
+     * toBytes()의 고정 시퀀스(ffffffff)는 저장하지 않음
+     */
+    static void writeInput(Writer w, TransactionInput input) {
+        w.writeBytes(input.getPrevTXID());
+        w.writeInt(input.getOutputIdx());
+
+        List<byte[]> sigScript = input.getSigScript();
+        if (sigScript == null) {
+            w.writeVarInt(0);
+        } else {
+            w.writeVarInt(sigScript.size() + 1);
+            for (byte[] item : sigScript) {
+                w.writeBytes(item);
+            }
+        }
+
+        Boolean isCoinbase = input.getIsCoinbase();
+        w.writeByte((byte) (isCoinbase == null ? 0 : (isCoinbase ? 2 : 1)));
+        w.writeLong(input.getValue());
+        w.writeBytes(input.getPkScript());
+        w.writeString(input.getAddress());
+    }
+
+    static TransactionInput readInput(ByteBuffer buffer) {
+        byte[] prevTXID = readBytes(buffer);
+        int outputIdx = buffer.getInt();
+
+        List<byte[]> sigScript = null;
+        int sigCount = readCount(buffer);
+        if (sigCount > 0) {
+            sigScript = new ArrayList<>(sigCount - 1);
+            for (int i = 0; i < sigCount - 1; i++) {
+                sigScript.add(readBytes(buffer));
+            }
+        }
+
+        byte coinbaseFlag = buffer.get();
+        Boolean isCoinbase = coinbaseFlag == 0 ? null : coinbaseFlag == 2;
+        long value = buffer.getLong();
+        byte[] pkScript = readBytes(buffer);
+        String address = readString(buffer);
+
+        return new TransactionInput(isCoinbase, prevTXID, outputIdx, sigScript, pkScript, value, address);
+    }
+
+    // ========== TransactionOutput ==========
+
+    /**
+     * value + pkscript (TransactionOutput.toBytes() 순서) + 저장용 필드
+     */
+    static void writeOutput(Writer w, TransactionOutput output) {
+        w.writeLong(output.getValue());
+        w.writeBytes(output.getPkscript());
+        w.writeBytes(output.getAddress());
+        w.writeByte((byte) (output.isSpent() ? 1 : 0));
+
+        Spender spender = output.getSpender();
+        if (spender == null) {
+            w.writeByte((byte) 0);
+        } else {
+            w.writeByte((byte) 1);
+            w.writeBytes(spender.getTxid());
+            w.writeInt(spender.getInputIndex());
+        }
+    }
+
+    static TransactionOutput readOutput(ByteBuffer buffer) {
+        long value = buffer.getLong();
+        byte[] pkscript = readBytes(buffer);
+        byte[] address = readBytes(buffer);
+        boolean spent = buffer.get() != 0;
+
+        Spender spender = null;
+        if (buffer.get() != 0) {
+            byte[] txid = readBytes(buffer);
+            spender = new Spender(txid, buffer.getInt());
+        }
+
+        return new TransactionOutput(address, pkscript, value, spent, spender);
+    }
+
+    // ========== UTXO ==========
+
+    public static byte[] encodeUTXO(UTXO utxo) {
+        Writer w = new Writer(128);
+        w.writeByte(FORMAT_VERSION);
+        writeUTXO(w, utxo);
+        return w.toByteArray();
+    }
+
+    public static UTXO decodeUTXO(ByteBuffer buffer) {
+        checkVersion(buffer);
+        return readUTXO(buffer);
+    }
+
+    private static void writeUTXO(Writer w, UTXO utxo) {
+        w.writeBytes(utxo.getTxid());
+        w.writeInt(utxo.getOutputIndex());
+        w.writeLong(utxo.getBlockHeight());
+        writeOutput(w, utxo.getOutput());
+    }
+
+    private static UTXO readUTXO(ByteBuffer buffer) {
+        byte[] txid = readBytes(buffer);
+        int outputIndex = buffer.getInt();
+        long blockHeight = buffer.getLong();
+        TransactionOutput output = readOutput(buffer);
+        return new UTXO(txid, outputIndex, output, blockHeight);
+    }
+
+    // ========== 블록 되돌리기 데이터 ==========
+
+    /**
+     * 블록이 사용한 UTXO 목록 (입력 순서)
+     */
+    public static byte[] encodeUndo(List<UTXO> spent) {
+        Writer w = new Writer(16 + spent.size() * 128);
+        w.writeByte(FORMAT_VERSION);
+        w.writeVarInt(spent.size());
+        for (UTXO utxo : spent) {
+            writeUTXO(w, utxo);
+        }
+        return w.toByteArray();
+    }
+
+    public static List<UTXO> decodeUndo(ByteBuffer buffer) {
+        checkVersion(buffer);
+        int count = readCount(buffer);
+        List<UTXO> spent = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            spent.add(readUTXO(buffer));
+        }
+        return spent;
+    }
+
+    // ========== 기본 타입 ==========
+
+    private static byte checkVersion(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version < MIN_FORMAT_VERSION || version > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported record format version: " + version);
+        }
+        return version;
+    }
+
+    /**
+     * 음수가 아닌 int (최대 31비트) - 다섯 번째 바이트는 하위 3비트만 허용
+     * (넘치면 음수 길이가 되어 배열 할당에서 RuntimeException이 나므로 여기서 거부)
+     */
+    public static int readVarInt(ByteBuffer buffer) {
+        int result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            if (shift == 28 && (b & 0x78) != 0) {
+                throw new IllegalArgumentException("VarInt overflows int");
+            }
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new IllegalArgumentException("VarInt too long");
+            }
+        }
+    }
+
+    /**
+     * 목록 개수 읽기 - 항목마다 최소 1바이트이므로 남은 바이트보다 많으면 손상된 입력
+     * (네트워크 입력으로 거대한 리스트를 미리 할당하지 않도록)
+     */
+    public static int readCount(ByteBuffer buffer) {
+        int count = readVarInt(buffer);
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        if (count > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return count;
+    }
+
+    public static byte[] readBytes(ByteBuffer buffer) {
+        int len = readVarInt(buffer);
+        if (len == 0) {
+            return null;
+        }
+        if (len < 0) {
+            throw new IllegalArgumentException("Negative length: " + len);
+        }
+        if (len - 1 > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[len - 1];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = readBytes(buffer);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 크기가 자동으로 늘어나는 출력 버퍼
+     */
+    public static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        public Writer(int initialCapacity) {
+            this.buf = new byte[Math.max(16, initialCapacity)];
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                byte[] grown = new byte[Math.max(buf.length * 2, pos + n)];
+                System.arraycopy(buf, 0, grown, 0, pos);
+                buf = grown;
+            }
+        }
+
+        public void writeByte(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        public void writeInt(int v) {
+            ensure(4);
+            buf[pos++] = (byte) (v >>> 24);
+            buf[pos++] = (byte) (v >>> 16);
+            buf[pos++] = (byte) (v >>> 8);
+            buf[pos++] = (byte) v;
+        }
+
+        public void writeLong(long v) {
+            writeInt((int) (v >>> 32));
+            writeInt((int) v);
+        }
+
+        public void writeVarInt(int v) {
+            if (v < 0) {
+                throw new IllegalArgumentException("Negative varint: " + v);
+            }
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        public void writeBytes(byte[] bytes) {
+            if (bytes == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(bytes.length + 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        /**
+         * 길이 접두사 없이 그대로 기록 (고정 길이 필드용)
+         */
+        public void writeRaw(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        public void writeString(String s) {
+            writeBytes(s == null ? null : s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public byte[] toByteArray() {
+            byte[] out = new byte[pos];
+            System.arraycopy(buf, 0, out, 0, pos);
+            return out;
+        }
+    }
+}
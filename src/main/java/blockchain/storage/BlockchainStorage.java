@@ -1,172 +1,420 @@
 package blockchain.storage;
 
 import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.node.mine.ProofOfWork;
 import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.OutPoint;
 import blockchain.utxo.UTXO;
+import blockchain.utxo.UTXOView;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.rocksdb.*;
+import util.BytesUtil;
 
 import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * RocksDB 기반 블록체인 저장소
- * 블록, 트랜잭션, UTXO 등을 영구 저장
+ * 블록, 트랜잭션, UTXO 등을 하나의 DB의 컬럼 패밀리로 영구 저장
+ *
+ * 블록 연결 시 블록/헤더/높이 인덱스/트랜잭션/UTXO 변경분/tip 정보를
+ * 하나의 WriteBatch로 기록하여 중간에 크래시가 나도 일관된 상태를 유지한다.
  */
 public class BlockchainStorage {
 
-    private RocksDB blocksDB;        // 블록 저장소
-    private RocksDB txDB;            // 트랜잭션 저장소
-    private RocksDB utxoDB;          // UTXO 저장소
-    private RocksDB metaDB;          // 메타데이터 (체인 높이, tip 등)
+    private RocksDB db;
+    private final List<ColumnFamilyHandle> handles = new ArrayList<>();
 
-    private final ObjectMapper objectMapper;
+    private ColumnFamilyHandle metaCF;       // 메타데이터 (체인 높이, tip 등) - default 컬럼 패밀리
+    private ColumnFamilyHandle blocksCF;     // 블록 저장소 (blockHash -> block)
+    private ColumnFamilyHandle headersCF;    // 블록 헤더 저장소 (blockHash -> header)
+    private ColumnFamilyHandle heightsCF;    // 높이 인덱스 (height -> blockHash)
+    private ColumnFamilyHandle txCF;         // 트랜잭션 저장소 (txid -> tx)
+    private ColumnFamilyHandle utxoCF;       // UTXO 저장소 (txid + outputIndex -> utxo)
+    private ColumnFamilyHandle undoCF;       // 블록 되돌리기 데이터 (blockHash -> 블록이 사용한 UTXO 목록)
+
+    private DBOptions dbOptions;
+    private ColumnFamilyOptions cfOptions;
+    private final WriteOptions writeOptions;
+
+    private final ObjectMapper objectMapper;     // 이전 버전(JSON) 레코드 읽기용
     private final String dbPath;
 
+    // 컬럼 패밀리 이름
+    private static final String CF_BLOCKS = "blocks";
+    private static final String CF_HEADERS = "headers";
+    private static final String CF_HEIGHTS = "heights";
+    private static final String CF_TRANSACTIONS = "transactions";
+    private static final String CF_UTXO = "utxo";
+    private static final String CF_UNDO = "undo";
+
+    // 통합 DB 디렉토리 (이전 버전은 dbPath 아래에 컬럼별 DB 디렉토리를 사용)
+    private static final String CHAIN_DB_DIR = "chaindata";
+
     // 메타데이터 키
     private static final String META_CHAIN_HEIGHT = "chain_height";
     private static final String META_BEST_BLOCK_HASH = "best_block_hash";
+    private static final String META_STORAGE_FORMAT = "storage_format";
+    private static final String META_UTXO_TIP = "utxo_tip";
 
     static {
         RocksDB.loadLibrary();
     }
 
+    /**
+     * 기본 설정 (WAL 사용, fsync 없음)
+     */
     public BlockchainStorage(String dbPath) throws RocksDBException {
+        this(dbPath, false, false);
+    }
+
+    /**
+     * @param dbPath 저장소 경로
+     * @param syncWrites 블록 커밋마다 WAL을 fsync 할지 여부 (전원 장애에도 안전하지만 느림)
+     * @param disableWAL WAL 비활성화 여부 (가장 빠르지만 프로세스 크래시 시 최근 커밋이 유실될 수 있음)
+     */
+    public BlockchainStorage(String dbPath, boolean syncWrites, boolean disableWAL) throws RocksDBException {
         this.dbPath = dbPath;
         this.objectMapper = new ObjectMapper();
+        this.writeOptions = new WriteOptions()
+                .setSync(syncWrites)
+                .setDisableWAL(disableWAL);
 
         // 데이터베이스 초기화
         initializeDatabases();
 
+        // 이전 버전(컬럼별 DB) 데이터 가져오기
+        importLegacyDatabases();
+
+        // JSON 레코드를 바이너리 포맷으로 변환 (최초 1회)
+        migrateLegacyRecords();
+
         System.out.println("✓ Blockchain storage initialized at: " + dbPath);
     }
 
     /**
-     * 데이터베이스 초기화
+     * 데이터베이스 초기화 (컬럼 패밀리 포함)
      */
     private void initializeDatabases() throws RocksDBException {
-        Options options = new Options()
+        dbOptions = new DBOptions()
                 .setCreateIfMissing(true)
+                .setCreateMissingColumnFamilies(true);
+        cfOptions = new ColumnFamilyOptions()
                 .setCompressionType(CompressionType.LZ4_COMPRESSION);
 
         // 디렉토리 생성
         new File(dbPath).mkdirs();
 
-        // 각 DB 열기
-        blocksDB = RocksDB.open(options, dbPath + "/blocks");
-        txDB = RocksDB.open(options, dbPath + "/transactions");
-        utxoDB = RocksDB.open(options, dbPath + "/utxo");
-        metaDB = RocksDB.open(options, dbPath + "/meta");
-
-        System.out.println("  - Blocks DB: " + dbPath + "/blocks");
-        System.out.println("  - Transactions DB: " + dbPath + "/transactions");
-        System.out.println("  - UTXO DB: " + dbPath + "/utxo");
-        System.out.println("  - Meta DB: " + dbPath + "/meta");
+        List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+        descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, cfOptions));
+        descriptors.add(new ColumnFamilyDescriptor(CF_BLOCKS.getBytes(StandardCharsets.UTF_8), cfOptions));
+        descriptors.add(new ColumnFamilyDescriptor(CF_HEADERS.getBytes(StandardCharsets.UTF_8), cfOptions));
+        descriptors.add(new ColumnFamilyDescriptor(CF_HEIGHTS.getBytes(StandardCharsets.UTF_8), cfOptions));
+        descriptors.add(new ColumnFamilyDescriptor(CF_TRANSACTIONS.getBytes(StandardCharsets.UTF_8), cfOptions));
+        descriptors.add(new ColumnFamilyDescriptor(CF_UTXO.getBytes(StandardCharsets.UTF_8), cfOptions));
+        descriptors.add(new ColumnFamilyDescriptor(CF_UNDO.getBytes(StandardCharsets.UTF_8), cfOptions));
+
+        db = RocksDB.open(dbOptions, dbPath + "/" + CHAIN_DB_DIR, descriptors, handles);
+
+        metaCF = handles.get(0);
+        blocksCF = handles.get(1);
+        headersCF = handles.get(2);
+        heightsCF = handles.get(3);
+        txCF = handles.get(4);
+        utxoCF = handles.get(5);
+        undoCF = handles.get(6);
+
+        System.out.println("  - Chain DB: " + dbPath + "/" + CHAIN_DB_DIR);
+        System.out.println("  - Column families: meta, " + CF_BLOCKS + ", " + CF_HEADERS + ", "
+                + CF_HEIGHTS + ", " + CF_TRANSACTIONS + ", " + CF_UTXO + ", " + CF_UNDO);
     }
 
-    // ========== 블록 저장/조회 ==========
+    // ========== 블록 커밋 (원자적) ==========
 
     /**
-     * 블록 저장
-     * @param block 저장할 블록
+     * 블록 연결 커밋
+     * 블록 본문, 헤더, 높이 인덱스, 트랜잭션, UTXO 변경분, 되돌리기 데이터, tip 정보를 하나의 WriteBatch로 기록
+     * @param block 연결할 블록
+     * @param header 블록 헤더 (높이, 누적 작업량 포함)
+     * @param spent 블록이 사용한 UTXO (입력 순서 - 체인 재구성 시 블록 되돌리기용)
      */
-    public void saveBlock(Block block) throws Exception {
+    public void commitBlock(Block block, BlockHeader header, List<UTXO> spent) throws Exception {
+        int height = header.getHeight();
+        try (WriteBatch batch = new WriteBatch()) {
+            putBlock(batch, block, header);
+            applyUTXODelta(batch, block, height);
+            batch.put(undoCF, block.getBlockHash(), BinaryCodec.encodeUndo(spent));
+            putTip(batch, block.getBlockHash(), height + 1);
+
+            db.write(writeOptions, batch);
+        }
+
+        System.out.println("Block committed: " + bytesToHex(block.getBlockHash()).substring(0, 16)
+                + "... (height " + height + ")");
+    }
+
+    /**
+     * 체인 재구성 커밋
+     * 분기점 이후 새 블록/인덱스/되돌리기 데이터와 UTXO 변경분(되돌린 블록 + 새 블록)을 하나의 WriteBatch로 기록
+     * UTXO는 뷰가 바꾼 항목만 기록 - 재구성 비용이 체인 / UTXO 세트 크기가 아니라 바뀐 블록 수에 비례
+     * @param blocks 분기점 다음 블록부터 높이 순
+     * @param headers blocks와 같은 순서의 헤더 (높이 포함)
+     * @param undo blocks와 같은 순서의 되돌리기 데이터
+     * @param view 현재 UTXO tip 기준으로 블록을 되돌리고 새 블록을 연결한 뷰
+     */
+    public void commitReorg(List<Block> blocks, List<BlockHeader> headers, List<List<UTXO>> undo,
+                            UTXOView view) throws Exception {
+        try (WriteBatch batch = new WriteBatch()) {
+            for (int i = 0; i < blocks.size(); i++) {
+                putBlock(batch, blocks.get(i), headers.get(i));
+                batch.put(undoCF, blocks.get(i).getBlockHash(), BinaryCodec.encodeUndo(undo.get(i)));
+            }
+
+            int chainHeight = headers.getLast().getHeight() + 1;
+
+            // 새 체인보다 높은 기존 높이 인덱스 제거
+            try (RocksIterator iterator = db.newIterator(heightsCF)) {
+                iterator.seek(heightKey(chainHeight));
+                while (iterator.isValid()) {
+                    batch.delete(heightsCF, iterator.key());
+                    iterator.next();
+                }
+            }
+
+            // UTXO 변경분 (제거 후 추가 - 양쪽 체인에 같은 트랜잭션이 있으면 다시 기록됨)
+            for (OutPoint outPoint : view.getRemoved()) {
+                batch.delete(utxoCF, outPoint.toBytes());
+            }
+            for (UTXO utxo : view.getAdded()) {
+                batch.put(utxoCF, utxoKey(utxo.getTxid(), utxo.getOutputIndex()), BinaryCodec.encodeUTXO(utxo));
+            }
+
+            putTip(batch, blocks.getLast().getBlockHash(), chainHeight);
+
+            db.write(writeOptions, batch);
+        }
+
+        System.out.println("Reorg committed: " + blocks.size() + " blocks, "
+                + view.getRemoved().size() + " UTXOs removed, " + view.getAdded().size() + " added");
+    }
+
+    private void putBlock(WriteBatch batch, Block block, BlockHeader header) throws RocksDBException {
         byte[] blockHash = block.getBlockHash();
-        byte[] blockData = objectMapper.writeValueAsBytes(block);
 
-        blocksDB.put(blockHash, blockData);
+        batch.put(blocksCF, blockHash, BinaryCodec.encodeBlock(block));
+        batch.put(headersCF, blockHash, BinaryCodec.encodeHeader(header));
+        batch.put(heightsCF, heightKey(header.getHeight()), blockHash);
+
+        for (Transaction tx : block.getTransactions()) {
+            batch.put(txCF, tx.getTxid(), BinaryCodec.encodeTransaction(tx));
+        }
+    }
+
+    /**
+     * 블록의 UTXO 변경분 기록 (UTXOSet.updateWithBlock과 동일한 순서)
+     * 트랜잭션 순서대로 입력 삭제 후 출력 추가 - 같은 블록 안에서 생성/사용된 출력도 올바르게 처리됨
+     */
+    private void applyUTXODelta(WriteBatch batch, Block block, int height) throws RocksDBException {
+        for (Transaction tx : block.getTransactions()) {
+            for (TransactionInput input : tx.getInputs()) {
+                if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
+                    continue;
+                }
+                batch.delete(utxoCF, utxoKey(input.getPrevTXID(), input.getOutputIdx()));
+            }
+
+            List<TransactionOutput> outputs = tx.getOutputs();
+            for (int i = 0; i < outputs.size(); i++) {
+                UTXO utxo = new UTXO(tx.getTxid(), i, outputs.get(i), height);
+                batch.put(utxoCF, utxoKey(tx.getTxid(), i), BinaryCodec.encodeUTXO(utxo));
+            }
+        }
+    }
 
-        System.out.println("Block saved: " + bytesToHex(blockHash).substring(0, 16) + "...");
+    /**
+     * tip 정보 기록
+     * UTXO 변경분과 같은 배치에 기록되므로 UTXO 컬럼 패밀리는 항상 utxo_tip 블록 기준 상태
+     */
+    private void putTip(WriteBatch batch, byte[] blockHash, int chainHeight) throws RocksDBException {
+        batch.put(metaCF, metaKey(META_CHAIN_HEIGHT), String.valueOf(chainHeight).getBytes(StandardCharsets.UTF_8));
+        batch.put(metaCF, metaKey(META_BEST_BLOCK_HASH), blockHash);
+        batch.put(metaCF, metaKey(META_UTXO_TIP), blockHash);
     }
 
+    // ========== 블록 조회 ==========
+
     /**
      * 블록 조회
      * @param blockHash 블록 해시
      * @return 블록
      */
     public Block getBlock(byte[] blockHash) throws Exception {
-        byte[] blockData = blocksDB.get(blockHash);
+        byte[] blockData = db.get(blocksCF, blockHash);
 
         if (blockData == null) {
             return null;
         }
 
-        return objectMapper.readValue(blockData, Block.class);
+        return decodeBlock(blockData);
     }
 
     /**
      * 블록 존재 여부 확인
      */
     public boolean hasBlock(byte[] blockHash) throws RocksDBException {
-        return blocksDB.get(blockHash) != null;
+        return db.get(blocksCF, blockHash) != null;
+    }
+
+    /**
+     * 특정 높이의 블록 조회 (높이 인덱스 사용)
+     * @param height 블록 높이
+     * @return 블록 (없으면 null)
+     */
+    public Block getBlockAtHeight(int height) throws Exception {
+        byte[] blockHash = getBlockHashAtHeight(height);
+        if (blockHash == null) {
+            return null;
+        }
+        return getBlock(blockHash);
     }
 
-    // ========== 트랜잭션 저장/조회 ==========
+    // ========== 헤더 / 높이 인덱스 ==========
 
     /**
-     * 트랜잭션 저장
+     * 블록 헤더 조회
+     * @param blockHash 블록 해시
+     * @return 헤더 (없으면 null)
      */
-    public void saveTransaction(Transaction tx) throws Exception {
-        byte[] txid = tx.getTxid();
-        byte[] txData = objectMapper.writeValueAsBytes(tx);
+    public BlockHeader getHeader(byte[] blockHash) throws Exception {
+        byte[] headerData = db.get(headersCF, blockHash);
 
-        txDB.put(txid, txData);
+        if (headerData == null) {
+            return null;
+        }
+
+        return decodeHeader(headerData);
+    }
+
+    /**
+     * 특정 높이의 블록 해시 조회
+     */
+    public byte[] getBlockHashAtHeight(int height) throws RocksDBException {
+        return db.get(heightsCF, heightKey(height));
+    }
+
+    /**
+     * 높이 범위의 헤더를 순서대로 조회
+     * 높이 키가 빅 엔디언이므로 seek 후 순차 iteration으로 정렬된 결과를 얻음
+     * @param fromHeight 시작 높이 (포함)
+     * @param toHeight 끝 높이 (제외)
+     * @return 높이 순 헤더 리스트
+     */
+    public List<BlockHeader> loadHeaders(int fromHeight, int toHeight) throws Exception {
+        List<BlockHeader> headers = new ArrayList<>();
+
+        try (RocksIterator iterator = db.newIterator(heightsCF)) {
+            iterator.seek(heightKey(fromHeight));
+
+            while (iterator.isValid()) {
+                int height = BytesUtil.bytesToInt(iterator.key());
+                if (height >= toHeight) {
+                    break;
+                }
+
+                BlockHeader header = getHeader(iterator.value());
+                if (header == null) {
+                    throw new IllegalStateException("Missing header for height " + height);
+                }
+                headers.add(header);
+                iterator.next();
+            }
+        }
+
+        return headers;
+    }
+
+    /**
+     * 최신(tip) 헤더 조회
+     * @return 가장 높은 높이의 헤더 (없으면 null)
+     */
+    public BlockHeader getTipHeader() throws Exception {
+        try (RocksIterator iterator = db.newIterator(heightsCF)) {
+            iterator.seekToLast();
+
+            if (!iterator.isValid()) {
+                return null;
+            }
+            return getHeader(iterator.value());
+        }
     }
 
+    /**
+     * 높이 키 (4바이트 빅 엔디언 - 사전순 정렬이 높이 순서와 일치)
+     */
+    private byte[] heightKey(int height) {
+        return BytesUtil.intToBytes(height, 4);
+    }
+
+    // ========== 트랜잭션 조회 ==========
+
     /**
      * 트랜잭션 조회
      */
     public Transaction getTransaction(byte[] txid) throws Exception {
-        byte[] txData = txDB.get(txid);
+        byte[] txData = db.get(txCF, txid);
 
         if (txData == null) {
             return null;
         }
 
-        return objectMapper.readValue(txData, Transaction.class);
+        return decodeTransaction(txData);
     }
 
+    // ========== 되돌리기 데이터 ==========
+
     /**
-     * 블록의 모든 트랜잭션 저장
+     * 블록이 사용한 UTXO 목록 조회
+     * @return 입력 순서의 UTXO (되돌리기 데이터가 없는 이전 버전 블록은 null)
      */
-    public void saveBlockTransactions(Block block) throws Exception {
-        for (Transaction tx : block.getTransactions()) {
-            saveTransaction(tx);
-        }
+    public List<UTXO> getUndo(byte[] blockHash) throws RocksDBException {
+        byte[] data = db.get(undoCF, blockHash);
+        return data == null ? null : BinaryCodec.decodeUndo(ByteBuffer.wrap(data));
     }
 
-    // ========== UTXO 저장/조회 ==========
-
     /**
-     * UTXO 저장
+     * 되돌리기 데이터 기록 (되돌리기 데이터 없이 저장된 블록 보충용)
      */
-    public void saveUTXO(UTXO utxo) throws Exception {
-        String key = utxo.getKey(); // txid:index
-        byte[] utxoData = objectMapper.writeValueAsBytes(utxo);
-
-        utxoDB.put(key.getBytes(StandardCharsets.UTF_8), utxoData);
+    public void putUndo(byte[] blockHash, List<UTXO> spent) throws RocksDBException {
+        db.put(undoCF, blockHash, BinaryCodec.encodeUndo(spent));
     }
 
+    // ========== UTXO 조회 ==========
+
     /**
      * UTXO 조회
      */
-    public UTXO getUTXO(String key) throws Exception {
-        byte[] utxoData = utxoDB.get(key.getBytes(StandardCharsets.UTF_8));
+    public UTXO getUTXO(byte[] txid, int outputIndex) throws Exception {
+        byte[] utxoData = db.get(utxoCF, utxoKey(txid, outputIndex));
 
         if (utxoData == null) {
             return null;
         }
 
-        return objectMapper.readValue(utxoData, UTXO.class);
-    }
-
-    /**
-     * UTXO 삭제 (사용됨)
-     */
-    public void deleteUTXO(String key) throws RocksDBException {
-        utxoDB.delete(key.getBytes(StandardCharsets.UTF_8));
+        return BinaryCodec.decodeUTXO(ByteBuffer.wrap(utxoData));
     }
 
     /**
@@ -175,12 +423,12 @@ public class BlockchainStorage {
     public List<UTXO> getAllUTXOs() throws Exception {
         List<UTXO> utxos = new ArrayList<>();
 
-        try (RocksIterator iterator = utxoDB.newIterator()) {
+        try (RocksIterator iterator = db.newIterator(utxoCF)) {
             iterator.seekToFirst();
 
             while (iterator.isValid()) {
                 byte[] utxoData = iterator.value();
-                UTXO utxo = objectMapper.readValue(utxoData, UTXO.class);
+                UTXO utxo = BinaryCodec.decodeUTXO(ByteBuffer.wrap(utxoData));
                 utxos.add(utxo);
                 iterator.next();
             }
@@ -189,23 +437,74 @@ public class BlockchainStorage {
         return utxos;
     }
 
-    // ========== 메타데이터 저장/조회 ==========
+    /**
+     * 저장된 UTXO를 하나씩 읽어 전달 (전체 리스트를 만들지 않음)
+     * @param consumer UTXO 처리 함수
+     * @return 읽은 UTXO 개수
+     */
+    public int forEachUTXO(Consumer<UTXO> consumer) {
+        int count = 0;
+
+        try (RocksIterator iterator = db.newIterator(utxoCF)) {
+            iterator.seekToFirst();
+
+            while (iterator.isValid()) {
+                consumer.accept(BinaryCodec.decodeUTXO(ByteBuffer.wrap(iterator.value())));
+                count++;
+                iterator.next();
+            }
+        }
+
+        return count;
+    }
 
     /**
-     * 체인 높이 저장
+     * UTXO 컬럼 패밀리가 반영하고 있는 블록 해시
+     * @return UTXO tip 해시 (UTXO가 저장된 적 없는 이전 버전 저장소는 null)
      */
-    public void setChainHeight(int height) throws RocksDBException {
-        metaDB.put(
-                META_CHAIN_HEIGHT.getBytes(StandardCharsets.UTF_8),
-                String.valueOf(height).getBytes(StandardCharsets.UTF_8)
-        );
+    public byte[] getUTXOTipHash() throws RocksDBException {
+        return db.get(metaCF, metaKey(META_UTXO_TIP));
     }
 
+    /**
+     * UTXO 전체 재기록 (UTXO 미저장 저장소 마이그레이션 / 불일치 복구용)
+     * @param utxos tipHash 블록 기준 UTXO 전체
+     * @param tipHash UTXO 세트가 반영하는 블록 해시
+     */
+    public void rebuildUTXOs(Collection<UTXO> utxos, byte[] tipHash) throws RocksDBException {
+        try (WriteBatch batch = new WriteBatch()) {
+            try (RocksIterator iterator = db.newIterator(utxoCF)) {
+                iterator.seekToFirst();
+                while (iterator.isValid()) {
+                    batch.delete(utxoCF, iterator.key());
+                    iterator.next();
+                }
+            }
+            for (UTXO utxo : utxos) {
+                batch.put(utxoCF, utxoKey(utxo.getTxid(), utxo.getOutputIndex()), BinaryCodec.encodeUTXO(utxo));
+            }
+            batch.put(metaCF, metaKey(META_UTXO_TIP), tipHash);
+
+            db.write(writeOptions, batch);
+        }
+
+        System.out.println("✓ UTXO set persisted: " + utxos.size() + " UTXOs");
+    }
+
+    /**
+     * UTXO 키 (txid 32바이트 + outputIndex 4바이트 빅 엔디언 - OutPoint 직렬화 형식)
+     */
+    private byte[] utxoKey(byte[] txid, int outputIndex) {
+        return new OutPoint(txid, outputIndex).toBytes();
+    }
+
+    // ========== 메타데이터 조회 ==========
+
     /**
      * 체인 높이 조회
      */
     public int getChainHeight() throws RocksDBException {
-        byte[] heightData = metaDB.get(META_CHAIN_HEIGHT.getBytes(StandardCharsets.UTF_8));
+        byte[] heightData = db.get(metaCF, metaKey(META_CHAIN_HEIGHT));
 
         if (heightData == null) {
             return 0;
@@ -214,69 +513,299 @@ public class BlockchainStorage {
         return Integer.parseInt(new String(heightData, StandardCharsets.UTF_8));
     }
 
-    /**
-     * 최신 블록 해시 저장
-     */
-    public void setBestBlockHash(byte[] blockHash) throws RocksDBException {
-        metaDB.put(
-                META_BEST_BLOCK_HASH.getBytes(StandardCharsets.UTF_8),
-                blockHash
-        );
-    }
-
     /**
      * 최신 블록 해시 조회
      */
     public byte[] getBestBlockHash() throws RocksDBException {
-        return metaDB.get(META_BEST_BLOCK_HASH.getBytes(StandardCharsets.UTF_8));
+        return db.get(metaCF, metaKey(META_BEST_BLOCK_HASH));
+    }
+
+    private byte[] metaKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
     }
 
     // ========== 블록체인 복원 ==========
 
     /**
-     * 전체 블록체인 로드
+     * 전체 헤더 체인 로드 (높이 순)
+     * 블록 본문은 역직렬화하지 않음
+     */
+    public List<BlockHeader> loadHeaders() throws Exception {
+        if (getTipHeader() == null && !isEmpty(blocksCF)) {
+            // 높이 인덱스가 없는 이전 버전 저장소
+            rebuildHeightIndex();
+        }
+
+        List<BlockHeader> headers = loadHeaders(0, Integer.MAX_VALUE);
+
+        System.out.println("Loaded " + headers.size() + " block headers from storage");
+        return headers;
+    }
+
+    /**
+     * 높이 인덱스 재구축 (이전 버전 저장소 마이그레이션)
+     * best block 해시에서 prevHash를 따라 제네시스까지 역추적
+     * best block 정보가 없으면 누적 작업량이 가장 큰 tip에서 역추적 (분기 블록은 색인하지 않음)
+     * 제네시스까지 이어지지 않으면 추측하지 않고 실패
      */
-    public List<Block> loadBlockchain() throws Exception {
-        List<Block> blocks = new ArrayList<>();
+    private void rebuildHeightIndex() throws Exception {
+        System.out.println("Height index not found - rebuilding from stored blocks...");
 
-        try (RocksIterator iterator = blocksDB.newIterator()) {
-            iterator.seekToFirst();
+        byte[] tipHash = getBestBlockHash();
+        if (tipHash == null || !hasBlock(tipHash)) {
+            tipHash = findMostWorkTip();
+        }
+
+        List<Block> chain = new ArrayList<>();
+        byte[] hash = tipHash;
+        while (hash != null) {
+            Block block = getBlock(hash);
+            if (block == null) {
+                throw new IllegalStateException("Cannot rebuild height index: missing block "
+                        + bytesToHex(hash) + " below tip " + bytesToHex(tipHash));
+            }
+            chain.add(block);
+            hash = isZeroHash(block.getPrevHash()) ? null : block.getPrevHash();
+        }
+
+        try (WriteBatch batch = new WriteBatch()) {
+            for (int i = 0; i < chain.size(); i++) {
+                int height = chain.size() - 1 - i;
+                Block block = chain.get(i);
+                batch.put(headersCF, block.getBlockHash(), BinaryCodec.encodeHeader(new BlockHeader(block, height)));
+                batch.put(heightsCF, heightKey(height), block.getBlockHash());
+            }
+            batch.put(metaCF, metaKey(META_CHAIN_HEIGHT), String.valueOf(chain.size()).getBytes(StandardCharsets.UTF_8));
+            batch.put(metaCF, metaKey(META_BEST_BLOCK_HASH), tipHash);
+            db.write(writeOptions, batch);
+        }
 
+        System.out.println("✓ Height index rebuilt: " + chain.size() + " blocks");
+    }
+
+    /**
+     * best block 정보가 없는 저장소의 tip 선택
+     * 다른 블록의 부모가 아닌 블록 중 제네시스까지 이어지는 것끼리 누적 작업량(bits 기준) 비교
+     * 가장 큰 tip이 하나로 정해지지 않으면 실패
+     */
+    private byte[] findMostWorkTip() throws Exception {
+        Map<ByteBuffer, ByteBuffer> parentOf = new HashMap<>();
+        Map<ByteBuffer, BigInteger> blockWork = new HashMap<>();
+        try (RocksIterator iterator = db.newIterator(blocksCF)) {
+            iterator.seekToFirst();
             while (iterator.isValid()) {
-                byte[] blockData = iterator.value();
-                Block block = objectMapper.readValue(blockData, Block.class);
-                blocks.add(block);
+                Block block = decodeBlock(iterator.value());
+                ByteBuffer key = ByteBuffer.wrap(block.getBlockHash());
+                parentOf.put(key, isZeroHash(block.getPrevHash()) ? null : ByteBuffer.wrap(block.getPrevHash()));
+                blockWork.put(key, ProofOfWork.getWork(block.getBits()));
                 iterator.next();
             }
         }
 
-        // 블록 높이 순으로 정렬 (타임스탬프 기준)
-        blocks.sort((b1, b2) -> Long.compare(b1.getTimestamp(), b2.getTimestamp()));
+        Set<ByteBuffer> parents = new HashSet<>(parentOf.values());
+        Map<ByteBuffer, BigInteger> chainWork = new HashMap<>();
+        ByteBuffer best = null;
+        BigInteger bestWork = null;
+        boolean tied = false;
+
+        for (ByteBuffer tip : parentOf.keySet()) {
+            if (parents.contains(tip)) {
+                continue;
+            }
+            BigInteger work = chainWork(tip, parentOf, blockWork, chainWork);
+            if (work == null) {
+                System.out.println("⚠ Ignoring tip not connected to genesis: " + bytesToHex(tip.array()));
+                continue;
+            }
+            int compared = bestWork == null ? 1 : work.compareTo(bestWork);
+            if (compared > 0) {
+                best = tip;
+                bestWork = work;
+                tied = false;
+            } else if (compared == 0) {
+                tied = true;
+            }
+        }
+
+        if (best == null) {
+            throw new IllegalStateException("Cannot rebuild height index: no stored chain reaches genesis");
+        }
+        if (tied) {
+            throw new IllegalStateException("Cannot rebuild height index: several tips have the most chain work");
+        }
+        return best.array();
+    }
+
+    /**
+     * 제네시스부터 hash 블록까지의 누적 작업량 (중간 블록이 없으면 null)
+     * 계산한 조상의 값은 chainWork에 보관해 분기끼리 다시 계산하지 않음
+     */
+    private BigInteger chainWork(ByteBuffer hash, Map<ByteBuffer, ByteBuffer> parentOf,
+                                 Map<ByteBuffer, BigInteger> blockWork, Map<ByteBuffer, BigInteger> chainWork) {
+        List<ByteBuffer> path = new ArrayList<>();
+        BigInteger work = BigInteger.ZERO;
+        ByteBuffer cursor = hash;
+        while (cursor != null) {
+            BigInteger known = chainWork.get(cursor);
+            if (known != null) {
+                work = known;
+                break;
+            }
+            if (!parentOf.containsKey(cursor) || path.size() > parentOf.size()) {
+                return null;    // 부모가 저장되어 있지 않음 (또는 순환)
+            }
+            path.add(cursor);
+            cursor = parentOf.get(cursor);
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            work = work.add(blockWork.get(path.get(i)));
+            chainWork.put(path.get(i), work);
+        }
+        return work;
+    }
+
+    private boolean isZeroHash(byte[] hash) {
+        return hash == null || Arrays.equals(hash, new byte[hash.length]);
+    }
+
+    private boolean isEmpty(ColumnFamilyHandle cf) {
+        try (RocksIterator iterator = db.newIterator(cf)) {
+            iterator.seekToFirst();
+            return !iterator.isValid();
+        }
+    }
+
+    // ========== 레코드 포맷 ==========
+
+    private Block decodeBlock(byte[] data) throws Exception {
+        if (BinaryCodec.isLegacyJson(data)) {
+            return objectMapper.readValue(data, Block.class);
+        }
+        return BinaryCodec.decodeBlock(ByteBuffer.wrap(data));
+    }
+
+    private BlockHeader decodeHeader(byte[] data) throws Exception {
+        if (BinaryCodec.isLegacyJson(data)) {
+            return objectMapper.readValue(data, BlockHeader.class);
+        }
+        return BinaryCodec.decodeHeader(ByteBuffer.wrap(data));
+    }
+
+    private Transaction decodeTransaction(byte[] data) throws Exception {
+        if (BinaryCodec.isLegacyJson(data)) {
+            return objectMapper.readValue(data, Transaction.class);
+        }
+        return BinaryCodec.decodeTransaction(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * 이전 버전 저장소(dbPath 아래 컬럼별 RocksDB 디렉토리) 가져오기
+     * 통합 DB가 비어 있을 때만 한 번 실행하며, 원본 디렉토리는 그대로 둔다
+     */
+    private void importLegacyDatabases() throws RocksDBException {
+        File legacyBlocks = new File(dbPath, CF_BLOCKS);
+        if (!legacyBlocks.isDirectory() || !isEmpty(blocksCF) || !isEmpty(metaCF)) {
+            return;
+        }
+
+        System.out.println("Importing legacy per-column databases...");
+        int imported = 0;
+        imported += importLegacyDatabase(CF_BLOCKS, blocksCF);
+        imported += importLegacyDatabase(CF_HEADERS, headersCF);
+        imported += importLegacyDatabase(CF_HEIGHTS, heightsCF);
+        imported += importLegacyDatabase(CF_TRANSACTIONS, txCF);
+        imported += importLegacyDatabase("meta", metaCF);
+        System.out.println("✓ Imported " + imported + " records from legacy databases");
+    }
 
-        System.out.println("Loaded " + blocks.size() + " blocks from storage");
-        return blocks;
+    private int importLegacyDatabase(String name, ColumnFamilyHandle target) throws RocksDBException {
+        File dir = new File(dbPath, name);
+        if (!dir.isDirectory()) {
+            return 0;
+        }
+
+        int count = 0;
+        try (Options options = new Options();
+             RocksDB legacy = RocksDB.open(options, dir.getPath());
+             RocksIterator iterator = legacy.newIterator();
+             WriteBatch batch = new WriteBatch()) {
+            iterator.seekToFirst();
+            while (iterator.isValid()) {
+                batch.put(target, iterator.key(), iterator.value());
+                count++;
+                iterator.next();
+            }
+            db.write(writeOptions, batch);
+        }
+        return count;
     }
 
     /**
-     * UTXO Set 복원
+     * 이전 버전(Jackson JSON) 레코드를 바이너리 포맷으로 변환
+     * 포맷 버전이 메타데이터에 기록되어 있으면 건너뜀
      */
-    public void restoreUTXOSet(blockchain.utxo.UTXOSet utxoSet) throws Exception {
-        List<UTXO> utxos = getAllUTXOs();
+    private void migrateLegacyRecords() throws RocksDBException {
+        byte[] formatKey = metaKey(META_STORAGE_FORMAT);
+        byte[] format = db.get(metaCF, formatKey);
+        if (format != null && format.length == 1 && format[0] == BinaryCodec.FORMAT_VERSION) {
+            return;
+        }
+
+        int migrated = 0;
+        try (WriteBatch batch = new WriteBatch()) {
+            migrated += migrateRecords(batch, blocksCF, data -> BinaryCodec.encodeBlock(objectMapper.readValue(data, Block.class)));
+            migrated += migrateRecords(batch, headersCF, data -> BinaryCodec.encodeHeader(objectMapper.readValue(data, BlockHeader.class)));
+            migrated += migrateRecords(batch, txCF, data -> BinaryCodec.encodeTransaction(objectMapper.readValue(data, Transaction.class)));
+            batch.put(metaCF, formatKey, new byte[]{BinaryCodec.FORMAT_VERSION});
+            db.write(writeOptions, batch);
+        } catch (Exception e) {
+            // 변환 실패 시 포맷 버전을 기록하지 않음 (읽기는 JSON 폴백으로 계속 동작)
+            System.err.println("Failed to migrate legacy records: " + e.getMessage());
+            return;
+        }
 
-        // UTXO Set에 로드 (UTXOSet에 직접 추가하는 메서드 필요)
-        System.out.println("Loaded " + utxos.size() + " UTXOs from storage");
+        if (migrated > 0) {
+            System.out.println("✓ Migrated " + migrated + " legacy JSON records to binary format");
+        }
+    }
+
+    private int migrateRecords(WriteBatch batch, ColumnFamilyHandle cf, RecordConverter converter) throws Exception {
+        int converted = 0;
+
+        try (RocksIterator iterator = db.newIterator(cf)) {
+            iterator.seekToFirst();
+            while (iterator.isValid()) {
+                byte[] value = iterator.value();
+                if (BinaryCodec.isLegacyJson(value)) {
+                    batch.put(cf, iterator.key(), converter.convert(value));
+                    converted++;
+                }
+                iterator.next();
+            }
+        }
+
+        return converted;
+    }
+
+    @FunctionalInterface
+    private interface RecordConverter {
+        byte[] convert(byte[] legacyData) throws Exception;
     }
 
     // ========== 데이터베이스 닫기 ==========
 
     /**
-     * 모든 데이터베이스 닫기
+     * 데이터베이스 닫기
      */
     public void close() {
-        if (blocksDB != null) blocksDB.close();
-        if (txDB != null) txDB.close();
-        if (utxoDB != null) utxoDB.close();
-        if (metaDB != null) metaDB.close();
+        for (ColumnFamilyHandle handle : handles) {
+            handle.close();
+        }
+        if (db != null) db.close();
+        if (dbOptions != null) dbOptions.close();
+        if (cfOptions != null) cfOptions.close();
+        writeOptions.close();
 
         System.out.println("Blockchain storage closed");
     }
@@ -294,38 +823,22 @@ public class BlockchainStorage {
             System.out.println("Best Block: " + bytesToHex(bestHash).substring(0, 16) + "...");
         }
 
-        // 통계
-        long blockCount = 0;
-        try (RocksIterator it = blocksDB.newIterator()) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                blockCount++;
-                it.next();
-            }
-        }
-
-        long txCount = 0;
-        try (RocksIterator it = txDB.newIterator()) {
-            it.seekToFirst();
-            while (it.isValid()) {
-                txCount++;
-                it.next();
-            }
-        }
+        System.out.println("Blocks: " + countRecords(blocksCF));
+        System.out.println("Transactions: " + countRecords(txCF));
+        System.out.println("UTXOs: " + countRecords(utxoCF));
+        System.out.println("=====================\n");
+    }
 
-        long utxoCount = 0;
-        try (RocksIterator it = utxoDB.newIterator()) {
+    private long countRecords(ColumnFamilyHandle cf) {
+        long count = 0;
+        try (RocksIterator it = db.newIterator(cf)) {
             it.seekToFirst();
             while (it.isValid()) {
-                utxoCount++;
+                count++;
                 it.next();
             }
         }
-
-        System.out.println("Blocks: " + blockCount);
-        System.out.println("Transactions: " + txCount);
-        System.out.println("UTXOs: " + utxoCount);
-        System.out.println("=====================\n");
+        return count;
     }
 
     private String bytesToHex(byte[] bytes) {
@@ -342,10 +855,7 @@ public class BlockchainStorage {
      * 개인키 저장
      */
     public void savePrivateKey(byte[] privateKey) throws RocksDBException {
-        metaDB.put(
-                META_PRIVATE_KEY.getBytes(StandardCharsets.UTF_8),
-                privateKey
-        );
+        db.put(metaCF, metaKey(META_PRIVATE_KEY), privateKey);
         System.out.println("Private key saved to storage");
     }
 
@@ -353,7 +863,7 @@ public class BlockchainStorage {
      * 개인키 조회
      */
     public byte[] loadPrivateKey() throws RocksDBException {
-        byte[] privateKey = metaDB.get(META_PRIVATE_KEY.getBytes(StandardCharsets.UTF_8));
+        byte[] privateKey = db.get(metaCF, metaKey(META_PRIVATE_KEY));
 
         if (privateKey != null) {
             System.out.println("Private key loaded from storage");
@@ -366,6 +876,6 @@ public class BlockchainStorage {
      * 개인키 존재 여부 확인
      */
     public boolean hasPrivateKey() throws RocksDBException {
-        return metaDB.get(META_PRIVATE_KEY.getBytes(StandardCharsets.UTF_8)) != null;
+        return db.get(metaCF, metaKey(META_PRIVATE_KEY)) != null;
     }
 }
@@ -0,0 +1,245 @@
+package blockchain.storage;
+
+import blockchain.transaction.Mempool;
+import blockchain.transaction.MempoolEntry;
+import blockchain.transaction.Transaction;
+import blockchain.validation.TransactionValidator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메모리 풀 스냅샷 (재시작 후 빈 메모리 풀로 시작하지 않도록)
+ * 주기적으로 / 종료 시 <저장소 경로>/mempool.dat에 바이너리로 기록하고,
+ * 시작 시 백그라운드 스레드에서 스트리밍으로 읽어 현재 UTXO 기준으로 다시 검증해 추가
+ *
+ * 파일 형식: 매직(4) + 버전(1) + 항목 수(4) + [레코드 길이(4) + 도착 시각(8) + 수수료(8) + 트랜잭션]...
+ * 항목은 부모가 자식보다 앞 (순서대로 추가하면 미확인 부모 링크가 복원됨)
+ */
+public class MempoolSnapshot {
+
+    public static final String FILE_NAME = "mempool.dat";
+
+    private static final int MAGIC = 0x4D504F4C;       // "MPOL"
+    private static final byte SNAPSHOT_VERSION = 0x01;
+    private static final int MAX_RECORD_BYTES = 4 * 1024 * 1024;
+
+    static final int LOAD_BATCH_SIZE = 500;                         // 일괄 검증 단위
+    static final long SAVE_INTERVAL_MS = 10 * 60 * 1000L;
+    static final long MAX_ENTRY_AGE_MS = 14L * 24 * 60 * 60 * 1000; // 이보다 오래된 항목은 복원하지 않음
+
+    private final Mempool mempool;
+    private final TransactionValidator validator;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private Thread loader;
+    private volatile boolean loaded;
+    private volatile boolean closed;
+
+    public MempoolSnapshot(Mempool mempool, TransactionValidator validator, Path file) {
+        this.mempool = mempool;
+        this.validator = validator;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mempool-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 백그라운드 복원 시작 (노드 준비를 기다리게 하지 않음)
+     * 복원이 끝난 뒤부터 주기적 저장 - 덜 읽은 스냅샷을 덮어쓰지 않도록
+     */
+    public synchronized void start() {
+        if (loader != null) {
+            return;
+        }
+        loader = new Thread(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to restore mempool snapshot: " + e.getMessage());
+            }
+            if (!closed) {
+                loaded = true;
+                scheduler.scheduleWithFixedDelay(this::saveQuietly,
+                        SAVE_INTERVAL_MS, SAVE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }, "mempool-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 주기 저장 중지 후 마지막 저장 (복원이 끝나지 않았으면 기존 스냅샷 유지)
+     */
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+
+        Thread running;
+        synchronized (this) {
+            running = loader;
+        }
+        if (running != null) {
+            try {
+                running.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (running != null && !loaded) {
+            System.out.println("⚠ Mempool snapshot not saved - restore did not finish");
+            return;
+        }
+        saveQuietly();
+    }
+
+    // ========== 저장 ==========
+
+    /**
+     * 메모리 풀 전체를 임시 파일에 쓴 뒤 교체 (중간에 죽어도 이전 스냅샷은 온전함)
+     * @return 저장한 트랜잭션 수
+     */
+    public synchronized int save() throws IOException {
+        List<MempoolEntry> entries = mempool.getEntries();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            out.writeInt(entries.size());
+
+            for (MempoolEntry entry : entries) {
+                BinaryCodec.Writer w = new BinaryCodec.Writer(entry.getSize() + 128);
+                w.writeLong(entry.getTime());
+                w.writeLong(entry.getFee());
+                BinaryCodec.writeTransaction(w, entry.getTransaction());
+
+                byte[] record = w.toByteArray();
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("✓ Mempool snapshot saved: " + entries.size() + " transactions");
+        return entries.size();
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException e) {
+            System.err.println("Failed to save mempool snapshot: " + e.getMessage());
+        }
+    }
+
+    // ========== 복원 ==========
+
+    /**
+     * 스냅샷을 스트리밍으로 읽어 LOAD_BATCH_SIZE개씩 복원
+     * 손상 / 잘린 파일은 그 지점까지만 복원
+     * @return 메모리 풀에 다시 추가된 트랜잭션 수
+     */
+    public int load() {
+        int restored = 0;
+        int skipped = 0;
+        long oldest = System.currentTimeMillis() - MAX_ENTRY_AGE_MS;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != SNAPSHOT_VERSION) {
+                System.out.println("⚠ Unrecognized mempool snapshot: " + file);
+                return 0;
+            }
+            int count = in.readInt();
+            System.out.println("Restoring mempool snapshot (" + count + " transactions)...");
+
+            List<Transaction> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            List<Long> times = new ArrayList<>(LOAD_BATCH_SIZE);
+            try {
+                for (int i = 0; i < count && !closed; i++) {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException("Invalid record length: " + length);
+                    }
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+
+                    ByteBuffer buffer = ByteBuffer.wrap(record);
+                    long time = buffer.getLong();
+                    buffer.getLong();   // 저장 시점 수수료 - 복원 시 현재 UTXO 기준으로 다시 계산
+                    Transaction tx = BinaryCodec.readTransaction(buffer);
+                    if (time < oldest) {
+                        skipped++;
+                        continue;
+                    }
+                    batch.add(tx);
+                    times.add(time);
+
+                    if (batch.size() >= LOAD_BATCH_SIZE) {
+                        restored += restoreBatch(batch, times);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("⚠ Mempool snapshot truncated or corrupt - restoring what was read");
+            }
+            restored += restoreBatch(batch, times);
+
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Failed to read mempool snapshot: " + e.getMessage());
+        }
+
+        System.out.println("✓ Mempool restored: " + restored + " transactions"
+                + (skipped > 0 ? " (" + skipped + " expired)" : ""));
+        return restored;
+    }
+
+    /**
+     * 일괄 검증으로 서명을 병렬 검증(서명 캐시에 기록)한 뒤 순서대로 추가
+     * 미확인 부모 / UTXO / 충돌 검사는 추가 시 메모리 풀이 현재 상태 기준으로 다시 수행
+     */
+    private int restoreBatch(List<Transaction> batch, List<Long> times) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        validator.validateTransactions(batch, false);
+
+        int restored = 0;
+        for (int i = 0; i < batch.size() && !closed; i++) {
+            if (mempool.addTransaction(batch.get(i), times.get(i))) {
+                restored++;
+            }
+        }
+        batch.clear();
+        times.clear();
+        return restored;
+    }
+
+    // ========== 상태 ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
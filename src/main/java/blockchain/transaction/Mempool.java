@@ -1,34 +1,92 @@
 package blockchain.transaction;
 
+import blockchain.block.Block;
+import blockchain.node.ChainListener;
 import blockchain.transaction.Transaction;
+import blockchain.utxo.OutPoint;
+import blockchain.utxo.UTXO;
 import blockchain.validation.TransactionValidator;
 import blockchain.validation.ValidationResult;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 /**
  * 메모리 풀 (Mempool)
  * 미확인 트랜잭션을 관리하는 대기 공간
+ * txid 맵과 수수료율 순 스킵 리스트 인덱스를 함께 유지해
+ * 상위 N개 선택 / 최저 수수료율 제거를 전체 정렬 / 스캔 없이 처리
+ *
+ * 미확인 출력 오버레이: 메모리 풀 트랜잭션의 출력을 UTXO처럼 조회할 수 있어
+ * 아직 블록에 들어가지 않은 부모의 출력을 쓰는 자식 트랜잭션도 받을 수 있음
+ * 부모 / 자식 링크와 조상 합계를 추가 / 제거 시 영향받는 항목만 갱신하고,
+ * 블록 템플릿은 조상 패키지 수수료율 순으로 선택 (CPFP)
+ *
+ * 사용된 출력 색인: 같은 출력을 쓰는 트랜잭션은 입력 수만큼의 조회로 바로 거부
+ * RBF(수수료 대체)를 켜면 더 높은 수수료를 낸 트랜잭션이 충돌하는 트랜잭션(과 자손)을 대체
+ *
+ * 체인 변경 반영 (ChainListener): 블록 연결 시 포함 / 충돌 트랜잭션 제거,
+ * 재구성으로 빠진 블록의 트랜잭션은 다시 검증해 되돌림 - 블록 크기에 비례하는 비용
  */
-public class Mempool {
+public class Mempool implements ChainListener {
 
-    // 트랜잭션 저장소 (txid -> Transaction)
-    private final Map<String, Transaction> transactions;
+    // 트랜잭션 저장소 (txid -> 항목)
+    private final Map<String, MempoolEntry> transactions;
+
+    // 수수료율 내림차순 인덱스 (first = 최고, last = 최저)
+    private final NavigableSet<MempoolEntry> byFeeRate;
+
+    // 조상 패키지 수수료율 내림차순 인덱스 (블록 템플릿 선택용)
+    private final NavigableSet<MempoolEntry> byAncestorFeeRate;
+
+    // 미확인 출력 (메모리 풀 트랜잭션이 만든 출력)
+    private final Map<OutPoint, UTXO> unconfirmedOutputs;
+
+    // 사용된 출력 -> 그 출력을 쓰는 메모리 풀 항목 (충돌 색인)
+    private final Map<OutPoint, MempoolEntry> spentBy;
+
+    // 최근 블록에 포함되어 빠진 트랜잭션 (txid -> 블록 높이)
+    private final Map<String, Integer> recentlyConfirmed;
 
     private final TransactionValidator validator;
 
-    // 최대 메모리 풀 크기 (트랜잭션 개수)
-    private static final int MAX_POOL_SIZE = 5000;
+    // 최대 메모리 풀 크기 (트랜잭션 직렬화 바이트 합)
+    static final long MAX_POOL_BYTES = 64L * 1024 * 1024;
+
+    // 한 트랜잭션의 메모리 풀 내 최대 조상 수 (자신 포함) - 갱신 비용 제한
+    static final int MAX_ANCESTORS = 25;
+
+    // 대체 한 번에 제거할 수 있는 최대 트랜잭션 수 (충돌 + 자손)
+    static final int MAX_REPLACEMENT_EVICTIONS = 100;
+
+    // 확인된 트랜잭션을 recentlyConfirmed에 남겨 두는 블록 수
+    static final int RECENTLY_CONFIRMED_BLOCKS = 3;
 
     // 최소 수수료 (사토시/바이트)
     private static final long MIN_FEE_RATE = 1;
 
+    private final long maxPoolBytes;
+    private long totalBytes;        // 변경은 synchronized 안에서만
+    private volatile boolean replaceByFee;
+
     public Mempool(TransactionValidator validator) {
-        // ConcurrentHashMap 사용 (멀티스레드 환경 대비)
+        this(validator, MAX_POOL_BYTES);
+    }
+
+    /**
+     * @param maxPoolBytes 최대 메모리 풀 크기 (바이트)
+     */
+    public Mempool(TransactionValidator validator, long maxPoolBytes) {
+        // 조회는 락 없이, 변경(맵 + 인덱스 + 오버레이 + 바이트 합)은 synchronized로 함께 처리
         this.transactions = new ConcurrentHashMap<>();
+        this.byFeeRate = new ConcurrentSkipListSet<>(MempoolEntry.BY_FEE_RATE_DESC);
+        this.byAncestorFeeRate = new ConcurrentSkipListSet<>(MempoolEntry.BY_ANCESTOR_FEE_RATE_DESC);
+        this.unconfirmedOutputs = new ConcurrentHashMap<>();
+        this.spentBy = new ConcurrentHashMap<>();
+        this.recentlyConfirmed = new ConcurrentHashMap<>();
         this.validator = validator;
+        this.maxPoolBytes = maxPoolBytes;
     }
 
     /**
@@ -37,6 +95,14 @@ public class Mempool {
      * @return 추가 성공 여부
      */
     public boolean addTransaction(Transaction tx) {
+        return addTransaction(tx, System.currentTimeMillis());
+    }
+
+    /**
+     * 도착 시각을 지정해 트랜잭션 추가 (스냅샷 복원 시 원래 도착 시각 유지)
+     * @param arrivalTime 도착 시각 (밀리초)
+     */
+    public boolean addTransaction(Transaction tx, long arrivalTime) {
         String txid = bytesToHex(tx.getTxid());
 
         // 이미 존재하는 트랜잭션인지 확인
@@ -45,23 +111,95 @@ public class Mempool {
             return false;
         }
 
-        // 트랜잭션 검증
-        ValidationResult result = validator.validateTransaction(tx);
+        // 대체를 허용하지 않으면 검증 전에 충돌부터 확인 (락 없이 색인 조회)
+        if (!replaceByFee && hasConflict(tx)) {
+            System.out.println("✗ Transaction conflicts with mempool: " + txid.substring(0, 16) + "...");
+            return false;
+        }
+
+        // 트랜잭션 검증 (서명 검증이 무거우므로 락 밖에서, 미확인 부모 출력 허용)
+        ValidationResult result = validator.validateTransaction(tx, unconfirmedOutputs::get);
         if (!result.isValid()) {
             System.out.println("✗ Transaction validation failed: " + result.getMessage());
             return false;
         }
 
-        // 메모리 풀이 가득 찬 경우
-        if (transactions.size() >= MAX_POOL_SIZE) {
-            evictLowestFeeTransaction(tx);
+        MempoolEntry entry;
+        synchronized (this) {
+            if (transactions.containsKey(txid)) {
+                return false;
+            }
+
+            // 검증 중에 미확인 부모가 제거되었거나 블록이 입력을 사용했을 수 있으므로
+            // 락 안에서 모든 입력을 다시 조회 (서명 검증 없음 - 같은 outPoint의 출력은 바뀌지 않음)
+            result = validator.checkInputs(tx, unconfirmedOutputs::get);
+            if (!result.isValid()) {
+                System.out.println("✗ Transaction inputs changed during validation: " + result.getMessage());
+                return false;
+            }
+
+            // 수수료는 입력 합계 - 출력 합계로 계산한 값만 사용 (송신자가 선언한 fee는 무시)
+            if (tx.getFee() != result.getFee()) {
+                System.out.println("⚠ Declared fee " + tx.getFee() + " ignored, actual fee " + result.getFee()
+                        + ": " + txid.substring(0, 16) + "...");
+            }
+            entry = new MempoolEntry(tx, txid, result.getFee(), arrivalTime);
+
+            // 같은 출력을 쓰는 트랜잭션 (검증 중 다른 스레드가 추가했을 수 있으므로 락 안에서 다시 확인)
+            Set<MempoolEntry> replaced = Collections.emptySet();
+            Set<MempoolEntry> conflicts = findConflicts(entry);
+            if (!conflicts.isEmpty()) {
+                if (!replaceByFee) {
+                    System.out.println("✗ Transaction conflicts with mempool: " + txid.substring(0, 16) + "...");
+                    return false;
+                }
+                replaced = checkReplacement(entry, conflicts);
+                if (replaced == null) {
+                    return false;
+                }
+            }
+
+            // 메모리 풀 내 부모 / 조상
+            Set<MempoolEntry> parents = findParents(entry);
+            Set<MempoolEntry> ancestors = new HashSet<>(parents);
+            for (MempoolEntry parent : parents) {
+                ancestors.addAll(collectAncestors(parent));
+            }
+            if (ancestors.size() + 1 > MAX_ANCESTORS) {
+                System.out.println("✗ Too many unconfirmed ancestors (max " + MAX_ANCESTORS + "): "
+                        + txid.substring(0, 16) + "...");
+                return false;
+            }
+            if (!Collections.disjoint(ancestors, replaced)) {
+                System.out.println("✗ Replacement spends a transaction it replaces: " + txid.substring(0, 16) + "...");
+                return false;
+            }
+
+            // 메모리 풀이 가득 찬 경우 수수료율이 더 낮은 트랜잭션을 밀어냄 (대체로 비는 공간 포함)
+            if (!makeRoom(entry, ancestors, replaced)) {
+                System.out.println("✗ Mempool full - fee rate too low: " + txid.substring(0, 16) + "...");
+                return false;
+            }
+
+            // 충돌 트랜잭션 대체
+            for (MempoolEntry conflict : conflicts) {
+                removeWithDescendants(conflict.getTxid());
+            }
+            if (!replaced.isEmpty()) {
+                System.out.println("↻ Replaced " + replaced.size() + " conflicting transaction(s)");
+            }
+
+            // 트랜잭션 추가
+            link(entry, parents, ancestors);
+            insert(entry);
         }
 
-        // 트랜잭션 추가
-        transactions.put(txid, tx);
         System.out.println("✓ Transaction added to mempool");
         System.out.println("  TXID: " + txid.substring(0, 16) + "...");
-        System.out.println("  Fee: " + tx.getFee() + " satoshis");
+        System.out.println("  Fee: " + entry.getFee() + " satoshis");
+        if (entry.getAncestorCount() > 1) {
+            System.out.println("  Unconfirmed ancestors: " + (entry.getAncestorCount() - 1));
+        }
         System.out.println("  Mempool size: " + transactions.size());
 
         return true;
@@ -69,33 +207,198 @@ public class Mempool {
 
     /**
      * 트랜잭션 제거 (블록에 포함된 후)
+     * 자식은 남기고, 자식들의 조상 합계에서 이 트랜잭션을 뺌
+     * (부모 출력은 이제 UTXOSet에 있으므로 자식은 계속 유효)
      * @param txid 트랜잭션 ID
      * @return 제거된 트랜잭션
      */
-    public Transaction removeTransaction(String txid) {
-        return transactions.remove(txid);
+    public synchronized Transaction removeTransaction(String txid) {
+        MempoolEntry entry = transactions.get(txid);
+        if (entry == null) {
+            return null;
+        }
+
+        for (MempoolEntry descendant : collectDescendants(entry)) {
+            byAncestorFeeRate.remove(descendant);
+            descendant.ancestorFee -= entry.getFee();
+            descendant.ancestorSize -= entry.getSize();
+            descendant.ancestorCount--;
+            byAncestorFeeRate.add(descendant);
+        }
+        for (MempoolEntry child : entry.children) {
+            child.parents.remove(entry);
+        }
+        entry.children.clear();
+
+        unlink(entry);
+        return entry.getTransaction();
     }
 
     /**
      * 트랜잭션 제거 (여러 개)
      * @param txids 트랜잭션 ID 리스트
      */
-    public void removeTransactions(List<String> txids) {
+    public synchronized void removeTransactions(List<String> txids) {
         for (String txid : txids) {
-            transactions.remove(txid);
+            removeTransaction(txid);
         }
         System.out.println("Removed " + txids.size() + " transactions from mempool");
     }
 
+    /**
+     * 트랜잭션과 그 자손 전부 제거 (밀어내기 / 무효화 - 자손은 부모 출력 없이 유효할 수 없음)
+     * @return 제거된 트랜잭션 수
+     */
+    public synchronized int removeWithDescendants(String txid) {
+        MempoolEntry entry = transactions.get(txid);
+        if (entry == null) {
+            return 0;
+        }
+        return detach(entry).size();
+    }
+
+    /**
+     * 항목과 자손을 제거
+     * @return 제거된 트랜잭션 (부모가 자식보다 앞)
+     */
+    private List<Transaction> detach(MempoolEntry entry) {
+        List<MempoolEntry> removed = new ArrayList<>(collectDescendants(entry));
+        removed.add(entry);
+        removed.sort(Comparator.comparingInt(MempoolEntry::getAncestorCount));
+
+        List<Transaction> txs = new ArrayList<>(removed.size());
+        for (MempoolEntry victim : removed) {
+            unlink(victim);
+            txs.add(victim.getTransaction());
+        }
+        return txs;
+    }
+
+    // ========== 체인 변경 반영 ==========
+
+    /**
+     * 블록 연결: 포함된 트랜잭션은 확인 처리(자식은 남김)하고,
+     * 같은 출력을 쓰던 트랜잭션은 자손과 함께 제거 (블록 입력만 색인에서 조회)
+     * 확인된 트랜잭션은 몇 블록 동안 recentlyConfirmed에 남김
+     */
+    @Override
+    public synchronized void onBlockConnected(Block block, int height) {
+        int confirmed = 0;
+        int evicted = 0;
+        for (Transaction tx : block.getTransactions()) {
+            String txid = bytesToHex(tx.getTxid());
+            if (removeTransaction(txid) != null) {
+                recentlyConfirmed.put(txid, height);
+                confirmed++;
+                continue;
+            }
+            for (OutPoint outPoint : spentOutPoints(tx)) {
+                MempoolEntry spender = spentBy.get(outPoint);
+                if (spender != null) {
+                    evicted += detach(spender).size();
+                }
+            }
+        }
+        recentlyConfirmed.values().removeIf(confirmedAt -> confirmedAt <= height - RECENTLY_CONFIRMED_BLOCKS);
+
+        if (confirmed + evicted > 0) {
+            System.out.println("Mempool updated for block " + height + ": " + confirmed + " confirmed, "
+                    + evicted + " conflicting removed (size " + transactions.size() + ")");
+        }
+    }
+
+    /**
+     * 블록 해제 (체인 재구성): 블록 트랜잭션을 새 체인 기준으로 다시 검증해 되돌림
+     * 빠진 블록의 출력을 쓰던 메모리 풀 트랜잭션은 빼 두었다가 부모가 다시 들어온 뒤 추가
+     * (새 체인에 이미 포함되었거나 충돌하는 트랜잭션은 검증에서 걸러짐)
+     */
+    @Override
+    public void onBlockDisconnected(Block block, int height) {
+        List<Transaction> dependents = new ArrayList<>();
+        synchronized (this) {
+            recentlyConfirmed.values().removeIf(confirmedAt -> confirmedAt >= height);
+            for (Transaction tx : block.getTransactions()) {
+                byte[] txid = tx.getTxid();
+                for (int i = 0; i < tx.getOutputs().size(); i++) {
+                    MempoolEntry spender = spentBy.get(new OutPoint(txid, i));
+                    if (spender != null) {
+                        dependents.addAll(detach(spender));
+                    }
+                }
+            }
+        }
+
+        int restored = 0;
+        for (Transaction tx : block.getTransactions()) {
+            if (!isCoinbase(tx) && addTransaction(tx)) {
+                restored++;
+            }
+        }
+        for (Transaction tx : dependents) {
+            addTransaction(tx);
+        }
+
+        System.out.println("↺ Returned " + restored + " transactions from disconnected block " + height
+                + " to mempool");
+    }
+
+    private static boolean isCoinbase(Transaction tx) {
+        return !tx.getInputs().isEmpty() && Boolean.TRUE.equals(tx.getInputs().getFirst().getIsCoinbase());
+    }
+
     /**
      * 트랜잭션 조회
      * @param txid 트랜잭션 ID
      * @return 트랜잭션
      */
     public Transaction getTransaction(String txid) {
+        MempoolEntry entry = transactions.get(txid);
+        return entry != null ? entry.getTransaction() : null;
+    }
+
+    /**
+     * 항목 조회 (수수료 / 크기 / 도착 시각 포함)
+     */
+    public MempoolEntry getEntry(String txid) {
         return transactions.get(txid);
     }
 
+    /**
+     * 전체 항목 (부모가 자식보다 앞 - 순서대로 다시 추가하면 링크가 복원됨)
+     */
+    public synchronized List<MempoolEntry> getEntries() {
+        List<MempoolEntry> entries = new ArrayList<>(transactions.values());
+        entries.sort(Comparator.comparingInt(MempoolEntry::getAncestorCount)
+                .thenComparingLong(MempoolEntry::getTime));
+        return entries;
+    }
+
+    /**
+     * 출력을 사용하는 메모리 풀 항목 조회
+     * @return 항목 (사용하는 트랜잭션이 없으면 null)
+     */
+    public MempoolEntry getSpender(OutPoint outPoint) {
+        return spentBy.get(outPoint);
+    }
+
+    /**
+     * RBF(수수료 대체) 허용 여부 - 기본값은 꺼짐 (먼저 들어온 트랜잭션 우선)
+     */
+    public void setReplaceByFee(boolean replaceByFee) {
+        this.replaceByFee = replaceByFee;
+    }
+
+    public boolean isReplaceByFee() {
+        return replaceByFee;
+    }
+
+    /**
+     * 미확인 출력 조회 (메모리 풀 트랜잭션이 만든 출력)
+     */
+    public UTXO getUnconfirmedOutput(OutPoint outPoint) {
+        return unconfirmedOutputs.get(outPoint);
+    }
+
     /**
      * 트랜잭션 존재 여부 확인
      * @param txid 트랜잭션 ID
@@ -106,20 +409,128 @@ public class Mempool {
     }
 
     /**
-     * 수수료 순으로 정렬된 트랜잭션 리스트 조회
+     * 최근 RECENTLY_CONFIRMED_BLOCKS개 블록에 포함되어 메모리 풀에서 빠진 트랜잭션인지 확인
+     * 블록 연결 알림이 블록 전파보다 먼저 오므로, 컴팩트 블록을 만들 때 메모리 풀과 함께 확인
+     * (피어의 메모리 풀에는 아직 남아 있을 트랜잭션)
+     */
+    public boolean wasRecentlyConfirmed(String txid) {
+        return recentlyConfirmed.containsKey(txid);
+    }
+
+    /**
+     * 수수료율 순 상위 트랜잭션 조회 (인덱스 앞에서부터 maxCount개 - O(maxCount))
+     * 부모가 메모리 풀에 있는 트랜잭션도 단독 수수료율로 포함되므로 블록 조립에는 selectPackages 사용
      * @param maxCount 최대 개수
-     * @return 트랜잭션 리스트 (수수료 높은 순)
+     * @return 트랜잭션 리스트 (수수료율 높은 순)
      */
     public List<Transaction> getTopTransactionsByFee(long maxCount) {
-        return transactions.values().stream()
-                .sorted((tx1, tx2) -> {
-                    // 수수료율(satoshi/byte) 계산하여 비교
-                    double feeRate1 = (double) tx1.getFee() / tx1.getSize();
-                    double feeRate2 = (double) tx2.getFee() / tx2.getSize();
-                    return Double.compare(feeRate2, feeRate1); // 내림차순
-                })
-                .limit(maxCount)
-                .collect(Collectors.toList());
+        List<Transaction> top = new ArrayList<>();
+        for (MempoolEntry entry : byFeeRate) {
+            if (top.size() >= maxCount) {
+                break;
+            }
+            top.add(entry.getTransaction());
+        }
+        return top;
+    }
+
+    /**
+     * 블록 템플릿용 트랜잭션 선택 (조상 패키지 수수료율 순)
+     * 수수료가 높은 자식이 수수료가 낮은 부모를 끌어올림 (CPFP)
+     * 패키지를 넣으면 남은 자손의 조상 합계에서 이미 넣은 조상을 빼고 다시 비교
+     * @param maxCount 최대 트랜잭션 수
+     * @return 부모가 자식보다 앞에 오는 블록 순서의 트랜잭션
+     */
+    public synchronized List<Transaction> selectPackages(long maxCount) {
+        List<Transaction> selected = new ArrayList<>();
+        for (MempoolEntry entry : selectPackageEntries(maxCount)) {
+            selected.add(entry.getTransaction());
+        }
+        return selected;
+    }
+
+    /**
+     * selectPackages와 같은 선택을 항목으로 반환 (코인베이스 보상에 계산된 수수료를 쓰기 위해)
+     */
+    public synchronized List<MempoolEntry> selectPackageEntries(long maxCount) {
+        List<MempoolEntry> selected = new ArrayList<>();
+        Set<MempoolEntry> included = new HashSet<>();
+
+        // 일부 조상이 이미 들어간 항목의 조정된 합계 {fee, size}
+        Map<MempoolEntry, long[]> modified = new HashMap<>();
+        PriorityQueue<MempoolEntry> modifiedQueue = new PriorityQueue<>((a, b) -> {
+            long[] ma = modified.get(a);
+            long[] mb = modified.get(b);
+            int byRate = Long.compare(mb[0] * ma[1], ma[0] * mb[1]);
+            return byRate != 0 ? byRate : MempoolEntry.BY_FEE_RATE_DESC.compare(a, b);
+        });
+
+        Iterator<MempoolEntry> index = byAncestorFeeRate.iterator();
+        MempoolEntry next = advance(index, included, modified);
+
+        while (selected.size() < maxCount) {
+            // 인덱스 후보가 그사이 포함 / 조정되었으면 다음 후보로
+            if (next != null && (included.contains(next) || modified.containsKey(next))) {
+                next = advance(index, included, modified);
+            }
+            // 이미 넣은 항목은 조정 큐에서 버림
+            while (!modifiedQueue.isEmpty() && included.contains(modifiedQueue.peek())) {
+                modifiedQueue.poll();
+            }
+
+            MempoolEntry best;
+            MempoolEntry candidate = modifiedQueue.peek();
+            if (candidate != null && (next == null || compareModified(candidate, modified.get(candidate), next) < 0)) {
+                best = modifiedQueue.poll();
+            } else if (next != null) {
+                best = next;
+                next = advance(index, included, modified);
+            } else {
+                break;
+            }
+            if (included.contains(best)) {
+                continue;
+            }
+
+            // 아직 넣지 않은 조상 + 자신 (조상 수가 적은 것부터 = 부모가 먼저)
+            List<MempoolEntry> packageEntries = new ArrayList<>();
+            for (MempoolEntry ancestor : collectAncestors(best)) {
+                if (!included.contains(ancestor)) {
+                    packageEntries.add(ancestor);
+                }
+            }
+            packageEntries.add(best);
+            if (selected.size() + packageEntries.size() > maxCount) {
+                continue;
+            }
+            packageEntries.sort(Comparator.comparingInt(MempoolEntry::getAncestorCount));
+
+            for (MempoolEntry entry : packageEntries) {
+                included.add(entry);
+                selected.add(entry);
+            }
+
+            // 남은 자손의 조정 합계에서 방금 넣은 항목을 뺌
+            for (MempoolEntry entry : packageEntries) {
+                for (MempoolEntry descendant : collectDescendants(entry)) {
+                    if (included.contains(descendant)) {
+                        continue;
+                    }
+                    long[] adjusted = modified.get(descendant);
+                    if (adjusted == null) {
+                        adjusted = new long[]{descendant.getAncestorFee(), descendant.getAncestorSize()};
+                    } else {
+                        modifiedQueue.remove(descendant);
+                    }
+                    adjusted[0] -= entry.getFee();
+                    adjusted[1] -= entry.getSize();
+                    modified.put(descendant, adjusted);
+                    modifiedQueue.add(descendant);
+                }
+            }
+        }
+
+        return selected;
     }
 
     /**
@@ -127,7 +538,11 @@ public class Mempool {
      * @return 트랜잭션 리스트
      */
     public List<Transaction> getAllTransactions() {
-        return new ArrayList<>(transactions.values());
+        List<Transaction> all = new ArrayList<>(transactions.size());
+        for (MempoolEntry entry : transactions.values()) {
+            all.add(entry.getTransaction());
+        }
+        return all;
     }
 
     /**
@@ -138,11 +553,23 @@ public class Mempool {
         return transactions.size();
     }
 
+    /**
+     * 메모리 풀 크기 조회 (바이트)
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
     /**
      * 메모리 풀 비우기
      */
-    public void clear() {
+    public synchronized void clear() {
         transactions.clear();
+        byFeeRate.clear();
+        byAncestorFeeRate.clear();
+        unconfirmedOutputs.clear();
+        spentBy.clear();
+        totalBytes = 0;
         System.out.println("Mempool cleared");
     }
 
@@ -201,33 +628,251 @@ public class Mempool {
         }
     }
 
+    // ========== 내부 (synchronized 안에서 호출) ==========
+
     /**
-     * 수수료가 가장 낮은 트랜잭션 제거
-     * @param newTx 새로 추가할 트랜잭션
+     * 입력이 참조하는 메모리 풀 트랜잭션 (미확인 부모)
      */
-    private void evictLowestFeeTransaction(Transaction newTx) {
-        // 새 트랜잭션의 수수료율
-        double newFeeRate = (double) newTx.getFee() / newTx.getSize();
+    private Set<MempoolEntry> findParents(MempoolEntry entry) {
+        Set<MempoolEntry> parents = new HashSet<>();
+        for (TransactionInput input : entry.getTransaction().getInputs()) {
+            if (input.getPrevTXID() == null) {
+                continue;
+            }
+            MempoolEntry parent = transactions.get(bytesToHex(input.getPrevTXID()));
+            if (parent != null) {
+                parents.add(parent);
+            }
+        }
+        return parents;
+    }
 
-        // 가장 낮은 수수료율의 트랜잭션 찾기
-        Transaction lowestFeeTx = transactions.values().stream()
-                .min((tx1, tx2) -> {
-                    double feeRate1 = (double) tx1.getFee() / tx1.getSize();
-                    double feeRate2 = (double) tx2.getFee() / tx2.getSize();
-                    return Double.compare(feeRate1, feeRate2);
-                })
-                .orElse(null);
+    /**
+     * 부모 / 자식 링크 연결과 조상 합계 계산 (인덱스에 넣기 전에 호출)
+     */
+    private void link(MempoolEntry entry, Set<MempoolEntry> parents, Set<MempoolEntry> ancestors) {
+        for (MempoolEntry parent : parents) {
+            entry.parents.add(parent);
+            parent.children.add(entry);
+        }
+        for (MempoolEntry ancestor : ancestors) {
+            entry.ancestorFee += ancestor.getFee();
+            entry.ancestorSize += ancestor.getSize();
+        }
+        entry.ancestorCount = ancestors.size() + 1;
+    }
 
-        if (lowestFeeTx != null) {
-            double lowestFeeRate = (double) lowestFeeTx.getFee() / lowestFeeTx.getSize();
+    private void insert(MempoolEntry entry) {
+        transactions.put(entry.getTxid(), entry);
+        byFeeRate.add(entry);
+        byAncestorFeeRate.add(entry);
+        totalBytes += entry.getSize();
+
+        Transaction tx = entry.getTransaction();
+        List<TransactionOutput> outputs = tx.getOutputs();
+        for (int i = 0; i < outputs.size(); i++) {
+            UTXO utxo = new UTXO(tx.getTxid(), i, outputs.get(i), 0);
+            unconfirmedOutputs.put(utxo.getOutPoint(), utxo);
+        }
+        for (OutPoint outPoint : spentOutPoints(tx)) {
+            spentBy.put(outPoint, entry);
+        }
+    }
 
-            // 새 트랜잭션의 수수료율이 더 높은 경우에만 교체
-            if (newFeeRate > lowestFeeRate) {
-                String removedTxid = bytesToHex(lowestFeeTx.getTxid());
-                transactions.remove(removedTxid);
-                System.out.println("Evicted low fee transaction: " + removedTxid);
+    /**
+     * 맵 / 인덱스 / 오버레이에서 제거하고 부모와의 링크 해제 (자식 처리는 호출 측)
+     */
+    private void unlink(MempoolEntry entry) {
+        transactions.remove(entry.getTxid());
+        byFeeRate.remove(entry);
+        byAncestorFeeRate.remove(entry);
+        totalBytes -= entry.getSize();
+
+        for (MempoolEntry parent : entry.parents) {
+            parent.children.remove(entry);
+        }
+        entry.parents.clear();
+
+        byte[] txid = entry.getTransaction().getTxid();
+        for (int i = 0; i < entry.getTransaction().getOutputs().size(); i++) {
+            unconfirmedOutputs.remove(new OutPoint(txid, i));
+        }
+        for (OutPoint outPoint : spentOutPoints(entry.getTransaction())) {
+            spentBy.remove(outPoint, entry);
+        }
+    }
+
+    /**
+     * 트랜잭션 입력이 사용하는 출력 (코인베이스 / 형식이 잘못된 입력 제외)
+     */
+    private static List<OutPoint> spentOutPoints(Transaction tx) {
+        List<OutPoint> outPoints = new ArrayList<>(tx.getInputs().size());
+        for (TransactionInput input : tx.getInputs()) {
+            if (Boolean.TRUE.equals(input.getIsCoinbase())
+                    || input.getPrevTXID() == null || input.getPrevTXID().length != OutPoint.TXID_LENGTH) {
+                continue;
             }
+            outPoints.add(new OutPoint(input.getPrevTXID(), input.getOutputIdx()));
         }
+        return outPoints;
+    }
+
+    private boolean hasConflict(Transaction tx) {
+        for (OutPoint outPoint : spentOutPoints(tx)) {
+            if (spentBy.containsKey(outPoint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 같은 출력을 쓰는 메모리 풀 항목 (직접 충돌)
+     */
+    private Set<MempoolEntry> findConflicts(MempoolEntry entry) {
+        Set<MempoolEntry> conflicts = new HashSet<>();
+        for (OutPoint outPoint : spentOutPoints(entry.getTransaction())) {
+            MempoolEntry spender = spentBy.get(outPoint);
+            if (spender != null) {
+                conflicts.add(spender);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 수수료 대체 조건 확인
+     * 1. 직접 충돌하는 각 트랜잭션보다 수수료율이 높아야 함
+     * 2. 제거될 트랜잭션(충돌 + 자손)이 MAX_REPLACEMENT_EVICTIONS 이하
+     * 3. 수수료가 제거될 트랜잭션 수수료 합 + 자신의 전파 비용(최소 수수료율 x 크기) 이상
+     * @return 제거될 항목 (조건을 만족하지 않으면 null)
+     */
+    private Set<MempoolEntry> checkReplacement(MempoolEntry entry, Set<MempoolEntry> conflicts) {
+        String txid = entry.getTxid().substring(0, 16) + "...";
+        Set<MempoolEntry> replaced = new HashSet<>();
+        for (MempoolEntry conflict : conflicts) {
+            if (!entry.hasHigherFeeRateThan(conflict)) {
+                System.out.println("✗ Replacement fee rate not higher than " + conflict.getTxid().substring(0, 16)
+                        + "...: " + txid);
+                return null;
+            }
+            replaced.add(conflict);
+            replaced.addAll(collectDescendants(conflict));
+        }
+        if (replaced.size() > MAX_REPLACEMENT_EVICTIONS) {
+            System.out.println("✗ Replacement would evict " + replaced.size() + " transactions: " + txid);
+            return null;
+        }
+
+        long replacedFees = 0;
+        for (MempoolEntry victim : replaced) {
+            replacedFees += victim.getFee();
+        }
+        long required = replacedFees + MIN_FEE_RATE * entry.getSize();
+        if (entry.getFee() < required) {
+            System.out.println("✗ Replacement fee " + entry.getFee() + " < required " + required + ": " + txid);
+            return null;
+        }
+        return replaced;
+    }
+
+    private Set<MempoolEntry> collectAncestors(MempoolEntry entry) {
+        return collect(entry, true);
+    }
+
+    private Set<MempoolEntry> collectDescendants(MempoolEntry entry) {
+        return collect(entry, false);
+    }
+
+    /**
+     * 부모(또는 자식) 링크를 따라 도달하는 항목 전부 (자신 제외)
+     */
+    private Set<MempoolEntry> collect(MempoolEntry entry, boolean up) {
+        Set<MempoolEntry> found = new HashSet<>();
+        Deque<MempoolEntry> stack = new ArrayDeque<>();
+        stack.push(entry);
+        while (!stack.isEmpty()) {
+            for (MempoolEntry next : up ? stack.pop().parents : stack.pop().children) {
+                if (found.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 조상 인덱스에서 다음 후보 (이미 넣었거나 조정된 합계로 따로 비교하는 항목은 건너뜀)
+     */
+    private MempoolEntry advance(Iterator<MempoolEntry> index, Set<MempoolEntry> included,
+                                 Map<MempoolEntry, long[]> modified) {
+        while (index.hasNext()) {
+            MempoolEntry entry = index.next();
+            if (!included.contains(entry) && !modified.containsKey(entry)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 조정된 합계 항목과 인덱스 항목의 조상 수수료율 비교 (음수면 조정 항목이 우선)
+     */
+    private int compareModified(MempoolEntry a, long[] adjusted, MempoolEntry b) {
+        int byRate = Long.compare(b.getAncestorFee() * adjusted[1], adjusted[0] * b.getAncestorSize());
+        return byRate != 0 ? byRate : MempoolEntry.BY_FEE_RATE_DESC.compare(a, b);
+    }
+
+    /**
+     * 새 항목이 들어갈 공간 확보
+     * 인덱스 끝(최저 수수료율)부터 필요한 만큼만 확인하고,
+     * 새 트랜잭션보다 수수료율이 낮은 것들로 공간이 충분할 때만 (자손과 함께) 제거
+     * 새 트랜잭션의 조상은 제거 대상에서 제외
+     * @param replaced 대체로 어차피 제거될 항목 (비워질 공간으로 계산)
+     * @return 공간 확보 여부 (false면 아무것도 제거하지 않음)
+     */
+    private boolean makeRoom(MempoolEntry newEntry, Set<MempoolEntry> ancestors, Set<MempoolEntry> replaced) {
+        long needed = totalBytes + newEntry.getSize() - maxPoolBytes;
+        for (MempoolEntry victim : replaced) {
+            needed -= victim.getSize();
+        }
+        if (needed <= 0) {
+            return true;
+        }
+
+        Set<MempoolEntry> victims = new LinkedHashSet<>();
+        Iterator<MempoolEntry> lowest = byFeeRate.descendingIterator();
+        while (needed > 0) {
+            if (!lowest.hasNext()) {
+                return false;
+            }
+            MempoolEntry victim = lowest.next();
+            if (victims.contains(victim) || ancestors.contains(victim) || replaced.contains(victim)) {
+                continue;
+            }
+            if (!newEntry.hasHigherFeeRateThan(victim)) {
+                return false;
+            }
+
+            Set<MempoolEntry> group = collectDescendants(victim);
+            group.add(victim);
+            for (MempoolEntry member : group) {
+                if (ancestors.contains(member)) {
+                    return false;
+                }
+                if (!replaced.contains(member) && victims.add(member)) {
+                    needed -= member.getSize();
+                }
+            }
+        }
+
+        for (MempoolEntry victim : victims) {
+            if (transactions.containsKey(victim.getTxid())) {
+                removeWithDescendants(victim.getTxid());
+                System.out.println("Evicted low fee transaction: " + victim.getTxid());
+            }
+        }
+        return true;
     }
 
     /**
@@ -236,16 +881,17 @@ public class Mempool {
     public void printStatus() {
         System.out.println("\n=== Mempool Status ===");
         System.out.println("Total transactions: " + transactions.size());
+        System.out.println("Total size: " + getTotalBytes() + " / " + maxPoolBytes + " bytes");
 
         if (transactions.isEmpty()) {
             System.out.println("(Empty)");
         } else {
             long totalFees = transactions.values().stream()
-                    .mapToLong(Transaction::getFee)
+                    .mapToLong(MempoolEntry::getFee)
                     .sum();
 
             double avgFeeRate = transactions.values().stream()
-                    .mapToDouble(tx -> (double) tx.getFee() / tx.getSize())
+                    .mapToDouble(MempoolEntry::getFeeRate)
                     .average()
                     .orElse(0.0);
 
@@ -254,12 +900,10 @@ public class Mempool {
 
             // 상위 5개 트랜잭션 출력
             System.out.println("\nTop 5 transactions by fee:");
-            getTopTransactionsByFee(5).forEach(tx -> {
-                String txid = bytesToHex(tx.getTxid());
-                double feeRate = (double) tx.getFee() / tx.getSize();
-                System.out.println("  " + txid.substring(0, 16) + "... | " +
-                        tx.getFee() + " sat | " +
-                        String.format("%.2f", feeRate) + " sat/byte");
+            byFeeRate.stream().limit(5).forEach(entry -> {
+                System.out.println("  " + entry.getTxid().substring(0, 16) + "... | " +
+                        entry.getFee() + " sat | " +
+                        String.format("%.2f", entry.getFeeRate()) + " sat/byte");
             });
         }
         System.out.println("=====================\n");
@@ -0,0 +1,116 @@
+package blockchain.transaction;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 메모리 풀 항목
+ * 트랜잭션과 함께 추가 시점의 수수료 / 크기 / 도착 시각을 고정해 보관
+ * 수수료는 검증에서 계산한 값, 크기는 트랜잭션 내용으로 직접 잰 값 (보낸 쪽이 선언한 값은 쓰지 않음)
+ * (정렬 키가 바뀌면 인덱스가 깨지므로 추가 후에는 변경하지 않음)
+ * 메모리 풀 안의 부모 / 자식 링크와 조상 합계(자신 포함)는 Mempool 락 안에서만 갱신
+ */
+public class MempoolEntry {
+
+    /**
+     * 수수료율 내림차순, 같으면 먼저 도착한 순, 그다음 txid 순 (인덱스 내 유일성)
+     * 수수료율은 나눗셈 없이 교차 곱으로 비교 (fee1 / size1 vs fee2 / size2)
+     */
+    public static final Comparator<MempoolEntry> BY_FEE_RATE_DESC = (a, b) -> {
+        int byRate = Long.compare(b.fee * a.size, a.fee * b.size);
+        if (byRate != 0) {
+            return byRate;
+        }
+        int byTime = Long.compare(a.time, b.time);
+        if (byTime != 0) {
+            return byTime;
+        }
+        return a.txid.compareTo(b.txid);
+    };
+
+    /**
+     * 조상 패키지 수수료율 내림차순 (블록 템플릿 선택용)
+     * 조상 합계가 바뀌는 항목은 인덱스에서 뺀 뒤 갱신하고 다시 넣어야 함
+     */
+    public static final Comparator<MempoolEntry> BY_ANCESTOR_FEE_RATE_DESC = (a, b) -> {
+        int byRate = Long.compare(b.ancestorFee * a.ancestorSize, a.ancestorFee * b.ancestorSize);
+        if (byRate != 0) {
+            return byRate;
+        }
+        return BY_FEE_RATE_DESC.compare(a, b);
+    };
+
+    private final Transaction tx;
+    private final String txid;
+    private final long fee;
+    private final int size;
+    private final long time;        // 도착 시각 (ms)
+
+    // 메모리 풀 내 관계 (미확인 부모 출력을 사용하는 경우)
+    final Set<MempoolEntry> parents = new HashSet<>();
+    final Set<MempoolEntry> children = new HashSet<>();
+
+    // 메모리 풀에 남아 있는 조상 + 자신의 합계
+    long ancestorFee;
+    long ancestorSize;
+    int ancestorCount;
+
+    public MempoolEntry(Transaction tx, String txid, long fee, long time) {
+        this.tx = tx;
+        this.txid = txid;
+        this.fee = fee;
+        this.size = Math.max(1, tx.measureSize());     // 선언된 size 필드는 신뢰하지 않음
+        this.time = time;
+        this.ancestorFee = fee;
+        this.ancestorSize = size;
+        this.ancestorCount = 1;
+    }
+
+    public Transaction getTransaction() {
+        return tx;
+    }
+
+    public String getTxid() {
+        return txid;
+    }
+
+    public long getFee() {
+        return fee;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public double getFeeRate() {
+        return (double) fee / size;
+    }
+
+    public long getAncestorFee() {
+        return ancestorFee;
+    }
+
+    public long getAncestorSize() {
+        return ancestorSize;
+    }
+
+    public int getAncestorCount() {
+        return ancestorCount;
+    }
+
+    public double getAncestorFeeRate() {
+        return (double) ancestorFee / ancestorSize;
+    }
+
+    /**
+     * 수수료율이 다른 항목보다 높은지 (교차 곱 비교)
+     */
+    public boolean hasHigherFeeRateThan(MempoolEntry other) {
+        return fee * other.size > other.fee * size;
+    }
+}
@@ -8,6 +8,7 @@ import util.Hash;
 import javax.crypto.*;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.sql.Time;
 import java.text.SimpleDateFormat;
@@ -93,6 +94,21 @@ public class Transaction implements Serializable {
         return this.size;
     }
 
+    /**
+     * 트랜잭션 내용으로 직접 잰 크기 (직렬화 바이트 + 계약 / 투표 문자열)
+     * 역직렬화된 size 필드는 보낸 쪽이 적은 값이므로 수수료율 / 용량 계산에는 이 값을 사용
+     */
+    public int measureSize() {
+        int measured = calculateSize();
+        if (contract != null) {
+            measured += contract.getBytes(StandardCharsets.UTF_8).length;
+        }
+        for (String vote : getVoteList()) {
+            measured += vote.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return measured;
+    }
+
     public void setFee(long fee) {
         this.fee = fee;
     }
@@ -0,0 +1,136 @@
+package blockchain.utxo;
+
+/**
+ * 트랜잭션 출력 참조 (txid + outputIndex)
+ * UTXO 맵의 키로 사용 - 32바이트 txid를 long 4개로 보관하고 해시 코드를 미리 계산
+ */
+public final class OutPoint {
+    public static final int TXID_LENGTH = 32;
+    public static final int SERIALIZED_SIZE = TXID_LENGTH + 4;
+
+    private final long txid0;
+    private final long txid1;
+    private final long txid2;
+    private final long txid3;
+    private final int outputIndex;
+    private final int hash;
+
+    public OutPoint(byte[] txid, int outputIndex) {
+        checkTxid(txid);
+        this.txid0 = readLong(txid, 0);
+        this.txid1 = readLong(txid, 8);
+        this.txid2 = readLong(txid, 16);
+        this.txid3 = readLong(txid, 24);
+        this.outputIndex = outputIndex;
+        this.hash = hash(txid0, outputIndex);
+    }
+
+    /**
+     * txid 바이트 복원
+     */
+    public byte[] getTxid() {
+        byte[] txid = new byte[TXID_LENGTH];
+        writeLong(txid, 0, txid0);
+        writeLong(txid, 8, txid1);
+        writeLong(txid, 16, txid2);
+        writeLong(txid, 24, txid3);
+        return txid;
+    }
+
+    public int getOutputIndex() {
+        return outputIndex;
+    }
+
+    /**
+     * 직렬화 (txid 32바이트 + outputIndex 4바이트 빅 엔디언)
+     * 저장소 UTXO 키와 같은 형식
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[SERIALIZED_SIZE];
+        writeLong(bytes, 0, txid0);
+        writeLong(bytes, 8, txid1);
+        writeLong(bytes, 16, txid2);
+        writeLong(bytes, 24, txid3);
+        bytes[32] = (byte) (outputIndex >>> 24);
+        bytes[33] = (byte) (outputIndex >>> 16);
+        bytes[34] = (byte) (outputIndex >>> 8);
+        bytes[35] = (byte) outputIndex;
+        return bytes;
+    }
+
+    /**
+     * 객체 생성 없이 txid 바이트와 비교 (맵 조회용)
+     */
+    boolean matches(byte[] txid, int outputIndex) {
+        return this.outputIndex == outputIndex
+                && txid0 == readLong(txid, 0)
+                && txid1 == readLong(txid, 8)
+                && txid2 == readLong(txid, 16)
+                && txid3 == readLong(txid, 24);
+    }
+
+    /**
+     * txid 바이트로 해시 코드 계산 (OutPoint 생성 없이 조회할 때 사용)
+     */
+    static int hash(byte[] txid, int outputIndex) {
+        return hash(readLong(txid, 0), outputIndex);
+    }
+
+    /**
+     * txid는 이미 SHA-256 결과이므로 앞 8바이트만으로 충분히 고르게 분포
+     */
+    private static int hash(long txidPrefix, int outputIndex) {
+        long h = txidPrefix ^ (outputIndex * 0x9E3779B97F4A7C15L);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static boolean isValidTxid(byte[] txid) {
+        return txid != null && txid.length == TXID_LENGTH;
+    }
+
+    private static void checkTxid(byte[] txid) {
+        if (!isValidTxid(txid)) {
+            throw new IllegalArgumentException("txid must be " + TXID_LENGTH + " bytes");
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OutPoint other)) return false;
+        return outputIndex == other.outputIndex
+                && txid0 == other.txid0
+                && txid1 == other.txid1
+                && txid2 == other.txid2
+                && txid3 == other.txid3;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : getTxid()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.append(':').append(outputIndex).toString();
+    }
+}
@@ -0,0 +1,238 @@
+package blockchain.utxo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * OutPoint 키 전용 오픈 어드레싱 해시 맵 (선형 탐사)
+ * HashMap 대비 엔트리 객체가 없고, txid 바이트로 직접 조회할 수 있어 조회 시 가비지가 생기지 않음
+ *
+ * 동기화하지 않음 - 호출자(UTXOSet)가 락으로 보호
+ */
+public class OutPointMap<V> {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private OutPoint[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold;
+
+    public OutPointMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OutPointMap(int expectedSize) {
+        int capacity = tableSizeFor((int) (expectedSize / LOAD_FACTOR) + 1);
+        this.keys = new OutPoint[capacity];
+        this.values = new Object[capacity];
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * txid 바이트로 조회 (OutPoint 생성 없음)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(byte[] txid, int outputIndex) {
+        if (!OutPoint.isValidTxid(txid)) {
+            return null; // 잘못된 길이의 txid는 존재할 수 없음
+        }
+        int mask = keys.length - 1;
+        int slot = mix(OutPoint.hash(txid, outputIndex)) & mask;
+
+        while (keys[slot] != null) {
+            if (keys[slot].matches(txid, outputIndex)) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(OutPoint key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(byte[] txid, int outputIndex) {
+        return get(txid, outputIndex) != null;
+    }
+
+    /**
+     * 추가 또는 교체
+     * @return 이전 값 (없으면 null)
+     */
+    @SuppressWarnings("unchecked")
+    public V put(OutPoint key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key.hashCode()) & mask;
+
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * txid 바이트로 삭제 (OutPoint 생성 없음)
+     * @return 삭제된 값 (없으면 null)
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(byte[] txid, int outputIndex) {
+        if (!OutPoint.isValidTxid(txid)) {
+            return null; // 잘못된 길이의 txid는 존재할 수 없음
+        }
+        int mask = keys.length - 1;
+        int slot = mix(OutPoint.hash(txid, outputIndex)) & mask;
+
+        while (keys[slot] != null) {
+            if (keys[slot].matches(txid, outputIndex)) {
+                V removed = (V) values[slot];
+                deleteSlot(slot);
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(OutPoint key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V removed = (V) values[slot];
+        deleteSlot(slot);
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * 값 목록 복사본
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                result.add((V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<OutPoint, V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private int findSlot(OutPoint key) {
+        int mask = keys.length - 1;
+        int slot = mix(key.hashCode()) & mask;
+
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 슬롯 삭제 (backward shift)
+     * 톰스톤 없이 뒤따르는 클러스터 원소를 당겨와 탐사 체인을 유지
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+
+        while (keys[next] != null) {
+            int home = mix(keys[next].hashCode()) & mask;
+            // home이 (hole, next] 범위 밖이면 hole로 옮겨도 탐사 가능
+            boolean movable = hole <= next
+                    ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (movable) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    private void resize(int newCapacity) {
+        OutPoint[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new OutPoint[newCapacity];
+        values = new Object[newCapacity];
+        threshold = (int) (newCapacity * LOAD_FACTOR);
+
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = mix(oldKeys[i].hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = 16;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -13,6 +13,7 @@ public class UTXO {
     private final int outputIndex;        // 출력 인덱스
     private final TransactionOutput output; // 출력 정보
     private final long blockHeight;       // 생성된 블록 높이
+    private OutPoint outPoint;            // 맵 키 (지연 생성)
 
     public UTXO(byte[] txid, int outputIndex, TransactionOutput output, long blockHeight) {
         this.txid = txid;
@@ -22,7 +23,17 @@ public class UTXO {
     }
 
     /**
-     * UTXO 키 생성 (txid + outputIndex)
+     * 출력 참조 (UTXOSet 맵 키)
+     */
+    public OutPoint getOutPoint() {
+        if (outPoint == null) {
+            outPoint = new OutPoint(txid, outputIndex);
+        }
+        return outPoint;
+    }
+
+    /**
+     * UTXO 키 생성 (txid + outputIndex, 표시용 문자열)
      */
     public String getKey() {
         return bytesToHex(txid) + ":" + outputIndex;
@@ -6,21 +6,29 @@ import blockchain.transaction.TransactionInput;
 import blockchain.transaction.TransactionOutput;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * UTXO Set 관리
  * 모든 미사용 출력을 추적하고 관리
  */
-public class UTXOSet {
+public class UTXOSet implements UTXOSource {
 
-    // UTXO 저장소 (key -> UTXO)
-    // key = txid:outputIndex
-    private final Map<String, UTXO> utxos;
+    // UTXO 저장소 (outPoint -> UTXO)
+    // outPoint = txid + outputIndex
+    private final OutPointMap<UTXO> utxos;
+
+    // 주소 인덱스 (address -> 보유 outPoint 목록 + 잔액)
+    // utxos와 같은 쓰기 락 안에서 함께 갱신
+    private final Map<String, AddressEntry> addressIndex;
+
+    // 블록 반영은 쓰기 락, 조회는 읽기 락 (블록 단위로 원자적으로 보이도록)
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public UTXOSet() {
-        this.utxos = new ConcurrentHashMap<>();
+        this.utxos = new OutPointMap<>();
+        this.addressIndex = new HashMap<>();
     }
 
     /**
@@ -33,59 +41,92 @@ public class UTXOSet {
         int added = 0;
         int removed = 0;
 
-        for (Transaction tx : block.getTransactions()) {
-            byte[] txid = tx.getTxid();
-
-            // 1. 입력으로 사용된 UTXO 제거 (코인베이스 제외)
-            for (TransactionInput input : tx.getInputs()) {
-                if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
-                    continue; // 코인베이스는 이전 UTXO가 없음
+        lock.writeLock().lock();
+        try {
+            for (Transaction tx : block.getTransactions()) {
+                byte[] txid = tx.getTxid();
+
+                // 1. 입력으로 사용된 UTXO 제거 (코인베이스 제외)
+                for (TransactionInput input : tx.getInputs()) {
+                    if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
+                        continue; // 코인베이스는 이전 UTXO가 없음
+                    }
+
+                    UTXO spent = utxos.remove(input.getPrevTXID(), input.getOutputIdx());
+                    if (spent != null) {
+                        unindex(spent);
+                        removed++;
+                    }
                 }
 
-                String key = bytesToHex(input.getPrevTXID()) + ":" + input.getOutputIdx();
-                if (utxos.remove(key) != null) {
-                    removed++;
+                // 2. 출력으로 생성된 새 UTXO 추가
+                List<TransactionOutput> outputs = tx.getOutputs();
+                for (int i = 0; i < outputs.size(); i++) {
+                    TransactionOutput output = outputs.get(i);
+                    UTXO utxo = new UTXO(txid, i, output, blockHeight);
+                    putAndIndex(utxo);
+                    added++;
                 }
             }
-
-            // 2. 출력으로 생성된 새 UTXO 추가
-            List<TransactionOutput> outputs = tx.getOutputs();
-            for (int i = 0; i < outputs.size(); i++) {
-                TransactionOutput output = outputs.get(i);
-                UTXO utxo = new UTXO(txid, i, output, blockHeight);
-                utxos.put(utxo.getKey(), utxo);
-                added++;
-            }
+        } finally {
+            lock.writeLock().unlock();
         }
 
         System.out.println("UTXOs added: " + added);
         System.out.println("UTXOs removed: " + removed);
-        System.out.println("Total UTXOs: " + utxos.size());
+        System.out.println("Total UTXOs: " + size());
         System.out.println("========================\n");
     }
 
     /**
-     * 특정 주소의 UTXO 조회
+     * UTXO 직접 추가 (저장소에서 UTXO 세트 로드 시 사용)
+     * @param utxo 추가할 UTXO
+     */
+    public void addUTXO(UTXO utxo) {
+        lock.writeLock().lock();
+        try {
+            putAndIndex(utxo);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 특정 주소의 UTXO 조회 (주소 인덱스 사용 - 보유 UTXO 수에 비례)
      * @param address 주소
      * @return UTXO 리스트
      */
     public List<UTXO> getUTXOsByAddress(String address) {
-        byte[] addressBytes = address.getBytes();
+        lock.readLock().lock();
+        try {
+            AddressEntry entry = addressIndex.get(address);
+            if (entry == null) {
+                return new ArrayList<>();
+            }
 
-        return utxos.values().stream()
-                .filter(utxo -> Arrays.equals(utxo.getAddress(), addressBytes))
-                .collect(Collectors.toList());
+            List<UTXO> result = new ArrayList<>(entry.outPoints.size());
+            for (OutPoint outPoint : entry.outPoints) {
+                result.add(utxos.get(outPoint));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * 특정 주소의 잔액 조회
+     * 특정 주소의 잔액 조회 (누적 잔액 - O(1))
      * @param address 주소
      * @return 잔액 (satoshi)
      */
     public long getBalance(String address) {
-        return getUTXOsByAddress(address).stream()
-                .mapToLong(UTXO::getValue)
-                .sum();
+        lock.readLock().lock();
+        try {
+            AddressEntry entry = addressIndex.get(address);
+            return entry == null ? 0 : entry.balance;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -95,8 +136,12 @@ public class UTXOSet {
      * @return 존재 여부
      */
     public boolean containsUTXO(byte[] txid, int outputIndex) {
-        String key = bytesToHex(txid) + ":" + outputIndex;
-        return utxos.containsKey(key);
+        lock.readLock().lock();
+        try {
+            return utxos.containsKey(txid, outputIndex);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -105,9 +150,14 @@ public class UTXOSet {
      * @param outputIndex 출력 인덱스
      * @return UTXO
      */
+    @Override
     public UTXO getUTXO(byte[] txid, int outputIndex) {
-        String key = bytesToHex(txid) + ":" + outputIndex;
-        return utxos.get(key);
+        lock.readLock().lock();
+        try {
+            return utxos.get(txid, outputIndex);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -149,7 +199,12 @@ public class UTXOSet {
      * @return UTXO 개수
      */
     public int size() {
-        return utxos.size();
+        lock.readLock().lock();
+        try {
+            return utxos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -157,14 +212,46 @@ public class UTXOSet {
      * @return UTXO 리스트
      */
     public Collection<UTXO> getAllUTXOs() {
-        return new ArrayList<>(utxos.values());
+        lock.readLock().lock();
+        try {
+            return utxos.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 뷰의 변경분 반영 (체인 재구성 시 - 하나의 쓰기 락 안에서 적용되므로 조회 측에는 원자적으로 보임)
+     * @param view 이 세트를 기반으로 만든 뷰
+     */
+    public void applyView(UTXOView view) {
+        lock.writeLock().lock();
+        try {
+            for (OutPoint outPoint : view.getRemoved()) {
+                UTXO removed = utxos.remove(outPoint);
+                if (removed != null) {
+                    unindex(removed);
+                }
+            }
+            for (UTXO utxo : view.getAdded()) {
+                putAndIndex(utxo);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * UTXO 세트 초기화
      */
     public void clear() {
-        utxos.clear();
+        lock.writeLock().lock();
+        try {
+            utxos.clear();
+            addressIndex.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -172,22 +259,23 @@ public class UTXOSet {
      */
     public void printStatus() {
         System.out.println("\n=== UTXO Set Status ===");
-        System.out.println("Total UTXOs: " + utxos.size());
-
-        long totalValue = utxos.values().stream()
-                .mapToLong(UTXO::getValue)
-                .sum();
+        // 주소별 잔액 (주소 인덱스 사용)
+        Map<String, Long> balanceByAddress = new HashMap<>();
+        long totalValue = 0;
+        lock.readLock().lock();
+        try {
+            System.out.println("Total UTXOs: " + utxos.size());
+            for (Map.Entry<String, AddressEntry> entry : addressIndex.entrySet()) {
+                balanceByAddress.put(entry.getKey(), entry.getValue().balance);
+                totalValue += entry.getValue().balance;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
 
         System.out.println("Total Value: " + totalValue + " satoshis");
         System.out.println("             " + (totalValue / 100000000.0) + " BTC");
 
-        // 주소별 그룹화
-        Map<String, Long> balanceByAddress = new HashMap<>();
-        for (UTXO utxo : utxos.values()) {
-            String address = new String(utxo.getAddress());
-            balanceByAddress.merge(address, utxo.getValue(), Long::sum);
-        }
-
         System.out.println("\nBalances by Address:");
         balanceByAddress.forEach((address, balance) -> {
             String shortAddress = address.length() > 20 ?
@@ -198,11 +286,57 @@ public class UTXOSet {
         System.out.println("======================\n");
     }
 
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+    // ========== 주소 인덱스 ==========
+
+    /**
+     * UTXO 추가 및 주소 인덱스 반영 (쓰기 락 안에서 호출)
+     */
+    private void putAndIndex(UTXO utxo) {
+        UTXO previous = utxos.put(utxo.getOutPoint(), utxo);
+        if (previous != null) {
+            unindex(previous);
         }
-        return sb.toString();
+
+        String address = addressKey(utxo);
+        if (address == null) {
+            return;
+        }
+        AddressEntry entry = addressIndex.computeIfAbsent(address, k -> new AddressEntry());
+        entry.outPoints.add(utxo.getOutPoint());
+        entry.balance += utxo.getValue();
+    }
+
+    /**
+     * 주소 인덱스에서 UTXO 제거 (쓰기 락 안에서 호출)
+     */
+    private void unindex(UTXO utxo) {
+        String address = addressKey(utxo);
+        if (address == null) {
+            return;
+        }
+        AddressEntry entry = addressIndex.get(address);
+        if (entry == null || !entry.outPoints.remove(utxo.getOutPoint())) {
+            return;
+        }
+        entry.balance -= utxo.getValue();
+        if (entry.outPoints.isEmpty()) {
+            addressIndex.remove(address);
+        }
+    }
+
+    /**
+     * 인덱스 키 (getUTXOsByAddress의 address.getBytes()와 같은 문자셋)
+     */
+    private String addressKey(UTXO utxo) {
+        byte[] address = utxo.getAddress();
+        return address == null ? null : new String(address);
+    }
+
+    /**
+     * 주소별 보유 outPoint와 누적 잔액
+     */
+    private static class AddressEntry {
+        private final Set<OutPoint> outPoints = new HashSet<>();
+        private long balance;
     }
 }
@@ -0,0 +1,13 @@
+package blockchain.utxo;
+
+/**
+ * outPoint로 UTXO를 조회할 수 있는 대상 (UTXOSet, UTXOView)
+ * 검증기가 메인 체인 UTXO 세트와 재구성 후보 체인의 뷰를 같은 방식으로 조회하기 위해 사용
+ */
+public interface UTXOSource {
+
+    /**
+     * @return UTXO (없거나 이미 사용됐으면 null)
+     */
+    UTXO getUTXO(byte[] txid, int outputIndex);
+}
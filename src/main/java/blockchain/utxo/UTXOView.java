@@ -0,0 +1,128 @@
+package blockchain.utxo;
+
+import blockchain.block.Block;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * UTXOSet 위의 변경분 뷰 (기반 세트는 수정하지 않음)
+ * 블록 연결 / 되돌리기를 변경분에만 반영해 체인 재구성 후보를 검증하고,
+ * 검증이 끝나면 같은 변경분을 Storage와 UTXOSet에 그대로 기록
+ *
+ * 한 스레드에서만 사용 (Node의 체인 락 안)
+ */
+public class UTXOView implements UTXOSource {
+
+    private final UTXOSource base;
+    private final Map<OutPoint, UTXO> added = new HashMap<>();   // 뷰에서 생긴 UTXO
+    private final Set<OutPoint> removed = new HashSet<>();       // 기반 세트에서 빠진 outPoint
+
+    public UTXOView(UTXOSource base) {
+        this.base = base;
+    }
+
+    @Override
+    public UTXO getUTXO(byte[] txid, int outputIndex) {
+        if (txid == null || txid.length != OutPoint.TXID_LENGTH) {
+            return null;
+        }
+        OutPoint outPoint = new OutPoint(txid, outputIndex);
+        UTXO utxo = added.get(outPoint);
+        if (utxo != null) {
+            return utxo;
+        }
+        return removed.contains(outPoint) ? null : base.getUTXO(txid, outputIndex);
+    }
+
+    /**
+     * 블록 연결 (UTXOSet.updateWithBlock과 같은 순서)
+     * @return 블록이 사용한 UTXO (입력 순서 - 블록 되돌리기 데이터)
+     */
+    public List<UTXO> connectBlock(Block block, long blockHeight) {
+        List<UTXO> spent = new ArrayList<>();
+
+        for (Transaction tx : block.getTransactions()) {
+            for (TransactionInput input : tx.getInputs()) {
+                if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
+                    continue;
+                }
+                UTXO utxo = getUTXO(input.getPrevTXID(), input.getOutputIdx());
+                if (utxo == null) {
+                    throw new IllegalStateException("Block spends missing UTXO: "
+                            + new OutPoint(input.getPrevTXID(), input.getOutputIdx()));
+                }
+                spent.add(utxo);
+                remove(utxo.getOutPoint());
+            }
+
+            List<TransactionOutput> outputs = tx.getOutputs();
+            for (int i = 0; i < outputs.size(); i++) {
+                UTXO utxo = new UTXO(tx.getTxid(), i, outputs.get(i), blockHeight);
+                added.put(utxo.getOutPoint(), utxo);
+            }
+        }
+        return spent;
+    }
+
+    /**
+     * 블록 되돌리기 (트랜잭션 역순으로 출력 제거 후 사용했던 UTXO 복원)
+     * @param spent connectBlock이 돌려준 되돌리기 데이터
+     */
+    public void disconnectBlock(Block block, List<UTXO> spent) {
+        int cursor = spent.size();
+
+        List<Transaction> txs = block.getTransactions();
+        for (int t = txs.size() - 1; t >= 0; t--) {
+            Transaction tx = txs.get(t);
+            for (int i = 0; i < tx.getOutputs().size(); i++) {
+                remove(new OutPoint(tx.getTxid(), i));
+            }
+
+            List<TransactionInput> inputs = tx.getInputs();
+            for (int i = inputs.size() - 1; i >= 0; i--) {
+                if (inputs.get(i).getIsCoinbase() != null && inputs.get(i).getIsCoinbase()) {
+                    continue;
+                }
+                if (cursor == 0) {
+                    throw new IllegalStateException("Undo data does not match block inputs");
+                }
+                UTXO utxo = spent.get(--cursor);
+                added.put(utxo.getOutPoint(), utxo);
+            }
+        }
+
+        if (cursor != 0) {
+            throw new IllegalStateException("Undo data does not match block inputs");
+        }
+    }
+
+    private void remove(OutPoint outPoint) {
+        added.remove(outPoint);
+        removed.add(outPoint);
+    }
+
+    // ========== 변경분 ==========
+
+    /**
+     * 기반 세트에 추가할 UTXO (같은 outPoint가 getRemoved에도 있으면 제거 후 추가)
+     */
+    public Collection<UTXO> getAdded() {
+        return added.values();
+    }
+
+    /**
+     * 기반 세트에서 제거할 outPoint
+     */
+    public Set<OutPoint> getRemoved() {
+        return removed;
+    }
+}
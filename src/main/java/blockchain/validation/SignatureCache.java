@@ -0,0 +1,92 @@
+package blockchain.validation;
+
+import util.Hash;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 서명 검증 결과 캐시
+ * 멤풀 수락 시 검증한 입력 서명을 기억해 두었다가, 같은 트랜잭션이 블록으로 들어오면
+ * ECDSA 검증을 다시 하지 않도록 함 (UTXO 존재/잔액 검사는 매번 수행)
+ *
+ * 키 = HASH256(txid || 입력 인덱스 || 공개키 || 서명 || 잠금 스크립트)
+ * 성공한 검증만 저장하며, 크기를 넘으면 가장 오래된 항목부터 제거
+ */
+public class SignatureCache {
+    public static final int DEFAULT_CAPACITY = 50_000;
+
+    private final int capacity;
+    private final Map<ByteBuffer, Boolean> entries;
+
+    private long hits;
+    private long misses;
+
+    public SignatureCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SignatureCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+                return size() > SignatureCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * 캐시 키 생성
+     * @param txid 트랜잭션 ID (서명 메시지)
+     * @param inputIndex 입력 인덱스
+     * @param publicKey 공개키
+     * @param signature 서명
+     * @param lockScript 참조하는 출력의 잠금 스크립트
+     */
+    public static ByteBuffer key(byte[] txid, int inputIndex, byte[] publicKey, byte[] signature, byte[] lockScript) {
+        ByteBuffer buffer = ByteBuffer.allocate(txid.length + 4
+                + 4 + publicKey.length + 4 + signature.length + lockScript.length);
+        buffer.put(txid).putInt(inputIndex)
+                .putInt(publicKey.length).put(publicKey)
+                .putInt(signature.length).put(signature)
+                .put(lockScript);
+        return ByteBuffer.wrap(Hash.HASH256(buffer.array()));
+    }
+
+    /**
+     * 이미 검증된 서명인지 확인
+     */
+    public synchronized boolean contains(ByteBuffer key) {
+        if (entries.containsKey(key)) {
+            hits++;
+            return true;
+        }
+        misses++;
+        return false;
+    }
+
+    /**
+     * 검증 성공 기록
+     */
+    public synchronized void add(ByteBuffer key) {
+        entries.put(key, Boolean.TRUE);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
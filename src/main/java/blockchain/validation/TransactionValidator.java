@@ -1,16 +1,26 @@
 package blockchain.validation;
 
+import blockchain.block.Block;
 import blockchain.node.script.Operation;
 import blockchain.transaction.Transaction;
 import blockchain.transaction.TransactionInput;
 import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.OutPoint;
 import blockchain.utxo.UTXO;
 import blockchain.utxo.UTXOSet;
+import blockchain.utxo.UTXOSource;
 
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * 트랜잭션 검증 클래스
@@ -20,8 +30,33 @@ public class TransactionValidator {
 
     private final UTXOSet utxoSet;
 
+    // 서명 검증 전용 스레드 풀 (블록 단위 배치 검증에서 사용)
+    private final ExecutorService signatureExecutor;
+
+    // 검증 완료된 서명 캐시 (멤풀에서 검증한 트랜잭션은 블록 연결 시 재검증 생략)
+    private final SignatureCache signatureCache;
+
     public TransactionValidator(UTXOSet utxoSet) {
+        this(utxoSet, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param utxoSet UTXO 세트
+     * @param verifyThreads 서명 검증 스레드 수
+     */
+    public TransactionValidator(UTXOSet utxoSet, int verifyThreads) {
         this.utxoSet = utxoSet;
+        this.signatureCache = new SignatureCache();
+        this.signatureExecutor = Executors.newFixedThreadPool(Math.max(1, verifyThreads), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "sig-verify-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
@@ -30,6 +65,16 @@ public class TransactionValidator {
      * @return 검증 결과
      */
     public ValidationResult validateTransaction(Transaction tx) {
+        return validateTransaction(tx, outPoint -> null);
+    }
+
+    /**
+     * 미확인 부모 출력을 허용하는 검증 (메모리 풀 수락용)
+     * @param tx 검증할 트랜잭션
+     * @param unconfirmed 메모리 풀 트랜잭션이 만든 출력 조회 (UTXOSet에 없을 때만 사용)
+     * @return 검증 결과
+     */
+    public ValidationResult validateTransaction(Transaction tx, Function<OutPoint, UTXO> unconfirmed) {
         System.out.println("\n=== Validating Transaction ===");
         String txid = bytesToHex(tx.getTxid()).substring(0, 16) + "...";
         System.out.println("TXID: " + txid);
@@ -41,8 +86,9 @@ public class TransactionValidator {
         }
 
         // 2. 입력 검증 (코인베이스 제외)
+        long fee = 0;
         if (!isAllCoinbase(tx)) {
-            ValidationResult inputCheck = validateInputs(tx);
+            ValidationResult inputCheck = validateInputs(tx, unconfirmed);
             if (!inputCheck.isValid()) {
                 return inputCheck;
             }
@@ -54,13 +100,14 @@ public class TransactionValidator {
             }
 
             // 4. 잔액 검증
-            ValidationResult balanceCheck = validateBalance(tx);
+            ValidationResult balanceCheck = validateBalance(tx, unconfirmed);
             if (!balanceCheck.isValid()) {
                 return balanceCheck;
             }
+            fee = balanceCheck.getFee();
 
             // 5. 서명 검증
-            ValidationResult signatureCheck = validateSignatures(tx);
+            ValidationResult signatureCheck = validateSignatures(tx, unconfirmed);
             if (!signatureCheck.isValid()) {
                 return signatureCheck;
             }
@@ -68,7 +115,42 @@ public class TransactionValidator {
 
         System.out.println("✓ Transaction is VALID");
         System.out.println("=============================\n");
-        return ValidationResult.valid();
+        return ValidationResult.valid(fee);
+    }
+
+    /**
+     * 입력 재확인 (UTXO 존재 / 중복 / 잔액만, 서명 검증 없음)
+     * 락 밖에서 전체 검증한 트랜잭션을 추가 직전에 락 안에서 다시 확인하기 위해 사용
+     * @return 유효하면 다시 조회한 입력 기준 수수료 포함
+     * @param unconfirmed 메모리 풀 트랜잭션이 만든 출력 조회 (UTXOSet에 없을 때만 사용)
+     */
+    public ValidationResult checkInputs(Transaction tx, Function<OutPoint, UTXO> unconfirmed) {
+        Set<OutPoint> used = new HashSet<>();
+        long totalInput = 0;
+
+        for (TransactionInput input : tx.getInputs()) {
+            if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
+                continue;
+            }
+            UTXO utxo = resolve(input, unconfirmed);
+            if (utxo == null) {
+                return ValidationResult.invalid("UTXO not found: "
+                        + bytesToHex(input.getPrevTXID()).substring(0, 16) + "...:" + input.getOutputIdx());
+            }
+            if (!used.add(utxo.getOutPoint())) {
+                return ValidationResult.invalid("Double spend detected: " + utxo.getOutPoint());
+            }
+            totalInput += utxo.getValue();
+        }
+
+        long totalOutput = 0;
+        for (TransactionOutput output : tx.getOutputs()) {
+            totalOutput += output.getValue();
+        }
+        if (totalInput < totalOutput) {
+            return ValidationResult.invalid("Insufficient funds. Input: " + totalInput + ", Output: " + totalOutput);
+        }
+        return ValidationResult.valid(totalInput - totalOutput);
     }
 
     /**
@@ -104,7 +186,7 @@ public class TransactionValidator {
     /**
      * 2. 입력 검증 (UTXO 존재 확인)
      */
-    private ValidationResult validateInputs(Transaction tx) {
+    private ValidationResult validateInputs(Transaction tx, Function<OutPoint, UTXO> unconfirmed) {
         for (TransactionInput input : tx.getInputs()) {
             // 코인베이스는 스킵
             if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
@@ -112,7 +194,7 @@ public class TransactionValidator {
             }
 
             // UTXO 존재 확인
-            UTXO utxo = utxoSet.getUTXO(input.getPrevTXID(), input.getOutputIdx());
+            UTXO utxo = resolve(input, unconfirmed);
             if (utxo == null) {
                 String prevTxid = bytesToHex(input.getPrevTXID()).substring(0, 16) + "...";
                 return ValidationResult.invalid(
@@ -155,7 +237,7 @@ public class TransactionValidator {
     /**
      * 4. 잔액 검증 (입력 >= 출력)
      */
-    private ValidationResult validateBalance(Transaction tx) {
+    private ValidationResult validateBalance(Transaction tx, Function<OutPoint, UTXO> unconfirmed) {
         long totalInput = 0;
         long totalOutput = 0;
 
@@ -166,7 +248,7 @@ public class TransactionValidator {
                 continue;
             }
 
-            UTXO utxo = utxoSet.getUTXO(input.getPrevTXID(), input.getOutputIdx());
+            UTXO utxo = resolve(input, unconfirmed);
             if (utxo != null) {
                 totalInput += utxo.getValue();
             }
@@ -190,13 +272,13 @@ public class TransactionValidator {
         System.out.println("    Output: " + totalOutput + " sat");
         System.out.println("    Fee: " + fee + " sat");
 
-        return ValidationResult.valid();
+        return ValidationResult.valid(fee);
     }
 
     /**
      * 5. 서명 검증
      */
-    private ValidationResult validateSignatures(Transaction tx) {
+    private ValidationResult validateSignatures(Transaction tx, Function<OutPoint, UTXO> unconfirmed) {
         for (int i = 0; i < tx.getInputs().size(); i++) {
             TransactionInput input = tx.getInputs().get(i);
 
@@ -206,54 +288,405 @@ public class TransactionValidator {
             }
 
             // UTXO 조회
-            UTXO utxo = utxoSet.getUTXO(input.getPrevTXID(), input.getOutputIdx());
+            UTXO utxo = resolve(input, unconfirmed);
             if (utxo == null) {
                 continue; // 이미 이전 단계에서 검증됨
             }
 
-            try {
-                // 서명 스크립트 값 (잠금 스크립트)
-                byte[] sigScriptValue = utxo.getOutput().getPkscript();
+            ValidationResult inputCheck = verifyInputSignature(tx, i, utxo);
+            if (!inputCheck.isValid()) {
+                return inputCheck;
+            }
+        }
 
-                // 메시지 해시 (트랜잭션 해시)
-                byte[] messageHash = tx.getTxid();
+        System.out.println("  ✓ Signature validation passed");
+        return ValidationResult.valid();
+    }
 
-                // 해제 스크립트 (서명 + 공개키)
-                List<byte[]> pkScript = input.getSigScript();
+    /**
+     * 단일 입력의 스크립트(서명) 검증
+     * 스레드 안전 - 배치 검증에서 여러 스레드가 동시에 호출
+     * @param tx 트랜잭션
+     * @param i 입력 인덱스
+     * @param utxo 입력이 참조하는 UTXO
+     * @return 검증 결과
+     */
+    private ValidationResult verifyInputSignature(Transaction tx, int i, UTXO utxo) {
+        TransactionInput input = tx.getInputs().get(i);
 
-                // 스크립트 검증이 비어있거나 형식이 잘못된 경우 스킵
-                if (pkScript == null || pkScript.size() < 2) {
-                    System.out.println("  ⚠ Invalid script format for input #" + i + " - skipping");
-                    continue;
-                }
+        try {
+            // 서명 스크립트 값 (잠금 스크립트)
+            byte[] sigScriptValue = utxo.getOutput().getPkscript();
+
+            // 메시지 해시 (트랜잭션 해시)
+            byte[] messageHash = tx.getTxid();
+
+            // 해제 스크립트 (서명 + 공개키)
+            List<byte[]> pkScript = input.getSigScript();
+
+            // 스크립트 검증이 비어있거나 형식이 잘못된 경우 스킵
+            if (pkScript == null || pkScript.size() < 2) {
+                System.out.println("  ⚠ Invalid script format for input #" + i + " - skipping");
+                return ValidationResult.valid();
+            }
+
+            if (sigScriptValue == null || sigScriptValue.length == 0) {
+                System.out.println("  ⚠ Empty lock script for input #" + i + " - skipping");
+                return ValidationResult.valid();
+            }
+
+            // 이미 검증된 서명이면 생략
+            ByteBuffer cacheKey = signatureCacheKey(tx, i, utxo);
+            if (signatureCache.contains(cacheKey)) {
+                return ValidationResult.valid();
+            }
+
+            // Operation을 통한 스크립트 검증 실행
+            Operation operation = new Operation(pkScript, sigScriptValue, messageHash);
+            boolean isValid = operation.execute();
+
+            if (!isValid) {
+                return ValidationResult.invalid(
+                        "Signature verification failed for input #" + i
+                );
+            }
+
+            signatureCache.add(cacheKey);
+
+        } catch (Exception e) {
+            System.err.println("  ⚠ Signature verification error for input #" + i + ": " + e.getMessage());
+            // 개발 단계에서는 서명 검증 실패를 경고로만 처리
+            System.out.println("  ⚠ Signature verification skipped (development mode)");
+        }
+
+        return ValidationResult.valid();
+    }
+
+    /**
+     * 서명 캐시 키 (스크립트 형식이 잘못되어 검증 대상이 아니면 null)
+     */
+    private ByteBuffer signatureCacheKey(Transaction tx, int i, UTXO utxo) {
+        List<byte[]> unlockScript = tx.getInputs().get(i).getSigScript();
+        byte[] lockScript = utxo.getOutput().getPkscript();
+        if (unlockScript == null || unlockScript.size() < 2 || lockScript == null || tx.getTxid() == null) {
+            return null;
+        }
+        return SignatureCache.key(tx.getTxid(), i, unlockScript.getLast(), unlockScript.getFirst(), lockScript);
+    }
+
+    public SignatureCache getSignatureCache() {
+        return signatureCache;
+    }
+
+    // ========== 배치 검증 ==========
+
+    /**
+     * 블록 내 트랜잭션 일괄 검증 (첫 실패 시 중단)
+     * @param block 검증할 블록
+     * @return 트랜잭션 순서대로의 검증 결과
+     */
+    public List<ValidationResult> validateBlock(Block block) {
+        return validateTransactions(block.getTransactions(), true, utxoSet);
+    }
+
+    /**
+     * 주어진 UTXO 기준으로 블록 검증 (체인 재구성 후보 블록을 분기점 시점의 뷰로 검증)
+     * @param utxos 블록 부모 시점의 UTXO
+     */
+    public List<ValidationResult> validateBlock(Block block, UTXOSource utxos) {
+        return validateTransactions(block.getTransactions(), true, utxos);
+    }
+
+    /**
+     * 트랜잭션 일괄 검증
+     *
+     * 1단계 (직렬): 구조, UTXO 존재, 이중 지불, 잔액 검사
+     *   - 블록 안에서 앞선 트랜잭션이 만든 출력을 뒤 트랜잭션이 사용할 수 있음
+     *   - 블록 안의 서로 다른 트랜잭션이 같은 출력을 사용하면 이중 지불
+     * 2단계 (병렬): 입력별 서명 검증(OP_CHECKSIG)을 스레드 풀에 분배
+     *
+     * @param txs 검증할 트랜잭션 (블록 순서)
+     * @param failFast true면 첫 실패 시 남은 검증을 취소
+     * @return 트랜잭션 순서대로의 검증 결과 (취소된 트랜잭션은 invalid로 표시)
+     */
+    public List<ValidationResult> validateTransactions(List<Transaction> txs, boolean failFast) {
+        return validateTransactions(txs, failFast, utxoSet);
+    }
+
+    private List<ValidationResult> validateTransactions(List<Transaction> txs, boolean failFast, UTXOSource utxos) {
+        ValidationResult[] results = new ValidationResult[txs.size()];
+        List<SignatureJob> jobs = new ArrayList<>();
+
+        // 블록 내 UTXO 변경분 (UTXOSet은 수정하지 않음)
+        Map<OutPoint, UTXO> created = new HashMap<>();
+        Set<OutPoint> spent = new HashSet<>();
+
+        // 1단계: 저비용 검사 (직렬)
+        for (int t = 0; t < txs.size(); t++) {
+            Transaction tx = txs.get(t);
+            ValidationResult result = checkWithoutSignatures(tx, t, utxos, created, spent, jobs);
+            results[t] = result;
+
+            if (!result.isValid() && failFast) {
+                markSkipped(results, "Not validated: earlier transaction #" + t + " is invalid");
+                return List.of(results);
+            }
+        }
+
+        // 2단계: 서명 검증 (병렬)
+        verifySignatures(jobs, results, failFast);
+
+        // 서명이 잘못된 트랜잭션의 출력을 사용한 뒤 트랜잭션도 무효
+        if (!failFast) {
+            propagateInvalidParents(txs, results);
+        }
 
-                if (sigScriptValue == null || sigScriptValue.length == 0) {
-                    System.out.println("  ⚠ Empty lock script for input #" + i + " - skipping");
+        long invalid = 0;
+        for (ValidationResult result : results) {
+            if (!result.isValid()) invalid++;
+        }
+        System.out.println("Batch validation: " + txs.size() + " txs, " + jobs.size()
+                + " signatures, " + invalid + " invalid");
+
+        return List.of(results);
+    }
+
+    /**
+     * 서명을 제외한 검사 + 서명 작업 수집
+     * 유효한 트랜잭션의 입력/출력은 블록 내 UTXO 변경분에 반영
+     */
+    private ValidationResult checkWithoutSignatures(Transaction tx, int txIndex, UTXOSource utxos,
+                                                    Map<OutPoint, UTXO> created,
+                                                    Set<OutPoint> spent, List<SignatureJob> jobs) {
+        ValidationResult structureCheck = validateStructure(tx);
+        if (!structureCheck.isValid()) {
+            return structureCheck;
+        }
+
+        List<UTXO> inputs = new ArrayList<>();
+        if (!isCoinbase(tx)) {
+            Set<OutPoint> usedInputs = new HashSet<>();
+            long totalInput = 0;
+
+            for (TransactionInput input : tx.getInputs()) {
+                if (input.getIsCoinbase() != null && input.getIsCoinbase()) {
+                    inputs.add(null);
                     continue;
                 }
 
-                // Operation을 통한 스크립트 검증 실행
-                Operation operation = new Operation(pkScript, sigScriptValue, messageHash);
-                boolean isValid = operation.execute();
-
-                if (!isValid) {
+                UTXO utxo = lookup(input, utxos, created, spent);
+                if (utxo == null) {
+                    String prevTxid = bytesToHex(input.getPrevTXID()).substring(0, 16) + "...";
                     return ValidationResult.invalid(
-                            "Signature verification failed for input #" + i
+                            "UTXO not found: " + prevTxid + ":" + input.getOutputIdx()
                     );
                 }
+                if (!usedInputs.add(utxo.getOutPoint())) {
+                    return ValidationResult.invalid("Double spend detected: " + utxo.getOutPoint());
+                }
 
-            } catch (Exception e) {
-                System.err.println("  ⚠ Signature verification error for input #" + i + ": " + e.getMessage());
-                // 개발 단계에서는 서명 검증 실패를 경고로만 처리
-                System.out.println("  ⚠ Signature verification skipped (development mode)");
-                continue;
+                inputs.add(utxo);
+                totalInput += utxo.getValue();
+            }
+
+            long totalOutput = 0;
+            for (TransactionOutput output : tx.getOutputs()) {
+                totalOutput += output.getValue();
+            }
+            if (totalInput < totalOutput) {
+                return ValidationResult.invalid(
+                        "Insufficient funds. Input: " + totalInput + ", Output: " + totalOutput
+                );
+            }
+
+            for (int i = 0; i < inputs.size(); i++) {
+                UTXO utxo = inputs.get(i);
+                if (utxo == null) {
+                    continue;
+                }
+                // 멤풀 수락 시 이미 검증된 서명은 작업에서 제외
+                ByteBuffer cacheKey = signatureCacheKey(tx, i, utxo);
+                if (cacheKey != null && signatureCache.contains(cacheKey)) {
+                    continue;
+                }
+                jobs.add(new SignatureJob(txIndex, tx, i, utxo));
             }
         }
 
-        System.out.println("  ✓ Signature validation passed");
+        // 블록 내 UTXO 변경분 반영 (뒤 트랜잭션 검사용)
+        for (UTXO utxo : inputs) {
+            if (utxo != null) {
+                spent.add(utxo.getOutPoint());
+                created.remove(utxo.getOutPoint());
+            }
+        }
+        List<TransactionOutput> outputs = tx.getOutputs();
+        for (int i = 0; i < outputs.size(); i++) {
+            UTXO utxo = new UTXO(tx.getTxid(), i, outputs.get(i), 0);
+            created.put(utxo.getOutPoint(), utxo);
+        }
+
         return ValidationResult.valid();
     }
 
+    /**
+     * 배치 안의 무효 트랜잭션 출력을 사용한 트랜잭션을 무효 처리 (배치 순서대로 전파)
+     */
+    private void propagateInvalidParents(List<Transaction> txs, ValidationResult[] results) {
+        Map<OutPoint, Integer> creator = new HashMap<>();
+
+        for (int t = 0; t < txs.size(); t++) {
+            Transaction tx = txs.get(t);
+
+            if (results[t].isValid()) {
+                for (TransactionInput input : tx.getInputs()) {
+                    if (input.getPrevTXID() == null || input.getPrevTXID().length != OutPoint.TXID_LENGTH) {
+                        continue;
+                    }
+                    Integer parent = creator.get(new OutPoint(input.getPrevTXID(), input.getOutputIdx()));
+                    if (parent != null && !results[parent].isValid()) {
+                        results[t] = ValidationResult.invalid("Spends output of invalid transaction #" + parent);
+                        break;
+                    }
+                }
+            }
+
+            if (tx.getOutputs() != null && tx.getTxid() != null && tx.getTxid().length == OutPoint.TXID_LENGTH) {
+                for (int i = 0; i < tx.getOutputs().size(); i++) {
+                    creator.put(new OutPoint(tx.getTxid(), i), t);
+                }
+            }
+        }
+    }
+
+    /**
+     * UTXOSet에서 먼저 찾고, 없으면 미확인 출력에서 조회
+     */
+    private UTXO resolve(TransactionInput input, Function<OutPoint, UTXO> unconfirmed) {
+        UTXO utxo = utxoSet.getUTXO(input.getPrevTXID(), input.getOutputIdx());
+        if (utxo != null) {
+            return utxo;
+        }
+        if (input.getPrevTXID() == null || input.getPrevTXID().length != OutPoint.TXID_LENGTH) {
+            return null;
+        }
+        return unconfirmed.apply(new OutPoint(input.getPrevTXID(), input.getOutputIdx()));
+    }
+
+    /**
+     * UTXO 기준 + 블록 내 변경분 조회
+     */
+    private UTXO lookup(TransactionInput input, UTXOSource utxos, Map<OutPoint, UTXO> created, Set<OutPoint> spent) {
+        UTXO utxo = utxos.getUTXO(input.getPrevTXID(), input.getOutputIdx());
+        if (utxo != null) {
+            return spent.contains(utxo.getOutPoint()) ? null : utxo;
+        }
+        if (input.getPrevTXID() == null || input.getPrevTXID().length != OutPoint.TXID_LENGTH) {
+            return null;
+        }
+        return created.get(new OutPoint(input.getPrevTXID(), input.getOutputIdx()));
+    }
+
+    /**
+     * 서명 작업 병렬 실행
+     * failFast면 첫 실패 시 대기 중인 작업을 취소하고 실행 중인 작업은 결과를 버림
+     */
+    private void verifySignatures(List<SignatureJob> jobs, ValidationResult[] results, boolean failFast) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+
+        // 작업이 하나면 스레드 전환 없이 바로 실행
+        if (jobs.size() == 1) {
+            SignatureJob job = jobs.getFirst();
+            ValidationResult result = verifyInputSignature(job.tx, job.inputIndex, job.utxo);
+            if (!result.isValid()) {
+                results[job.txIndex] = result;
+            }
+            return;
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        CompletionService<SignatureOutcome> completion = new ExecutorCompletionService<>(signatureExecutor);
+        List<Future<SignatureOutcome>> futures = new ArrayList<>(jobs.size());
+
+        for (SignatureJob job : jobs) {
+            futures.add(completion.submit(() -> {
+                if (cancelled.get()) {
+                    return null;
+                }
+                return new SignatureOutcome(job, verifyInputSignature(job.tx, job.inputIndex, job.utxo));
+            }));
+        }
+
+        try {
+            for (int done = 0; done < jobs.size(); done++) {
+                SignatureOutcome outcome = completion.take().get();
+                if (outcome == null || outcome.result.isValid()) {
+                    continue;
+                }
+
+                // 트랜잭션의 첫 실패만 기록
+                if (results[outcome.job.txIndex].isValid()) {
+                    results[outcome.job.txIndex] = outcome.result;
+                }
+
+                if (failFast) {
+                    cancelled.set(true);
+                    for (Future<SignatureOutcome> future : futures) {
+                        future.cancel(false);
+                    }
+                    markSkipped(results, "Not validated: block rejected at transaction #" + outcome.job.txIndex);
+                    return;
+                }
+            }
+        } catch (CancellationException e) {
+            // failFast 취소 후 남은 future - 무시
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+            markSkipped(results, "Not validated: interrupted");
+        } catch (ExecutionException e) {
+            cancelled.set(true);
+            markSkipped(results, "Signature verification error: " + e.getCause());
+        }
+    }
+
+    /**
+     * 아직 유효로 표시된 결과를 검증되지 않음(invalid)으로 변경
+     */
+    private void markSkipped(ValidationResult[] results, String message) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null || results[i].isValid()) {
+                results[i] = ValidationResult.invalid(message);
+            }
+        }
+    }
+
+    /**
+     * 서명 검증 스레드 풀 종료
+     */
+    public void shutdown() {
+        signatureExecutor.shutdownNow();
+    }
+
+    /**
+     * 코인베이스 트랜잭션 여부 (첫 입력 기준)
+     */
+    private boolean isCoinbase(Transaction tx) {
+        TransactionInput firstInput = tx.getInputs().getFirst();
+        return firstInput.getIsCoinbase() != null && firstInput.getIsCoinbase();
+    }
+
+    /**
+     * 입력 하나의 서명 검증 작업
+     */
+    private record SignatureJob(int txIndex, Transaction tx, int inputIndex, UTXO utxo) {
+    }
+
+    private record SignatureOutcome(SignatureJob job, ValidationResult result) {
+    }
+
     /**
      * 모든 입력이 코인베이스인지 확인
      */
@@ -6,18 +6,27 @@ package blockchain.validation;
 public class ValidationResult {
     private final boolean valid;
     private final String message;
+    private final long fee;         // 입력 합계 - 출력 합계 (유효한 트랜잭션만)
 
-    private ValidationResult(boolean valid, String message) {
+    private ValidationResult(boolean valid, String message, long fee) {
         this.valid = valid;
         this.message = message;
+        this.fee = fee;
     }
 
     public static ValidationResult valid() {
-        return new ValidationResult(true, "Valid");
+        return valid(0);
+    }
+
+    /**
+     * @param fee 검증 중 계산한 수수료 (UTXO 기준 입력 합계 - 출력 합계)
+     */
+    public static ValidationResult valid(long fee) {
+        return new ValidationResult(true, "Valid", fee);
     }
 
     public static ValidationResult invalid(String message) {
-        return new ValidationResult(false, message);
+        return new ValidationResult(false, message, 0);
     }
 
     public boolean isValid() {
@@ -28,6 +37,13 @@ public class ValidationResult {
         return message;
     }
 
+    /**
+     * 계산된 수수료 (트랜잭션에 선언된 fee가 아님)
+     */
+    public long getFee() {
+        return fee;
+    }
+
     @Override
     public String toString() {
         return valid ? "✓ Valid" : "✗ Invalid: " + message;
@@ -0,0 +1,64 @@
+package util;
+
+/**
+ * SipHash-2-4 (64비트 키 해시)
+ * 컴팩트 블록의 짧은 트랜잭션 ID 계산에 사용
+ * 키를 블록마다 바꾸므로 특정 트랜잭션끼리 충돌을 미리 만들어 두기 어려움
+ */
+public class SipHash {
+
+    /**
+     * @param k0 키 앞 8바이트 (리틀 엔디언)
+     * @param k1 키 뒤 8바이트 (리틀 엔디언)
+     * @param data 해시할 데이터
+     * @return 64비트 해시
+     */
+    public static long hash24(long k0, long k1, byte[] data) {
+        long[] v = {
+                0x736f6d6570736575L ^ k0,
+                0x646f72616e646f6dL ^ k1,
+                0x6c7967656e657261L ^ k0,
+                0x7465646279746573L ^ k1
+        };
+
+        int length = data.length;
+        int blocks = length & ~7;
+        for (int i = 0; i < blocks; i += 8) {
+            compress(v, readLongLE(data, i, 8));
+        }
+
+        // 마지막 블록: 남은 바이트 + 최상위 바이트에 길이(하위 8비트)
+        compress(v, ((long) length << 56) | readLongLE(data, blocks, length - blocks));
+
+        v[2] ^= 0xff;
+        for (int r = 0; r < 4; r++) {
+            sipRound(v);
+        }
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void compress(long[] v, long m) {
+        v[3] ^= m;
+        sipRound(v);
+        sipRound(v);
+        v[0] ^= m;
+    }
+
+    private static void sipRound(long[] v) {
+        v[0] += v[1]; v[1] = Long.rotateLeft(v[1], 13); v[1] ^= v[0]; v[0] = Long.rotateLeft(v[0], 32);
+        v[2] += v[3]; v[3] = Long.rotateLeft(v[3], 16); v[3] ^= v[2];
+        v[0] += v[3]; v[3] = Long.rotateLeft(v[3], 21); v[3] ^= v[0];
+        v[2] += v[1]; v[1] = Long.rotateLeft(v[1], 17); v[1] ^= v[2]; v[2] = Long.rotateLeft(v[2], 32);
+    }
+
+    /**
+     * 리틀 엔디언으로 최대 8바이트 읽기
+     */
+    public static long readLongLE(byte[] data, int offset, int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value |= (data[offset + i] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+}
@@ -83,7 +83,7 @@ public class MainTest {
             System.out.println("═══════════════════════════════════════\n");
 
             Mempool mempool1 = new Mempool(node1.getValidator());
-            Miner miner1 = new Miner(node1, mempool1, 3);
+            Miner miner1 = new Miner(node1, mempool1);
 
             System.out.println("Node 1 mining block...");
             Block block1 = miner1.mineNewBlock(0);
@@ -110,7 +110,7 @@ public class MainTest {
             System.out.println("═══════════════════════════════════════\n");
 
             Mempool mempool2 = new Mempool(node2.getValidator());
-            Miner miner2 = new Miner(node2, mempool2, 3);
+            Miner miner2 = new Miner(node2, mempool2);
 
             System.out.println("Node 2 mining block...");
             Block block2 = miner2.mineNewBlock(0);
@@ -135,7 +135,7 @@ public class MainTest {
             System.out.println("═══════════════════════════════════════\n");
 
             Mempool mempool3 = new Mempool(node3.getValidator());
-            Miner miner3 = new Miner(node3, mempool3, 3);
+            Miner miner3 = new Miner(node3, mempool3);
 
             System.out.println("Node 3 mining block...");
             Block block3 = miner3.mineNewBlock(0);
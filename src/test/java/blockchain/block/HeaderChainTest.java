@@ -0,0 +1,90 @@
+package blockchain.block;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 헤더 체인 로케이터 / 분기점 탐색 테스트
+ */
+public class HeaderChainTest {
+
+    private static byte[] hash(int tag, int height) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) tag;
+        hash[28] = (byte) (height >>> 24);
+        hash[29] = (byte) (height >>> 16);
+        hash[30] = (byte) (height >>> 8);
+        hash[31] = (byte) height;
+        return hash;
+    }
+
+    /**
+     * forkHeight까지는 공통, 이후는 tag로 구분되는 체인
+     */
+    private static HeaderChain chain(int length, int forkHeight, int tag) {
+        HeaderChain chain = new HeaderChain();
+        for (int height = 0; height < length; height++) {
+            int own = height <= forkHeight ? 0 : tag;
+            int parent = height - 1 <= forkHeight ? 0 : tag;
+            chain.add(new BlockHeader(height, new byte[]{0, 0, 0, 1}, hash(parent, height - 1), new byte[32],
+                    height, new byte[4], hash(own, height), 1, 0, 0, BigInteger.valueOf(height + 1)));
+        }
+        return chain;
+    }
+
+    @Test
+    public void locatorIsLogarithmicAndEndsAtGenesis() {
+        HeaderChain chain = chain(10_000, 10_000, 0);
+        List<byte[]> locator = chain.getLocator();
+
+        assertTrue(locator.size() < 30);
+        assertArrayEquals(chain.getTip().getBlockHash(), locator.getFirst());
+        assertArrayEquals(chain.get(0).getBlockHash(), locator.getLast());
+    }
+
+    @Test
+    public void headersAfterForkPoint() {
+        HeaderChain local = chain(500, 300, 1);
+        HeaderChain remote = chain(800, 300, 2);
+
+        // 로케이터가 성기므로 찾은 분기점은 실제 분기점 이하
+        int fork = remote.findFork(local.getLocator());
+        assertTrue(fork <= 300 && fork > 200);
+
+        List<BlockHeader> headers = remote.getHeadersAfter(local.getLocator(), 2000);
+        assertEquals(fork + 1, headers.getFirst().getHeight());
+        assertEquals(799, headers.getLast().getHeight());
+        assertTrue(local.contains(headers.getFirst().getBlockHash()));
+        assertEquals(-1, local.getHeight(remote.getTip().getBlockHash()));
+
+        // 최대 개수 제한
+        assertEquals(100, remote.getHeadersAfter(local.getLocator(), 100).size());
+    }
+
+    @Test
+    public void branchSharesHeadersBelowForkOnly() {
+        HeaderChain main = chain(500, 500, 0);
+        HeaderChain remote = chain(600, 300, 2);
+
+        HeaderChain branch = main.branch(300);
+        for (int height = 301; height < 600; height++) {
+            branch.add(remote.get(height));
+        }
+
+        assertEquals(600, branch.size());
+        assertArrayEquals(remote.getTip().getBlockHash(), branch.getTip().getBlockHash());
+        assertArrayEquals(main.get(300).getBlockHash(), branch.get(300).getBlockHash());
+        assertEquals(200, branch.getHeight(main.get(200).getBlockHash()));
+
+        // 분기점 위의 원래 헤더는 분기 체인에 없음, 원래 체인은 그대로
+        assertEquals(-1, branch.getHeight(main.get(301).getBlockHash()));
+        assertEquals(500, main.size());
+        assertTrue(main.findFork(branch.getLocator()) <= 300);
+
+        assertThrows(IllegalArgumentException.class, () -> main.branch(500));
+    }
+}
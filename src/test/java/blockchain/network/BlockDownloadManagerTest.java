@@ -0,0 +1,116 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.block.GenesisBlock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 병렬 블록 다운로드 분배 / 재정렬 테스트
+ */
+public class BlockDownloadManagerTest {
+
+    /**
+     * 보낸 GET_BLOCKS 요청만 기록하는 피어
+     */
+    private static class RecordingPeer extends Peer {
+        final List<List<byte[]>> requests = new ArrayList<>();
+
+        RecordingPeer(int port) {
+            super("127.0.0.1", port);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized void sendMessage(Message message) {
+            requests.add((List<byte[]>) message.getPayload());
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+    }
+
+    @Test
+    public void windowsAreSpreadAcrossPeersAndConnectedInOrder() {
+        P2PNetwork network = new P2PNetwork(null, 0);
+        List<RecordingPeer> peers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RecordingPeer peer = new RecordingPeer(9000 + i);
+            peers.add(peer);
+            network.addPeer(peer);
+        }
+
+        Block genesis = GenesisBlock.getGenesisBlock();
+        List<Block> blocks = new ArrayList<>();
+        List<BlockHeader> headers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Block block = new Block(genesis.getBlockHash(), genesis.getTransactions(), new byte[]{0, 0, 0, 1}, i);
+            blocks.add(block);
+            headers.add(new BlockHeader(block, i + 1));
+        }
+
+        List<Block> connected = new ArrayList<>();
+        boolean[] completed = new boolean[1];
+        BlockDownloadManager downloads = new BlockDownloadManager(network);
+        try {
+            downloads.start(headers, new BlockDownloadManager.Listener() {
+                @Override
+                public boolean onBlockReady(Block block) {
+                    connected.add(block);
+                    return true;
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+
+                @Override
+                public void onFailed(String reason) {
+                    fail(reason);
+                }
+            });
+
+            // 피어마다 동시 요청 수 제한까지 할당
+            for (RecordingPeer peer : peers) {
+                assertEquals(BlockDownloadManager.MAX_IN_FLIGHT_PER_PEER, peer.requests.size());
+            }
+            assertEquals(3 * BlockDownloadManager.MAX_IN_FLIGHT_PER_PEER, downloads.getInFlightWindows());
+
+            // 마지막 피어부터 역순으로 응답해도 높이 순으로 연결됨
+            while (!completed[0]) {
+                List<Runnable> responses = new ArrayList<>();
+                for (RecordingPeer peer : peers) {
+                    for (List<byte[]> request : peer.requests) {
+                        for (byte[] hash : request) {
+                            Block block = blocks.stream()
+                                    .filter(b -> java.util.Arrays.equals(b.getBlockHash(), hash))
+                                    .findFirst().orElseThrow();
+                            responses.add(() -> downloads.onBlock(peer, block));
+                        }
+                    }
+                    peer.requests.clear();
+                }
+                assertFalse(responses.isEmpty());
+                Collections.reverse(responses);
+                responses.forEach(Runnable::run);
+            }
+        } finally {
+            downloads.shutdown();
+        }
+
+        assertEquals(blocks.size(), connected.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            assertSame(blocks.get(i), connected.get(i));
+        }
+        assertFalse(downloads.isActive());
+    }
+}
@@ -0,0 +1,140 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.block.GenesisBlock;
+import blockchain.transaction.Mempool;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.UTXO;
+import blockchain.utxo.UTXOSet;
+import blockchain.validation.TransactionValidator;
+import org.junit.jupiter.api.Test;
+import util.MerkleTree;
+import util.SipHash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 컴팩트 블록 짧은 ID / 복원 테스트
+ */
+public class CompactBlockTest {
+
+    @Test
+    public void sipHashMatchesReferenceVector() {
+        // SipHash-2-4 논문 부록 벡터: 키 00..0f, 메시지 00..0e
+        byte[] key = new byte[16];
+        byte[] message = new byte[15];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+
+        long hash = SipHash.hash24(SipHash.readLongLE(key, 0, 8), SipHash.readLongLE(key, 8, 8), message);
+        assertEquals(0xa129ca6149be45e5L, hash);
+    }
+
+    @Test
+    public void blockIsRebuiltFromShortIdsAfterWireRoundTrip() throws Exception {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        List<Transaction> transactions = new ArrayList<>();
+        transactions.add(genesis.getTransactions().getFirst());
+        for (int i = 0; i < 3; i++) {
+            transactions.add(spend(i));
+        }
+        Block block = new Block(genesis.getBlockHash(), transactions, new byte[]{0, 0, 0, 2}, 1_700_000_000L, 0x207fffff);
+
+        // tx3만 상대가 모른다고 보고 본문 포함
+        Transaction unknown = transactions.get(3);
+        CompactBlock compact = CompactBlock.fromBlock(block, tx -> tx != unknown);
+        assertEquals(2, compact.prefilled.size());
+        assertEquals(2, compact.shortIds.size());
+
+        CompactBlock decoded = (CompactBlock) Message.fromBytes(
+                new Message(Message.MessageType.CMPCT_BLOCK, compact, null).toBytes()).getPayload();
+        assertArrayEquals(block.getBlockHash(), decoded.getBlockHash());
+
+        // 받는 쪽 메모리 풀에 있는 트랜잭션으로 짧은 ID 대조
+        List<Transaction> rebuilt = new ArrayList<>();
+        int next = 0;
+        int prefilled = 0;
+        for (int i = 0; i < decoded.getTransactionCount(); i++) {
+            if (prefilled < decoded.prefilled.size() && decoded.prefilled.get(prefilled).index == i) {
+                rebuilt.add(decoded.prefilled.get(prefilled++).tx);
+                continue;
+            }
+            long shortId = decoded.shortIds.get(next++);
+            for (Transaction tx : transactions.subList(1, 3)) {
+                if (decoded.shortId(tx.getTxid()) == shortId) {
+                    rebuilt.add(tx);
+                }
+            }
+        }
+
+        Block result = decoded.toBlock(rebuilt);
+        assertArrayEquals(block.getBlockHash(), result.getBlockHash());
+        assertArrayEquals(block.getMerkleRoot(), MerkleTree.calculateMerkleRoot(result.getTransactions()));
+
+        // 6바이트 짧은 ID 목록이 본문보다 훨씬 작음
+        byte[] full = new Message(Message.MessageType.NEW_BLOCK, block, null).toBytes();
+        byte[] small = new Message(Message.MessageType.CMPCT_BLOCK, compact, null).toBytes();
+        assertTrue(small.length < full.length);
+    }
+
+    @Test
+    public void relayedBlockUsesShortIdsForPoolTransactionsConfirmedBeforeBroadcast() throws Exception {
+        UTXOSet utxoSet = new UTXOSet();
+        List<Transaction> transactions = new ArrayList<>();
+        transactions.add(GenesisBlock.getGenesisBlock().getTransactions().getFirst());
+        for (int i = 0; i < 3; i++) {
+            Transaction tx = spend(i);
+            transactions.add(tx);
+            // 빈 잠금 스크립트 -> 서명 검증 단계는 건너뜀
+            utxoSet.addUTXO(new UTXO(tx.getInputs().getFirst().getPrevTXID(), 0,
+                    new TransactionOutput("alice".getBytes(), new byte[0], 1000L), 1));
+        }
+        Mempool mempool = new Mempool(new TransactionValidator(utxoSet));
+        assertTrue(mempool.addTransaction(transactions.get(1)));
+        assertTrue(mempool.addTransaction(transactions.get(2)));
+
+        Block block = new Block(GenesisBlock.getGenesisBlock().getBlockHash(), transactions,
+                new byte[]{0, 0, 0, 2}, 1_700_000_000L, 0x207fffff);
+
+        // 노드 순서대로: 블록 연결 알림으로 메모리 풀에서 빠진 뒤 전파용 컴팩트 블록 생성
+        mempool.onBlockConnected(block, 1);
+        assertFalse(mempool.containsTransaction(hex(transactions.get(1).getTxid())));
+
+        CompactBlock compact = CompactBlockRelay.create(block, mempool);
+        assertEquals(2, compact.shortIds.size());
+        assertEquals(2, compact.prefilled.size());     // 코인베이스 + 풀에 없던 tx3
+        assertEquals(0, compact.prefilled.get(0).index);
+        assertEquals(3, compact.prefilled.get(1).index);
+    }
+
+    private Transaction spend(int index) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+
+        byte[] prevTxid = new byte[32];
+        prevTxid[0] = (byte) (index + 1);
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "alice", 1000L, new byte[20], sigScript, 0, prevTxid));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("bob".getBytes(), new byte[0], 900L));
+        return new Transaction(inputs, outputs);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
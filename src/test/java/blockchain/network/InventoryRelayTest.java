@@ -0,0 +1,65 @@
+package blockchain.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * INV 전파 중복 억제 테스트
+ */
+public class InventoryRelayTest {
+
+    /**
+     * 보낸 메시지만 기록하는 피어
+     */
+    private static class RecordingPeer extends Peer {
+        final List<Message> sent = new ArrayList<>();
+
+        RecordingPeer(int port) {
+            super("127.0.0.1", port);
+        }
+
+        @Override
+        public synchronized void sendMessage(Message message) {
+            sent.add(message);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+    }
+
+    @Test
+    public void announcementsSkipPeersThatAlreadyKnowTheItem() {
+        P2PNetwork network = new P2PNetwork(null, 0);
+        RecordingPeer source = new RecordingPeer(9100);
+        RecordingPeer other = new RecordingPeer(9101);
+        RecordingPeer knowing = new RecordingPeer(9102);
+        network.addPeer(source);
+        network.addPeer(other);
+        network.addPeer(knowing);
+
+        byte[] txid = new byte[32];
+        txid[0] = 1;
+        knowing.addKnownInventory(txid);
+
+        InventoryRelay relay = new InventoryRelay(null, network);
+        InventoryItem item = new InventoryItem(InventoryItem.Type.TX, txid);
+
+        // 보낸 피어와 이미 아는 피어는 제외
+        assertEquals(1, relay.announce(item, source));
+        assertEquals(0, source.sent.size());
+        assertEquals(1, other.sent.size());
+        assertEquals(Message.MessageType.INV, other.sent.getFirst().getType());
+        assertEquals(0, knowing.sent.size());
+
+        // 같은 항목은 다시 알리지 않음
+        assertEquals(0, relay.announce(item, null));
+        assertEquals(1, other.sent.size());
+        network.shutdown();
+    }
+}
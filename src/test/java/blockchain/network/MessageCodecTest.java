@@ -0,0 +1,108 @@
+package blockchain.network;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.block.GenesisBlock;
+import org.junit.jupiter.api.Test;
+import util.Hash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * P2P 메시지 바이너리 봉투 / 본문 코덱 테스트
+ */
+public class MessageCodecTest {
+
+    @Test
+    public void blockMessageRoundTripIsSmallerThanJavaSerialization() throws Exception {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        byte[] encoded = new Message(Message.MessageType.NEW_BLOCK, genesis, "node").toBytes();
+
+        Message decoded = Message.fromBytes(encoded);
+        Block block = (Block) decoded.getPayload();
+
+        assertEquals(Message.MessageType.NEW_BLOCK, decoded.getType());
+        assertArrayEquals(genesis.getBlockHash(), block.calculateBlockHash());
+        assertArrayEquals(genesis.getTransactions().getFirst().toBytes(), block.getTransactions().getFirst().toBytes());
+
+        ByteArrayOutputStream javaSerialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(javaSerialized)) {
+            out.writeObject(genesis);
+        }
+        assertTrue(encoded.length < javaSerialized.size() / 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void headersAndHashListsRoundTrip() throws Exception {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        BlockHeader header = new BlockHeader(genesis, 0, BigInteger.ONE);
+
+        Message headers = Message.fromBytes(new Message(Message.MessageType.HEADERS, List.of(header, header), null).toBytes());
+        List<?> decodedHeaders = (List<?>) headers.getPayload();
+        assertEquals(2, decodedHeaders.size());
+        assertArrayEquals(genesis.getBlockHash(), ((BlockHeader) decodedHeaders.getFirst()).getBlockHash());
+
+        byte[] hash = genesis.getBlockHash();
+        Message locator = Message.fromBytes(new Message(Message.MessageType.GET_HEADERS, List.of(hash), null).toBytes());
+        assertArrayEquals(hash, ((List<byte[]>) locator.getPayload()).getFirst());
+
+        Message ping = Message.fromBytes(new Message(Message.MessageType.PING, null, null).toBytes());
+        assertNull(ping.getPayload());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void inventoryRoundTrip() throws Exception {
+        byte[] hash = GenesisBlock.getGenesisBlock().getBlockHash();
+        List<InventoryItem> items = List.of(
+                new InventoryItem(InventoryItem.Type.TX, hash),
+                new InventoryItem(InventoryItem.Type.BLOCK, hash));
+
+        byte[] encoded = new Message(Message.MessageType.INV, items, null).toBytes();
+        assertEquals(MessageCodec.HEADER_SIZE + 1 + 2 * 33, encoded.length);
+
+        Message decoded = Message.fromBytes(encoded);
+        assertEquals(Message.MessageType.INV, decoded.getType());
+        assertEquals(items, decoded.getPayload());
+    }
+
+    @Test
+    public void corruptedFramesAreRejected() throws Exception {
+        byte[] encoded = new Message(Message.MessageType.NEW_BLOCK, GenesisBlock.getGenesisBlock(), null).toBytes();
+
+        byte[] flipped = encoded.clone();
+        flipped[flipped.length - 1] ^= 1;
+        assertThrows(IOException.class, () -> Message.fromBytes(flipped));
+
+        byte[] badMagic = encoded.clone();
+        badMagic[0] = 0;
+        assertThrows(IOException.class, () -> Message.fromBytes(badMagic));
+
+        byte[] unknownCommand = encoded.clone();
+        unknownCommand[4] = (byte) 0xEE;
+        assertThrows(IOException.class, () -> Message.fromBytes(unknownCommand));
+    }
+
+    @Test
+    public void oversizedVarIntIsRejectedAsMalformed() {
+        // txid 길이 varint가 int를 넘침 (0x0FFFFFFFFB) -> 음수 길이가 되면 안 됨
+        byte[] payload = {(byte) 0xFB, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        byte[] checksum = Hash.HASH256(payload);
+        ByteBuffer frame = ByteBuffer.allocate(MessageCodec.HEADER_SIZE + payload.length);
+        frame.putInt(MessageCodec.MAGIC);
+        frame.put((byte) Message.MessageType.NEW_TRANSACTION.getCommand());
+        frame.putInt(payload.length);
+        frame.put(checksum, 0, 4);
+        frame.put(payload);
+
+        assertThrows(IOException.class, () -> Message.fromBytes(frame.array()));
+    }
+}
@@ -0,0 +1,219 @@
+package blockchain.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NIO 전송 계층 프레이밍 / 순서 테스트 (루프백)
+ */
+public class NioTransportTest {
+
+    private static class RecordingHandler implements NioTransport.Handler {
+        final List<Message> messages = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final CountDownLatch accepted = new CountDownLatch(1);
+
+        RecordingHandler(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onAccepted(Peer peer) {
+            accepted.countDown();
+        }
+
+        @Override
+        public void onMessage(Peer peer, Message message) {
+            messages.add(message);
+            received.countDown();
+        }
+
+        @Override
+        public void onClosed(Peer peer) {
+        }
+    }
+
+    private static List<byte[]> hashes(int tag, int count) {
+        List<byte[]> hashes = new java.util.ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] hash = new byte[32];
+            hash[0] = (byte) tag;
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void framesArriveInOrderIncludingLargeMessages() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        int count = 200;
+        RecordingHandler serverHandler = new RecordingHandler(count);
+        NioTransport server = new NioTransport(serverHandler, 2);
+        NioTransport client = new NioTransport(new RecordingHandler(0), 2);
+
+        try {
+            server.listen(port);
+
+            Peer peer = new Peer("127.0.0.1", port);
+            assertTrue(peer.connect());
+            client.register(peer);
+            assertTrue(serverHandler.accepted.await(5, TimeUnit.SECONDS));
+
+            // 풀 버퍼보다 큰 프레임(해시 10000개 = 320KB)도 섞어서 전송
+            for (int i = 0; i < count; i++) {
+                peer.sendMessage(new Message(Message.MessageType.GET_BLOCKS, hashes(i, i % 50 == 0 ? 10_000 : 1), "client"));
+            }
+
+            assertTrue(serverHandler.received.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < count; i++) {
+                List<byte[]> received = (List<byte[]>) serverHandler.messages.get(i).getPayload();
+                assertEquals(i % 50 == 0 ? 10_000 : 1, received.size());
+                assertEquals((byte) i, received.getLast()[0]);
+            }
+
+            // direct 버퍼는 셀렉터의 수신 / 송신 스테이징 버퍼 두 개뿐 (프레임 수 / 크기와 무관)
+            assertEquals(2, client.getBufferPool().getAllocatedCount());
+            peer.disconnect();
+            assertFalse(peer.isConnected());
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void slowConsumerPausesReadingAtInboxLimit() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        int count = 40;     // 320KB x 40 = 약 12.8MB (수신함 상한의 세 배 이상)
+        CountDownLatch release = new CountDownLatch(1);
+        Peer[] serverPeer = new Peer[1];
+        RecordingHandler serverHandler = new RecordingHandler(count) {
+            @Override
+            public void onAccepted(Peer peer) {
+                serverPeer[0] = peer;
+                super.onAccepted(peer);
+            }
+
+            @Override
+            public void onMessage(Peer peer, Message message) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onMessage(peer, message);
+            }
+        };
+        NioTransport server = new NioTransport(serverHandler, 2);
+        NioTransport client = new NioTransport(new RecordingHandler(0), 2);
+
+        try {
+            server.listen(port);
+
+            Peer peer = new Peer("127.0.0.1", port);
+            assertTrue(peer.connect());
+            client.register(peer);
+            assertTrue(serverHandler.accepted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < count; i++) {
+                peer.sendMessage(new Message(Message.MessageType.GET_BLOCKS, hashes(i, 10_000), "client"));
+            }
+
+            // 처리가 막힌 동안 수신함은 상한 + 프레임 하나 정도에서 멈추고 읽기가 중지됨
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!serverPeer[0].isReadPaused() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(serverPeer[0].isReadPaused());
+            Thread.sleep(200);
+            assertTrue(serverPeer[0].getInboxBytes() < Peer.MAX_INBOX_BYTES + 2 * 320 * 1024 + 64 * 1024);
+
+            // 처리가 풀리면 읽기가 재개되어 전부 순서대로 도착
+            release.countDown();
+            assertTrue(serverHandler.received.await(10, TimeUnit.SECONDS));
+            assertEquals(count, serverHandler.messages.size());
+            assertFalse(serverPeer[0].isReadPaused());
+            assertEquals(0, serverPeer[0].getInboxBytes());
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void queuedSmallFramesDoNotHoldDirectBuffers() throws Exception {
+        NioTransport transport = new NioTransport(new RecordingHandler(0), 1);
+        try {
+            transport.start();
+            // 등록하지 않은 피어 -> 셀렉터가 쓰지 않으므로 프레임이 큐에 쌓이기만 함
+            Peer peer = new Peer("127.0.0.1", 0);
+            long directBefore = directMemoryUsed();
+
+            int count = 5_000;
+            for (int i = 0; i < count; i++) {
+                byte[] txid = new byte[32];
+                txid[0] = (byte) i;
+                txid[1] = (byte) (i >> 8);
+                transport.send(peer, new Message(Message.MessageType.INV,
+                        List.of(new InventoryItem(InventoryItem.Type.TX, txid)), "client"));
+            }
+            assertEquals(count, peer.getQueuedMessages());
+            assertTrue(peer.getQueuedBytes() < count * 256L);
+
+            // 프레임마다 풀 버퍼(64KB)를 잡았다면 5000개 = 약 320MB
+            assertTrue(transport.getBufferPool().getAllocatedCount() <= 2);
+            assertTrue(directMemoryUsed() - directBefore < count * 1024L);
+        } finally {
+            transport.shutdown();
+        }
+    }
+
+    private static long directMemoryUsed() {
+        for (java.lang.management.BufferPoolMXBean pool
+                : java.lang.management.ManagementFactory.getPlatformMXBeans(java.lang.management.BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void frameBufferGrowsWithReceivedBytes() throws Exception {
+        Peer peer = new Peer("127.0.0.1", 0);
+        byte[] encoded = new Message(Message.MessageType.GET_BLOCKS, hashes(7, 10_000), "client").toBytes();
+
+        // 32MB를 선언한 헤더만 받아도 본문 전체를 미리 할당하지 않음
+        java.nio.ByteBuffer header = java.nio.ByteBuffer.wrap(java.util.Arrays.copyOf(encoded, MessageCodec.HEADER_SIZE));
+        header.putInt(MessageCodec.HEADER_SIZE - 8, MessageCodec.MAX_PAYLOAD_SIZE);
+        assertNull(peer.readFrame(header));
+        assertEquals(Peer.INITIAL_FRAME_CAPACITY, peer.getFrameCapacity());
+
+        // 정상 프레임은 조각으로 나눠 받아도 그대로 복원
+        Peer fresh = new Peer("127.0.0.1", 0);
+        byte[] frame = null;
+        for (int offset = 0; offset < encoded.length; offset += 1000) {
+            int length = Math.min(1000, encoded.length - offset);
+            frame = fresh.readFrame(java.nio.ByteBuffer.wrap(encoded, offset, length));
+            assertTrue(frame == null || offset + length == encoded.length);
+            assertTrue(fresh.getFrameCapacity() <= Math.max(Peer.INITIAL_FRAME_CAPACITY, 2 * (offset + length)));
+        }
+        assertArrayEquals(encoded, frame);
+    }
+}
@@ -0,0 +1,71 @@
+package blockchain.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 피어 송신 큐 우선순위 / 상한 테스트
+ */
+public class OutboundQueueTest {
+
+    @Test
+    public void blocksGoFirstButFrameInProgressIsFinished() {
+        OutboundQueue queue = new OutboundQueue();
+        ByteBuffer tx = ByteBuffer.allocate(10);
+        ByteBuffer block = ByteBuffer.allocate(20);
+        ByteBuffer later = ByteBuffer.allocate(30);
+
+        queue.offer(tx, OutboundQueue.Priority.LOW);
+        queue.offer(block, OutboundQueue.Priority.HIGH);
+        assertSame(block, queue.peek());
+
+        // 블록 전송 중에 다른 블록이 와도 현재 프레임을 먼저 끝냄
+        queue.offer(later, OutboundQueue.Priority.HIGH);
+        assertSame(block, queue.peek());
+        assertSame(block, queue.complete());
+        assertSame(later, queue.peek());
+        queue.complete();
+        assertSame(tx, queue.peek());
+        queue.complete();
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getQueuedBytes());
+        assertEquals(3, queue.getSentFrames());
+        assertEquals(60, queue.getPeakBytes());
+    }
+
+    @Test
+    public void overflowDropsTransactionsAndFlagsBlocks() {
+        OutboundQueue queue = new OutboundQueue();
+        int chunk = 1024 * 1024;
+
+        for (int i = 0; i < OutboundQueue.MAX_LOW_BYTES / chunk; i++) {
+            assertEquals(OutboundQueue.Result.QUEUED, queue.offer(ByteBuffer.allocate(chunk), OutboundQueue.Priority.LOW));
+        }
+        assertEquals(OutboundQueue.Result.DROPPED, queue.offer(ByteBuffer.allocate(1), OutboundQueue.Priority.LOW));
+
+        // LOW가 가득 차도 HIGH는 별도 상한
+        assertEquals(OutboundQueue.Result.QUEUED, queue.offer(ByteBuffer.allocate(chunk), OutboundQueue.Priority.HIGH));
+        assertEquals(OutboundQueue.Result.OVERFLOW,
+                queue.offer(ByteBuffer.allocate((int) OutboundQueue.MAX_HIGH_BYTES), OutboundQueue.Priority.HIGH));
+        assertEquals(2, queue.getDroppedFrames());
+
+        List<ByteBuffer> cleared = queue.clear();
+        assertEquals(OutboundQueue.MAX_LOW_BYTES / chunk + 1, cleared.size());
+        assertEquals(0, queue.getQueuedFrames());
+    }
+
+    @Test
+    public void transactionRelayIsLowPriority() {
+        byte[] hash = new byte[32];
+        assertEquals(OutboundQueue.Priority.LOW, OutboundQueue.priorityOf(new Message(Message.MessageType.INV,
+                List.of(new InventoryItem(InventoryItem.Type.TX, hash)), null)));
+        assertEquals(OutboundQueue.Priority.HIGH, OutboundQueue.priorityOf(new Message(Message.MessageType.GET_DATA,
+                List.of(new InventoryItem(InventoryItem.Type.BLOCK, hash)), null)));
+        assertEquals(OutboundQueue.Priority.HIGH, OutboundQueue.priorityOf(new Message(Message.MessageType.PING, null, null)));
+    }
+}
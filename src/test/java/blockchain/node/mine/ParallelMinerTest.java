@@ -0,0 +1,110 @@
+package blockchain.node.mine;
+
+import blockchain.block.Block;
+import blockchain.block.GenesisBlock;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 멀티 스레드 마이너 테스트
+ */
+public class ParallelMinerTest {
+
+    @Test
+    public void minedBlockSatisfiesDifficulty() throws Exception {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        Block block = new Block(genesis.getBlockHash(), genesis.getTransactions(), new byte[]{0, 0, 0, 1});
+
+        ParallelMiner miner = new ParallelMiner(4);
+        try {
+            assertTrue(miner.mine(block, 3));
+        } finally {
+            miner.shutdown();
+        }
+
+        assertTrue(ProofOfWork.validateProofOfWork(block, 3));
+        assertArrayEquals(block.calculateBlockHash(), block.getBlockHash());
+        assertEquals(4, miner.getThreadHashrates().length);
+        assertTrue(miner.getTotalHashrate() > 0);
+    }
+
+    @Test
+    public void blockWithBitsIsMinedToItsOwnTarget() throws Exception {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        int bits = ProofOfWork.bitsForDifficulty(3);
+        Block block = new Block(genesis.getBlockHash(), genesis.getTransactions(),
+                new byte[]{0, 0, 0, Block.BITS_VERSION}, System.currentTimeMillis(), bits);
+
+        ParallelMiner miner = new ParallelMiner(2);
+        try {
+            assertTrue(miner.mine(block));
+        } finally {
+            miner.shutdown();
+        }
+
+        assertEquals(Block.HEADER_SIZE, block.getHeaderBytes().length);
+        assertTrue(ProofOfWork.checkProofOfWork(block));
+
+        // 체인이 요구하는 bits와 다르면 선언한 타겟을 만족해도 거부
+        assertTrue(ProofOfWork.checkProofOfWork(block, 1, bits));
+        assertFalse(ProofOfWork.checkProofOfWork(block, 1, ProofOfWork.bitsForDifficulty(1)));
+
+        // bits가 헤더에 포함되므로 bits를 바꾸면 해시도 달라짐
+        assertFalse(java.util.Arrays.equals(block.getBlockHash(), util.Hash.HASH256(
+                Block.serializeHeader(block.getVersion(), block.getPrevHash(), block.getMerkleRoot(),
+                        block.getTimestamp(), bits + 1, block.getNonce()))));
+    }
+
+    @Test
+    public void legacyBlockWithoutBitsIsOnlyAcceptedAtGenesis() {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        Block legacy = new Block(genesis.getBlockHash(), genesis.getTransactions(), new byte[]{0, 0, 0, 1});
+
+        assertTrue(ProofOfWork.checkProofOfWork(genesis, 0, ProofOfWork.INITIAL_BITS));
+        assertFalse(ProofOfWork.checkProofOfWork(legacy, 1, ProofOfWork.INITIAL_BITS));
+        assertFalse(ProofOfWork.checkProofOfWork(legacy));
+    }
+
+    @Test
+    public void compactBitsRoundTripAndWork() {
+        for (int difficulty = 1; difficulty <= 6; difficulty++) {
+            int bits = ProofOfWork.bitsForDifficulty(difficulty);
+            assertEquals(bits, ProofOfWork.encodeCompact(ProofOfWork.decodeCompact(bits)));
+        }
+
+        // 난이도가 높을수록 타겟은 작고 작업량은 큼
+        assertTrue(ProofOfWork.getWork(ProofOfWork.bitsForDifficulty(4))
+                .compareTo(ProofOfWork.getWork(ProofOfWork.bitsForDifficulty(3))) > 0);
+        assertEquals(java.math.BigInteger.ONE, ProofOfWork.getWork(0));
+
+        // 부호 비트가 켜진 bits는 무효
+        assertEquals(java.math.BigInteger.ZERO, ProofOfWork.decodeCompact(0x1d800000));
+    }
+
+    @Test
+    public void midstateHashMatchesFullHeaderHash() {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        Block block = new Block(genesis.getBlockHash(), genesis.getTransactions(), new byte[]{0, 0, 0, 1});
+        MiningHasher hasher = new MiningHasher(block.getHeaderBytes());
+
+        for (int nonce : new int[]{0, 1, 0x7fffffff, -1, 123456789}) {
+            block.setNonce(util.BytesUtil.intToBytes(nonce, 4));
+            assertArrayEquals(block.getBlockHash(), hasher.hash(nonce));
+        }
+    }
+
+    @Test
+    public void meetsDifficultyMatchesHexComparison() {
+        byte[] hash = new byte[32];
+        hash[1] = 0x0a;     // 000a...
+        assertTrue(ProofOfWork.meetsDifficulty(hash, 3));
+        assertFalse(ProofOfWork.meetsDifficulty(hash, 4));
+
+        // 0 다음이 전부 f이면 타겟 문자열과 같으므로 불충족
+        byte[] allF = new byte[32];
+        java.util.Arrays.fill(allF, (byte) 0xff);
+        allF[0] = 0x0f;
+        assertFalse(ProofOfWork.meetsDifficulty(allF, 1));
+    }
+}
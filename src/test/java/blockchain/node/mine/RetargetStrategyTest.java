@@ -0,0 +1,80 @@
+package blockchain.node.mine;
+
+import blockchain.block.BlockHeader;
+import blockchain.block.HeaderChain;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 헤더 체인 기반 난이도 조정 테스트
+ */
+public class RetargetStrategyTest {
+
+    private static final int BITS = ProofOfWork.bitsForDifficulty(3);
+
+    private static HeaderChain chainWithSpacing(int length, long spacing) {
+        HeaderChain chain = new HeaderChain();
+        for (int height = 0; height < length; height++) {
+            chain.add(new BlockHeader(height, new byte[]{0, 0, 0, 2}, new byte[32], new byte[32],
+                    1_000_000L + height * spacing, new byte[4], new byte[32], 1, 0, BITS, BigInteger.valueOf(height + 1)));
+        }
+        return chain;
+    }
+
+    @Test
+    public void intervalRetargetOnlyAdjustsAtBoundary() {
+        IntervalRetarget retarget = new IntervalRetarget(10, 600);
+
+        // 조정 주기가 아니면 그대로
+        assertEquals(BITS, retarget.getNextBits(chainWithSpacing(9, 10)));
+
+        // 너무 빠르면 타겟 1/16, 너무 느리면 16배
+        BigInteger target = ProofOfWork.decodeCompact(BITS);
+        int faster = retarget.getNextBits(chainWithSpacing(10, 10));
+        int slower = retarget.getNextBits(chainWithSpacing(10, 6000));
+        assertEquals(ProofOfWork.encodeCompact(target.divide(BigInteger.valueOf(16))), faster);
+        assertEquals(ProofOfWork.encodeCompact(target.multiply(BigInteger.valueOf(16))), slower);
+
+        // 목표 시간 근처면 유지
+        assertEquals(BITS, retarget.getNextBits(chainWithSpacing(10, 600)));
+    }
+
+    @Test
+    public void adjustedTargetCarriesForwardFromChain() {
+        IntervalRetarget retarget = new IntervalRetarget(10, 600);
+        HeaderChain chain = chainWithSpacing(10, 10);
+        int faster = retarget.getNextBits(chain);
+        chain.add(new BlockHeader(10, new byte[]{0, 0, 0, 2}, new byte[32], new byte[32],
+                1_000_100L, new byte[4], new byte[32], 1, 0, faster, BigInteger.valueOf(11)));
+
+        // 조정 이후 높이에서는 tip의 bits를 그대로 이어감 (마이너 상태와 무관)
+        assertEquals(faster, retarget.getNextBits(chain));
+
+        // bits가 없는 제네시스 다음은 초기 타겟
+        HeaderChain legacy = new HeaderChain();
+        legacy.add(new BlockHeader(0, new byte[]{0, 0, 0, 1}, new byte[32], new byte[32],
+                1_000_000L, new byte[4], new byte[32], 1, 0, 0, BigInteger.ONE));
+        assertEquals(ProofOfWork.INITIAL_BITS, retarget.getNextBits(legacy));
+    }
+
+    @Test
+    public void lwmaTracksSolveTime() {
+        LwmaRetarget retarget = new LwmaRetarget(5, 600);
+        BigInteger target = ProofOfWork.decodeCompact(BITS);
+
+        // 이력이 부족하면 그대로
+        assertEquals(BITS, retarget.getNextBits(chainWithSpacing(5, 600)));
+
+        // 목표 시간과 같으면 타겟 유지, 두 배 빠르면 타겟 절반
+        assertEquals(target, ProofOfWork.decodeCompact(retarget.getNextBits(chainWithSpacing(6, 600))));
+        BigInteger halved = ProofOfWork.decodeCompact(retarget.getNextBits(chainWithSpacing(6, 300)));
+        assertTrue(halved.subtract(target.shiftRight(1)).abs().compareTo(target.shiftRight(16)) < 0);
+
+        // 느려져도 POW_LIMIT을 넘지 않음
+        int easiest = retarget.getNextBits(chainWithSpacing(6, 1_000_000));
+        assertTrue(ProofOfWork.decodeCompact(easiest).compareTo(ProofOfWork.POW_LIMIT) <= 0);
+    }
+}
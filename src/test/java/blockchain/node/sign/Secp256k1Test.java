@@ -0,0 +1,48 @@
+package blockchain.node.sign;
+
+import blockchain.node.script.Operation;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.junit.jupiter.api.Test;
+import util.Hash;
+import util.KeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * secp256k1 공용 컨텍스트 / 공개키 캐시 테스트
+ */
+public class Secp256k1Test {
+
+    @Test
+    public void cachedPublicKeyIsReused() throws Exception {
+        byte[] privateKey = KeyGenerator.generateBySHA256();
+        byte[] publicKey = KeyGenerator.getCompressedPublicKey(privateKey);
+
+        ECPublicKeyParameters first = Secp256k1.publicKey(publicKey);
+        ECPublicKeyParameters second = Secp256k1.publicKey(publicKey.clone());
+
+        assertSame(first, second);
+        assertArrayEquals(publicKey, first.getQ().getEncoded(true));
+    }
+
+    @Test
+    public void signatureVerifiesWithCachedKey() throws Exception {
+        byte[] privateKey = KeyGenerator.generateBySHA256();
+        byte[] publicKey = KeyGenerator.getCompressedPublicKey(privateKey);
+        byte[] messageHash = Hash.HASH256("message".getBytes());
+
+        byte[] signature = Signature.sign(privateKey, messageHash);
+
+        // 잠금 스크립트를 공개키 자체로 두어 OP_EQUALVERIFY를 통과시키고 OP_CHECKSIG만 검사
+        List<byte[]> unlock = new ArrayList<>();
+        unlock.add(signature);
+        unlock.add(publicKey);
+        assertTrue(new Operation(unlock, publicKey, messageHash).execute());
+
+        byte[] otherHash = Hash.HASH256("other".getBytes());
+        assertFalse(new Operation(unlock, publicKey, otherHash).execute());
+    }
+}
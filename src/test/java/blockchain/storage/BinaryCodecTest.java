@@ -0,0 +1,126 @@
+package blockchain.storage;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.block.GenesisBlock;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.UTXO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 바이너리 코덱 왕복(encode -> decode) 테스트
+ */
+public class BinaryCodecTest {
+
+    @Test
+    public void blockRoundTrip() {
+        Block genesis = GenesisBlock.getGenesisBlock();
+
+        byte[] encoded = BinaryCodec.encodeBlock(genesis);
+        Block decoded = BinaryCodec.decodeBlock(ByteBuffer.wrap(encoded));
+
+        assertEquals(BinaryCodec.FORMAT_VERSION, encoded[0]);
+        assertFalse(BinaryCodec.isLegacyJson(encoded));
+        assertArrayEquals(genesis.getBlockHash(), decoded.getBlockHash());
+        assertArrayEquals(genesis.getPrevHash(), decoded.getPrevHash());
+        assertArrayEquals(genesis.getMerkleRoot(), decoded.getMerkleRoot());
+        assertEquals(genesis.getTimestamp(), decoded.getTimestamp());
+        assertEquals(genesis.getTxNum(), decoded.getTxNum());
+        assertEquals(genesis.getSize(), decoded.getSize());
+
+        // 역직렬화된 블록의 헤더 해시가 원본과 같아야 함
+        assertArrayEquals(genesis.getBlockHash(), decoded.calculateBlockHash());
+
+        Transaction original = genesis.getTransactions().getFirst();
+        Transaction restored = decoded.getTransactions().getFirst();
+        assertArrayEquals(original.getTxid(), restored.getTxid());
+        assertEquals(original.getContract(), restored.getContract());
+        assertArrayEquals(original.toBytes(), restored.toBytes());
+        assertTrue(restored.getInputs().getFirst().getIsCoinbase());
+    }
+
+    @Test
+    public void headerRoundTrip() {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        BlockHeader header = new BlockHeader(genesis, 0);
+
+        BlockHeader decoded = BinaryCodec.decodeHeader(ByteBuffer.wrap(BinaryCodec.encodeHeader(header)));
+
+        assertEquals(0, decoded.getHeight());
+        assertArrayEquals(header.getBlockHash(), decoded.getBlockHash());
+        assertArrayEquals(header.getNonce(), decoded.getNonce());
+        assertEquals(header.getTxNum(), decoded.getTxNum());
+    }
+
+    @Test
+    public void headerRoundTripPreservesBitsAndChainWork() {
+        Block genesis = GenesisBlock.getGenesisBlock();
+        Block block = new Block(genesis.getBlockHash(), genesis.getTransactions(),
+                new byte[]{0, 0, 0, Block.BITS_VERSION}, 1234L, 0x1f0fffff);
+        BlockHeader header = new BlockHeader(block, 1, new java.math.BigInteger("123456789012345678901234567890"));
+
+        BlockHeader decoded = BinaryCodec.decodeHeader(ByteBuffer.wrap(BinaryCodec.encodeHeader(header)));
+        Block decodedBlock = BinaryCodec.decodeBlock(ByteBuffer.wrap(BinaryCodec.encodeBlock(block)));
+
+        assertEquals(0x1f0fffff, decoded.getBits());
+        assertEquals(header.getChainWork(), decoded.getChainWork());
+        assertArrayEquals(block.getBlockHash(), decoded.calculateBlockHash());
+        assertEquals(0x1f0fffff, decodedBlock.getBits());
+        assertArrayEquals(block.getBlockHash(), decodedBlock.calculateBlockHash());
+    }
+
+    @Test
+    public void transactionRoundTripPreservesNullableFields() throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[]{0x30, 0x02, 0x01});
+        sigScript.add(new byte[33]);
+
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "sender", 1000L, new byte[20], sigScript, 1, new byte[32]));
+
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("recipient".getBytes(), new byte[20], 900L));
+
+        Transaction tx = new Transaction(inputs, outputs);
+        tx.setFee(100L);
+
+        Transaction decoded = BinaryCodec.decodeTransaction(ByteBuffer.wrap(BinaryCodec.encodeTransaction(tx)));
+
+        assertArrayEquals(tx.getTxid(), decoded.getTxid());
+        assertEquals(100L, decoded.getFee());
+        assertEquals(tx.getTime(), decoded.getTime());
+        assertNull(decoded.getContract());
+        assertNull(decoded.getBlock());
+        assertFalse(decoded.getInputs().getFirst().getIsCoinbase());
+        assertEquals("sender", decoded.getInputs().getFirst().getAddress());
+        assertEquals(900L, decoded.getOutputs().getFirst().getValue());
+        assertArrayEquals(tx.toBytes(), decoded.toBytes());
+    }
+
+    @Test
+    public void utxoRoundTrip() {
+        TransactionOutput output = new TransactionOutput("owner".getBytes(), new byte[20], 5000L);
+        UTXO utxo = new UTXO(new byte[32], 3, output, 42L);
+
+        UTXO decoded = BinaryCodec.decodeUTXO(ByteBuffer.wrap(BinaryCodec.encodeUTXO(utxo)));
+
+        assertEquals(utxo, decoded);
+        assertEquals(42L, decoded.getBlockHeight());
+        assertEquals(5000L, decoded.getValue());
+        assertArrayEquals("owner".getBytes(), decoded.getAddress());
+    }
+
+    @Test
+    public void legacyJsonIsDetected() {
+        assertTrue(BinaryCodec.isLegacyJson("{\"txid\":\"\"}".getBytes()));
+        assertFalse(BinaryCodec.isLegacyJson(new byte[]{BinaryCodec.FORMAT_VERSION}));
+    }
+}
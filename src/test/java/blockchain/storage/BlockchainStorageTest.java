@@ -0,0 +1,450 @@
+package blockchain.storage;
+
+import blockchain.block.Block;
+import blockchain.block.BlockHeader;
+import blockchain.block.GenesisBlock;
+import blockchain.node.Node;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.UTXO;
+import blockchain.utxo.UTXOSet;
+import blockchain.utxo.UTXOView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RocksDB 저장소 테스트 (임시 디렉토리에 저장 후 다시 열어서 확인)
+ */
+public class BlockchainStorageTest {
+
+    @Test
+    public void heightIndexLoadsHeadersInHeightOrderAfterReopen() throws Exception {
+        Path dir = Files.createTempDirectory("storage-heights");
+        try {
+            // 타임스탬프가 높이와 반대로 가도록 (정렬이 아니라 높이 키 순서로 읽는지 확인)
+            // 256 이상 높이를 포함해 빅 엔디언 키가 바이트 경계를 넘어도 순서가 유지되는지 확인
+            List<Block> chain = chain(GenesisBlock.getGenesisBlock(), 0, 300, 1);
+            List<BlockHeader> headers = new ArrayList<>();
+
+            BlockchainStorage storage = new BlockchainStorage(dir.toString());
+            try {
+                for (int height = 0; height < chain.size(); height++) {
+                    BlockHeader header = header(chain.get(height), height, headers, 1);
+                    storage.commitBlock(chain.get(height), header, List.of());
+                    headers.add(header);
+                }
+            } finally {
+                storage.close();
+            }
+
+            BlockchainStorage reopened = new BlockchainStorage(dir.toString());
+            try {
+                List<BlockHeader> loaded = reopened.loadHeaders();
+                assertEquals(chain.size(), loaded.size());
+                for (int height = 0; height < chain.size(); height++) {
+                    assertEquals(height, loaded.get(height).getHeight());
+                    assertArrayEquals(chain.get(height).getBlockHash(), loaded.get(height).getBlockHash());
+                }
+                assertEquals(headers.getLast().getChainWork(), loaded.getLast().getChainWork());
+
+                assertEquals(299, reopened.getTipHeader().getHeight());
+                assertEquals(300, reopened.getChainHeight());
+                assertArrayEquals(chain.get(256).getBlockHash(), reopened.getBlockHashAtHeight(256));
+                assertArrayEquals(chain.get(255).getBlockHash(), reopened.getBlockAtHeight(255).getBlockHash());
+
+                List<BlockHeader> range = reopened.loadHeaders(250, 260);
+                assertEquals(10, range.size());
+                assertEquals(250, range.getFirst().getHeight());
+                assertEquals(259, range.getLast().getHeight());
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void blockAndReorgCommitsKeepTipHeightsUtxosAndUndoConsistentAfterReopen() throws Exception {
+        Path dir = Files.createTempDirectory("storage-reorg");
+        try {
+            // 기존 체인: 제네시스 - a1 - a2(a1 코인베이스 사용) - a3 - a4
+            List<Block> main = chain(GenesisBlock.getGenesisBlock(), 0, 2, 1);
+            Transaction spend = spend(main.get(1).getTransactions().getFirst(), 5_001L);
+            main.add(new Block(main.get(1).getBlockHash(), List.of(coinbase(1, 2), spend),
+                    new byte[]{0, 0, 0, Block.BITS_VERSION}, 2_000_000_000L - 2, 0));
+            main.addAll(chain(main.getLast(), 2, 3, 1).subList(1, 3));
+
+            // 새 체인: a1에서 분기한 b2 - b3 (더 짧지만 작업량이 더 큼)
+            List<Block> fork = chain(main.get(1), 1, 3, 2);
+            fork.removeFirst();
+
+            UTXOSet utxoSet = new UTXOSet();
+            List<BlockHeader> headers = new ArrayList<>();
+            List<BlockHeader> forkHeaders = new ArrayList<>();
+            BlockchainStorage storage = new BlockchainStorage(dir.toString());
+            try {
+                for (int height = 0; height < main.size(); height++) {
+                    Block block = main.get(height);
+                    UTXOView view = new UTXOView(utxoSet);
+                    List<UTXO> spent = view.connectBlock(block, height);
+                    utxoSet.applyView(view);
+
+                    BlockHeader header = header(block, height, headers, 1);
+                    storage.commitBlock(block, header, spent);
+                    headers.add(header);
+                }
+                assertEquals(1, storage.getUndo(main.get(2).getBlockHash()).size());
+
+                // 노드와 같은 방식: 저장된 되돌리기 데이터로 a4..a2 해제 후 b2, b3 연결
+                UTXOView view = new UTXOView(utxoSet);
+                for (int height = main.size() - 1; height > 1; height--) {
+                    Block block = main.get(height);
+                    view.disconnectBlock(block, storage.getUndo(block.getBlockHash()));
+                }
+                forkHeaders.addAll(headers.subList(0, 2));
+                List<List<UTXO>> undo = new ArrayList<>();
+                for (int i = 0; i < fork.size(); i++) {
+                    int height = 2 + i;
+                    undo.add(view.connectBlock(fork.get(i), height));
+                    forkHeaders.add(header(fork.get(i), height, forkHeaders, 10));
+                }
+                storage.commitReorg(fork, forkHeaders.subList(2, forkHeaders.size()), undo, view);
+                utxoSet.applyView(view);
+            } finally {
+                storage.close();
+            }
+
+            BlockchainStorage reopened = new BlockchainStorage(dir.toString());
+            try {
+                // 높이 인덱스 / tip: 분기점 이후는 새 체인, 새 tip보다 높은 기존 높이는 제거됨
+                List<BlockHeader> loaded = reopened.loadHeaders();
+                assertEquals(4, loaded.size());
+                assertArrayEquals(main.get(1).getBlockHash(), loaded.get(1).getBlockHash());
+                assertArrayEquals(fork.get(0).getBlockHash(), loaded.get(2).getBlockHash());
+                assertArrayEquals(fork.get(1).getBlockHash(), loaded.get(3).getBlockHash());
+                assertNull(reopened.getBlockHashAtHeight(4));
+                assertEquals(4, reopened.getChainHeight());
+                assertArrayEquals(fork.getLast().getBlockHash(), reopened.getBestBlockHash());
+                assertArrayEquals(fork.getLast().getBlockHash(), reopened.getUTXOTipHash());
+                assertEquals(forkHeaders.getLast().getChainWork(), reopened.getTipHeader().getChainWork());
+
+                // UTXO: 메모리에서 같은 순서로 적용한 결과와 동일
+                Set<String> stored = new HashSet<>();
+                reopened.forEachUTXO(utxo -> stored.add(utxo.getKey()));
+                assertEquals(utxoKeys(utxoSet.getAllUTXOs()), stored);
+                assertEquals(4, stored.size());
+
+                // a2가 사용한 a1 코인베이스 출력은 복원, 빠진 블록의 출력은 제거
+                byte[] a1Coinbase = main.get(1).getTransactions().getFirst().getTxid();
+                assertNotNull(reopened.getUTXO(a1Coinbase, 0));
+                assertNull(reopened.getUTXO(spend.getTxid(), 0));
+                assertNull(reopened.getUTXO(main.get(3).getTransactions().getFirst().getTxid(), 0));
+
+                // 새 블록의 되돌리기 데이터도 같은 배치에 기록됨
+                assertEquals(List.of(), reopened.getUndo(fork.get(0).getBlockHash()));
+                assertNotNull(reopened.getBlock(fork.getLast().getBlockHash()));
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void legacyPerColumnJsonDatabasesAreImportedAndMigrated() throws Exception {
+        Path dir = Files.createTempDirectory("storage-legacy");
+        try {
+            // 이전 버전 저장소: dbPath 아래 컬럼별 RocksDB, JSON 레코드, 높이 인덱스 없음
+            List<Block> chain = chain(GenesisBlock.getGenesisBlock(), 0, 3, 1);
+            ObjectMapper mapper = new ObjectMapper();
+            try (Options options = new Options().setCreateIfMissing(true);
+                 RocksDB blocks = RocksDB.open(options, dir.resolve("blocks").toString());
+                 RocksDB transactions = RocksDB.open(options, dir.resolve("transactions").toString());
+                 RocksDB meta = RocksDB.open(options, dir.resolve("meta").toString())) {
+                for (Block block : chain) {
+                    blocks.put(block.getBlockHash(), legacyJson(mapper, block));
+                    for (Transaction tx : block.getTransactions()) {
+                        transactions.put(tx.getTxid(), mapper.writeValueAsBytes(tx));
+                    }
+                }
+                meta.put("best_block_hash".getBytes(StandardCharsets.UTF_8), chain.getLast().getBlockHash());
+            }
+
+            BlockchainStorage storage = new BlockchainStorage(dir.toString());
+            try {
+                List<BlockHeader> loaded = storage.loadHeaders();
+                assertEquals(3, loaded.size());
+                for (int height = 0; height < chain.size(); height++) {
+                    assertArrayEquals(chain.get(height).getBlockHash(), loaded.get(height).getBlockHash());
+                }
+                assertArrayEquals(chain.getLast().getBlockHash(), storage.getTipHeader().getBlockHash());
+            } finally {
+                storage.close();
+            }
+
+            // 통합 DB에는 바이너리 레코드만 남음
+            Path chainData = dir.resolve("chaindata");
+            List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+            try (Options options = new Options()) {
+                for (byte[] name : RocksDB.listColumnFamilies(options, chainData.toString())) {
+                    descriptors.add(new ColumnFamilyDescriptor(name));
+                }
+            }
+            List<ColumnFamilyHandle> handles = new ArrayList<>();
+            try (DBOptions options = new DBOptions();
+                 RocksDB db = RocksDB.open(options, chainData.toString(), descriptors, handles)) {
+                int records = 0;
+                for (ColumnFamilyHandle handle : handles) {
+                    String name = new String(handle.getName(), StandardCharsets.UTF_8);
+                    if (!name.equals("blocks") && !name.equals("transactions")) {
+                        continue;
+                    }
+                    try (RocksIterator iterator = db.newIterator(handle)) {
+                        for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                            assertFalse(BinaryCodec.isLegacyJson(iterator.value()));
+                            records++;
+                        }
+                    }
+                }
+                assertEquals(6, records);
+                handles.forEach(ColumnFamilyHandle::close);
+            }
+
+            // 다시 열 때는 가져오기 / 변환 없이 같은 체인
+            BlockchainStorage reopened = new BlockchainStorage(dir.toString());
+            try {
+                assertEquals(3, reopened.loadHeaders().size());
+                Transaction coinbase = chain.get(2).getTransactions().getFirst();
+                assertArrayEquals(coinbase.getTxid(), reopened.getTransaction(coinbase.getTxid()).getTxid());
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void legacyStoreWithoutBestBlockIndexesMostWorkChainOnly() throws Exception {
+        Path dir = Files.createTempDirectory("storage-most-work");
+        Path tiedDir = Files.createTempDirectory("storage-tied-tips");
+        try {
+            // 메인 체인 제네시스 - a1 - a2 - a3, 제네시스에서 갈라진 b1 - b2 (b가 더 최근 타임스탬프)
+            List<Block> main = chain(GenesisBlock.getGenesisBlock(), 0, 4, 1);
+            byte[] version = new byte[]{0, 0, 0, Block.BITS_VERSION};
+            Block b1 = new Block(main.getFirst().getBlockHash(), List.of(coinbase(2, 1)), version, 2_100_000_000L, 0);
+            Block b2 = new Block(b1.getBlockHash(), List.of(coinbase(2, 2)), version, 2_100_000_001L, 0);
+            List<Block> fork = List.of(b1, b2);
+
+            List<Block> stored = new ArrayList<>(main);
+            stored.addAll(fork);
+            writeLegacyBlocks(dir, stored);
+
+            BlockchainStorage storage = new BlockchainStorage(dir.toString());
+            try {
+                List<BlockHeader> loaded = storage.loadHeaders();
+                assertEquals(main.size(), loaded.size());
+                for (int height = 0; height < main.size(); height++) {
+                    assertArrayEquals(main.get(height).getBlockHash(), loaded.get(height).getBlockHash());
+                }
+                assertArrayEquals(main.getLast().getBlockHash(), storage.getBestBlockHash());
+                assertEquals(main.size(), storage.getChainHeight());
+            } finally {
+                storage.close();
+            }
+
+            // 작업량이 같은 tip이 둘이면 추측하지 않고 실패
+            List<Block> tied = new ArrayList<>(chain(GenesisBlock.getGenesisBlock(), 0, 3, 1));
+            tied.addAll(chain(GenesisBlock.getGenesisBlock(), 0, 3, 2).subList(1, 3));
+            writeLegacyBlocks(tiedDir, tied);
+
+            BlockchainStorage ambiguous = new BlockchainStorage(tiedDir.toString());
+            try {
+                assertThrows(IllegalStateException.class, ambiguous::loadHeaders);
+                assertNull(ambiguous.getBlockHashAtHeight(0));
+            } finally {
+                ambiguous.close();
+            }
+        } finally {
+            deleteRecursively(dir);
+            deleteRecursively(tiedDir);
+        }
+    }
+
+    @Test
+    public void staleUtxoTipIsRebuiltFromBlocksOnStartup() throws Exception {
+        Path dir = Files.createTempDirectory("storage-utxo-tip");
+        try {
+            // 제네시스만 있는 저장소
+            new Node(dir.toString()).shutdown();
+
+            Block genesis = GenesisBlock.getGenesisBlock();
+            List<Block> chain = chain(genesis, 0, 4, 1);
+            UTXOSet expected = new UTXOSet();
+            expected.updateWithBlock(genesis, 0);
+
+            BlockchainStorage storage = new BlockchainStorage(dir.toString());
+            try {
+                List<BlockHeader> headers = new ArrayList<>(storage.loadHeaders());
+                for (int height = 1; height < chain.size(); height++) {
+                    BlockHeader header = header(chain.get(height), height, headers, 1);
+                    storage.commitBlock(chain.get(height), header, List.of());
+                    headers.add(header);
+                    expected.updateWithBlock(chain.get(height), height);
+                }
+
+                // UTXO 컬럼 패밀리가 제네시스 이전 상태로 남은 저장소 (체인 tip과 utxo_tip 불일치)
+                storage.rebuildUTXOs(List.of(), genesis.getBlockHash());
+            } finally {
+                storage.close();
+            }
+
+            Node node = new Node(dir.toString());
+            try {
+                assertEquals(4, node.getChainLength());
+                assertEquals(utxoKeys(expected.getAllUTXOs()), utxoKeys(node.getUtxoSet().getAllUTXOs()));
+            } finally {
+                node.shutdown();
+            }
+
+            // 재구축한 UTXO 세트와 tip이 저장되어 다음 시작부터는 그대로 읽음
+            BlockchainStorage reopened = new BlockchainStorage(dir.toString());
+            try {
+                assertArrayEquals(chain.getLast().getBlockHash(), reopened.getUTXOTipHash());
+                assertEquals(utxoKeys(expected.getAllUTXOs()), utxoKeys(reopened.getAllUTXOs()));
+            } finally {
+                reopened.close();
+            }
+
+            Node restarted = new Node(dir.toString());
+            try {
+                assertEquals(utxoKeys(expected.getAllUTXOs()), utxoKeys(restarted.getUtxoSet().getAllUTXOs()));
+            } finally {
+                restarted.shutdown();
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    // ========== 헬퍼 ==========
+
+    /**
+     * parent 위에 코인베이스만 있는 블록 count개 (parent 포함)
+     * 타임스탬프는 높이가 오를수록 줄어듦
+     * @param parentHeight parent의 높이 (코인베이스에 높이를 넣어 txid가 겹치지 않게)
+     * @param tag 분기를 구분하는 값 (코인베이스 출력에 반영)
+     */
+    private static List<Block> chain(Block parent, int parentHeight, int count, int tag) throws Exception {
+        List<Block> chain = new ArrayList<>();
+        chain.add(parent);
+        for (int i = 1; i < count; i++) {
+            Block prev = chain.getLast();
+            int height = parentHeight + i;
+            chain.add(new Block(prev.getBlockHash(), List.of(coinbase(tag, height)), new byte[]{0, 0, 0, Block.BITS_VERSION},
+                    2_000_000_000L - height, 0));
+        }
+        return chain;
+    }
+
+    private static Transaction coinbase(int tag, int height) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(("height " + height + " tag " + tag).getBytes());
+        sigScript.add(new byte[0]);
+
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(true, "coinbase", 0L, new byte[0], sigScript, -1, new byte[32]));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput(("miner" + tag).getBytes(), new byte[0], 5_000L + height));
+        return new Transaction(inputs, outputs);
+    }
+
+    /**
+     * prev의 첫 번째 출력을 bob에게 보내는 트랜잭션 (저장소는 서명을 검증하지 않음)
+     */
+    private static Transaction spend(Transaction prev, long value) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "miner1", value, new byte[20], sigScript, 0, prev.getTxid()));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("bob".getBytes(), new byte[0], value));
+        return new Transaction(inputs, outputs);
+    }
+
+    /**
+     * 누적 작업량을 채운 헤더 (이전 헤더 + 블록당 work)
+     */
+    private static BlockHeader header(Block block, int height, List<BlockHeader> previous, long work) {
+        BigInteger chainWork = BigInteger.valueOf(work);
+        if (!previous.isEmpty()) {
+            chainWork = chainWork.add(previous.getLast().getChainWork());
+        }
+        return new BlockHeader(block, height, chainWork);
+    }
+
+    private static Set<String> utxoKeys(Collection<UTXO> utxos) {
+        Set<String> keys = new HashSet<>();
+        for (UTXO utxo : utxos) {
+            keys.add(utxo.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * 이전 버전 컬럼별 blocks DB만 있는 저장소 (best block / 높이 인덱스 없음)
+     */
+    private static void writeLegacyBlocks(Path dir, List<Block> blocks) throws Exception {
+        try (Options options = new Options().setCreateIfMissing(true);
+             RocksDB legacy = RocksDB.open(options, dir.resolve("blocks").toString())) {
+            for (Block block : blocks) {
+                legacy.put(block.getBlockHash(), BinaryCodec.encodeBlock(block));
+            }
+        }
+    }
+
+    /**
+     * 이전 버전이 기록한 형태의 블록 JSON
+     * (당시에는 getHeaderBytes가 공개되지 않아 headerBytes 필드가 없음)
+     */
+    private static byte[] legacyJson(ObjectMapper mapper, Block block) throws IOException {
+        ObjectNode node = mapper.valueToTree(block);
+        node.remove("headerBytes");
+        return mapper.writeValueAsBytes(node);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package blockchain.storage;
+
+import blockchain.transaction.Mempool;
+import blockchain.transaction.MempoolEntry;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.UTXO;
+import blockchain.utxo.UTXOSet;
+import blockchain.validation.TransactionValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 메모리 풀 스냅샷 저장 / 복원 테스트
+ */
+public class MempoolSnapshotTest {
+
+    private static final byte[] FUNDING_TXID = new byte[32];
+
+    static {
+        FUNDING_TXID[0] = 7;
+    }
+
+    @Test
+    public void restoredPoolKeepsArrivalTimesFeesAndParentLinks() throws Exception {
+        Path dir = Files.createTempDirectory("mempool-snapshot");
+        Path file = dir.resolve(MempoolSnapshot.FILE_NAME);
+        try {
+            TransactionValidator validator = validator(2);
+            Mempool mempool = new Mempool(validator);
+            Transaction parent = spend(FUNDING_TXID, 0, 10_000L, 100);
+            Transaction child = spend(parent.getTxid(), 0, 10_000L - 100, 400);
+            Transaction spent = spend(FUNDING_TXID, 1, 10_000L, 200);
+            long now = System.currentTimeMillis();
+            assertTrue(mempool.addTransaction(parent, now - 2_000));
+            assertTrue(mempool.addTransaction(child, now - 1_000));
+            assertTrue(mempool.addTransaction(spent, now));
+
+            assertEquals(3, new MempoolSnapshot(mempool, validator, file).save());
+
+            // 재시작 사이에 spent의 입력이 블록에서 사용됨 -> 복원 시 재검증에서 탈락
+            TransactionValidator restartedValidator = validator(1);
+            Mempool restarted = new Mempool(restartedValidator);
+            assertEquals(2, new MempoolSnapshot(restarted, restartedValidator, file).load());
+
+            MempoolEntry restoredChild = restarted.getEntry(hex(child.getTxid()));
+            assertNotNull(restoredChild);
+            assertEquals(now - 1_000, restoredChild.getTime());
+            assertEquals(400, restoredChild.getFee());
+            assertEquals(2, restoredChild.getAncestorCount());
+            assertFalse(restarted.containsTransaction(hex(spent.getTxid())));
+
+            // 잘린 파일은 읽은 데까지만 복원 (부모 -> 자식 순이므로 마지막 항목은 child)
+            byte[] data = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(data, data.length - 10));
+            Mempool truncated = new Mempool(restartedValidator);
+            assertEquals(1, new MempoolSnapshot(truncated, restartedValidator, file).load());
+            assertTrue(truncated.containsTransaction(hex(parent.getTxid())));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private TransactionValidator validator(int outputs) {
+        UTXOSet utxoSet = new UTXOSet();
+        // 빈 잠금 스크립트 -> 서명 검증 단계는 건너뜀
+        for (int i = 0; i < outputs; i++) {
+            utxoSet.addUTXO(new UTXO(FUNDING_TXID, i, new TransactionOutput("alice".getBytes(), new byte[0], 10_000L), 1));
+        }
+        return new TransactionValidator(utxoSet);
+    }
+
+    private Transaction spend(byte[] prevTxid, int outputIdx, long inputValue, long fee) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "alice", inputValue, new byte[20], sigScript, outputIdx, prevTxid));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("bob".getBytes(), new byte[0], inputValue - fee));
+        Transaction tx = new Transaction(inputs, outputs);
+        tx.setFee(fee);
+        return tx;
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,271 @@
+package blockchain.transaction;
+
+import blockchain.block.Block;
+import blockchain.utxo.OutPoint;
+import blockchain.utxo.UTXO;
+import blockchain.utxo.UTXOSet;
+import blockchain.validation.TransactionValidator;
+import blockchain.validation.ValidationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 메모리 풀 수수료율 인덱스 / 바이트 상한 / 체인 변경 반영 테스트
+ */
+public class MempoolTest {
+
+    private static final byte[] FUNDING_TXID = new byte[32];
+
+    static {
+        FUNDING_TXID[0] = 9;
+    }
+
+    @Test
+    public void topTransactionsFollowFeeRateIndex() throws Exception {
+        Mempool mempool = new Mempool(validator(4));
+        List<Transaction> txs = new ArrayList<>();
+        long[] fees = {300, 100, 400, 200};
+        for (int i = 0; i < fees.length; i++) {
+            Transaction tx = spend(i, fees[i]);
+            txs.add(tx);
+            assertTrue(mempool.addTransaction(tx));
+        }
+
+        List<Transaction> top = mempool.getTopTransactionsByFee(3);
+        assertEquals(3, top.size());
+        assertSame(txs.get(2), top.get(0));
+        assertSame(txs.get(0), top.get(1));
+        assertSame(txs.get(3), top.get(2));
+
+        long bytes = mempool.getTotalBytes();
+        mempool.removeTransaction(hex(txs.get(2).getTxid()));
+        assertSame(txs.get(0), mempool.getTopTransactionsByFee(1).getFirst());
+        assertEquals(bytes - txs.get(2).getSize(), mempool.getTotalBytes());
+    }
+
+    @Test
+    public void byteLimitEvictsLowestFeeRateOnlyForBetterTransactions() throws Exception {
+        Transaction low = spend(0, 100);
+        Transaction mid = spend(1, 200);
+        int size = low.getSize();
+        Mempool mempool = new Mempool(validator(4), 2L * size);
+
+        assertTrue(mempool.addTransaction(low));
+        assertTrue(mempool.addTransaction(mid));
+
+        // 가장 낮은 수수료율보다 낮으면 거부 (아무것도 제거하지 않음)
+        assertFalse(mempool.addTransaction(spend(2, 50)));
+        assertEquals(2, mempool.size());
+
+        // 더 높으면 최저 수수료율 트랜잭션을 밀어냄
+        Transaction high = spend(3, 500);
+        assertTrue(mempool.addTransaction(high));
+        assertEquals(2, mempool.size());
+        assertFalse(mempool.containsTransaction(hex(low.getTxid())));
+        assertTrue(mempool.getTotalBytes() <= 2L * size);
+    }
+
+    @Test
+    public void childOfUnconfirmedParentPullsParentIntoTemplate() throws Exception {
+        Mempool mempool = new Mempool(validator(4));
+        Transaction parent = spend(0, 10);
+        Transaction other = spend(1, 300);
+        Transaction child = spend(parent.getTxid(), 0, 10_000L - 10, 1000);
+
+        assertTrue(mempool.addTransaction(parent));
+        assertTrue(mempool.addTransaction(other));
+        // 부모 출력은 UTXOSet에 없고 메모리 풀 오버레이에만 있음
+        assertTrue(mempool.addTransaction(child));
+
+        MempoolEntry childEntry = mempool.getEntry(hex(child.getTxid()));
+        assertEquals(2, childEntry.getAncestorCount());
+        assertEquals(1010, childEntry.getAncestorFee());
+
+        // 자식의 높은 수수료가 부모를 먼저 끌어올림 (부모 -> 자식 순)
+        assertEquals(List.of(parent, child, other), mempool.selectPackages(10));
+        assertEquals(List.of(parent, child), mempool.selectPackages(2));
+
+        // 부모가 블록에 포함되면 자식의 조상 합계에서 빠짐
+        mempool.removeTransaction(hex(parent.getTxid()));
+        assertEquals(1, childEntry.getAncestorCount());
+        assertEquals(1000, childEntry.getAncestorFee());
+        assertEquals(List.of(child, other), mempool.selectPackages(10));
+
+        // 밀어내기 / 무효화는 자손까지 제거
+        Transaction grandchild = spend(child.getTxid(), 0, 10_000L - 1010, 50);
+        assertTrue(mempool.addTransaction(grandchild));
+        assertEquals(2, mempool.removeWithDescendants(hex(child.getTxid())));
+        assertEquals(1, mempool.size());
+    }
+
+    @Test
+    public void conflictingSpendIsRejectedUnlessReplaceByFeeEnabled() throws Exception {
+        Mempool mempool = new Mempool(validator(4));
+        Transaction original = spend(0, 100);
+        Transaction child = spend(original.getTxid(), 0, 10_000L - 100, 100);
+        assertTrue(mempool.addTransaction(original));
+        assertTrue(mempool.addTransaction(child));
+        assertSame(mempool.getEntry(hex(original.getTxid())),
+                mempool.getSpender(new OutPoint(FUNDING_TXID, 0)));
+
+        // 기본 정책: 먼저 들어온 트랜잭션 우선
+        Transaction replacement = spend(0, 1000);
+        assertFalse(mempool.addTransaction(replacement));
+        assertEquals(2, mempool.size());
+
+        mempool.setReplaceByFee(true);
+        // 충돌 + 자손 수수료 합(200)에 자신의 전파 비용까지 내지 못하면 거부
+        assertFalse(mempool.addTransaction(spend(0, 201)));
+
+        // 대체: 충돌 트랜잭션과 자손 제거, 색인은 새 트랜잭션을 가리킴
+        assertTrue(mempool.addTransaction(replacement));
+        assertEquals(1, mempool.size());
+        assertFalse(mempool.containsTransaction(hex(original.getTxid())));
+        assertFalse(mempool.containsTransaction(hex(child.getTxid())));
+        assertSame(mempool.getEntry(hex(replacement.getTxid())),
+                mempool.getSpender(new OutPoint(FUNDING_TXID, 0)));
+        assertEquals(replacement.getSize(), mempool.getTotalBytes());
+    }
+
+    @Test
+    public void connectedBlockConfirmsAndEvictsConflictsDisconnectedBlockReturns() throws Exception {
+        Mempool mempool = new Mempool(validator(4));
+        Transaction confirmed = spend(0, 100);
+        Transaction child = spend(confirmed.getTxid(), 0, 10_000L - 100, 100);
+        Transaction loser = spend(1, 100);
+        Transaction loserChild = spend(loser.getTxid(), 0, 10_000L - 100, 100);
+        for (Transaction tx : List.of(confirmed, child, loser, loserChild)) {
+            assertTrue(mempool.addTransaction(tx));
+        }
+
+        // 블록이 confirmed를 포함하고 loser와 같은 출력을 씀
+        Transaction winner = spend(1, 300);
+        Block block = new Block(new byte[32], List.of(confirmed, winner), new byte[4]);
+        mempool.onBlockConnected(block, 1);
+
+        assertEquals(1, mempool.size());
+        MempoolEntry childEntry = mempool.getEntry(hex(child.getTxid()));
+        assertNotNull(childEntry);
+        assertEquals(1, childEntry.getAncestorCount());
+        assertNull(mempool.getSpender(new OutPoint(FUNDING_TXID, 1)));
+
+        // 블록이 빠지면 (UTXO는 분기점 기준) 트랜잭션이 돌아오고 자식은 다시 부모에 연결됨
+        mempool.onBlockDisconnected(block, 1);
+        assertTrue(mempool.containsTransaction(hex(confirmed.getTxid())));
+        assertTrue(mempool.containsTransaction(hex(winner.getTxid())));
+        assertEquals(2, mempool.getEntry(hex(child.getTxid())).getAncestorCount());
+        assertEquals(List.of(winner, confirmed, child), mempool.selectPackages(3));
+    }
+
+    @Test
+    public void declaredFeeIsIgnoredInFavourOfComputedFee() throws Exception {
+        Mempool mempool = new Mempool(validator(2));
+        Transaction honest = spend(0, 500);
+        Transaction inflated = spend(1, 100);
+        inflated.setFee(1_000_000L);
+
+        assertTrue(mempool.addTransaction(honest));
+        assertTrue(mempool.addTransaction(inflated));
+
+        // 실제 수수료(입력 - 출력) 기준으로 기록 / 선택
+        assertEquals(100, mempool.getEntry(hex(inflated.getTxid())).getFee());
+        assertEquals(List.of(honest, inflated), mempool.selectPackages(2));
+        assertEquals(600, mempool.selectPackageEntries(2).stream().mapToLong(MempoolEntry::getFee).sum());
+    }
+
+    @Test
+    public void declaredSizeIsIgnoredInFavourOfMeasuredSize() throws Exception {
+        Transaction honest = spend(0, 200);
+        int size = honest.getSize();
+        Mempool mempool = new Mempool(validator(3), 2L * size);
+        assertTrue(mempool.addTransaction(honest));
+
+        // size=1로 선언 - 선언값을 믿으면 수수료율 1위가 됨
+        Transaction low = forgeSize(spend(1, 100), null);
+        assertEquals(1, low.getSize());
+        assertTrue(mempool.addTransaction(low));
+        assertEquals(size, mempool.getEntry(hex(low.getTxid())).getSize());
+        assertArrayEquals(honest.getTxid(), mempool.getTopTransactionsByFee(1).getFirst().getTxid());
+        assertEquals(2L * size, mempool.getTotalBytes());
+
+        // 큰 계약 문자열을 붙이고 size=1로 선언 - 실제 크기로는 상한을 넘으므로 거부
+        Transaction large = forgeSize(spend(2, 150), "x".repeat(10 * size));
+        assertFalse(mempool.addTransaction(large));
+        assertEquals(2, mempool.size());
+        assertEquals(2L * size, mempool.getTotalBytes());
+    }
+
+    @Test
+    public void parentRemovedDuringValidationRejectsChild() throws Exception {
+        UTXOSet utxoSet = new UTXOSet();
+        utxoSet.addUTXO(new UTXO(FUNDING_TXID, 0, new TransactionOutput("alice".getBytes(), new byte[0], 10_000L), 1));
+        Transaction parent = spend(0, 100);
+        Transaction child = spend(parent.getTxid(), 0, 10_000L - 100, 100);
+
+        // 락 밖 검증이 끝난 직후 다른 스레드가 부모를 제거한 상황
+        Mempool[] pool = new Mempool[1];
+        TransactionValidator validator = new TransactionValidator(utxoSet) {
+            @Override
+            public ValidationResult validateTransaction(Transaction tx, Function<OutPoint, UTXO> unconfirmed) {
+                ValidationResult result = super.validateTransaction(tx, unconfirmed);
+                if (tx == child) {
+                    pool[0].removeTransaction(hex(parent.getTxid()));
+                }
+                return result;
+            }
+        };
+        pool[0] = new Mempool(validator);
+
+        assertTrue(pool[0].addTransaction(parent));
+        assertFalse(pool[0].addTransaction(child));
+        assertEquals(0, pool[0].size());
+    }
+
+    private TransactionValidator validator(int outputs) {
+        UTXOSet utxoSet = new UTXOSet();
+        // 빈 잠금 스크립트 -> 서명 검증 단계는 건너뜀
+        for (int i = 0; i < outputs; i++) {
+            utxoSet.addUTXO(new UTXO(FUNDING_TXID, i, new TransactionOutput("alice".getBytes(), new byte[0], 10_000L), 1));
+        }
+        return new TransactionValidator(utxoSet);
+    }
+
+    private Transaction spend(int outputIdx, long fee) throws Exception {
+        return spend(FUNDING_TXID, outputIdx, 10_000L, fee);
+    }
+
+    private Transaction spend(byte[] prevTxid, int outputIdx, long inputValue, long fee) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "alice", inputValue, new byte[20], sigScript, outputIdx, prevTxid));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("bob".getBytes(), new byte[0], inputValue - fee));
+        Transaction tx = new Transaction(inputs, outputs);
+        tx.setFee(fee);
+        return tx;
+    }
+
+    /**
+     * 보낸 쪽이 size 필드를 1로 적은 트랜잭션 (역직렬화된 것과 같은 상태)
+     */
+    private Transaction forgeSize(Transaction tx, String contract) {
+        return new Transaction(tx.getTxid(), 1, tx.getFee(), tx.getTime(), null, false,
+                tx.getInputs(), tx.getOutputs(), contract, null);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package blockchain.utxo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OutPoint 키 오픈 어드레싱 맵 테스트
+ */
+public class OutPointMapTest {
+
+    @Test
+    public void outPointRoundTrip() {
+        byte[] txid = new byte[32];
+        for (int i = 0; i < txid.length; i++) {
+            txid[i] = (byte) (i * 7);
+        }
+        OutPoint outPoint = new OutPoint(txid, 513);
+
+        assertArrayEquals(txid, outPoint.getTxid());
+        assertEquals(513, outPoint.getOutputIndex());
+        assertEquals(new OutPoint(txid.clone(), 513), outPoint);
+        assertNotEquals(new OutPoint(txid, 512), outPoint);
+
+        byte[] bytes = outPoint.toBytes();
+        assertEquals(OutPoint.SERIALIZED_SIZE, bytes.length);
+        assertEquals(0x02, bytes[34]);
+        assertEquals(0x01, bytes[35]);
+    }
+
+    @Test
+    public void behavesLikeHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        OutPointMap<Integer> map = new OutPointMap<>(16);
+        Map<OutPoint, Integer> reference = new HashMap<>();
+
+        // 작은 txid 공간으로 충돌/삭제 후 재탐사를 많이 발생시킴
+        byte[][] txids = new byte[64][32];
+        for (byte[] txid : txids) {
+            random.nextBytes(txid);
+        }
+
+        for (int i = 0; i < 20000; i++) {
+            byte[] txid = txids[random.nextInt(txids.length)];
+            int index = random.nextInt(8);
+            OutPoint key = new OutPoint(txid, index);
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(txid, index));
+            } else {
+                assertEquals(reference.put(key, i), map.put(key, i));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+
+        for (Map.Entry<OutPoint, Integer> entry : reference.entrySet()) {
+            OutPoint key = entry.getKey();
+            assertEquals(entry.getValue(), map.get(key.getTxid(), key.getOutputIndex()));
+        }
+        assertEquals(reference.size(), map.values().size());
+    }
+
+    @Test
+    public void invalidTxidLengthIsNotFound() {
+        OutPointMap<String> map = new OutPointMap<>();
+        map.put(new OutPoint(new byte[32], 0), "utxo");
+
+        assertNull(map.get(new byte[20], 0));
+        assertNull(map.remove(null, 0));
+        assertEquals("utxo", map.get(new byte[32], 0));
+    }
+}
@@ -0,0 +1,110 @@
+package blockchain.utxo;
+
+import blockchain.block.Block;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UTXO 세트 주소 인덱스 / 변경분 뷰 테스트
+ */
+public class UTXOSetTest {
+
+    @Test
+    public void addressIndexFollowsSpends() throws Exception {
+        UTXOSet utxoSet = new UTXOSet();
+
+        byte[] fundingTxid = new byte[32];
+        fundingTxid[0] = 1;
+        utxoSet.addUTXO(new UTXO(fundingTxid, 0, new TransactionOutput("alice".getBytes(), new byte[20], 700L), 1));
+        utxoSet.addUTXO(new UTXO(fundingTxid, 1, new TransactionOutput("alice".getBytes(), new byte[20], 300L), 1));
+
+        assertEquals(1000L, utxoSet.getBalance("alice"));
+        assertEquals(2, utxoSet.getUTXOsByAddress("alice").size());
+
+        // alice의 700을 bob 600 + alice 100으로 사용
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "alice", 700L, new byte[20], sigScript, 0, fundingTxid));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("bob".getBytes(), new byte[20], 600L));
+        outputs.add(new TransactionOutput("alice".getBytes(), new byte[20], 100L));
+        Transaction spend = new Transaction(inputs, outputs);
+
+        List<Transaction> txs = new ArrayList<>();
+        txs.add(spend);
+        utxoSet.updateWithBlock(new Block(new byte[32], txs, new byte[]{1}), 2);
+
+        assertEquals(400L, utxoSet.getBalance("alice"));
+        assertEquals(600L, utxoSet.getBalance("bob"));
+        assertEquals(2, utxoSet.getUTXOsByAddress("alice").size());
+        assertEquals(0L, utxoSet.getBalance("carol"));
+        assertTrue(utxoSet.getUTXOsByAddress("carol").isEmpty());
+        assertNull(utxoSet.getUTXO(fundingTxid, 0));
+
+        List<UTXO> selected = utxoSet.selectUTXOs("alice", 250L);
+        assertEquals(1, selected.size());
+        assertEquals(300L, selected.getFirst().getValue());
+    }
+
+    @Test
+    public void viewDisconnectsBlockWithUndoDataAndAppliesOnlyTheDelta() throws Exception {
+        UTXOSet utxoSet = new UTXOSet();
+        byte[] fundingTxid = new byte[32];
+        fundingTxid[0] = 1;
+        utxoSet.addUTXO(new UTXO(fundingTxid, 0, new TransactionOutput("alice".getBytes(), new byte[20], 700L), 1));
+        utxoSet.addUTXO(new UTXO(fundingTxid, 1, new TransactionOutput("carol".getBytes(), new byte[20], 50L), 1));
+
+        // 같은 블록 안에서 parent의 출력을 child가 사용
+        Transaction parent = spend(fundingTxid, 0, 700L, "bob");
+        Transaction child = spend(parent.getTxid(), 0, 700L, "dave");
+        List<Transaction> txs = new ArrayList<>();
+        txs.add(parent);
+        txs.add(child);
+        Block block = new Block(new byte[32], txs, new byte[]{1});
+
+        UTXOView connect = new UTXOView(utxoSet);
+        List<UTXO> undo = connect.connectBlock(block, 2);
+        assertEquals(2, undo.size());
+        utxoSet.applyView(connect);
+        assertEquals(700L, utxoSet.getBalance("dave"));
+        assertEquals(0L, utxoSet.getBalance("bob"));
+
+        // 되돌리면 블록 전 상태, 기반 세트는 적용 전까지 그대로
+        UTXOView disconnect = new UTXOView(utxoSet);
+        disconnect.disconnectBlock(block, undo);
+        assertNull(disconnect.getUTXO(child.getTxid(), 0));
+        assertNull(disconnect.getUTXO(parent.getTxid(), 0));
+        assertEquals(700L, disconnect.getUTXO(fundingTxid, 0).getValue());
+        assertEquals(700L, utxoSet.getBalance("dave"));
+
+        utxoSet.applyView(disconnect);
+        assertEquals(700L, utxoSet.getBalance("alice"));
+        assertEquals(50L, utxoSet.getBalance("carol"));
+        assertEquals(0L, utxoSet.getBalance("dave"));
+        assertEquals(2, utxoSet.size());
+
+        // 되돌리기 데이터가 블록 입력과 맞지 않으면 거부
+        assertThrows(IllegalStateException.class,
+                () -> new UTXOView(utxoSet).disconnectBlock(block, undo.subList(0, 1)));
+    }
+
+    private Transaction spend(byte[] prevTxid, int outputIdx, long value, String to) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "alice", value, new byte[20], sigScript, outputIdx, prevTxid));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput(to.getBytes(), new byte[20], value));
+        return new Transaction(inputs, outputs);
+    }
+}
@@ -0,0 +1,106 @@
+package blockchain.validation;
+
+import blockchain.node.sign.Signature;
+import blockchain.transaction.Transaction;
+import blockchain.transaction.TransactionInput;
+import blockchain.transaction.TransactionOutput;
+import blockchain.utxo.UTXO;
+import blockchain.utxo.UTXOSet;
+import org.junit.jupiter.api.Test;
+import util.KeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 배치(블록 단위) 트랜잭션 검증 테스트
+ */
+public class TransactionValidatorTest {
+
+    private static final byte[] FUNDING_TXID = new byte[32];
+
+    static {
+        FUNDING_TXID[0] = 7;
+    }
+
+    @Test
+    public void batchAllowsSpendingOutputCreatedEarlierInBlock() throws Exception {
+        TransactionValidator validator = new TransactionValidator(fundedUtxoSet(), 2);
+
+        Transaction parent = spend(FUNDING_TXID, 0, 1000L, 900L);
+        Transaction child = spend(parent.getTxid(), 0, 900L, 800L);
+
+        List<ValidationResult> results = validator.validateTransactions(List.of(parent, child), true);
+
+        assertTrue(results.get(0).isValid());
+        assertTrue(results.get(1).isValid(), results.get(1).getMessage());
+        validator.shutdown();
+    }
+
+    @Test
+    public void batchRejectsDoubleSpendAcrossTransactions() throws Exception {
+        TransactionValidator validator = new TransactionValidator(fundedUtxoSet(), 2);
+
+        Transaction first = spend(FUNDING_TXID, 0, 1000L, 900L);
+        Transaction second = spend(FUNDING_TXID, 0, 1000L, 800L);
+        Transaction unrelated = spend(FUNDING_TXID, 1, 500L, 400L);
+
+        List<ValidationResult> results = validator.validateTransactions(List.of(first, second, unrelated), false);
+
+        assertTrue(results.get(0).isValid());
+        assertFalse(results.get(1).isValid());
+        assertTrue(results.get(1).getMessage().startsWith("UTXO not found"));
+        assertTrue(results.get(2).isValid());
+
+        // failFast면 첫 실패 이후는 검증되지 않은 것으로 표시
+        List<ValidationResult> failFast = validator.validateTransactions(List.of(first, second, unrelated), true);
+        assertFalse(failFast.get(2).isValid());
+        validator.shutdown();
+    }
+
+    @Test
+    public void signatureVerifiedInMempoolIsCachedForBlock() throws Exception {
+        byte[] privateKey = KeyGenerator.generateBySHA256();
+        byte[] publicKey = KeyGenerator.getCompressedPublicKey(privateKey);
+
+        // 잠금 스크립트를 공개키 자체로 두어 OP_CHECKSIG까지 실제로 실행
+        UTXOSet utxoSet = new UTXOSet();
+        utxoSet.addUTXO(new UTXO(FUNDING_TXID, 0, new TransactionOutput("alice".getBytes(), publicKey, 1000L), 1));
+        TransactionValidator validator = new TransactionValidator(utxoSet, 2);
+
+        Transaction tx = spend(FUNDING_TXID, 0, 1000L, 900L);
+        List<byte[]> sigScript = tx.getInputs().getFirst().getSigScript();
+        sigScript.set(0, Signature.sign(privateKey, tx.getTxid()));
+        sigScript.set(1, publicKey);
+
+        assertTrue(validator.validateTransaction(tx).isValid());
+        assertEquals(1, validator.getSignatureCache().size());
+
+        long hitsBefore = validator.getSignatureCache().getHits();
+        assertTrue(validator.validateTransactions(List.of(tx), true).getFirst().isValid());
+        assertEquals(hitsBefore + 1, validator.getSignatureCache().getHits());
+        validator.shutdown();
+    }
+
+    private UTXOSet fundedUtxoSet() {
+        UTXOSet utxoSet = new UTXOSet();
+        // 빈 잠금 스크립트 -> 서명 검증 단계는 건너뜀 (구조/UTXO/잔액 검사만 대상)
+        utxoSet.addUTXO(new UTXO(FUNDING_TXID, 0, new TransactionOutput("alice".getBytes(), new byte[0], 1000L), 1));
+        utxoSet.addUTXO(new UTXO(FUNDING_TXID, 1, new TransactionOutput("alice".getBytes(), new byte[0], 500L), 1));
+        return utxoSet;
+    }
+
+    private Transaction spend(byte[] prevTxid, int outputIdx, long inputValue, long outputValue) throws Exception {
+        List<byte[]> sigScript = new ArrayList<>();
+        sigScript.add(new byte[71]);
+        sigScript.add(new byte[33]);
+
+        List<TransactionInput> inputs = new ArrayList<>();
+        inputs.add(new TransactionInput(false, "alice", inputValue, new byte[20], sigScript, outputIdx, prevTxid));
+        List<TransactionOutput> outputs = new ArrayList<>();
+        outputs.add(new TransactionOutput("bob".getBytes(), new byte[0], outputValue));
+        return new Transaction(inputs, outputs);
+    }
+}